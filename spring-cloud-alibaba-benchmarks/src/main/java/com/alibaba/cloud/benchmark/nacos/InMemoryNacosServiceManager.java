@@ -14,27 +14,20 @@
  * limitations under the License.
  */
 
-package com.alibaba.cloud.nacos.annotation;
+package com.alibaba.cloud.benchmark.nacos;
 
-import java.lang.reflect.Type;
+import com.alibaba.cloud.nacos.NacosServiceManager;
 
-import org.springframework.util.StringUtils;
-
-final class ObjectUtils {
-
-	private ObjectUtils() {
-	}
+/**
+ * {@link NacosServiceManager} handing out an {@link InMemoryNamingService}.
+ */
+public class InMemoryNacosServiceManager extends NacosServiceManager {
 
-	public static Object convertToObject(String content, Type clazz) {
-		if (!StringUtils.hasText(content)) {
-			return null;
-		}
+	private final InMemoryNamingService namingService = new InMemoryNamingService();
 
-		return convertFormJsonContent(content, clazz);
+	@Override
+	public InMemoryNamingService getNamingService() {
+		return namingService;
 	}
 
-	private static Object convertFormJsonContent(String content, Type clazz) {
-
-		return JsonUtils.toObj(content, clazz);
-	}
 }
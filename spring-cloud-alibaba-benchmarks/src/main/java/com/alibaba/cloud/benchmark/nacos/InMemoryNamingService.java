@@ -0,0 +1,444 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.benchmark.nacos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+import com.alibaba.nacos.api.common.Constants;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.alibaba.nacos.api.naming.pojo.ListView;
+import com.alibaba.nacos.api.naming.pojo.ServiceInfo;
+import com.alibaba.nacos.api.selector.AbstractSelector;
+
+/**
+ * {@link NamingService} keeping instances in memory, so that benchmarks run without a
+ * nacos server. Registrations are published to subscribers synchronously.
+ */
+public class InMemoryNamingService implements NamingService {
+
+	private final Map<String, List<Instance>> instances = new ConcurrentHashMap<>();
+
+	private final Map<String, List<EventListener>> listeners = new ConcurrentHashMap<>();
+
+	/**
+	 * Replace all instances of a service and notify its subscribers.
+	 * @param serviceName name of service
+	 * @param groupName group of service
+	 * @param serviceInstances new instances
+	 */
+	public void setInstances(String serviceName, String groupName,
+			List<Instance> serviceInstances) {
+		String key = key(serviceName, groupName);
+		instances.put(key, new CopyOnWriteArrayList<>(serviceInstances));
+		notifyListeners(serviceName, groupName);
+	}
+
+	@Override
+	public void registerInstance(String serviceName, String ip, int port) {
+		registerInstance(serviceName, Constants.DEFAULT_GROUP, ip, port);
+	}
+
+	@Override
+	public void registerInstance(String serviceName, String groupName, String ip,
+			int port) {
+		registerInstance(serviceName, groupName, ip, port, Constants.DEFAULT_CLUSTER_NAME);
+	}
+
+	@Override
+	public void registerInstance(String serviceName, String ip, int port,
+			String clusterName) {
+		registerInstance(serviceName, Constants.DEFAULT_GROUP, ip, port, clusterName);
+	}
+
+	@Override
+	public void registerInstance(String serviceName, String groupName, String ip,
+			int port, String clusterName) {
+		Instance instance = new Instance();
+		instance.setIp(ip);
+		instance.setPort(port);
+		instance.setClusterName(clusterName);
+		registerInstance(serviceName, groupName, instance);
+	}
+
+	@Override
+	public void registerInstance(String serviceName, Instance instance) {
+		registerInstance(serviceName, Constants.DEFAULT_GROUP, instance);
+	}
+
+	@Override
+	public void registerInstance(String serviceName, String groupName,
+			Instance instance) {
+		instances.computeIfAbsent(key(serviceName, groupName),
+				k -> new CopyOnWriteArrayList<>()).add(instance);
+		notifyListeners(serviceName, groupName);
+	}
+
+	@Override
+	public void batchRegisterInstance(String serviceName, String groupName,
+			List<Instance> instances) {
+		this.instances.computeIfAbsent(key(serviceName, groupName),
+				k -> new CopyOnWriteArrayList<>()).addAll(instances);
+		notifyListeners(serviceName, groupName);
+	}
+
+	@Override
+	public void batchDeregisterInstance(String serviceName, String groupName,
+			List<Instance> instances) {
+		for (Instance instance : instances) {
+			remove(serviceName, groupName, instance.getIp(), instance.getPort(),
+					instance.getClusterName());
+		}
+		notifyListeners(serviceName, groupName);
+	}
+
+	@Override
+	public void deregisterInstance(String serviceName, String ip, int port) {
+		deregisterInstance(serviceName, Constants.DEFAULT_GROUP, ip, port);
+	}
+
+	@Override
+	public void deregisterInstance(String serviceName, String groupName, String ip,
+			int port) {
+		deregisterInstance(serviceName, groupName, ip, port,
+				Constants.DEFAULT_CLUSTER_NAME);
+	}
+
+	@Override
+	public void deregisterInstance(String serviceName, String ip, int port,
+			String clusterName) {
+		deregisterInstance(serviceName, Constants.DEFAULT_GROUP, ip, port, clusterName);
+	}
+
+	@Override
+	public void deregisterInstance(String serviceName, String groupName, String ip,
+			int port, String clusterName) {
+		remove(serviceName, groupName, ip, port, clusterName);
+		notifyListeners(serviceName, groupName);
+	}
+
+	@Override
+	public void deregisterInstance(String serviceName, Instance instance) {
+		deregisterInstance(serviceName, Constants.DEFAULT_GROUP, instance);
+	}
+
+	@Override
+	public void deregisterInstance(String serviceName, String groupName,
+			Instance instance) {
+		deregisterInstance(serviceName, groupName, instance.getIp(), instance.getPort(),
+				instance.getClusterName());
+	}
+
+	@Override
+	public List<Instance> getAllInstances(String serviceName) {
+		return getAllInstances(serviceName, Constants.DEFAULT_GROUP);
+	}
+
+	@Override
+	public List<Instance> getAllInstances(String serviceName, String groupName) {
+		return getAllInstances(serviceName, groupName, Collections.emptyList());
+	}
+
+	@Override
+	public List<Instance> getAllInstances(String serviceName, boolean subscribe) {
+		return getAllInstances(serviceName);
+	}
+
+	@Override
+	public List<Instance> getAllInstances(String serviceName, String groupName,
+			boolean subscribe) {
+		return getAllInstances(serviceName, groupName);
+	}
+
+	@Override
+	public List<Instance> getAllInstances(String serviceName, List<String> clusters) {
+		return getAllInstances(serviceName, Constants.DEFAULT_GROUP, clusters);
+	}
+
+	@Override
+	public List<Instance> getAllInstances(String serviceName, String groupName,
+			List<String> clusters) {
+		List<Instance> result = new ArrayList<>();
+		for (Instance instance : instancesOf(serviceName, groupName)) {
+			if (inClusters(instance, clusters)) {
+				result.add(instance);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public List<Instance> getAllInstances(String serviceName, List<String> clusters,
+			boolean subscribe) {
+		return getAllInstances(serviceName, clusters);
+	}
+
+	@Override
+	public List<Instance> getAllInstances(String serviceName, String groupName,
+			List<String> clusters, boolean subscribe) {
+		return getAllInstances(serviceName, groupName, clusters);
+	}
+
+	@Override
+	public List<Instance> selectInstances(String serviceName, boolean healthy) {
+		return selectInstances(serviceName, Constants.DEFAULT_GROUP, healthy);
+	}
+
+	@Override
+	public List<Instance> selectInstances(String serviceName, String groupName,
+			boolean healthy) {
+		return selectInstances(serviceName, groupName, Collections.emptyList(), healthy);
+	}
+
+	@Override
+	public List<Instance> selectInstances(String serviceName, boolean healthy,
+			boolean subscribe) {
+		return selectInstances(serviceName, healthy);
+	}
+
+	@Override
+	public List<Instance> selectInstances(String serviceName, String groupName,
+			boolean healthy, boolean subscribe) {
+		return selectInstances(serviceName, groupName, healthy);
+	}
+
+	@Override
+	public List<Instance> selectInstances(String serviceName, List<String> clusters,
+			boolean healthy) {
+		return selectInstances(serviceName, Constants.DEFAULT_GROUP, clusters, healthy);
+	}
+
+	@Override
+	public List<Instance> selectInstances(String serviceName, String groupName,
+			List<String> clusters, boolean healthy) {
+		List<Instance> result = new ArrayList<>();
+		for (Instance instance : instancesOf(serviceName, groupName)) {
+			if (inClusters(instance, clusters) && instance.isHealthy() == healthy
+					&& instance.isEnabled() && instance.getWeight() > 0) {
+				result.add(instance);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public List<Instance> selectInstances(String serviceName, List<String> clusters,
+			boolean healthy, boolean subscribe) {
+		return selectInstances(serviceName, clusters, healthy);
+	}
+
+	@Override
+	public List<Instance> selectInstances(String serviceName, String groupName,
+			List<String> clusters, boolean healthy, boolean subscribe) {
+		return selectInstances(serviceName, groupName, clusters, healthy);
+	}
+
+	@Override
+	public Instance selectOneHealthyInstance(String serviceName) {
+		return selectOneHealthyInstance(serviceName, Constants.DEFAULT_GROUP);
+	}
+
+	@Override
+	public Instance selectOneHealthyInstance(String serviceName, String groupName) {
+		return selectOneHealthyInstance(serviceName, groupName, Collections.emptyList());
+	}
+
+	@Override
+	public Instance selectOneHealthyInstance(String serviceName, boolean subscribe) {
+		return selectOneHealthyInstance(serviceName);
+	}
+
+	@Override
+	public Instance selectOneHealthyInstance(String serviceName, String groupName,
+			boolean subscribe) {
+		return selectOneHealthyInstance(serviceName, groupName);
+	}
+
+	@Override
+	public Instance selectOneHealthyInstance(String serviceName, List<String> clusters) {
+		return selectOneHealthyInstance(serviceName, Constants.DEFAULT_GROUP, clusters);
+	}
+
+	@Override
+	public Instance selectOneHealthyInstance(String serviceName, String groupName,
+			List<String> clusters) {
+		List<Instance> healthy = selectInstances(serviceName, groupName, clusters, true);
+		return healthy.isEmpty() ? null : NacosBalancer.getHostByRandomWeight2(healthy);
+	}
+
+	@Override
+	public Instance selectOneHealthyInstance(String serviceName, List<String> clusters,
+			boolean subscribe) {
+		return selectOneHealthyInstance(serviceName, clusters);
+	}
+
+	@Override
+	public Instance selectOneHealthyInstance(String serviceName, String groupName,
+			List<String> clusters, boolean subscribe) {
+		return selectOneHealthyInstance(serviceName, groupName, clusters);
+	}
+
+	@Override
+	public void subscribe(String serviceName, EventListener listener) {
+		subscribe(serviceName, Constants.DEFAULT_GROUP, listener);
+	}
+
+	@Override
+	public void subscribe(String serviceName, String groupName,
+			EventListener listener) {
+		listeners.computeIfAbsent(key(serviceName, groupName),
+				k -> new CopyOnWriteArrayList<>()).add(listener);
+	}
+
+	@Override
+	public void subscribe(String serviceName, List<String> clusters,
+			EventListener listener) {
+		subscribe(serviceName, listener);
+	}
+
+	@Override
+	public void subscribe(String serviceName, String groupName, List<String> clusters,
+			EventListener listener) {
+		subscribe(serviceName, groupName, listener);
+	}
+
+	@Override
+	public void unsubscribe(String serviceName, EventListener listener) {
+		unsubscribe(serviceName, Constants.DEFAULT_GROUP, listener);
+	}
+
+	@Override
+	public void unsubscribe(String serviceName, String groupName,
+			EventListener listener) {
+		List<EventListener> serviceListeners = listeners
+				.get(key(serviceName, groupName));
+		if (serviceListeners != null) {
+			serviceListeners.remove(listener);
+		}
+	}
+
+	@Override
+	public void unsubscribe(String serviceName, List<String> clusters,
+			EventListener listener) {
+		unsubscribe(serviceName, listener);
+	}
+
+	@Override
+	public void unsubscribe(String serviceName, String groupName, List<String> clusters,
+			EventListener listener) {
+		unsubscribe(serviceName, groupName, listener);
+	}
+
+	@Override
+	public ListView<String> getServicesOfServer(int pageNo, int pageSize) {
+		return getServicesOfServer(pageNo, pageSize, Constants.DEFAULT_GROUP);
+	}
+
+	@Override
+	public ListView<String> getServicesOfServer(int pageNo, int pageSize,
+			String groupName) {
+		String suffix = Constants.SERVICE_INFO_SPLITER + groupName;
+		List<String> names = new ArrayList<>();
+		for (String key : instances.keySet()) {
+			if (key.endsWith(suffix)) {
+				names.add(key.substring(0, key.length() - suffix.length()));
+			}
+		}
+		Collections.sort(names);
+		int from = Math.min(names.size(), Math.max(0, (pageNo - 1) * pageSize));
+		int to = (int) Math.min(names.size(), (long) from + pageSize);
+		ListView<String> view = new ListView<>();
+		view.setCount(names.size());
+		view.setData(new ArrayList<>(names.subList(from, to)));
+		return view;
+	}
+
+	@Override
+	public ListView<String> getServicesOfServer(int pageNo, int pageSize,
+			AbstractSelector selector) {
+		return getServicesOfServer(pageNo, pageSize);
+	}
+
+	@Override
+	public ListView<String> getServicesOfServer(int pageNo, int pageSize,
+			String groupName, AbstractSelector selector) {
+		return getServicesOfServer(pageNo, pageSize, groupName);
+	}
+
+	@Override
+	public List<ServiceInfo> getSubscribeServices() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public String getServerStatus() {
+		return "UP";
+	}
+
+	@Override
+	public void shutDown() {
+		instances.clear();
+		listeners.clear();
+	}
+
+	private List<Instance> instancesOf(String serviceName, String groupName) {
+		return instances.getOrDefault(key(serviceName, groupName),
+				Collections.emptyList());
+	}
+
+	private void remove(String serviceName, String groupName, String ip, int port,
+			String clusterName) {
+		List<Instance> serviceInstances = instances.get(key(serviceName, groupName));
+		if (serviceInstances != null) {
+			serviceInstances.removeIf(instance -> instance.getIp().equals(ip)
+					&& instance.getPort() == port
+					&& instance.getClusterName().equals(clusterName));
+		}
+	}
+
+	private void notifyListeners(String serviceName, String groupName) {
+		List<EventListener> serviceListeners = listeners
+				.get(key(serviceName, groupName));
+		if (serviceListeners == null || serviceListeners.isEmpty()) {
+			return;
+		}
+		NamingEvent event = new NamingEvent(serviceName, groupName,
+				Constants.DEFAULT_CLUSTER_NAME,
+				new ArrayList<>(instancesOf(serviceName, groupName)));
+		for (EventListener listener : serviceListeners) {
+			listener.onEvent(event);
+		}
+	}
+
+	private static boolean inClusters(Instance instance, List<String> clusters) {
+		return clusters == null || clusters.isEmpty()
+				|| clusters.contains(instance.getClusterName());
+	}
+
+	private static String key(String serviceName, String groupName) {
+		return serviceName + Constants.SERVICE_INFO_SPLITER + groupName;
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.benchmark.nacos;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+/**
+ * Synthetic, reproducible instance lists.
+ */
+public final class Instances {
+
+	/**
+	 * Name of the benchmarked service.
+	 */
+	public static final String SERVICE_ID = "benchmark-service";
+
+	/**
+	 * Number of clusters instances are spread over.
+	 */
+	public static final int CLUSTERS = 3;
+
+	private Instances() {
+	}
+
+	/**
+	 * Create instances.
+	 * @param size number of instances
+	 * @param ipMix {@code ipv4}: IPv4 only, {@code dual}: IPv4 hosts of which half also
+	 * have an IPv6 address in their metadata, {@code ipv6}: IPv6 hosts only
+	 * @return instance list
+	 */
+	public static List<Instance> create(int size, String ipMix) {
+		Random random = new Random(size);
+		List<Instance> instances = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Instance instance = new Instance();
+			instance.setInstanceId("instance-" + i);
+			instance.setServiceName(SERVICE_ID);
+			instance.setClusterName("cluster-" + (i % CLUSTERS));
+			instance.setPort(8080);
+			instance.setWeight(1 + random.nextInt(10));
+			instance.setHealthy(true);
+			instance.setEnabled(true);
+			Map<String, String> metadata = new HashMap<>();
+			metadata.put("version", "1.0." + (i % 5));
+			metadata.put("zone", "zone-" + (i % CLUSTERS));
+			switch (ipMix) {
+			case "ipv6":
+				instance.setIp(ipv6(i));
+				break;
+			case "dual":
+				instance.setIp(ipv4(i));
+				if (i % 2 == 0) {
+					metadata.put("IPv6", ipv6(i));
+				}
+				break;
+			default:
+				instance.setIp(ipv4(i));
+			}
+			instance.setMetadata(metadata);
+			instances.add(instance);
+		}
+		return instances;
+	}
+
+	private static String ipv4(int i) {
+		return "10." + ((i >> 16) & 0xFF) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+	}
+
+	private static String ipv6(int i) {
+		return "[2001:db8::" + Integer.toHexString(i + 1) + "]";
+	}
+
+}
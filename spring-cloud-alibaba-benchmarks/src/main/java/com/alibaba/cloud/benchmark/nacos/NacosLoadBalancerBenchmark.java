@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.benchmark.nacos;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.loadbalancer.DefaultLoadBalancerAlgorithm;
+import com.alibaba.cloud.nacos.loadbalancer.LoadBalancerAlgorithm;
+import com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancer;
+import com.alibaba.cloud.nacos.loadbalancer.NacosServiceInstanceListSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+/**
+ * End to end {@link NacosLoadBalancer#choose(Request)} against a push based instance
+ * list supplier backed by an in-memory naming service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NacosLoadBalancerBenchmark {
+
+	@Param({ "10", "100", "1000", "10000" })
+	private int size;
+
+	@Param({ "ipv4", "dual", "ipv6" })
+	private String ipMix;
+
+	private NacosServiceInstanceListSupplier supplier;
+
+	private NacosLoadBalancer loadBalancer;
+
+	private final Request<?> request = new DefaultRequest<>();
+
+	@Setup
+	public void setup() {
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		properties.setClusterName("cluster-0");
+		InMemoryNacosServiceManager serviceManager = new InMemoryNacosServiceManager();
+		serviceManager.getNamingService().setInstances(Instances.SERVICE_ID,
+				properties.getGroup(), Instances.create(size, ipMix));
+		supplier = new NacosServiceInstanceListSupplier(Instances.SERVICE_ID,
+				serviceManager, properties);
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(
+				Collections.singletonMap("supplier", supplier));
+		// the IPv6 address of the local machine, normally detected at startup
+		NacosLoadBalancer.ipv6 = "ipv4".equals(ipMix) ? null : "2001:db8::ffff";
+		loadBalancer = new NacosLoadBalancer(
+				beanFactory.getBeanProvider(ServiceInstanceListSupplier.class),
+				Instances.SERVICE_ID, properties, null, Collections.emptyList(),
+				Collections.singletonMap(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID,
+						new DefaultLoadBalancerAlgorithm()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		supplier.destroy();
+	}
+
+	@Benchmark
+	public Response<ServiceInstance> choose() {
+		return loadBalancer.choose(request).block();
+	}
+
+}
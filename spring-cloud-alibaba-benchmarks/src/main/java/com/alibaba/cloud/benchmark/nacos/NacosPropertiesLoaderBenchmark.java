@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.benchmark.nacos;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.parser.NacosByteArrayResource;
+import com.alibaba.cloud.nacos.parser.NacosPropertiesPropertySourceLoader;
+import com.alibaba.cloud.nacos.utils.NacosConfigUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * Loading of {@code .properties} nacos configurations, through spring's loader after
+ * escaping non-Latin characters and through the UTF-8 loader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NacosPropertiesLoaderBenchmark {
+
+	private static final String NAME = "benchmark.properties";
+
+	@Param({ "100", "1000", "10000" })
+	private int size;
+
+	/**
+	 * {@code ascii}: Latin values only, {@code cjk}: values of Chinese text.
+	 */
+	@Param({ "ascii", "cjk" })
+	private String text;
+
+	private String content;
+
+	private final PropertiesPropertySourceLoader springLoader = new PropertiesPropertySourceLoader();
+
+	private final NacosPropertiesPropertySourceLoader nacosLoader = new NacosPropertiesPropertySourceLoader();
+
+	@Setup
+	public void setup() {
+		Random random = new Random(size);
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			if (i % 10 == 0) {
+				builder.append("# section ").append(i / 10).append('\n');
+			}
+			builder.append("app.section").append(i / 10).append(".key").append(i)
+					.append('=');
+			for (int j = 0; j < 40; j++) {
+				builder.append("cjk".equals(text) ? (char) (0x4E00 + random.nextInt(2000))
+						: (char) ('a' + random.nextInt(26)));
+			}
+			builder.append('\n');
+		}
+		content = builder.toString();
+	}
+
+	@Benchmark
+	public List<PropertySource<?>> escapeAndLoadIso88591() throws IOException {
+		NacosByteArrayResource resource = new NacosByteArrayResource(
+				NacosConfigUtils.selectiveConvertUnicode(content).getBytes(), NAME);
+		resource.setFilename(NAME);
+		return springLoader.load(NAME, resource);
+	}
+
+	@Benchmark
+	public List<PropertySource<?>> loadUtf8() throws IOException {
+		NacosByteArrayResource resource = new NacosByteArrayResource(
+				content.getBytes(StandardCharsets.UTF_8), NAME);
+		resource.setFilename(NAME);
+		return nacosLoader.load(NAME, resource);
+	}
+
+}
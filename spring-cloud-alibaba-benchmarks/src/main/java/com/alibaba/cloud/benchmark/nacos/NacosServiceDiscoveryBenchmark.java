@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.benchmark.nacos;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Conversion of nacos instances into service instances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NacosServiceDiscoveryBenchmark {
+
+	@Param({ "10", "100", "1000", "10000" })
+	private int size;
+
+	private List<Instance> instances;
+
+	private NacosServiceDiscovery serviceDiscovery;
+
+	@Setup
+	public void setup() {
+		instances = Instances.create(size, "ipv4");
+		NacosDiscoveryProperties properties = new NacosDiscoveryProperties();
+		InMemoryNacosServiceManager serviceManager = new InMemoryNacosServiceManager();
+		serviceManager.getNamingService().setInstances(Instances.SERVICE_ID,
+				properties.getGroup(), instances);
+		serviceDiscovery = new NacosServiceDiscovery(properties, serviceManager);
+	}
+
+	@Benchmark
+	public List<ServiceInstance> hostToServiceInstanceList() {
+		return NacosServiceDiscovery.hostToServiceInstanceList(instances,
+				Instances.SERVICE_ID);
+	}
+
+	/**
+	 * Conversion followed by the metadata lookups a weighted balancer performs.
+	 */
+	@Benchmark
+	public void hostToServiceInstanceListAndReadWeight(Blackhole blackhole) {
+		for (ServiceInstance instance : NacosServiceDiscovery
+				.hostToServiceInstanceList(instances, Instances.SERVICE_ID)) {
+			blackhole.consume(instance.getMetadata().get("nacos.weight"));
+		}
+	}
+
+	@Benchmark
+	public List<ServiceInstance> getInstances() throws NacosException {
+		return serviceDiscovery.getInstances(Instances.SERVICE_ID);
+	}
+
+}
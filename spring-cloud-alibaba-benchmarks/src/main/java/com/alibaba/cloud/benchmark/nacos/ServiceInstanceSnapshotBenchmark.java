@@ -0,0 +1,96 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.benchmark.nacos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
+import com.alibaba.cloud.nacos.loadbalancer.ServiceInstanceSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Cluster and IP family partitioning of {@code NacosLoadBalancer}. {@code partition}
+ * is the cost every request paid before the partitioning was cached, {@code reuse} and
+ * {@code reuseEqualList} are the cost of a request against a cached snapshot when the
+ * supplier returns the same or an equal list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceInstanceSnapshotBenchmark {
+
+	private static final String CLUSTER = "cluster-0";
+
+	@Param({ "10", "100", "1000", "10000" })
+	private int size;
+
+	@Param({ "ipv4", "dual", "ipv6" })
+	private String ipMix;
+
+	@Param({ "false", "true" })
+	private boolean ipv6Preferred;
+
+	private List<ServiceInstance> serviceInstances;
+
+	private List<ServiceInstance> equalServiceInstances;
+
+	private ServiceInstanceSnapshot snapshot;
+
+	@Setup
+	public void setup() {
+		serviceInstances = NacosServiceDiscovery.hostToServiceInstanceList(
+				Instances.create(size, ipMix), Instances.SERVICE_ID);
+		equalServiceInstances = new ArrayList<>(serviceInstances);
+		snapshot = ServiceInstanceSnapshot.of(serviceInstances, CLUSTER, ipv6Preferred);
+	}
+
+	@Benchmark
+	public List<ServiceInstance> partition() {
+		return ServiceInstanceSnapshot.of(serviceInstances, CLUSTER, ipv6Preferred)
+				.getCandidates();
+	}
+
+	@Benchmark
+	public List<ServiceInstance> reuse() {
+		return snapshot.isValidFor(serviceInstances, CLUSTER, ipv6Preferred)
+				? snapshot.getCandidates() : null;
+	}
+
+	@Benchmark
+	public List<ServiceInstance> reuseEqualList() {
+		return snapshot.isValidFor(equalServiceInstances, CLUSTER, ipv6Preferred)
+				? snapshot.getCandidates() : null;
+	}
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.benchmark.rocketmq;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.stream.binder.rocketmq.support.RocketMQMessageConverterSupport;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Conversion of messages between RocketMQ and Spring, by the current converter and by
+ * the converter before the fast paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RocketMQMessageConverterBenchmark {
+
+	private static final String TOPIC = "benchmark-topic";
+
+	/**
+	 * {@code bytes}: a {@code byte[]} payload with a json content type, as sent by
+	 * Spring Cloud Stream bindings, {@code text}: a {@code String} payload without
+	 * content type, {@code pojo}: an object serialized to json.
+	 */
+	@Param({ "bytes", "text", "pojo" })
+	private String payload;
+
+	@Param({ "256", "4096" })
+	private int size;
+
+	private Message<?> outbound;
+
+	private MessageExt inbound;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(size);
+		StringBuilder body = new StringBuilder(size);
+		for (int i = 0; i < size; i++) {
+			body.append((char) ('a' + random.nextInt(26)));
+		}
+		MessageBuilder<?> builder;
+		if ("bytes".equals(payload)) {
+			builder = MessageBuilder
+					.withPayload(body.toString().getBytes(StandardCharsets.UTF_8))
+					.setHeader(MessageHeaders.CONTENT_TYPE, "application/json");
+		}
+		else if ("pojo".equals(payload)) {
+			builder = MessageBuilder.withPayload(new Order("order-1", 3, body.toString()));
+		}
+		else {
+			builder = MessageBuilder.withPayload(body.toString());
+		}
+		outbound = builder.setHeader("TAGS", "tag").setHeader("KEYS", "key-1")
+				.setHeader("tenant", "benchmark").setHeader("attempt", 1).build();
+
+		inbound = new MessageExt();
+		inbound.setTopic(TOPIC);
+		inbound.setTags("tag");
+		inbound.setKeys("key-1");
+		inbound.setMsgId("7F000001000118B4AAC2");
+		inbound.setBornTimestamp(System.currentTimeMillis());
+		inbound.setBornHost(new InetSocketAddress("127.0.0.1", 10911));
+		inbound.setBody(body.toString().getBytes(StandardCharsets.UTF_8));
+		inbound.putUserProperty("tenant", "benchmark");
+		inbound.putUserProperty("contentType", "application/json");
+		inbound.putUserProperty("attempt", "1");
+	}
+
+	@Benchmark
+	public org.apache.rocketmq.common.message.Message toRocketMQ() {
+		return RocketMQMessageConverterSupport.convertMessage2MQ(TOPIC, outbound);
+	}
+
+	@Benchmark
+	public org.apache.rocketmq.common.message.Message toRocketMQLegacy() {
+		return LegacyRocketMQMessageConverter.convertMessage2MQ(TOPIC, outbound);
+	}
+
+	@Benchmark
+	public Message<?> toSpring() {
+		return RocketMQMessageConverterSupport.convertMessage2Spring(inbound);
+	}
+
+	@Benchmark
+	public Message<?> toSpringLegacy() {
+		return LegacyRocketMQMessageConverter.convertMessage2Spring(inbound);
+	}
+
+	/**
+	 * Payload of the {@code pojo} case.
+	 */
+	public static class Order {
+
+		private final String id;
+
+		private final int quantity;
+
+		private final String note;
+
+		public Order(String id, int quantity, String note) {
+			this.id = id;
+			this.quantity = quantity;
+			this.note = note;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public int getQuantity() {
+			return quantity;
+		}
+
+		public String getNote() {
+			return note;
+		}
+
+	}
+
+}
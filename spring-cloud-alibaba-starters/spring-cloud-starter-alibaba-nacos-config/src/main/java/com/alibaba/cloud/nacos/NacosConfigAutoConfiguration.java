@@ -17,12 +17,18 @@
 package com.alibaba.cloud.nacos;
 
 import com.alibaba.cloud.nacos.annotation.NacosAnnotationProcessor;
+import com.alibaba.cloud.nacos.parser.NacosDataParserMetrics;
+import com.alibaba.cloud.nacos.refresh.NacosConfigDispatcher;
 import com.alibaba.cloud.nacos.refresh.NacosContextRefresher;
 import com.alibaba.cloud.nacos.refresh.NacosRefreshHistory;
+import com.alibaba.cloud.nacos.refresh.NacosRefreshSchedulerMetrics;
 import com.alibaba.cloud.nacos.refresh.SmartConfigurationPropertiesRebinder;
+import com.alibaba.cloud.nacos.refresh.SmartConfigurationPropertiesRebinderMetrics;
 import com.alibaba.cloud.nacos.refresh.condition.ConditionalOnNonDefaultBehavior;
 
 import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.SearchStrategy;
@@ -68,13 +74,22 @@ public class NacosConfigAutoConfiguration {
 		return new NacosAnnotationProcessor();
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	public NacosConfigDispatcher nacosConfigDispatcher(
+			NacosConfigManager nacosConfigManager) {
+		return new NacosConfigDispatcher(nacosConfigManager);
+	}
+
 	@Bean
 	public NacosContextRefresher nacosContextRefresher(NacosConfigManager nacosConfigManager,
-			NacosRefreshHistory nacosRefreshHistory) {
+			NacosRefreshHistory nacosRefreshHistory,
+			NacosConfigDispatcher nacosConfigDispatcher) {
 		// Consider that it is not necessary to be compatible with the previous
 		// configuration
 		// and use the new configuration if necessary.
-		return new NacosContextRefresher(nacosConfigManager, nacosRefreshHistory);
+		return new NacosContextRefresher(nacosConfigManager, nacosRefreshHistory,
+				nacosConfigDispatcher);
 	}
 
 	@Bean
@@ -87,4 +102,37 @@ public class NacosConfigAutoConfiguration {
 		return new SmartConfigurationPropertiesRebinder(beans);
 	}
 
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+	static class NacosConfigMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public NacosRefreshSchedulerMetrics nacosRefreshSchedulerMetrics(
+				NacosContextRefresher nacosContextRefresher) {
+			return new NacosRefreshSchedulerMetrics(nacosContextRefresher);
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public NacosDataParserMetrics nacosDataParserMetrics() {
+			return new NacosDataParserMetrics();
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+	@ConditionalOnNonDefaultBehavior
+	static class SmartConfigurationPropertiesRebinderMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public SmartConfigurationPropertiesRebinderMetrics smartConfigurationPropertiesRebinderMetrics(
+				ObjectProvider<ConfigurationPropertiesRebinder> rebinder) {
+			return new SmartConfigurationPropertiesRebinderMetrics(rebinder);
+		}
+
+	}
+
 }
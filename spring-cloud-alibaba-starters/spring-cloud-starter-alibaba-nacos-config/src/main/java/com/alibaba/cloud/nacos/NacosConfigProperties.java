@@ -200,6 +200,50 @@ public class NacosConfigProperties {
 	 * the master switch for refresh configuration, it default opened(true).
 	 */
 	private boolean refreshEnabled = true;
+	/**
+	 * apply a configuration change by swapping only the property source of the changed
+	 * dataId and publishing the changed keys, instead of refreshing the whole context.
+	 */
+	private boolean incrementalRefresh = false;
+	/**
+	 * time in milliseconds without further configuration changes before refreshing, so
+	 * that a burst of changes results in one refresh. 0 refreshes every change right
+	 * away.
+	 */
+	private int refreshQuietPeriod = 0;
+	/**
+	 * maximum time in milliseconds a configuration change waits for its refresh while
+	 * further changes keep arriving.
+	 */
+	private int refreshMaxDelay = 5000;
+	/**
+	 * maximum number of configurations fetched from nacos concurrently at startup, 1
+	 * fetches them one after another.
+	 */
+	private int fetchParallelism = 4;
+	/**
+	 * overall time in milliseconds to wait for the configurations fetched concurrently.
+	 */
+	private int fetchDeadline = 30000;
+	/**
+	 * whether loaded configurations are saved to the local disk, to be served when nacos
+	 * cannot be reached.
+	 */
+	private boolean snapshotEnabled = false;
+	/**
+	 * directory of the configuration snapshots, defaults to
+	 * ${user.home}/nacos/config-snapshot/${namespace}.
+	 */
+	private String snapshotPath;
+	/**
+	 * serve configurations from their snapshots at startup and revalidate them against
+	 * nacos in the background, instead of waiting for nacos.
+	 */
+	private boolean snapshotFirstSource = false;
+	/**
+	 * snapshots saved longer ago than this many milliseconds are not served.
+	 */
+	private long snapshotMaxStaleness = 24 * 60 * 60 * 1000L;
 
 	@PostConstruct
 	public void init() {
@@ -423,6 +467,78 @@ public class NacosConfigProperties {
 		this.refreshEnabled = refreshEnabled;
 	}
 
+	public boolean isIncrementalRefresh() {
+		return incrementalRefresh;
+	}
+
+	public void setIncrementalRefresh(boolean incrementalRefresh) {
+		this.incrementalRefresh = incrementalRefresh;
+	}
+
+	public int getRefreshQuietPeriod() {
+		return refreshQuietPeriod;
+	}
+
+	public void setRefreshQuietPeriod(int refreshQuietPeriod) {
+		this.refreshQuietPeriod = refreshQuietPeriod;
+	}
+
+	public int getRefreshMaxDelay() {
+		return refreshMaxDelay;
+	}
+
+	public void setRefreshMaxDelay(int refreshMaxDelay) {
+		this.refreshMaxDelay = refreshMaxDelay;
+	}
+
+	public int getFetchParallelism() {
+		return fetchParallelism;
+	}
+
+	public void setFetchParallelism(int fetchParallelism) {
+		this.fetchParallelism = fetchParallelism;
+	}
+
+	public int getFetchDeadline() {
+		return fetchDeadline;
+	}
+
+	public void setFetchDeadline(int fetchDeadline) {
+		this.fetchDeadline = fetchDeadline;
+	}
+
+	public boolean isSnapshotEnabled() {
+		return snapshotEnabled;
+	}
+
+	public void setSnapshotEnabled(boolean snapshotEnabled) {
+		this.snapshotEnabled = snapshotEnabled;
+	}
+
+	public String getSnapshotPath() {
+		return snapshotPath;
+	}
+
+	public void setSnapshotPath(String snapshotPath) {
+		this.snapshotPath = snapshotPath;
+	}
+
+	public boolean isSnapshotFirstSource() {
+		return snapshotFirstSource;
+	}
+
+	public void setSnapshotFirstSource(boolean snapshotFirstSource) {
+		this.snapshotFirstSource = snapshotFirstSource;
+	}
+
+	public long getSnapshotMaxStaleness() {
+		return snapshotMaxStaleness;
+	}
+
+	public void setSnapshotMaxStaleness(long snapshotMaxStaleness) {
+		this.snapshotMaxStaleness = snapshotMaxStaleness;
+	}
+
 	/**
 	 * recommend to use {@link NacosConfigProperties#sharedConfigs} .
 	 * @return string
@@ -626,7 +742,13 @@ public class NacosConfigProperties {
 				+ ", ramRoleName='" + ramRoleName + '\'' + ", contextPath='" + contextPath
 				+ '\'' + ", clusterName='" + clusterName + '\'' + ", name='" + name + '\''
 				+ '\'' + ", shares=" + sharedConfigs + ", extensions=" + extensionConfigs
-				+ ", refreshEnabled=" + refreshEnabled + '}';
+				+ ", refreshEnabled=" + refreshEnabled + ", incrementalRefresh="
+				+ incrementalRefresh + ", refreshQuietPeriod=" + refreshQuietPeriod
+				+ ", refreshMaxDelay=" + refreshMaxDelay + ", fetchParallelism="
+				+ fetchParallelism + ", fetchDeadline=" + fetchDeadline
+				+ ", snapshotEnabled=" + snapshotEnabled + ", snapshotPath='"
+				+ snapshotPath + '\'' + ", snapshotFirstSource=" + snapshotFirstSource
+				+ ", snapshotMaxStaleness=" + snapshotMaxStaleness + '}';
 	}
 
 	public static class Config {
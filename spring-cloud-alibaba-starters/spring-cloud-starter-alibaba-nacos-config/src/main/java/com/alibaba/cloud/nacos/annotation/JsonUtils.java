@@ -23,6 +23,7 @@ import com.alibaba.nacos.api.exception.runtime.NacosDeserializationException;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 
 final class JsonUtils {
@@ -55,12 +56,13 @@ final class JsonUtils {
 		}
 	}
 
-	public static <T> T toObj(String json, Type type) {
-		try {
-			return mapper.readValue(json, TypeFactory.defaultInstance().constructType(type));
-		}
-		catch (IOException e) {
-			throw new NacosDeserializationException(type, e);
-		}
+	/**
+	 * Reader of a type, resolving the type once for repeated reads.
+	 *
+	 * @param type type of object
+	 * @return reader of the type
+	 */
+	static ObjectReader readerFor(Type type) {
+		return mapper.readerFor(TypeFactory.defaultInstance().constructType(type));
 	}
 }
@@ -23,14 +23,22 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.cloud.nacos.refresh.NacosConfigDispatcher;
 import com.alibaba.nacos.api.config.ConfigChangeEvent;
 import com.alibaba.nacos.api.config.ConfigChangeItem;
 import com.alibaba.nacos.api.config.listener.AbstractListener;
@@ -46,14 +54,17 @@ import org.springframework.beans.NotReadablePropertyException;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.PriorityOrdered;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.MergedAnnotation;
 import org.springframework.core.annotation.MergedAnnotations;
 import org.springframework.core.type.MethodMetadata;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.ReflectionUtils;
 
 public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrdered, ApplicationContextAware {
@@ -61,9 +72,11 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 	private final static Logger log = LoggerFactory
 			.getLogger(NacosAnnotationProcessor.class);
 	private NacosConfigManager nacosConfigManager;
+	private NacosConfigDispatcher configDispatcher;
 	private ApplicationContext applicationContext;
 	private Map<String, TargetRefreshable> targetListenerMap = new ConcurrentHashMap<>();
-	private Map<String, AtomicReference<String>> groupKeyCache = new ConcurrentHashMap<>();
+	private Map<String, CompletableFuture<AtomicReference<String>>> groupKeyCache = new ConcurrentHashMap<>();
+	private final AtomicBoolean prefetched = new AtomicBoolean();
 
 	private static String[] getNullPropertyNames(Object source) {
 		final BeanWrapper src = new BeanWrapperImpl(source);
@@ -90,34 +103,146 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 		return 0;
 	}
 
+	/**
+	 * Content of a configuration, fetched once and kept up to date by a listener.
+	 * Concurrent callers for the same configuration share one fetch, different
+	 * configurations are fetched independently. The first call also prefetches every
+	 * other annotated configuration.
+	 */
 	private String getGroupKeyContent(String dataId, String group) throws Exception {
-		if (groupKeyCache.containsKey(GroupKey.getKey(dataId, group))) {
-			return groupKeyCache.get(GroupKey.getKey(dataId, group)).get();
+		prefetchAnnotatedConfigs();
+		String groupKey = GroupKey.getKey(dataId, group);
+		CompletableFuture<AtomicReference<String>> future = groupKeyCache.get(groupKey);
+		if (future == null) {
+			CompletableFuture<AtomicReference<String>> created = new CompletableFuture<>();
+			future = groupKeyCache.putIfAbsent(groupKey, created);
+			if (future == null) {
+				future = created;
+				loadGroupKeyContent(dataId, group, created);
+			}
+		}
+		try {
+			return future.get().get();
 		}
-		synchronized (this) {
-			if (!groupKeyCache.containsKey(GroupKey.getKey(dataId, group))) {
-				String content = getNacosConfigManager().getConfigService().getConfig(dataId, group, 5000);
-				groupKeyCache.put(GroupKey.getKey(dataId, group), new AtomicReference<>(content));
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
 
-				log.info("[Nacos Config] Listening config for annotation: dataId={}, group={}", dataId,
-						group);
-				getNacosConfigManager().getConfigService().addListener(dataId, group, new AbstractListener() {
-					@Override
-					public void receiveConfigInfo(String s) {
-						groupKeyCache.get(GroupKey.getKey(dataId, group)).set(s);
-					}
+	private void loadGroupKeyContent(String dataId, String group,
+			CompletableFuture<AtomicReference<String>> future) {
+		try {
+			String content = getNacosConfigManager().getConfigService().getConfig(dataId, group, 5000);
+			AtomicReference<String> reference = new AtomicReference<>(content);
 
-					@Override
-					public String toString() {
-						return String.format("sca nacos config annotation cache config listener");
-					}
-				});
+			log.info("[Nacos Config] Listening config for annotation: dataId={}, group={}", dataId,
+					group);
+			getConfigDispatcher().subscribe(dataId, group, new AbstractListener() {
+				@Override
+				public void receiveConfigInfo(String s) {
+					reference.set(s);
+				}
+
+				@Override
+				public String toString() {
+					return String.format("sca nacos config annotation cache config listener");
+				}
+			});
+			future.complete(reference);
+		}
+		catch (Throwable e) {
+			// let the next caller try again
+			groupKeyCache.remove(GroupKey.getKey(dataId, group), future);
+			future.completeExceptionally(e);
+		}
+	}
 
+	/**
+	 * Fetch the configurations of all annotated beans in one parallel batch, found from
+	 * the bean definitions without instantiating any bean.
+	 */
+	private void prefetchAnnotatedConfigs() {
+		if (!prefetched.compareAndSet(false, true)
+				|| !(applicationContext instanceof ConfigurableApplicationContext context)) {
+			return;
+		}
+		int parallelism = getNacosConfigManager().getNacosConfigProperties().getFetchParallelism();
+		if (parallelism <= 1) {
+			return;
+		}
+		ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+		Map<String, String[]> configs = new LinkedHashMap<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			try {
+				collectAnnotatedConfigs(beanFactory, beanName, configs);
+			}
+			catch (Throwable e) {
+				log.debug("[Nacos Config] skip prefetch for bean {}", beanName, e);
+			}
+		}
+		configs.keySet().removeAll(groupKeyCache.keySet());
+		if (configs.size() < 2) {
+			return;
+		}
+		log.info("[Nacos Config] prefetch {} configs for annotations", configs.size());
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"nacos-annotation-prefetch-");
+		threadFactory.setDaemon(true);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 1,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		for (Map.Entry<String, String[]> entry : configs.entrySet()) {
+			CompletableFuture<AtomicReference<String>> future = new CompletableFuture<>();
+			if (groupKeyCache.putIfAbsent(entry.getKey(), future) == null) {
+				String[] config = entry.getValue();
+				executor.execute(() -> loadGroupKeyContent(config[0], config[1], future));
 			}
+		}
+		executor.shutdown();
+	}
 
-			return groupKeyCache.get(GroupKey.getKey(dataId, group)).get();
+	private void collectAnnotatedConfigs(ConfigurableListableBeanFactory beanFactory, String beanName,
+			Map<String, String[]> configs) {
+		BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+		if (beanDefinition instanceof AnnotatedBeanDefinition annotatedBeanDefinition) {
+			MethodMetadata factoryMethodMetadata = annotatedBeanDefinition.getFactoryMethodMetadata();
+			if (factoryMethodMetadata != null && factoryMethodMetadata.getAnnotations().isPresent(NacosConfig.class)) {
+				MergedAnnotation<NacosConfig> annotation = factoryMethodMetadata.getAnnotations().get(NacosConfig.class);
+				addConfig(configs, annotation.getString("dataId"), annotation.getString("group"));
+			}
+		}
+		Class<?> type = beanFactory.getType(beanName, false);
+		if (type == null) {
+			return;
 		}
+		NacosConfig annotationBean = AnnotationUtils.findAnnotation(type, NacosConfig.class);
+		if (annotationBean != null) {
+			addConfig(configs, annotationBean.dataId(), annotationBean.group());
+			return;
+		}
+		ReflectionUtils.doWithFields(type, field -> {
+			NacosConfig annotation = AnnotationUtils.getAnnotation(field, NacosConfig.class);
+			if (annotation != null) {
+				addConfig(configs, annotation.dataId(), annotation.group());
+			}
+		});
+		ReflectionUtils.doWithMethods(type, method -> {
+			NacosConfigKeysListener keysAnnotation = AnnotationUtils.getAnnotation(method, NacosConfigKeysListener.class);
+			if (keysAnnotation != null) {
+				addConfig(configs, keysAnnotation.dataId(), keysAnnotation.group());
+			}
+			NacosConfigListener configAnnotation = AnnotationUtils.getAnnotation(method, NacosConfigListener.class);
+			if (configAnnotation != null) {
+				addConfig(configs, configAnnotation.dataId(), configAnnotation.group());
+			}
+		});
+	}
 
+	private void addConfig(Map<String, String[]> configs, String dataId, String group) {
+		configs.putIfAbsent(GroupKey.getKey(dataId, group), new String[] {dataId, group});
 	}
 
 	@Override
@@ -236,8 +361,7 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 					}
 				};
 			}
-			getNacosConfigManager().getConfigService()
-					.addListener(dataId, group, listener);
+			subscribe(dataId, group, listener);
 			targetListenerMap.put(refreshTargetKey, listener);
 		}
 		catch (Exception e) {
@@ -282,8 +406,7 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 				}
 			};
 			nacosPropertiesKeyListener.setLastContent(getGroupKeyContent(dataId, group));
-			getNacosConfigManager().getConfigService().addListener(dataId, group,
-					nacosPropertiesKeyListener);
+			subscribe(dataId, group, nacosPropertiesKeyListener);
 			targetListenerMap.put(refreshTargetKey, nacosPropertiesKeyListener);
 		}
 		catch (Throwable e) {
@@ -333,6 +456,7 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 			log.info("[Nacos Config] register {} listener on {} ", refreshTargetKey,
 					bean);
 
+			NacosConfigBinding binding = NacosConfigBinding.forMethod(method);
 			TargetRefreshable listener = null;
 			if (org.springframework.util.StringUtils.hasText(key)) {
 				listener = new NacosPropertiesKeyListener(bean, wrapArrayToSet(key)) {
@@ -344,12 +468,7 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 							String newConfig = changeItem == null ? null : changeItem.getNewValue();
 
 							if (org.springframework.util.StringUtils.hasText(newConfig)) {
-								if (invokePrimitiveMethod(method, getTarget(), newConfig)) {
-									return;
-								}
-
-								Object targetObject = convertContentToTargetType(newConfig, parameterTypes[0]);
-								ReflectionUtils.invokeMethod(method, getTarget(), targetObject);
+								binding.bind(getTarget(), newConfig);
 							}
 						}
 						catch (Exception e) {
@@ -374,11 +493,7 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 					public void receiveConfigInfo(String configInfo) {
 						if (org.springframework.util.StringUtils.hasText(configInfo)) {
 							try {
-								if (invokePrimitiveMethod(method, getTarget(), configInfo)) {
-									return;
-								}
-								Object targetObject = convertContentToTargetType(configInfo, parameterTypes[0]);
-								ReflectionUtils.invokeMethod(method, getTarget(), targetObject);
+								binding.bind(getTarget(), configInfo);
 							}
 							catch (Exception e) {
 								throw new RuntimeException(e);
@@ -394,7 +509,7 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 				};
 			}
 
-			getNacosConfigManager().getConfigService().addListener(dataId, group, listener);
+			subscribe(dataId, group, listener);
 			targetListenerMap.put(refreshTargetKey, listener);
 			if (annotation.initNotify() && org.springframework.util.StringUtils.hasText(configInfo)) {
 				try {
@@ -416,25 +531,7 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 	}
 
 	Object convertContentToTargetType(String rawContent, Type type) {
-
-		if (String.class.getCanonicalName().equals(type.getTypeName())) {
-			return rawContent;
-		}
-
-		if (Properties.class.getCanonicalName().equals(type.getTypeName())) {
-			//properties and yaml config to properties.
-			Properties properties = new Properties();
-			try {
-				if (org.springframework.util.StringUtils.hasText(rawContent)) {
-					properties = PropertiesUtils.convertToProperties(rawContent);
-				}
-			}
-			catch (Throwable throwable) {
-				throw new RuntimeException(throwable);
-			}
-			return properties;
-		}
-		return ObjectUtils.convertToObject(rawContent, type);
+		return NacosConfigBinding.convert(rawContent, type);
 	}
 
 	private void handleFiledNacosConfigAnnotation(NacosConfig annotation, String beanName, Object bean, Field field) {
@@ -458,16 +555,10 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 				config = defaultValue;
 			}
 
-			//primitive type
-			if (handPrimitiveFiled(field, dataId, group, config, key, defaultValue, beanName, bean)) {
-				return;
-			}
-
-			//for other type.
+			NacosConfigBinding binding = NacosConfigBinding.forField(field);
 			if (org.springframework.util.StringUtils.hasText(config)) {
-				Object targetObject = convertContentToTargetType(config, field.getGenericType());
-				//yaml and json to object
-				ReflectionUtils.setField(field, bean, targetObject);
+				//primitive value, or yaml and json to object
+				binding.bind(bean, config);
 			}
 
 			String refreshTargetKey = beanName + "#filed#" + field.getName();
@@ -494,8 +585,7 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 								newConfig = defaultValue;
 							}
 							if (org.springframework.util.StringUtils.hasText(newConfig)) {
-								Object targetObject = convertContentToTargetType(newConfig, field.getGenericType());
-								ReflectionUtils.setField(field, getTarget(), targetObject);
+								binding.bind(getTarget(), newConfig);
 							}
 						}
 						catch (Exception e) {
@@ -518,8 +608,7 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 							configInfo = defaultValue;
 						}
 						if (org.springframework.util.StringUtils.hasText(configInfo)) {
-							Object targetObject = convertContentToTargetType(configInfo, field.getGenericType());
-							ReflectionUtils.setField(field, getTarget(), targetObject);
+							binding.bind(getTarget(), configInfo);
 						}
 					}
 
@@ -530,8 +619,7 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 				};
 			}
 
-			getNacosConfigManager().getConfigService()
-					.addListener(dataId, group, listener);
+			subscribe(dataId, group, listener);
 			targetListenerMap.put(refreshTargetKey, listener);
 
 		}
@@ -540,164 +628,6 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 		}
 	}
 
-	private boolean handPrimitiveFiled(Field field, String dataId, String group, String config, String key, String defaultValue, String beanName, Object bean) throws Exception {
-		if (field.getType().isPrimitive()) {
-
-			if (org.springframework.util.StringUtils.hasText(config)) {
-				try {
-					setPrimitiveFiled(field, bean, config);
-				}
-				catch (Throwable throwable) {
-					throw new RuntimeException(throwable);
-				}
-			}
-
-			String refreshTargetKey = beanName + "#filed#" + field.getName();
-			TargetRefreshable currentTarget = targetListenerMap.get(refreshTargetKey);
-			if (currentTarget != null) {
-				log.info("[Nacos Config] reset {} listener from  {} to {} ", refreshTargetKey,
-						currentTarget.getTarget(), bean);
-				targetListenerMap.get(refreshTargetKey).setTarget(bean);
-				return true;
-			}
-
-			log.info("[Nacos Config] register {} listener on {} ", refreshTargetKey,
-					bean);
-			TargetRefreshable listener = null;
-			if (org.springframework.util.StringUtils.hasText(key)) {
-				listener = new NacosPropertiesKeyListener(bean, wrapArrayToSet(key)) {
-
-					@Override
-					public void configChanged(ConfigChangeEvent event) {
-						try {
-							ConfigChangeItem changeItem = event.getChangeItem(key);
-							String newConfig = changeItem == null ? null : changeItem.getNewValue();
-							if (!org.springframework.util.StringUtils.hasText(newConfig)) {
-								newConfig = defaultValue;
-							}
-							if (org.springframework.util.StringUtils.hasText(newConfig)) {
-								setPrimitiveFiled(field, getTarget(), newConfig);
-							}
-						}
-						catch (Exception e) {
-							throw new RuntimeException(e);
-						}
-					}
-
-					@Override
-					public String toString() {
-						return String.format("[spring cloud alibaba nacos config key listener , key %s , target %s ] ", key, bean + "#" + field.getName());
-					}
-				};
-			}
-			else {
-				listener = new NacosConfigRefreshableListener(bean) {
-
-					@Override
-					public void receiveConfigInfo(String configInfo) {
-						if (!org.springframework.util.StringUtils.hasText(configInfo)) {
-							configInfo = defaultValue;
-						}
-						if (org.springframework.util.StringUtils.hasText(configInfo)) {
-							try {
-								setPrimitiveFiled(field, getTarget(), configInfo);
-							}
-							catch (Exception e) {
-								throw new RuntimeException(e);
-							}
-						}
-					}
-
-					@Override
-					public String toString() {
-						return String.format("[spring cloud alibaba nacos config key listener , key %s , target %s ] ", key, bean + "#" + field.getName());
-					}
-				};
-			}
-
-			getNacosConfigManager().getConfigService()
-					.addListener(dataId, group, listener);
-			targetListenerMap.put(refreshTargetKey, listener);
-			return true;
-		}
-		return false;
-	}
-
-	private boolean setPrimitiveFiled(Field filed, Object bean, String value) throws Exception {
-		if (filed.getType() == int.class) {
-			filed.setInt(bean, Integer.parseInt(value));
-		}
-		else if (filed.getType() == Integer.class) {
-			ReflectionUtils.setField(filed, bean, Integer.valueOf(value));
-		}
-		else if (filed.getType() == long.class) {
-			filed.setLong(bean, Long.parseLong(value));
-		}
-		else if (filed.getType() == Long.class) {
-			ReflectionUtils.setField(filed, bean, Long.valueOf(value));
-		}
-		else if (filed.getType() == boolean.class) {
-			filed.setBoolean(bean, Boolean.parseBoolean(value));
-		}
-		else if (filed.getType() == Boolean.class) {
-			ReflectionUtils.setField(filed, bean, Boolean.valueOf(value));
-		}
-		else if (filed.getType() == double.class) {
-			filed.setDouble(bean, Double.parseDouble(value));
-		}
-		else if (filed.getType() == Double.class) {
-			ReflectionUtils.setField(filed, bean, Double.valueOf(value));
-		}
-		else if (filed.getType() == float.class) {
-			filed.setFloat(bean, Float.parseFloat(value));
-		}
-		else if (filed.getType() == Float.class) {
-			ReflectionUtils.setField(filed, bean, Float.valueOf(value));
-		}
-		else {
-			return false;
-		}
-		return true;
-	}
-
-	private boolean invokePrimitiveMethod(Method method, Object bean, String value) throws Exception {
-		Class<?> parameterType = method.getParameterTypes()[0];
-		if (parameterType == int.class) {
-			ReflectionUtils.invokeMethod(method, bean, Integer.parseInt(value));
-		}
-		else if (parameterType == Integer.class) {
-			ReflectionUtils.invokeMethod(method, bean, Integer.valueOf(value));
-		}
-		else if (parameterType == long.class) {
-			ReflectionUtils.invokeMethod(method, bean, Long.parseLong(value));
-		}
-		else if (parameterType == Long.class) {
-			ReflectionUtils.invokeMethod(method, bean, Long.valueOf(value));
-		}
-		else if (parameterType == boolean.class) {
-			ReflectionUtils.invokeMethod(method, bean, Boolean.parseBoolean(value));
-		}
-		else if (parameterType == Boolean.class) {
-			ReflectionUtils.invokeMethod(method, bean, Boolean.valueOf(value));
-		}
-		else if (parameterType == double.class) {
-			ReflectionUtils.invokeMethod(method, bean, Double.parseDouble(value));
-		}
-		else if (parameterType == Double.class) {
-			ReflectionUtils.invokeMethod(method, bean, Double.valueOf(value));
-		}
-		else if (parameterType == float.class) {
-			ReflectionUtils.invokeMethod(method, bean, Float.parseFloat(value));
-		}
-		else if (parameterType == Float.class) {
-			ReflectionUtils.invokeMethod(method, bean, Float.valueOf(value));
-		}
-		else {
-			return false;
-		}
-		return true;
-	}
-
 	private String getDestContent(String content, String key) throws Exception {
 		if (org.springframework.util.StringUtils.hasText(key)) {
 			Properties properties = PropertiesUtils.convertToProperties(content);
@@ -743,6 +673,29 @@ public class NacosAnnotationProcessor implements BeanPostProcessor, PriorityOrde
 		}
 	}
 
+	/**
+	 * Subscribe a listener through the shared dispatcher: key listeners only get the
+	 * changes of their keys, diffed once per push for all of them.
+	 */
+	private void subscribe(String dataId, String group, TargetRefreshable listener) throws Exception {
+		if (listener instanceof NacosPropertiesKeyListener keyListener) {
+			getConfigDispatcher().subscribe(dataId, group, keyListener.interestedKeys,
+					keyListener.interestedKeyPrefixes, getGroupKeyContent(dataId, group),
+					keyListener::receiveConfigChange);
+		}
+		else {
+			getConfigDispatcher().subscribe(dataId, group, listener);
+		}
+	}
+
+	private NacosConfigDispatcher getConfigDispatcher() {
+		if (configDispatcher == null) {
+			configDispatcher = applicationContext.getBeanProvider(NacosConfigDispatcher.class)
+					.getIfAvailable(() -> new NacosConfigDispatcher(getNacosConfigManager()));
+		}
+		return configDispatcher;
+	}
+
 	private NacosConfigManager getNacosConfigManager() {
 		if (nacosConfigManager == null) {
 			nacosConfigManager = applicationContext.getBean(NacosConfigManager.class);
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.annotation;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.alibaba.nacos.api.exception.runtime.NacosDeserializationException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Binding of config content to an annotated field or single-argument method, resolved
+ * once when the bean is post-processed.
+ * <p>
+ * The member is unreflected into a {@link MethodHandle} and the conversion of the
+ * content to the member type is looked up once per type, so a config push converts the
+ * content and invokes the handle without any reflective lookup.
+ */
+final class NacosConfigBinding {
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class,
+			Object.class, Object.class);
+
+	private static final Map<Type, Function<String, Object>> CONVERTERS = new ConcurrentHashMap<>();
+
+	private final MethodHandle setter;
+
+	private final Function<String, Object> converter;
+
+	private NacosConfigBinding(MethodHandle setter, Function<String, Object> converter) {
+		this.setter = setter;
+		this.converter = converter;
+	}
+
+	/**
+	 * Binding setting a field. Primitive fields are parsed directly, any other type is
+	 * converted like {@link #convert(String, Type)}.
+	 */
+	static NacosConfigBinding forField(Field field) {
+		ReflectionUtils.makeAccessible(field);
+		MethodHandle setter;
+		try {
+			setter = MethodHandles.lookup().unreflectSetter(field);
+		}
+		catch (IllegalAccessException e) {
+			// e.g. final fields of records, fall back to plain reflection
+			setter = reflectiveSetter(field);
+		}
+		Function<String, Object> converter = field.getType().isPrimitive()
+				? parser(field.getType()) : null;
+		return new NacosConfigBinding(adapt(setter, Modifier.isStatic(field.getModifiers())),
+				converter != null ? converter : converter(field.getGenericType()));
+	}
+
+	/**
+	 * Binding invoking a method with a single parameter. Primitive and boxed parameters
+	 * are parsed directly, any other type is converted like {@link #convert(String, Type)}.
+	 */
+	static NacosConfigBinding forMethod(Method method) {
+		ReflectionUtils.makeAccessible(method);
+		MethodHandle invoker;
+		try {
+			invoker = MethodHandles.lookup().unreflect(method);
+		}
+		catch (IllegalAccessException e) {
+			throw new IllegalStateException("Could not access method " + method, e);
+		}
+		Function<String, Object> converter = parser(method.getParameterTypes()[0]);
+		return new NacosConfigBinding(adapt(invoker, Modifier.isStatic(method.getModifiers())),
+				converter != null ? converter
+						: converter(method.getGenericParameterTypes()[0]));
+	}
+
+	/**
+	 * Convert the content and pass it to the member of the target.
+	 */
+	void bind(Object target, String content) {
+		Object value = converter.apply(content);
+		try {
+			setter.invokeExact(target, value);
+		}
+		catch (Throwable e) {
+			ReflectionUtils.rethrowRuntimeException(e);
+		}
+	}
+
+	/**
+	 * Convert content to a type: strings are kept as they are, {@link Properties} are
+	 * parsed from properties or yaml content, anything else is read as json.
+	 */
+	static Object convert(String content, Type type) {
+		return converter(type).apply(content);
+	}
+
+	private static Function<String, Object> converter(Type type) {
+		return CONVERTERS.computeIfAbsent(type, NacosConfigBinding::createConverter);
+	}
+
+	private static Function<String, Object> createConverter(Type type) {
+		if (type == String.class) {
+			return content -> content;
+		}
+		if (type == Properties.class) {
+			return content -> {
+				try {
+					return StringUtils.hasText(content)
+							? PropertiesUtils.convertToProperties(content) : new Properties();
+				}
+				catch (Throwable throwable) {
+					throw new RuntimeException(throwable);
+				}
+			};
+		}
+		ObjectReader reader = JsonUtils.readerFor(type);
+		return content -> {
+			if (!StringUtils.hasText(content)) {
+				return null;
+			}
+			try {
+				return reader.readValue(content);
+			}
+			catch (IOException e) {
+				throw new NacosDeserializationException(type, e);
+			}
+		};
+	}
+
+	private static Function<String, Object> parser(Class<?> type) {
+		if (type == int.class || type == Integer.class) {
+			return Integer::valueOf;
+		}
+		if (type == long.class || type == Long.class) {
+			return Long::valueOf;
+		}
+		if (type == boolean.class || type == Boolean.class) {
+			return Boolean::valueOf;
+		}
+		if (type == double.class || type == Double.class) {
+			return Double::valueOf;
+		}
+		if (type == float.class || type == Float.class) {
+			return Float::valueOf;
+		}
+		return null;
+	}
+
+	private static MethodHandle reflectiveSetter(Field field) {
+		try {
+			return MethodHandles.lookup()
+					.findStatic(ReflectionUtils.class, "setField", MethodType
+							.methodType(void.class, Field.class, Object.class, Object.class))
+					.bindTo(field);
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not access field " + field, e);
+		}
+	}
+
+	/**
+	 * Adapt a handle to {@code (Object target, Object value)void}, static members ignore
+	 * the target.
+	 */
+	private static MethodHandle adapt(MethodHandle handle, boolean isStatic) {
+		if (isStatic && handle.type().parameterCount() == 1) {
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		return handle.asType(SETTER_TYPE);
+	}
+
+}
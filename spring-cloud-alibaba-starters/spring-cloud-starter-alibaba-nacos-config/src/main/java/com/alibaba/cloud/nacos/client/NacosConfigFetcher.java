@@ -0,0 +1,258 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.exception.NacosException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Fetches configurations from nacos ahead of the moment they are parsed.
+ * <p>
+ * {@link #prefetch} issues the {@code getConfig} call on a bounded pool and returns
+ * immediately, {@link #fetch} then takes the result, waiting at most until the deadline
+ * counted from the prefetch. A configuration that was not prefetched is fetched by the
+ * calling thread, so with a parallelism of 1 configurations are fetched one after
+ * another as before.
+ * <p>
+ * With a {@link NacosConfigSnapshotStore}, fetched configurations are saved to it, and
+ * its snapshots are served when nacos cannot be reached, or before nacos is asked if it
+ * is the first source. The nacos client does not fail when the server is down, it
+ * returns its own local copy of the configuration or null, so the server status is
+ * checked after each load: contents loaded while the server is down are never saved,
+ * and a missing configuration only removes its snapshot when the server confirmed it.
+ */
+public class NacosConfigFetcher {
+
+	private static final Logger log = LoggerFactory.getLogger(NacosConfigFetcher.class);
+
+	/**
+	 * Status reported by {@link ConfigService#getServerStatus()} when the client has no
+	 * healthy connection to the server.
+	 */
+	private static final String SERVER_DOWN = "DOWN";
+
+	private final ConfigService configService;
+
+	private final long timeout;
+
+	private final long deadline;
+
+	private final ThreadPoolExecutor executor;
+
+	private final Map<String, Fetch> fetches = new ConcurrentHashMap<>();
+
+	private NacosConfigSnapshotStore snapshotStore;
+
+	/**
+	 * @param configService config service to fetch from
+	 * @param timeout timeout of a single {@code getConfig} call in milliseconds
+	 * @param parallelism maximum number of concurrent {@code getConfig} calls
+	 * @param deadline time in milliseconds to wait for a prefetched configuration
+	 */
+	public NacosConfigFetcher(ConfigService configService, long timeout,
+			int parallelism, long deadline) {
+		this.configService = configService;
+		this.timeout = timeout;
+		this.deadline = deadline;
+		if (parallelism > 1) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+					"nacos-config-fetcher-");
+			threadFactory.setDaemon(true);
+			// threads go away once the startup burst of fetches is over
+			this.executor = new ThreadPoolExecutor(parallelism, parallelism, 1,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+			this.executor.allowCoreThreadTimeOut(true);
+		}
+		else {
+			this.executor = null;
+		}
+	}
+
+	/**
+	 * Start fetching a configuration in the background, if not started yet.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 */
+	public void prefetch(String dataId, String group) {
+		if (executor == null) {
+			return;
+		}
+		// a completed fetch that was never taken is outdated, fetch again
+		fetches.compute(key(dataId, group),
+				(key, fetch) -> fetch != null && !fetch.future.isDone() ? fetch
+						: new Fetch(CompletableFuture.supplyAsync(
+								() -> getConfig(dataId, group), executor)));
+	}
+
+	/**
+	 * Take the prefetched content of a configuration, or fetch it now.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @return content of the configuration, null if it does not exist
+	 * @throws NacosException if the configuration could not be fetched in time
+	 */
+	public String fetch(String dataId, String group) throws NacosException {
+		if (snapshotStore == null) {
+			return fetchFromNacos(dataId, group);
+		}
+		String content = snapshotStore.serveFirst(dataId, group,
+				() -> confirmed(fetchFromNacos(dataId, group)));
+		if (content != null) {
+			log.info("serve config from snapshot, dataId: {}, group: {}", dataId, group);
+			return content;
+		}
+		try {
+			content = fetchFromNacos(dataId, group);
+		}
+		catch (NacosException e) {
+			return serveFallback(dataId, group, e, null);
+		}
+		if (isServerDown()) {
+			return serveFallback(dataId, group, null, content);
+		}
+		snapshotStore.save(dataId, group, content);
+		return content;
+	}
+
+	/**
+	 * Serve the snapshot of a configuration that could not be loaded from the server.
+	 * @param failure failure of the load, null if the client answered without the server
+	 * @param clientContent content the client answered with, from its own local copy
+	 */
+	private String serveFallback(String dataId, String group, NacosException failure,
+			String clientContent) throws NacosException {
+		String content = snapshotStore.serveFallback(dataId, group,
+				() -> confirmed(configService.getConfig(dataId, group, timeout)));
+		if (content != null) {
+			log.warn("serve config from snapshot, nacos not reachable, dataId: {}, "
+					+ "group: {}", dataId, group, failure);
+			return content;
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		return clientContent;
+	}
+
+	/**
+	 * Fail a load the server did not answer, so that a revalidation neither keeps the
+	 * client's local copy nor removes the snapshot.
+	 */
+	private String confirmed(String content) throws NacosException {
+		if (isServerDown()) {
+			throw new NacosException(NacosException.SERVER_ERROR,
+					"nacos server is not reachable");
+		}
+		return content;
+	}
+
+	private boolean isServerDown() {
+		return SERVER_DOWN.equals(configService.getServerStatus());
+	}
+
+	private String fetchFromNacos(String dataId, String group) throws NacosException {
+		Fetch fetch = fetches.remove(key(dataId, group));
+		long remaining = fetch == null ? 0
+				: fetch.startTime + deadline - System.currentTimeMillis();
+		if (fetch == null || remaining <= 0 && fetch.future.isDone()) {
+			// not prefetched, or prefetched so long ago that the content may be outdated
+			return configService.getConfig(dataId, group, timeout);
+		}
+		try {
+			return fetch.future.get(remaining, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			fetch.future.cancel(true);
+			throw new NacosException(NacosException.CLIENT_ERROR, String.format(
+					"fetch config[dataId=%s, group=%s] exceeded the deadline of %sms",
+					dataId, group, deadline));
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof FetchException) {
+				throw ((FetchException) cause).nacosException;
+			}
+			throw new NacosException(NacosException.CLIENT_ERROR, cause);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NacosException(NacosException.CLIENT_ERROR, e);
+		}
+	}
+
+	public ConfigService getConfigService() {
+		return configService;
+	}
+
+	public NacosConfigSnapshotStore getSnapshotStore() {
+		return snapshotStore;
+	}
+
+	public void setSnapshotStore(NacosConfigSnapshotStore snapshotStore) {
+		this.snapshotStore = snapshotStore;
+	}
+
+	private String getConfig(String dataId, String group) {
+		try {
+			return configService.getConfig(dataId, group, timeout);
+		}
+		catch (NacosException e) {
+			throw new FetchException(e);
+		}
+	}
+
+	private static String key(String dataId, String group) {
+		return dataId + "@" + group;
+	}
+
+	private static final class Fetch {
+
+		private final CompletableFuture<String> future;
+
+		private final long startTime = System.currentTimeMillis();
+
+		private Fetch(CompletableFuture<String> future) {
+			this.future = future;
+		}
+
+	}
+
+	private static final class FetchException extends RuntimeException {
+
+		private final NacosException nacosException;
+
+		private FetchException(NacosException nacosException) {
+			super(nacosException);
+			this.nacosException = nacosException;
+		}
+
+	}
+
+}
@@ -0,0 +1,489 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import com.alibaba.cloud.commons.lang.StringUtils;
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Versioned, checksum-verified snapshot of loaded configurations on the local disk, one
+ * file per dataId and group.
+ * <p>
+ * Every configuration loaded from nacos or pushed by nacos is saved, each file is
+ * replaced atomically so a crash never leaves a partially written snapshot behind. A
+ * snapshot is served when nacos cannot be reached, or, as first source, before nacos is
+ * asked at all: the content on disk is returned right away and revalidated against nacos
+ * in the background. Changes found by the revalidation are handed to the
+ * {@link ChangeListener}, they are kept until one is set.
+ * <p>
+ * Stores are shared per directory, so that the bootstrap and the application context
+ * see the same state.
+ */
+public final class NacosConfigSnapshotStore {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosConfigSnapshotStore.class);
+
+	/**
+	 * "NCSS", identifies a snapshot file.
+	 */
+	private static final int MAGIC = 0x4E435353;
+
+	/**
+	 * Current format version, bump it on every incompatible format change.
+	 */
+	static final int VERSION = 1;
+
+	private static final String SUFFIX = ".snapshot";
+
+	private static final Map<Path, NacosConfigSnapshotStore> STORES = new ConcurrentHashMap<>();
+
+	private final Path directory;
+
+	private final long maxStalenessMillis;
+
+	private final boolean firstSource;
+
+	private final Map<String, Status> statuses = new ConcurrentHashMap<>();
+
+	private final Set<String> servedFirst = ConcurrentHashMap.newKeySet();
+
+	private final List<String[]> pendingChanges = new ArrayList<>();
+
+	private final ThreadPoolExecutor executor;
+
+	private ChangeListener changeListener;
+
+	NacosConfigSnapshotStore(Path directory, long maxStalenessMillis,
+			boolean firstSource) {
+		this.directory = directory;
+		this.maxStalenessMillis = maxStalenessMillis;
+		this.firstSource = firstSource;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"nacos-config-snapshot-");
+		threadFactory.setDaemon(true);
+		this.executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), threadFactory);
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Get the store configured by the properties.
+	 * @param properties nacos config properties
+	 * @return the store of the configured directory, null if snapshots are disabled
+	 */
+	public static NacosConfigSnapshotStore getInstance(NacosConfigProperties properties) {
+		if (properties == null || !properties.isSnapshotEnabled()) {
+			return null;
+		}
+		String path = properties.getSnapshotPath();
+		if (StringUtils.isEmpty(path)) {
+			String namespace = properties.getNamespace();
+			path = Paths.get(System.getProperty("user.home"), "nacos",
+					"config-snapshot", StringUtils.isEmpty(namespace)
+							? NacosConfigProperties.DEFAULT_NAMESPACE : namespace)
+					.toString();
+		}
+		return STORES.computeIfAbsent(Paths.get(path).toAbsolutePath().normalize(),
+				directory -> new NacosConfigSnapshotStore(directory,
+						properties.getSnapshotMaxStaleness(),
+						properties.isSnapshotFirstSource()));
+	}
+
+	/**
+	 * @return whether snapshots are served before nacos is asked
+	 */
+	public boolean isFirstSource() {
+		return firstSource;
+	}
+
+	/**
+	 * Read the snapshot of a configuration.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @return the snapshot, null if there is none, it is corrupt or stale
+	 */
+	public Snapshot read(String dataId, String group) {
+		Path path = path(dataId, group);
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(path)))) {
+			if (in.readInt() != MAGIC) {
+				log.warn("ignore nacos config snapshot {}, not a snapshot file", path);
+				return null;
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				log.warn("ignore nacos config snapshot {}, unsupported version {}", path,
+						version);
+				return null;
+			}
+			if (!dataId.equals(in.readUTF()) || !group.equals(in.readUTF())) {
+				return null;
+			}
+			long saveTime = in.readLong();
+			int length = in.readInt();
+			if (length < 0 || length > Files.size(path)) {
+				log.warn("ignore nacos config snapshot {}, invalid content length {}",
+						path, length);
+				return null;
+			}
+			byte[] content = new byte[length];
+			in.readFully(content);
+			if (in.readLong() != checksum(content)) {
+				log.warn("ignore nacos config snapshot {}, checksum mismatch", path);
+				return null;
+			}
+			if (System.currentTimeMillis() - saveTime > maxStalenessMillis) {
+				log.info("ignore nacos config snapshot {}, saved at {}", path,
+						new Date(saveTime));
+				return null;
+			}
+			return new Snapshot(new String(content, StandardCharsets.UTF_8), saveTime);
+		}
+		catch (IOException | RuntimeException e) {
+			log.warn("read nacos config snapshot {} failed", path, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Save the content of a configuration just loaded from nacos, an empty content
+	 * removes the snapshot. Callers only pass an empty content when the server confirmed
+	 * that the configuration does not exist.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param content content of the configuration
+	 */
+	public void save(String dataId, String group, String content) {
+		long now = System.currentTimeMillis();
+		write(dataId, group, content, now);
+		statuses.put(key(dataId, group), new Status(Status.SOURCE_NACOS, now, null));
+	}
+
+	/**
+	 * Serve a configuration from its snapshot before nacos is asked, once per
+	 * configuration: later loads, such as those of a refresh, go to nacos.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param loader loads the configuration from nacos to revalidate the snapshot, fails
+	 * when nacos cannot be reached
+	 * @return content of the snapshot, null if there is no usable snapshot
+	 */
+	public String serveFirst(String dataId, String group, Callable<String> loader) {
+		if (!firstSource || !servedFirst.add(key(dataId, group))) {
+			return null;
+		}
+		return serve(dataId, group, loader);
+	}
+
+	/**
+	 * Serve a configuration from its snapshot because nacos could not be reached.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param loader loads the configuration from nacos to revalidate the snapshot, fails
+	 * when nacos cannot be reached
+	 * @return content of the snapshot, null if there is no usable snapshot
+	 */
+	public String serveFallback(String dataId, String group, Callable<String> loader) {
+		return serve(dataId, group, loader);
+	}
+
+	private String serve(String dataId, String group, Callable<String> loader) {
+		Snapshot snapshot = read(dataId, group);
+		if (snapshot == null) {
+			return null;
+		}
+		String key = key(dataId, group);
+		statuses.put(key, new Status(Status.SOURCE_SNAPSHOT, snapshot.getSaveTime(),
+				Status.REVALIDATION_PENDING));
+		executor.execute(() -> revalidate(dataId, group, snapshot, loader));
+		return snapshot.getContent();
+	}
+
+	private void revalidate(String dataId, String group, Snapshot snapshot,
+			Callable<String> loader) {
+		String key = key(dataId, group);
+		String content;
+		try {
+			content = loader.call();
+		}
+		catch (Exception e) {
+			log.warn("revalidate nacos config snapshot failed, dataId: {}, group: {}",
+					dataId, group, e);
+			statuses.put(key, new Status(Status.SOURCE_SNAPSHOT, snapshot.getSaveTime(),
+					Status.REVALIDATION_FAILED));
+			return;
+		}
+		long now = System.currentTimeMillis();
+		write(dataId, group, content, now);
+		if (Objects.equals(snapshot.getContent(), content)) {
+			statuses.put(key, new Status(Status.SOURCE_SNAPSHOT, now,
+					Status.REVALIDATION_UNCHANGED));
+			return;
+		}
+		log.info("nacos config snapshot is outdated, dataId: {}, group: {}", dataId,
+				group);
+		statuses.put(key, new Status(Status.SOURCE_SNAPSHOT, snapshot.getSaveTime(),
+				Status.REVALIDATION_CHANGED));
+		ChangeListener listener;
+		synchronized (pendingChanges) {
+			listener = changeListener;
+			if (listener == null) {
+				pendingChanges.add(new String[] { dataId, group, content });
+				return;
+			}
+		}
+		listener.onChange(dataId, group, content);
+	}
+
+	/**
+	 * Set the listener applying configurations found outdated by a revalidation, changes
+	 * found before are handed to it right away.
+	 * @param changeListener the listener
+	 */
+	public void setChangeListener(ChangeListener changeListener) {
+		List<String[]> changes;
+		synchronized (pendingChanges) {
+			this.changeListener = changeListener;
+			changes = new ArrayList<>(pendingChanges);
+			pendingChanges.clear();
+		}
+		for (String[] change : changes) {
+			changeListener.onChange(change[0], change[1], change[2]);
+		}
+	}
+
+	/**
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @return where the current content of the configuration came from, null if it was
+	 * neither saved nor served by this store
+	 */
+	public Status getStatus(String dataId, String group) {
+		return statuses.get(key(dataId, group));
+	}
+
+	/**
+	 * @return statuses of all configurations saved or served, keyed by
+	 * {@code dataId@group}
+	 */
+	public Map<String, Status> getStatuses() {
+		return Collections.unmodifiableMap(new LinkedHashMap<>(statuses));
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	private void write(String dataId, String group, String content, long saveTime) {
+		Path path = path(dataId, group);
+		try {
+			if (StringUtils.isEmpty(content)) {
+				Files.deleteIfExists(path);
+				return;
+			}
+			Files.createDirectories(directory);
+			byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+			Path temp = Files.createTempFile(directory, path.getFileName().toString(),
+					".tmp");
+			try {
+				try (DataOutputStream out = new DataOutputStream(
+						new BufferedOutputStream(Files.newOutputStream(temp)))) {
+					out.writeInt(MAGIC);
+					out.writeInt(VERSION);
+					out.writeUTF(dataId);
+					out.writeUTF(group);
+					out.writeLong(saveTime);
+					out.writeInt(bytes.length);
+					out.write(bytes);
+					out.writeLong(checksum(bytes));
+				}
+				Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally {
+				Files.deleteIfExists(temp);
+			}
+		}
+		catch (IOException e) {
+			log.warn("write nacos config snapshot {} failed", path, e);
+		}
+	}
+
+	private Path path(String dataId, String group) {
+		// '@' is encoded as well, so the name is unambiguous
+		return directory.resolve(URLEncoder.encode(group, StandardCharsets.UTF_8) + "@"
+				+ URLEncoder.encode(dataId, StandardCharsets.UTF_8) + SUFFIX);
+	}
+
+	private static long checksum(byte[] bytes) {
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		return crc.getValue();
+	}
+
+	private static String key(String dataId, String group) {
+		return dataId + "@" + group;
+	}
+
+	/**
+	 * Applies a configuration found outdated by a revalidation.
+	 */
+	public interface ChangeListener {
+
+		/**
+		 * @param dataId Nacos dataId
+		 * @param group Nacos group
+		 * @param content current content of the configuration in nacos
+		 */
+		void onChange(String dataId, String group, String content);
+
+	}
+
+	/**
+	 * Content of a configuration on the local disk and the time it was saved.
+	 */
+	public static final class Snapshot {
+
+		private final String content;
+
+		private final long saveTime;
+
+		Snapshot(String content, long saveTime) {
+			this.content = content;
+			this.saveTime = saveTime;
+		}
+
+		public String getContent() {
+			return content;
+		}
+
+		public long getSaveTime() {
+			return saveTime;
+		}
+
+	}
+
+	/**
+	 * Where the current content of a configuration came from.
+	 */
+	public static final class Status {
+
+		/**
+		 * Loaded from nacos.
+		 */
+		public static final String SOURCE_NACOS = "nacos";
+
+		/**
+		 * Served from the snapshot.
+		 */
+		public static final String SOURCE_SNAPSHOT = "snapshot";
+
+		/**
+		 * Snapshot served, nacos not asked yet.
+		 */
+		public static final String REVALIDATION_PENDING = "pending";
+
+		/**
+		 * Snapshot served, nacos has the same content.
+		 */
+		public static final String REVALIDATION_UNCHANGED = "unchanged";
+
+		/**
+		 * Snapshot served, nacos has changed content that was not applied yet.
+		 */
+		public static final String REVALIDATION_CHANGED = "changed";
+
+		/**
+		 * Snapshot served, nacos could not be asked.
+		 */
+		public static final String REVALIDATION_FAILED = "failed";
+
+		private final String source;
+
+		private final long confirmedTime;
+
+		private final String revalidation;
+
+		Status(String source, long confirmedTime, String revalidation) {
+			this.source = source;
+			this.confirmedTime = confirmedTime;
+			this.revalidation = revalidation;
+		}
+
+		public String getSource() {
+			return source;
+		}
+
+		/**
+		 * @return time the current content was last known to match nacos
+		 */
+		public long getConfirmedTime() {
+			return confirmedTime;
+		}
+
+		/**
+		 * @return outcome of the revalidation of a served snapshot, null if the content
+		 * was loaded from nacos
+		 */
+		public String getRevalidation() {
+			return revalidation;
+		}
+
+		/**
+		 * @return milliseconds since the current content was last known to match nacos
+		 */
+		public long getStaleness() {
+			return Math.max(0, System.currentTimeMillis() - confirmedTime);
+		}
+
+	}
+
+}
@@ -44,11 +44,19 @@ public class NacosPropertySourceBuilder {
 
 	private long timeout;
 
+	private NacosConfigFetcher configFetcher;
+
 	public NacosPropertySourceBuilder(ConfigService configService, long timeout) {
 		this.configService = configService;
 		this.timeout = timeout;
 	}
 
+	public NacosPropertySourceBuilder(ConfigService configService, long timeout,
+			NacosConfigFetcher configFetcher) {
+		this(configService, timeout);
+		this.configFetcher = configFetcher;
+	}
+
 	public long getTimeout() {
 		return timeout;
 	}
@@ -65,6 +73,14 @@ public class NacosPropertySourceBuilder {
 		this.configService = configService;
 	}
 
+	public NacosConfigFetcher getConfigFetcher() {
+		return configFetcher;
+	}
+
+	public void setConfigFetcher(NacosConfigFetcher configFetcher) {
+		this.configFetcher = configFetcher;
+	}
+
 	/**
 	 * @param dataId Nacos dataId
 	 * @param group Nacos group
@@ -86,7 +102,8 @@ public class NacosPropertySourceBuilder {
 			String configSnapshot = NacosSnapshotConfigManager.getAndRemoveConfigSnapshot(dataId, group);
 			if (StringUtils.isEmpty(configSnapshot)) {
 				log.debug("get config from nacos, dataId: {}, group: {}", dataId, group);
-				data = configService.getConfig(dataId, group, timeout);
+				data = configFetcher != null ? configFetcher.fetch(dataId, group)
+						: configService.getConfig(dataId, group, timeout);
 			}
 			else {
 				log.debug("get config from memory snapshot, dataId: {}, group: {}",
@@ -16,6 +16,7 @@
 
 package com.alibaba.cloud.nacos.client;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import com.alibaba.cloud.commons.lang.StringUtils;
@@ -24,6 +25,7 @@ import com.alibaba.cloud.nacos.NacosConfigProperties;
 import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
 import com.alibaba.cloud.nacos.parser.NacosDataParserHandler;
 import com.alibaba.cloud.nacos.refresh.NacosContextRefresher;
+import com.alibaba.cloud.nacos.refresh.NacosSnapshotConfigManager;
 import com.alibaba.nacos.api.config.ConfigService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +55,8 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 
 	private NacosPropertySourceBuilder nacosPropertySourceBuilder;
 
+	private NacosConfigFetcher configFetcher;
+
 	private NacosConfigProperties nacosConfigProperties;
 
 	private NacosConfigManager nacosConfigManager;
@@ -82,8 +86,16 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 			return null;
 		}
 		long timeout = nacosConfigProperties.getTimeout();
+		// one fetcher, and with it one pool, serves the bootstrap and every refresh
+		if (configFetcher == null || configFetcher.getConfigService() != configService) {
+			configFetcher = new NacosConfigFetcher(configService, timeout,
+					nacosConfigProperties.getFetchParallelism(),
+					nacosConfigProperties.getFetchDeadline());
+		}
+		configFetcher.setSnapshotStore(
+				NacosConfigSnapshotStore.getInstance(nacosConfigProperties));
 		nacosPropertySourceBuilder = new NacosPropertySourceBuilder(configService,
-				timeout);
+				timeout, configFetcher);
 		String name = nacosConfigProperties.getName();
 
 		String dataIdPrefix = nacosConfigProperties.getPrefix();
@@ -98,64 +110,72 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		CompositePropertySource composite = new CompositePropertySource(
 				NACOS_PROPERTY_SOURCE_NAME);
 
-		loadSharedConfiguration(composite);
-		loadExtConfiguration(composite);
-		loadApplicationConfiguration(composite, dataIdPrefix, nacosConfigProperties, env);
+		// collect the configurations in precedence order and fetch them all at once,
+		// then add them to the composite in that order
+		List<ConfigItem> items = new ArrayList<>();
+		loadSharedConfiguration(items);
+		loadExtConfiguration(items);
+		loadApplicationConfiguration(items, dataIdPrefix, nacosConfigProperties, env);
+		for (ConfigItem item : items) {
+			if (isFetchRequired(item)) {
+				configFetcher.prefetch(item.dataId, item.group);
+			}
+		}
+		for (ConfigItem item : items) {
+			loadNacosDataIfPresent(composite, item);
+		}
 		return composite;
 	}
 
 	/**
 	 * load shared configuration.
 	 */
-	private void loadSharedConfiguration(
-			CompositePropertySource compositePropertySource) {
+	private void loadSharedConfiguration(List<ConfigItem> items) {
 		List<NacosConfigProperties.Config> sharedConfigs = nacosConfigProperties
 				.getSharedConfigs();
 		if (!CollectionUtils.isEmpty(sharedConfigs)) {
 			checkConfiguration(sharedConfigs, "shared-configs");
-			loadNacosConfiguration(compositePropertySource, sharedConfigs);
+			loadNacosConfiguration(items, sharedConfigs);
 		}
 	}
 
 	/**
 	 * load extensional configuration.
 	 */
-	private void loadExtConfiguration(CompositePropertySource compositePropertySource) {
+	private void loadExtConfiguration(List<ConfigItem> items) {
 		List<NacosConfigProperties.Config> extConfigs = nacosConfigProperties
 				.getExtensionConfigs();
 		if (!CollectionUtils.isEmpty(extConfigs)) {
 			checkConfiguration(extConfigs, "extension-configs");
-			loadNacosConfiguration(compositePropertySource, extConfigs);
+			loadNacosConfiguration(items, extConfigs);
 		}
 	}
 
 	/**
 	 * load configuration of application.
 	 */
-	private void loadApplicationConfiguration(
-			CompositePropertySource compositePropertySource, String dataIdPrefix,
-			NacosConfigProperties properties, Environment environment) {
+	private void loadApplicationConfiguration(List<ConfigItem> items,
+			String dataIdPrefix, NacosConfigProperties properties,
+			Environment environment) {
 		String fileExtension = properties.getFileExtension();
 		String nacosGroup = properties.getGroup();
 		// load directly once by default
-		loadNacosDataIfPresent(compositePropertySource, dataIdPrefix, nacosGroup,
-				fileExtension, true);
+		addConfigItem(items, dataIdPrefix, nacosGroup, fileExtension, true);
 		// load with suffix, which have a higher priority than the default
-		loadNacosDataIfPresent(compositePropertySource,
-				dataIdPrefix + DOT + fileExtension, nacosGroup, fileExtension, true);
+		addConfigItem(items, dataIdPrefix + DOT + fileExtension, nacosGroup,
+				fileExtension, true);
 		// Loaded with profile, which have a higher priority than the suffix
 		for (String profile : environment.getActiveProfiles()) {
 			String dataId = dataIdPrefix + SEP1 + profile + DOT + fileExtension;
-			loadNacosDataIfPresent(compositePropertySource, dataId, nacosGroup,
-					fileExtension, true);
+			addConfigItem(items, dataId, nacosGroup, fileExtension, true);
 		}
 
 	}
 
-	private void loadNacosConfiguration(final CompositePropertySource composite,
+	private void loadNacosConfiguration(List<ConfigItem> items,
 			List<NacosConfigProperties.Config> configs) {
 		for (NacosConfigProperties.Config config : configs) {
-			loadNacosDataIfPresent(composite, config.getDataId(), config.getGroup(),
+			addConfigItem(items, config.getDataId(), config.getGroup(),
 					NacosDataParserHandler.getInstance()
 							.getFileExtension(config.getDataId()),
 					config.isRefresh());
@@ -174,17 +194,32 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		}
 	}
 
-	private void loadNacosDataIfPresent(final CompositePropertySource composite,
-			final String dataId, final String group, String fileExtension,
-			boolean isRefreshable) {
+	private void addConfigItem(List<ConfigItem> items, final String dataId,
+			final String group, String fileExtension, boolean isRefreshable) {
 		if (null == dataId || dataId.trim().length() < 1) {
 			return;
 		}
 		if (null == group || group.trim().length() < 1) {
 			return;
 		}
-		NacosPropertySource propertySource = this.loadNacosPropertySource(dataId, group,
-				fileExtension, isRefreshable);
+		items.add(new ConfigItem(dataId, group, fileExtension, isRefreshable));
+	}
+
+	/**
+	 * Whether {@link #loadNacosPropertySource} will fetch the configuration from nacos.
+	 */
+	private boolean isFetchRequired(ConfigItem item) {
+		if (NacosContextRefresher.getRefreshCount() != 0 && !item.isRefreshable) {
+			return false;
+		}
+		return !NacosSnapshotConfigManager.containsConfigSnapshot(item.dataId,
+				item.group);
+	}
+
+	private void loadNacosDataIfPresent(final CompositePropertySource composite,
+			ConfigItem item) {
+		NacosPropertySource propertySource = this.loadNacosPropertySource(item.dataId,
+				item.group, item.fileExtension, item.isRefreshable);
 		this.addFirstPropertySource(composite, propertySource, false);
 	}
 
@@ -219,4 +254,24 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		this.nacosConfigManager = nacosConfigManager;
 	}
 
+	private static final class ConfigItem {
+
+		private final String dataId;
+
+		private final String group;
+
+		private final String fileExtension;
+
+		private final boolean isRefreshable;
+
+		private ConfigItem(String dataId, String group, String fileExtension,
+				boolean isRefreshable) {
+			this.dataId = dataId;
+			this.group = group;
+			this.fileExtension = fileExtension;
+			this.isRefreshable = isRefreshable;
+		}
+
+	}
+
 }
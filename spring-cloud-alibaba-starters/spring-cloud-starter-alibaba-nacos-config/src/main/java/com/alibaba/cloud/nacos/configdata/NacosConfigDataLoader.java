@@ -24,6 +24,8 @@ import java.util.List;
 import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.NacosConfigProperties;
 import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import com.alibaba.cloud.nacos.client.NacosConfigFetcher;
+import com.alibaba.cloud.nacos.client.NacosConfigSnapshotStore;
 import com.alibaba.cloud.nacos.client.NacosPropertySource;
 import com.alibaba.cloud.nacos.parser.NacosDataParserHandler;
 import com.alibaba.nacos.api.config.ConfigService;
@@ -72,16 +74,22 @@ public class NacosConfigDataLoader implements ConfigDataLoader<NacosConfigDataRe
 	public ConfigData doLoad(ConfigDataLoaderContext context,
 			NacosConfigDataResource resource) {
 		try {
-			ConfigService configService = getBean(context, NacosConfigManager.class)
-					.getConfigService();
-			NacosConfigProperties properties = getBean(context,
-					NacosConfigProperties.class);
+			NacosConfigFetcher configFetcher = getBean(context, NacosConfigFetcher.class);
+			if (configFetcher == null) {
+				ConfigService configService = getBean(context, NacosConfigManager.class)
+						.getConfigService();
+				NacosConfigProperties properties = getBean(context,
+						NacosConfigProperties.class);
+				configFetcher = new NacosConfigFetcher(configService,
+						properties.getTimeout(), 1, properties.getFetchDeadline());
+				configFetcher.setSnapshotStore(
+						NacosConfigSnapshotStore.getInstance(properties));
+			}
 
 			NacosItemConfig config = resource.getConfig();
 			// pull config from nacos
-			List<PropertySource<?>> propertySources = pullConfig(configService,
-					config.getGroup(), config.getDataId(), config.getSuffix(),
-					properties.getTimeout());
+			List<PropertySource<?>> propertySources = pullConfig(configFetcher,
+					config.getGroup(), config.getDataId(), config.getSuffix());
 
 			NacosPropertySource propertySource = new NacosPropertySource(propertySources,
 					config.getGroup(), config.getDataId(), new Date(),
@@ -135,10 +143,10 @@ public class NacosConfigDataLoader implements ConfigDataLoader<NacosConfigDataRe
 		return preference;
 	}
 
-	private List<PropertySource<?>> pullConfig(ConfigService configService, String group,
-			String dataId, String suffix, long timeout)
+	private List<PropertySource<?>> pullConfig(NacosConfigFetcher configFetcher,
+			String group, String dataId, String suffix)
 			throws NacosException, IOException {
-		String config = configService.getConfig(dataId, group, timeout);
+		String config = configFetcher.fetch(dataId, group);
 		logLoadInfo(group, dataId, config);
 		// fixed issue: https://github.com/alibaba/spring-cloud-alibaba/issues/2906 .
 		String configName = group + "@" + dataId;
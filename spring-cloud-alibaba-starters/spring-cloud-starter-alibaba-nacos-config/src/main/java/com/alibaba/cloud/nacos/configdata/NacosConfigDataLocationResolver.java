@@ -27,6 +27,9 @@ import java.util.Map;
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.cloud.nacos.client.NacosConfigFetcher;
+import com.alibaba.cloud.nacos.client.NacosConfigSnapshotStore;
+import com.alibaba.nacos.api.config.ConfigService;
 import org.apache.commons.logging.Log;
 
 import org.springframework.boot.BootstrapRegistry.InstanceSupplier;
@@ -148,7 +151,43 @@ public class NacosConfigDataLocationResolver
 
 		registerConfigManager(properties, bootstrapContext);
 
-		return loadConfigDataResources(location, profiles, properties);
+		List<NacosConfigDataResource> resources = loadConfigDataResources(location,
+				profiles, properties);
+		prefetchConfigs(resources, properties, bootstrapContext);
+		return resources;
+	}
+
+	/**
+	 * Spring Boot resolves all imported locations before loading them, so start fetching
+	 * the configurations here and let {@link NacosConfigDataLoader} take the results.
+	 */
+	private void prefetchConfigs(List<NacosConfigDataResource> resources,
+			NacosConfigProperties properties,
+			ConfigurableBootstrapContext bootstrapContext) {
+		if (properties.getFetchParallelism() <= 1) {
+			return;
+		}
+		if (!bootstrapContext.isRegistered(NacosConfigFetcher.class)) {
+			NacosConfigManager configManager = bootstrapContext
+					.getOrElse(NacosConfigManager.class, null);
+			ConfigService configService = configManager == null ? null
+					: configManager.getConfigService();
+			if (configService == null) {
+				return;
+			}
+			NacosConfigFetcher fetcher = new NacosConfigFetcher(configService,
+					properties.getTimeout(), properties.getFetchParallelism(),
+					properties.getFetchDeadline());
+			fetcher.setSnapshotStore(NacosConfigSnapshotStore.getInstance(properties));
+			bootstrapContext.register(NacosConfigFetcher.class,
+					InstanceSupplier.of(fetcher));
+		}
+		NacosConfigFetcher configFetcher = bootstrapContext
+				.get(NacosConfigFetcher.class);
+		for (NacosConfigDataResource resource : resources) {
+			configFetcher.prefetch(resource.getConfig().getDataId(),
+					resource.getConfig().getGroup());
+		}
 	}
 
 	private List<NacosConfigDataResource> loadConfigDataResources(
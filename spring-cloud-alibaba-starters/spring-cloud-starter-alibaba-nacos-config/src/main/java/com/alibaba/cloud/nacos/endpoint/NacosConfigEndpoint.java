@@ -19,12 +19,14 @@ package com.alibaba.cloud.nacos.endpoint;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.alibaba.cloud.nacos.NacosConfigProperties;
 import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import com.alibaba.cloud.nacos.client.NacosConfigSnapshotStore;
 import com.alibaba.cloud.nacos.client.NacosPropertySource;
 import com.alibaba.cloud.nacos.refresh.NacosRefreshHistory;
 
@@ -32,7 +34,9 @@ import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
 
 /**
- * Endpoint for Nacos, contains config data and refresh history.
+ * Endpoint for Nacos, contains config data and refresh history. With snapshots enabled,
+ * each source also reports whether it was served from its snapshot and how stale it may
+ * be.
  *
  * @author xiaojing
  */
@@ -58,12 +62,25 @@ public class NacosConfigEndpoint {
 		result.put("NacosConfigProperties", properties);
 
 		List<NacosPropertySource> all = NacosPropertySourceRepository.getAll();
+		NacosConfigSnapshotStore snapshotStore = NacosConfigSnapshotStore
+				.getInstance(properties);
 
 		List<Map<String, Object>> sources = new ArrayList<>();
 		for (NacosPropertySource ps : all) {
 			Map<String, Object> source = new HashMap<>(16);
 			source.put("dataId", ps.getDataId());
 			source.put("lastSynced", dateFormat.get().format(ps.getTimestamp()));
+			NacosConfigSnapshotStore.Status status = snapshotStore == null ? null
+					: snapshotStore.getStatus(ps.getDataId(), ps.getGroup());
+			if (status != null) {
+				source.put("servedFrom", status.getSource());
+				source.put("lastConfirmed",
+						dateFormat.get().format(new Date(status.getConfirmedTime())));
+				source.put("staleness", status.getStaleness());
+				if (status.getRevalidation() != null) {
+					source.put("revalidation", status.getRevalidation());
+				}
+			}
 			sources.add(source);
 		}
 		result.put("Sources", sources);
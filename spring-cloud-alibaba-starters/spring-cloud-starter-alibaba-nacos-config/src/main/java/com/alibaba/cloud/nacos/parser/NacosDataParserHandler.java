@@ -17,12 +17,15 @@
 package com.alibaba.cloud.nacos.parser;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import com.alibaba.cloud.nacos.utils.NacosConfigUtils;
@@ -48,15 +51,42 @@ public final class NacosDataParserHandler {
 	 */
 	private static final String DEFAULT_EXTENSION = "properties";
 
+	/**
+	 * maximum number of parsed configurations kept.
+	 */
+	private static final int CACHE_MAX_SIZE = 256;
+
 	private static List<PropertySourceLoader> propertySourceLoaders;
 
+	/**
+	 * Latest parsed content per configuration, least recently used first.
+	 */
+	private final Map<String, ParsedConfig> cache = new LinkedHashMap<>(16, 0.75f,
+			true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ParsedConfig> eldest) {
+			return size() > CACHE_MAX_SIZE;
+		}
+	};
+
+	private final AtomicLong cacheHitCount = new AtomicLong();
+
+	private final AtomicLong cacheMissCount = new AtomicLong();
+
+	private final AtomicLong parseTimeNanos = new AtomicLong();
+
 	private NacosDataParserHandler() {
-		propertySourceLoaders = SpringFactoriesLoader
-				.loadFactories(PropertySourceLoader.class, getClass().getClassLoader());
+		List<PropertySourceLoader> loaders = new ArrayList<>();
+		// reads properties as UTF-8, ahead of spring's ISO-8859-1 loader
+		loaders.add(new NacosPropertiesPropertySourceLoader());
+		loaders.addAll(SpringFactoriesLoader.loadFactories(PropertySourceLoader.class,
+				getClass().getClassLoader()));
+		propertySourceLoaders = loaders;
 	}
 
 	/**
-	 * Parsing nacos configuration content.
+	 * Parsing nacos configuration content. Unchanged content of a configuration is parsed
+	 * only once, the returned property sources are immutable and shared.
 	 * @param configName name of nacos-config
 	 * @param configValue value from nacos-config
 	 * @param extension identifies the type of configValue
@@ -71,6 +101,28 @@ public final class NacosDataParserHandler {
 		if (!StringUtils.hasLength(extension)) {
 			extension = this.getFileExtension(configName);
 		}
+		String cacheKey = configName + DOT + extension;
+		ParsedConfig cached;
+		synchronized (cache) {
+			cached = cache.get(cacheKey);
+		}
+		if (cached != null && cached.matches(configValue)) {
+			cacheHitCount.incrementAndGet();
+			return cached.propertySources;
+		}
+		cacheMissCount.incrementAndGet();
+		long start = System.nanoTime();
+		List<PropertySource<?>> propertySources = Collections
+				.unmodifiableList(doParseNacosData(configName, configValue, extension));
+		parseTimeNanos.addAndGet(System.nanoTime() - start);
+		synchronized (cache) {
+			cache.put(cacheKey, new ParsedConfig(configValue, propertySources));
+		}
+		return propertySources;
+	}
+
+	private List<PropertySource<?>> doParseNacosData(String configName,
+			String configValue, String extension) throws IOException {
 		for (PropertySourceLoader propertySourceLoader : propertySourceLoaders) {
 			if (!canLoadFileExtension(propertySourceLoader, extension)) {
 				continue;
@@ -83,6 +135,10 @@ public final class NacosDataParserHandler {
 						NacosConfigUtils.selectiveConvertUnicode(configValue).getBytes(),
 						configName);
 			}
+			else if (propertySourceLoader instanceof NacosPropertiesPropertySourceLoader) {
+				nacosByteArrayResource = new NacosByteArrayResource(
+						configValue.getBytes(StandardCharsets.UTF_8), configName);
+			}
 			else {
 				nacosByteArrayResource = new NacosByteArrayResource(
 						configValue.getBytes(), configName);
@@ -104,7 +160,8 @@ public final class NacosDataParserHandler {
 									map.put(name, propertySource.getProperty(name));
 								});
 								return new OriginTrackedMapPropertySource(
-										propertySource.getName(), map, true);
+										propertySource.getName(),
+										Collections.unmodifiableMap(map), true);
 							}
 						}
 						return propertySource;
@@ -157,10 +214,64 @@ public final class NacosDataParserHandler {
 		return name + DOT + extension;
 	}
 
+	/**
+	 * @return number of parses answered from the cache
+	 */
+	public long getCacheHitCount() {
+		return cacheHitCount.get();
+	}
+
+	/**
+	 * @return number of parses of new content
+	 */
+	public long getCacheMissCount() {
+		return cacheMissCount.get();
+	}
+
+	/**
+	 * @return total time spent parsing new content, in nanoseconds
+	 */
+	public long getParseTimeNanos() {
+		return parseTimeNanos.get();
+	}
+
+	/**
+	 * Drop all parsed configurations.
+	 */
+	public void clearCache() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
 	public static NacosDataParserHandler getInstance() {
 		return ParserHandler.HANDLER;
 	}
 
+	/**
+	 * Parsed content of a configuration, looked up by configuration and verified by
+	 * content hash and content.
+	 */
+	private static final class ParsedConfig {
+
+		private final String content;
+
+		private final int contentHash;
+
+		private final List<PropertySource<?>> propertySources;
+
+		private ParsedConfig(String content, List<PropertySource<?>> propertySources) {
+			this.content = content;
+			this.contentHash = content.hashCode();
+			this.propertySources = propertySources;
+		}
+
+		private boolean matches(String content) {
+			return contentHash == content.hashCode() && this.content.equals(content);
+		}
+
+	}
+
 	private static class ParserHandler {
 
 		private static final NacosDataParserHandler HANDLER = new NacosDataParserHandler();
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exports the parsed-config cache statistics of {@link NacosDataParserHandler} to
+ * Micrometer.
+ */
+public class NacosDataParserMetrics implements MeterBinder {
+
+	private static final String PREFIX = "nacos.config.parse";
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		NacosDataParserHandler handler = NacosDataParserHandler.getInstance();
+		FunctionCounter
+				.builder(PREFIX + ".cache", handler,
+						NacosDataParserHandler::getCacheHitCount)
+				.tag("result", "hit").description("Parses answered from the cache")
+				.register(registry);
+		FunctionCounter
+				.builder(PREFIX + ".cache", handler,
+						NacosDataParserHandler::getCacheMissCount)
+				.tag("result", "miss").description("Parses of new content")
+				.register(registry);
+		FunctionTimer
+				.builder(PREFIX + ".time", handler,
+						NacosDataParserHandler::getCacheMissCount,
+						NacosDataParserHandler::getParseTimeNanos, TimeUnit.NANOSECONDS)
+				.description("Time spent parsing new content").register(registry);
+	}
+
+}
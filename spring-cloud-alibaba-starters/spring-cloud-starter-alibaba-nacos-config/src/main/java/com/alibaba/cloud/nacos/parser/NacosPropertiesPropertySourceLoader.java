@@ -0,0 +1,381 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.env.OriginTrackedMapPropertySource;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.origin.OriginTrackedValue;
+import org.springframework.boot.origin.TextResourceOrigin;
+import org.springframework.boot.origin.TextResourceOrigin.Location;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+
+/**
+ * Loads {@code .properties} nacos configurations in a single pass over the UTF-8
+ * content.
+ * <p>
+ * {@link PropertiesPropertySourceLoader} reads {@code ISO-8859-1}, so every non-Latin
+ * character had to be escaped to {@code \\uXXXX} up front and decoded again by the
+ * loader. This loader follows the same syntax, including {@code #---} multi-document
+ * separators and {@code name[]=a,b,c} list expansion, and produces the same property
+ * sources, but reads the characters as they are. Origins point at the line and column
+ * of the original content.
+ * <p>
+ * Not registered in {@code spring.factories}: Spring Boot picks the first loader of an
+ * extension for {@code application.properties}, which this loader would refuse.
+ */
+public class NacosPropertiesPropertySourceLoader extends AbstractPropertySourceLoader {
+
+	/**
+	 * Returns the file extensions that the loader supports (excluding the '.').
+	 * @return the file extensions
+	 */
+	@Override
+	public String[] getFileExtensions() {
+		return new String[] { "properties" };
+	}
+
+	/**
+	 * Load the resource into a property source per document.
+	 * @param name the root name of the property source. If multiple documents are loaded
+	 * an additional suffix should be added to the name for each source loaded.
+	 * @param resource the resource to load
+	 * @return a list property sources
+	 * @throws IOException if the source cannot be loaded
+	 */
+	@Override
+	protected List<PropertySource<?>> doLoad(String name, Resource resource)
+			throws IOException {
+		List<Map<String, OriginTrackedValue>> documents = loadDocuments(resource);
+		if (documents.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<PropertySource<?>> propertySources = new ArrayList<>(documents.size());
+		for (int i = 0; i < documents.size(); i++) {
+			String documentNumber = (documents.size() != 1) ? " (document #" + i + ")"
+					: "";
+			propertySources.add(new OriginTrackedMapPropertySource(name + documentNumber,
+					Collections.unmodifiableMap(documents.get(i)), true));
+		}
+		return propertySources;
+	}
+
+	private List<Map<String, OriginTrackedValue>> loadDocuments(Resource resource)
+			throws IOException {
+		List<Map<String, OriginTrackedValue>> documents = new ArrayList<>();
+		Map<String, OriginTrackedValue> document = new LinkedHashMap<>();
+		StringBuilder buffer = new StringBuilder();
+		try (CharacterReader reader = new CharacterReader(resource)) {
+			while (reader.read()) {
+				if (reader.isCommentPrefixCharacter()) {
+					char commentPrefixCharacter = reader.getCharacter();
+					if (isNewDocument(reader)) {
+						if (!document.isEmpty()) {
+							documents.add(document);
+						}
+						document = new LinkedHashMap<>();
+					}
+					else {
+						if (document.isEmpty() && !documents.isEmpty()) {
+							document = documents.remove(documents.size() - 1);
+						}
+						reader.setLastLineCommentPrefixCharacter(commentPrefixCharacter);
+						reader.skipComment();
+					}
+				}
+				else {
+					reader.setLastLineCommentPrefixCharacter(-1);
+					loadKeyAndValue(resource, document, reader, buffer);
+				}
+			}
+		}
+		if (!document.isEmpty()) {
+			documents.add(document);
+		}
+		return documents;
+	}
+
+	private void loadKeyAndValue(Resource resource,
+			Map<String, OriginTrackedValue> document, CharacterReader reader,
+			StringBuilder buffer) throws IOException {
+		String key = loadKey(buffer, reader).trim();
+		if (key.endsWith("[]")) {
+			key = key.substring(0, key.length() - 2);
+			int index = 0;
+			do {
+				OriginTrackedValue value = loadValue(resource, buffer, reader, true);
+				put(document, key + "[" + (index++) + "]", value);
+				if (!reader.isEndOfLine()) {
+					reader.read();
+				}
+			}
+			while (!reader.isEndOfLine());
+		}
+		else {
+			put(document, key, loadValue(resource, buffer, reader, false));
+		}
+	}
+
+	private void put(Map<String, OriginTrackedValue> document, String key,
+			OriginTrackedValue value) {
+		if (!key.isEmpty()) {
+			document.put(key, value);
+		}
+	}
+
+	private String loadKey(StringBuilder buffer, CharacterReader reader)
+			throws IOException {
+		buffer.setLength(0);
+		boolean previousWhitespace = false;
+		while (!reader.isEndOfLine()) {
+			if (reader.isPropertyDelimiter()) {
+				reader.read();
+				return buffer.toString();
+			}
+			if (!reader.isWhiteSpace() && previousWhitespace) {
+				return buffer.toString();
+			}
+			previousWhitespace = reader.isWhiteSpace();
+			buffer.append(reader.getCharacter());
+			reader.read();
+		}
+		return buffer.toString();
+	}
+
+	private OriginTrackedValue loadValue(Resource resource, StringBuilder buffer,
+			CharacterReader reader, boolean splitLists) throws IOException {
+		buffer.setLength(0);
+		while (reader.isWhiteSpace() && !reader.isEndOfLine()) {
+			reader.read();
+		}
+		Location location = reader.getLocation();
+		while (!reader.isEndOfLine() && !(splitLists && reader.isListDelimiter())) {
+			buffer.append(reader.getCharacter());
+			reader.read();
+		}
+		return OriginTrackedValue.of(buffer.toString(),
+				new TextResourceOrigin(resource, location));
+	}
+
+	private boolean isNewDocument(CharacterReader reader) throws IOException {
+		if (reader.isSameLastLineCommentPrefix()) {
+			return false;
+		}
+		boolean result = reader.getLocation().getColumn() == 0;
+		for (int i = 0; i < 3 && result; i++) {
+			reader.read();
+			result = reader.isHyphenCharacter();
+		}
+		if (!reader.isEndOfLine()) {
+			reader.read();
+			reader.skipWhitespace();
+		}
+		return result && reader.isEndOfLine();
+	}
+
+	/**
+	 * Reads the characters of the resource through a buffer, translating {@code \r} and
+	 * {@code \r\n} line terminators to {@code \n}, resolving {@code '\'} escapes and
+	 * tracking the line and column of the current character.
+	 */
+	private static final class CharacterReader implements Closeable {
+
+		private static final String[] ESCAPES = { "trnf", "\t\r\n\f" };
+
+		private final Reader reader;
+
+		private final char[] chunk = new char[8192];
+
+		private int position;
+
+		private int limit;
+
+		private boolean skipLineFeed;
+
+		private int lineNumber;
+
+		private int columnNumber = -1;
+
+		private boolean escaped;
+
+		private int character;
+
+		private int lastLineCommentPrefixCharacter;
+
+		private CharacterReader(Resource resource) throws IOException {
+			this.reader = new InputStreamReader(resource.getInputStream(),
+					StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.reader.close();
+		}
+
+		private int next() throws IOException {
+			while (true) {
+				if (this.position == this.limit) {
+					this.limit = this.reader.read(this.chunk);
+					this.position = 0;
+					if (this.limit <= 0) {
+						this.limit = 0;
+						return -1;
+					}
+				}
+				char c = this.chunk[this.position++];
+				if (this.skipLineFeed) {
+					this.skipLineFeed = false;
+					if (c == '\n') {
+						continue;
+					}
+				}
+				if (c == '\r') {
+					this.skipLineFeed = true;
+					c = '\n';
+				}
+				if (c == '\n') {
+					this.lineNumber++;
+				}
+				return c;
+			}
+		}
+
+		private boolean read() throws IOException {
+			this.escaped = false;
+			this.character = next();
+			this.columnNumber++;
+			if (this.columnNumber == 0) {
+				skipWhitespace();
+			}
+			if (this.character == '\\') {
+				this.escaped = true;
+				readEscaped();
+			}
+			else if (this.character == '\n') {
+				this.columnNumber = -1;
+			}
+			return !isEndOfFile();
+		}
+
+		private void skipWhitespace() throws IOException {
+			while (isWhiteSpace()) {
+				this.character = next();
+				this.columnNumber++;
+			}
+		}
+
+		private void setLastLineCommentPrefixCharacter(
+				int lastLineCommentPrefixCharacter) {
+			this.lastLineCommentPrefixCharacter = lastLineCommentPrefixCharacter;
+		}
+
+		private void skipComment() throws IOException {
+			while (this.character != '\n' && this.character != -1) {
+				this.character = next();
+			}
+			this.columnNumber = -1;
+		}
+
+		private void readEscaped() throws IOException {
+			this.character = next();
+			int escapeIndex = ESCAPES[0].indexOf(this.character);
+			if (escapeIndex != -1) {
+				this.character = ESCAPES[1].charAt(escapeIndex);
+			}
+			else if (this.character == '\n') {
+				this.columnNumber = -1;
+				read();
+			}
+			else if (this.character == 'u') {
+				readUnicode();
+			}
+		}
+
+		private void readUnicode() throws IOException {
+			this.character = 0;
+			for (int i = 0; i < 4; i++) {
+				int digit = next();
+				if (digit >= '0' && digit <= '9') {
+					this.character = (this.character << 4) + digit - '0';
+				}
+				else if (digit >= 'a' && digit <= 'f') {
+					this.character = (this.character << 4) + digit - 'a' + 10;
+				}
+				else if (digit >= 'A' && digit <= 'F') {
+					this.character = (this.character << 4) + digit - 'A' + 10;
+				}
+				else {
+					throw new IllegalStateException("Malformed \\uxxxx encoding.");
+				}
+			}
+		}
+
+		private boolean isWhiteSpace() {
+			return !this.escaped && (this.character == ' ' || this.character == '\t'
+					|| this.character == '\f');
+		}
+
+		private boolean isEndOfFile() {
+			return this.character == -1;
+		}
+
+		private boolean isEndOfLine() {
+			return this.character == -1 || (!this.escaped && this.character == '\n');
+		}
+
+		private boolean isListDelimiter() {
+			return !this.escaped && this.character == ',';
+		}
+
+		private boolean isPropertyDelimiter() {
+			return !this.escaped && (this.character == '=' || this.character == ':');
+		}
+
+		private char getCharacter() {
+			return (char) this.character;
+		}
+
+		private Location getLocation() {
+			return new Location(this.lineNumber, this.columnNumber);
+		}
+
+		private boolean isSameLastLineCommentPrefix() {
+			return this.lastLineCommentPrefixCharacter == this.character;
+		}
+
+		private boolean isCommentPrefixCharacter() {
+			return this.character == '#' || this.character == '!';
+		}
+
+		private boolean isHyphenCharacter() {
+			return this.character == '-';
+		}
+
+	}
+
+}
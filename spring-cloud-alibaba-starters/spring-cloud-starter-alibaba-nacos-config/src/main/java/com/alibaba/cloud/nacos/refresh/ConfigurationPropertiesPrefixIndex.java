@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Character trie of {@code @ConfigurationProperties} prefixes, routing a changed key to
+ * the beans whose prefix the key starts with in O(key length).
+ * <p>
+ * Not thread-safe, callers synchronize.
+ */
+final class ConfigurationPropertiesPrefixIndex {
+
+	private final Node root = new Node();
+
+	private int size;
+
+	/**
+	 * Index a bean under its prefix.
+	 * @param prefix prefix of the bean, may be empty
+	 * @param beanName name of the bean
+	 */
+	void add(String prefix, String beanName) {
+		Node node = root;
+		for (int i = 0; i < prefix.length(); i++) {
+			node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+		}
+		node.beanNames.add(beanName);
+		size++;
+	}
+
+	/**
+	 * Remove a bean indexed under a prefix.
+	 * @param prefix prefix the bean was indexed under
+	 * @param beanName name of the bean
+	 */
+	void remove(String prefix, String beanName) {
+		Node node = root;
+		for (int i = 0; i < prefix.length() && node != null; i++) {
+			node = node.children.get(prefix.charAt(i));
+		}
+		if (node != null && node.beanNames.remove(beanName)) {
+			size--;
+		}
+	}
+
+	/**
+	 * Collect the beans whose prefix {@code key} starts with.
+	 * @param key changed key
+	 * @param beanNames receives the names of the matching beans
+	 * @return number of trie nodes visited
+	 */
+	int match(String key, Set<String> beanNames) {
+		Node node = root;
+		int visited = 1;
+		beanNames.addAll(node.beanNames);
+		for (int i = 0; i < key.length(); i++) {
+			node = node.children.get(key.charAt(i));
+			if (node == null) {
+				break;
+			}
+			visited++;
+			beanNames.addAll(node.beanNames);
+		}
+		return visited;
+	}
+
+	/**
+	 * @return number of indexed beans
+	 */
+	int size() {
+		return size;
+	}
+
+	private static final class Node {
+
+		private final Map<Character, Node> children = new HashMap<>(4);
+
+		private final List<String> beanNames = new ArrayList<>(1);
+
+	}
+
+}
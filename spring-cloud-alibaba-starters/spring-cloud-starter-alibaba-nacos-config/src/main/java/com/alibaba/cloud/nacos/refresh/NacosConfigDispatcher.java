@@ -0,0 +1,344 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.nacos.api.config.ConfigChangeEvent;
+import com.alibaba.nacos.api.config.ConfigChangeItem;
+import com.alibaba.nacos.api.config.listener.AbstractListener;
+import com.alibaba.nacos.api.config.listener.AbstractSharedListener;
+import com.alibaba.nacos.api.config.listener.Listener;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.client.config.impl.ConfigChangeHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single nacos listener per dataId and group, shared by every component interested in
+ * the configuration.
+ * <p>
+ * A push is received once. Content subscribers get the raw content. For key subscribers
+ * the push is parsed and diffed against the previous content once, and the resulting
+ * {@link ConfigChangeEvent} is handed to the subscribers of the changed keys only,
+ * looked up through a key to subscriber index. Subscribers without interested keys or
+ * prefixes get every event.
+ */
+public class NacosConfigDispatcher {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosConfigDispatcher.class);
+
+	private final NacosConfigManager nacosConfigManager;
+
+	private final Map<String, DataIdDispatcher> dispatchers = new ConcurrentHashMap<>();
+
+	private final AtomicLong pushCount = new AtomicLong();
+
+	private final AtomicLong diffCount = new AtomicLong();
+
+	public NacosConfigDispatcher(NacosConfigManager nacosConfigManager) {
+		this.nacosConfigManager = nacosConfigManager;
+	}
+
+	/**
+	 * Subscribe to the content of a configuration.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param listener receives the content of every push
+	 * @throws NacosException if the nacos listener could not be added
+	 */
+	public void subscribe(String dataId, String group, Listener listener)
+			throws NacosException {
+		if (listener instanceof AbstractSharedListener sharedListener) {
+			// filled in by nacos for the listeners it calls itself
+			sharedListener.fillContext(dataId, group);
+		}
+		getDispatcher(dataId, group).contentSubscribers.add(listener);
+	}
+
+	/**
+	 * Subscribe to changes of keys of a configuration.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param keys interested keys
+	 * @param keyPrefixes interested key prefixes
+	 * @param currentContent content the subscriber was initialized with, the first push
+	 * is diffed against it if no other content is known yet
+	 * @param consumer receives the changes, if any of them is of interest
+	 * @throws NacosException if the nacos listener could not be added
+	 */
+	public void subscribe(String dataId, String group, Collection<String> keys,
+			Collection<String> keyPrefixes, String currentContent,
+			Consumer<ConfigChangeEvent> consumer) throws NacosException {
+		DataIdDispatcher dispatcher = getDispatcher(dataId, group);
+		dispatcher.addKeySubscriber(new KeySubscriber(keys, keyPrefixes, consumer),
+				currentContent);
+	}
+
+	/**
+	 * @return number of pushes received, over all configurations
+	 */
+	public long getPushCount() {
+		return pushCount.get();
+	}
+
+	/**
+	 * @return number of pushes parsed and diffed for key subscribers
+	 */
+	public long getDiffCount() {
+		return diffCount.get();
+	}
+
+	/**
+	 * Dispatch a push, as if received from nacos.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param content content of the configuration
+	 */
+	void dispatch(String dataId, String group, String content) {
+		DataIdDispatcher dispatcher = dispatchers.get(key(dataId, group));
+		if (dispatcher != null) {
+			dispatcher.receive(content);
+		}
+	}
+
+	private DataIdDispatcher getDispatcher(String dataId, String group)
+			throws NacosException {
+		String key = key(dataId, group);
+		DataIdDispatcher dispatcher = dispatchers.get(key);
+		if (dispatcher != null) {
+			return dispatcher;
+		}
+		synchronized (dispatchers) {
+			dispatcher = dispatchers.get(key);
+			if (dispatcher == null) {
+				dispatcher = new DataIdDispatcher(dataId, group);
+				nacosConfigManager.getConfigService().addListener(dataId, group,
+						dispatcher.listener);
+				dispatchers.put(key, dispatcher);
+			}
+			return dispatcher;
+		}
+	}
+
+	private static String key(String dataId, String group) {
+		return dataId + "@" + group;
+	}
+
+	/**
+	 * Subscribers of one configuration and its last known content.
+	 */
+	private final class DataIdDispatcher {
+
+		private final String dataId;
+
+		private final String group;
+
+		private final List<Listener> contentSubscribers = new CopyOnWriteArrayList<>();
+
+		private final Listener listener = new AbstractListener() {
+			@Override
+			public void receiveConfigInfo(String configInfo) {
+				receive(configInfo);
+			}
+
+			@Override
+			public String toString() {
+				return "sca nacos config dispatcher listener";
+			}
+		};
+
+		private volatile KeyIndex index = KeyIndex.EMPTY;
+
+		private String content;
+
+		private boolean contentKnown;
+
+		private DataIdDispatcher(String dataId, String group) {
+			this.dataId = dataId;
+			this.group = group;
+		}
+
+		private synchronized void addKeySubscriber(KeySubscriber subscriber,
+				String currentContent) {
+			if (!contentKnown) {
+				content = currentContent;
+				contentKnown = true;
+			}
+			index = index.with(subscriber);
+		}
+
+		private void receive(String configInfo) {
+			pushCount.incrementAndGet();
+			for (Listener subscriber : contentSubscribers) {
+				try {
+					subscriber.receiveConfigInfo(configInfo);
+				}
+				catch (Throwable e) {
+					log.warn("[Nacos Config] listener {} failed, dataId={}, group={}",
+							subscriber, dataId, group, e);
+				}
+			}
+			String lastContent;
+			KeyIndex currentIndex;
+			synchronized (this) {
+				lastContent = content;
+				content = configInfo;
+				contentKnown = true;
+				currentIndex = index;
+			}
+			if (currentIndex.isEmpty()) {
+				return;
+			}
+			Map<String, ConfigChangeItem> changes;
+			try {
+				changes = ConfigChangeHandler.getInstance().parseChangeData(lastContent,
+						configInfo, type(dataId));
+			}
+			catch (Exception e) {
+				log.warn("[Nacos Config] parse changes failed, dataId={}, group={}",
+						dataId, group, e);
+				return;
+			}
+			diffCount.incrementAndGet();
+			ConfigChangeEvent event = new ConfigChangeEvent(changes);
+			for (KeySubscriber subscriber : currentIndex.match(changes.keySet())) {
+				try {
+					subscriber.consumer.accept(event);
+				}
+				catch (Throwable e) {
+					log.warn("[Nacos Config] listener {} failed, dataId={}, group={}",
+							subscriber.consumer, dataId, group, e);
+				}
+			}
+		}
+
+		private String type(String dataId) {
+			if (dataId.endsWith(".yml") || dataId.endsWith(".yaml")) {
+				return "yaml";
+			}
+			return "properties";
+		}
+
+	}
+
+	/**
+	 * Immutable index of key subscribers, replaced as a whole when a subscriber is
+	 * added.
+	 */
+	private static final class KeyIndex {
+
+		private static final KeyIndex EMPTY = new KeyIndex(Collections.emptyList(),
+				Collections.emptyMap(), Collections.emptyMap());
+
+		private final List<KeySubscriber> wildcards;
+
+		private final Map<String, List<KeySubscriber>> byKey;
+
+		private final Map<String, List<KeySubscriber>> byPrefix;
+
+		private KeyIndex(List<KeySubscriber> wildcards,
+				Map<String, List<KeySubscriber>> byKey,
+				Map<String, List<KeySubscriber>> byPrefix) {
+			this.wildcards = wildcards;
+			this.byKey = byKey;
+			this.byPrefix = byPrefix;
+		}
+
+		private boolean isEmpty() {
+			return wildcards.isEmpty() && byKey.isEmpty() && byPrefix.isEmpty();
+		}
+
+		private KeyIndex with(KeySubscriber subscriber) {
+			List<KeySubscriber> newWildcards = new ArrayList<>(wildcards);
+			Map<String, List<KeySubscriber>> newByKey = new HashMap<>(byKey);
+			Map<String, List<KeySubscriber>> newByPrefix = new HashMap<>(byPrefix);
+			if (subscriber.keys.isEmpty() && subscriber.keyPrefixes.isEmpty()) {
+				newWildcards.add(subscriber);
+			}
+			for (String key : subscriber.keys) {
+				add(newByKey, key, subscriber);
+			}
+			for (String prefix : subscriber.keyPrefixes) {
+				add(newByPrefix, prefix, subscriber);
+			}
+			return new KeyIndex(newWildcards, newByKey, newByPrefix);
+		}
+
+		private static void add(Map<String, List<KeySubscriber>> index, String key,
+				KeySubscriber subscriber) {
+			List<KeySubscriber> subscribers = new ArrayList<>(
+					index.getOrDefault(key, Collections.emptyList()));
+			subscribers.add(subscriber);
+			index.put(key, subscribers);
+		}
+
+		/**
+		 * @param changedKeys keys of the changes
+		 * @return subscribers interested in any of the keys, each once, in subscription
+		 * order per key
+		 */
+		private Set<KeySubscriber> match(Set<String> changedKeys) {
+			Set<KeySubscriber> result = new LinkedHashSet<>(wildcards);
+			for (String changedKey : changedKeys) {
+				List<KeySubscriber> subscribers = byKey.get(changedKey);
+				if (subscribers != null) {
+					result.addAll(subscribers);
+				}
+				for (Map.Entry<String, List<KeySubscriber>> entry : byPrefix.entrySet()) {
+					if (changedKey.startsWith(entry.getKey())) {
+						result.addAll(entry.getValue());
+					}
+				}
+			}
+			return result;
+		}
+
+	}
+
+	private static final class KeySubscriber {
+
+		private final Set<String> keys;
+
+		private final Set<String> keyPrefixes;
+
+		private final Consumer<ConfigChangeEvent> consumer;
+
+		private KeySubscriber(Collection<String> keys, Collection<String> keyPrefixes,
+				Consumer<ConfigChangeEvent> consumer) {
+			this.keys = keys == null ? Collections.emptySet() : new LinkedHashSet<>(keys);
+			this.keyPrefixes = keyPrefixes == null ? Collections.emptySet()
+					: new LinkedHashSet<>(keyPrefixes);
+			this.consumer = consumer;
+		}
+
+	}
+
+}
@@ -16,7 +16,10 @@
 
 package com.alibaba.cloud.nacos.refresh;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -24,15 +27,18 @@ import java.util.concurrent.atomic.AtomicLong;
 import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.NacosConfigProperties;
 import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import com.alibaba.cloud.nacos.client.NacosConfigSnapshotStore;
 import com.alibaba.cloud.nacos.client.NacosPropertySource;
-import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.cloud.nacos.refresh.NacosRefreshScheduler.ConfigChange;
 import com.alibaba.nacos.api.config.listener.AbstractSharedListener;
 import com.alibaba.nacos.api.config.listener.Listener;
 import com.alibaba.nacos.api.exception.NacosException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.cloud.endpoint.event.RefreshEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
@@ -47,8 +53,8 @@ import org.springframework.context.ApplicationListener;
  * @author pbting
  * @author freeman
  */
-public class NacosContextRefresher
-		implements ApplicationListener<ApplicationReadyEvent>, ApplicationContextAware {
+public class NacosContextRefresher implements ApplicationListener<ApplicationReadyEvent>,
+		ApplicationContextAware, DisposableBean {
 
 	private final static Logger log = LoggerFactory
 			.getLogger(NacosContextRefresher.class);
@@ -57,9 +63,6 @@ public class NacosContextRefresher
 	private final boolean isRefreshEnabled;
 	private final NacosRefreshHistory nacosRefreshHistory;
 	private NacosConfigProperties nacosConfigProperties;
-	private ConfigService configService;
-
-	private NacosConfigManager configManager;
 
 	private ApplicationContext applicationContext;
 
@@ -67,12 +70,31 @@ public class NacosContextRefresher
 
 	private Map<String, Listener> listenerMap = new ConcurrentHashMap<>(16);
 
+	private NacosIncrementalRefresher incrementalRefresher;
+
+	private final NacosRefreshScheduler refreshScheduler;
+
+	private final NacosConfigSnapshotStore snapshotStore;
+
+	private final NacosConfigDispatcher configDispatcher;
+
 	public NacosContextRefresher(NacosConfigManager nacosConfigManager,
 			NacosRefreshHistory refreshHistory) {
-		this.configManager = nacosConfigManager;
+		this(nacosConfigManager, refreshHistory,
+				new NacosConfigDispatcher(nacosConfigManager));
+	}
+
+	public NacosContextRefresher(NacosConfigManager nacosConfigManager,
+			NacosRefreshHistory refreshHistory, NacosConfigDispatcher configDispatcher) {
+		this.configDispatcher = configDispatcher;
 		this.nacosConfigProperties = nacosConfigManager.getNacosConfigProperties();
 		this.nacosRefreshHistory = refreshHistory;
 		this.isRefreshEnabled = this.nacosConfigProperties.isRefreshEnabled();
+		this.refreshScheduler = new NacosRefreshScheduler(
+				nacosConfigProperties.getRefreshQuietPeriod(),
+				nacosConfigProperties.getRefreshMaxDelay(), this::refresh);
+		this.snapshotStore = NacosConfigSnapshotStore
+				.getInstance(this.nacosConfigProperties);
 	}
 
 	public static long getRefreshCount() {
@@ -88,12 +110,17 @@ public class NacosContextRefresher
 		// many Spring context
 		if (this.ready.compareAndSet(false, true)) {
 			this.registerNacosListenersForApplications();
+			if (snapshotStore != null) {
+				snapshotStore.setChangeListener(this::onSnapshotOutdated);
+			}
 		}
 	}
 
 	@Override
 	public void setApplicationContext(ApplicationContext applicationContext) {
 		this.applicationContext = applicationContext;
+		this.incrementalRefresher = new NacosIncrementalRefresher(applicationContext,
+				nacosConfigProperties);
 	}
 
 	/**
@@ -119,24 +146,11 @@ public class NacosContextRefresher
 					@Override
 					public void innerReceive(String dataId, String group,
 							String configInfo) {
-						refreshCountIncrement();
-						nacosRefreshHistory.addRefreshRecord(dataId, group, configInfo);
-						NacosSnapshotConfigManager.putConfigSnapshot(dataId, group,
-								configInfo);
-						applicationContext.publishEvent(
-								new RefreshEvent(this, null, "Refresh Nacos config"));
-						if (log.isDebugEnabled()) {
-							log.debug(String.format(
-									"Refresh Nacos config group=%s,dataId=%s,configInfo=%s",
-									group, dataId, configInfo));
-						}
+						receive(dataId, group, configInfo);
 					}
 				});
 		try {
-			if (configService == null && configManager != null) {
-				configService = configManager.getConfigService();
-			}
-			configService.addListener(dataKey, groupKey, listener);
+			configDispatcher.subscribe(dataKey, groupKey, listener);
 			log.info("[Nacos Config] Listening config: dataId={}, group={}", dataKey,
 					groupKey);
 		}
@@ -147,6 +161,84 @@ public class NacosContextRefresher
 		}
 	}
 
+	private void receive(String dataId, String group, String configInfo) {
+		refreshCountIncrement();
+		nacosRefreshHistory.addRefreshRecord(dataId, group, configInfo);
+		if (snapshotStore != null) {
+			snapshotStore.save(dataId, group, configInfo);
+		}
+		refreshScheduler.schedule(dataId, group, configInfo);
+		if (log.isDebugEnabled()) {
+			log.debug(String.format(
+					"Refresh Nacos config group=%s,dataId=%s,configInfo=%s", group,
+					dataId, configInfo));
+		}
+	}
+
+	/**
+	 * A configuration served from its snapshot at startup changed in nacos meanwhile.
+	 * Refreshable configurations are refreshed like on a push, others keep the served
+	 * content until the next start.
+	 */
+	private void onSnapshotOutdated(String dataId, String group, String configInfo) {
+		NacosPropertySource propertySource = NacosPropertySourceRepository
+				.getNacosPropertySource(dataId, group);
+		if (!isRefreshEnabled() || propertySource == null
+				|| !propertySource.isRefreshable()) {
+			log.warn("[Nacos Config] config served from snapshot is outdated and not "
+					+ "refreshable, dataId={}, group={}", dataId, group);
+			return;
+		}
+		receive(dataId, group, configInfo);
+	}
+
+	/**
+	 * Refresh the configurations changed since the last refresh. With incremental
+	 * refresh enabled, the changes are applied to the changed dataIds only and published
+	 * as one {@link EnvironmentChangeEvent}; the context is refreshed as a whole
+	 * otherwise, or for changes that cannot be applied incrementally.
+	 */
+	private void refresh(List<ConfigChange> changes) {
+		boolean fullRefresh = false;
+		Set<String> changedKeys = new HashSet<>();
+		for (ConfigChange change : changes) {
+			Set<String> keys = null;
+			if (nacosConfigProperties.isIncrementalRefresh()
+					&& incrementalRefresher != null) {
+				keys = incrementalRefresher.apply(change.getDataId(), change.getGroup(),
+						change.getConfigInfo());
+			}
+			if (keys == null) {
+				NacosSnapshotConfigManager.putConfigSnapshot(change.getDataId(),
+						change.getGroup(), change.getConfigInfo());
+				fullRefresh = true;
+			}
+			else {
+				changedKeys.addAll(keys);
+			}
+		}
+		if (incrementalRefresher != null) {
+			// published first, a full refresh only reports keys it changes itself
+			incrementalRefresher.publish(changedKeys);
+		}
+		if (fullRefresh) {
+			applicationContext.publishEvent(
+					new RefreshEvent(this, null, "Refresh Nacos config"));
+		}
+	}
+
+	/**
+	 * @return the scheduler coalescing configuration changes into refreshes
+	 */
+	public NacosRefreshScheduler getRefreshScheduler() {
+		return refreshScheduler;
+	}
+
+	@Override
+	public void destroy() {
+		refreshScheduler.shutdown();
+	}
+
 	public NacosConfigProperties getNacosConfigProperties() {
 		return nacosConfigProperties;
 	}
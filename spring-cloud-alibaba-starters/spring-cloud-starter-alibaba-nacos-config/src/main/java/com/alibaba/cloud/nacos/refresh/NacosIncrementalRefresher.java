@@ -0,0 +1,225 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import com.alibaba.cloud.nacos.client.NacosPropertySource;
+import com.alibaba.cloud.nacos.parser.NacosDataParserHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.origin.OriginTrackedValue;
+import org.springframework.cloud.bootstrap.config.BootstrapPropertySource;
+import org.springframework.cloud.bootstrap.config.PropertySourceBootstrapConfiguration;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * Applies the change of a single nacos configuration without a full context refresh.
+ * <p>
+ * The changed content is parsed on its own, the property source of the configuration is
+ * swapped in place in the environment and an {@link EnvironmentChangeEvent} carrying
+ * only the keys whose values differ is published. Other configurations are neither
+ * fetched nor parsed again.
+ */
+class NacosIncrementalRefresher {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosIncrementalRefresher.class);
+
+	private static final String BOOTSTRAP_PREFIX = PropertySourceBootstrapConfiguration.BOOTSTRAP_PROPERTY_SOURCE_NAME
+			+ "-";
+
+	private static final String DOCUMENT_SUFFIX = " (document #";
+
+	private final ApplicationContext applicationContext;
+
+	private final NacosConfigProperties nacosConfigProperties;
+
+	NacosIncrementalRefresher(ApplicationContext applicationContext,
+			NacosConfigProperties nacosConfigProperties) {
+		this.applicationContext = applicationContext;
+		this.nacosConfigProperties = nacosConfigProperties;
+	}
+
+	/**
+	 * Swap the property source of a configuration without publishing the change.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param configInfo new content
+	 * @return the changed keys, null if the property source of the configuration was not
+	 * found in the environment
+	 */
+	synchronized Set<String> apply(String dataId, String group, String configInfo) {
+		if (!(applicationContext
+				.getEnvironment() instanceof ConfigurableEnvironment environment)) {
+			return null;
+		}
+		MutablePropertySources propertySources = environment.getPropertySources();
+		List<PropertySource<?>> current = findPropertySources(propertySources, dataId,
+				group);
+		if (current.isEmpty()) {
+			return null;
+		}
+		NacosPropertySource updated;
+		try {
+			// named as in NacosConfigDataLoader, the name only shows up in origins
+			List<PropertySource<?>> parsed = NacosDataParserHandler.getInstance()
+					.parseNacosData(group + "@" + dataId, configInfo,
+							fileExtensionOf(dataId));
+			updated = new NacosPropertySource(parsed, group, dataId, new Date(), true);
+		}
+		catch (Exception e) {
+			log.error("parse data from Nacos error,dataId:{},group:{}", dataId, group, e);
+			// keep the current values rather than dropping them
+			return Collections.emptySet();
+		}
+
+		Set<String> changedKeys = diff(flatten(current), updated.getSource());
+		PropertySource<?> first = current.get(0);
+		if (first instanceof BootstrapPropertySource) {
+			propertySources.replace(first.getName(),
+					new BootstrapPropertySource<>(updated));
+		}
+		else {
+			propertySources.replace(first.getName(), updated);
+		}
+		for (int i = 1; i < current.size(); i++) {
+			propertySources.remove(current.get(i).getName());
+		}
+		// keep the endpoint and the refreshable checks on the swapped source
+		NacosPropertySourceRepository.collectNacosPropertySource(updated);
+
+		if (log.isDebugEnabled()) {
+			log.debug("Incremental refresh of dataId={}, group={}, changed keys: {}",
+					dataId, group, changedKeys);
+		}
+		return changedKeys;
+	}
+
+	/**
+	 * Publish the keys changed by {@link #apply}.
+	 * @param changedKeys changed keys, nothing is published if empty
+	 */
+	void publish(Set<String> changedKeys) {
+		if (changedKeys.isEmpty()) {
+			return;
+		}
+		applicationContext
+				.publishEvent(new EnvironmentChangeEvent(applicationContext, changedKeys));
+		RefreshScope refreshScope = applicationContext.getBeanProvider(RefreshScope.class)
+				.getIfAvailable();
+		if (refreshScope != null) {
+			refreshScope.refreshAll();
+		}
+	}
+
+	/**
+	 * Property sources holding the configuration, highest precedence first. The
+	 * configuration is a single source when loaded by
+	 * {@code NacosPropertySourceLocator} or by an earlier incremental refresh, and one
+	 * source per document when loaded by {@code NacosConfigDataLoader}.
+	 */
+	private static List<PropertySource<?>> findPropertySources(
+			MutablePropertySources propertySources, String dataId, String group) {
+		String nacosName = String.join(NacosConfigProperties.COMMAS, dataId, group);
+		String configDataName = group + "@" + dataId;
+		List<PropertySource<?>> result = new ArrayList<>();
+		for (PropertySource<?> propertySource : propertySources) {
+			String name = propertySource.getName();
+			if (name.equals(BOOTSTRAP_PREFIX + nacosName) || name.equals(nacosName)) {
+				return Collections.singletonList(propertySource);
+			}
+			if (name.equals(configDataName)
+					|| name.startsWith(configDataName + DOCUMENT_SUFFIX)) {
+				result.add(propertySource);
+			}
+		}
+		return result;
+	}
+
+	private String fileExtensionOf(String dataId) {
+		int idx = dataId.lastIndexOf('.');
+		if (idx > 0 && idx < dataId.length() - 1) {
+			return dataId.substring(idx + 1);
+		}
+		return nacosConfigProperties.getFileExtension();
+	}
+
+	private static Map<String, Object> flatten(List<PropertySource<?>> propertySources) {
+		Map<String, Object> result = new HashMap<>();
+		// lowest precedence first, so that higher ones override
+		for (int i = propertySources.size() - 1; i >= 0; i--) {
+			if (propertySources
+					.get(i) instanceof EnumerablePropertySource<?> enumerable) {
+				for (String name : enumerable.getPropertyNames()) {
+					result.put(name, enumerable.getProperty(name));
+				}
+			}
+		}
+		return result;
+	}
+
+	private static Set<String> diff(Map<String, Object> previous, Map<String, Object> current) {
+		Set<String> changed = new HashSet<>();
+		previous.forEach((key, value) -> {
+			if (!current.containsKey(key) || !sameValue(value, current.get(key))) {
+				changed.add(key);
+			}
+		});
+		for (String key : current.keySet()) {
+			if (!previous.containsKey(key)) {
+				changed.add(key);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Values are compared by their string form, yaml loads {@code 1} as an integer
+	 * whereas properties load it as a string.
+	 */
+	private static boolean sameValue(Object previous, Object current) {
+		Object a = unwrap(previous);
+		Object b = unwrap(current);
+		if (a == null || b == null) {
+			return a == b;
+		}
+		return a.equals(b) || a.toString().equals(b.toString());
+	}
+
+	private static Object unwrap(Object value) {
+		return value instanceof OriginTrackedValue originTrackedValue
+				? originTrackedValue.getValue() : value;
+	}
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Coalesces bursts of configuration changes into a single refresh.
+ * <p>
+ * A refresh runs once no change arrived for the quiet period, but no later than the
+ * maximum delay after the first pending change. It receives the latest content of every
+ * changed configuration. With a quiet period of 0 every change is refreshed right away
+ * on the notifying thread.
+ */
+public class NacosRefreshScheduler {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosRefreshScheduler.class);
+
+	private final long quietPeriod;
+
+	private final long maxDelay;
+
+	private final Consumer<List<ConfigChange>> refresher;
+
+	private final ScheduledExecutorService executor;
+
+	private final Map<String, ConfigChange> pending = new LinkedHashMap<>();
+
+	private final AtomicLong receivedCount = new AtomicLong();
+
+	private final AtomicLong executedCount = new AtomicLong();
+
+	private long firstPendingTime;
+
+	private ScheduledFuture<?> scheduledRefresh;
+
+	/**
+	 * @param quietPeriod time in milliseconds without changes before refreshing
+	 * @param maxDelay maximum time in milliseconds a change waits for its refresh
+	 * @param refresher applies the coalesced changes
+	 */
+	public NacosRefreshScheduler(long quietPeriod, long maxDelay,
+			Consumer<List<ConfigChange>> refresher) {
+		this.quietPeriod = quietPeriod;
+		this.maxDelay = Math.max(maxDelay, quietPeriod);
+		this.refresher = refresher;
+		if (quietPeriod > 0) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+					"nacos-refresh-scheduler-");
+			threadFactory.setDaemon(true);
+			this.executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		}
+		else {
+			this.executor = null;
+		}
+	}
+
+	/**
+	 * Schedule the refresh of a changed configuration.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param configInfo new content
+	 */
+	public void schedule(String dataId, String group, String configInfo) {
+		receivedCount.incrementAndGet();
+		ConfigChange change = new ConfigChange(dataId, group, configInfo);
+		if (executor == null) {
+			execute(Collections.singletonList(change));
+			return;
+		}
+		synchronized (this) {
+			long now = System.currentTimeMillis();
+			if (pending.isEmpty()) {
+				firstPendingTime = now;
+			}
+			// a later change of the same configuration supersedes the earlier one
+			pending.remove(NacosPropertySourceRepository.getMapKey(dataId, group));
+			pending.put(NacosPropertySourceRepository.getMapKey(dataId, group), change);
+			if (scheduledRefresh != null) {
+				scheduledRefresh.cancel(false);
+			}
+			long delay = Math.min(quietPeriod, firstPendingTime + maxDelay - now);
+			scheduledRefresh = executor.schedule(this::flush, Math.max(delay, 0),
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void flush() {
+		List<ConfigChange> changes;
+		synchronized (this) {
+			if (pending.isEmpty()) {
+				return;
+			}
+			changes = new ArrayList<>(pending.values());
+			pending.clear();
+			scheduledRefresh = null;
+		}
+		execute(changes);
+	}
+
+	private void execute(List<ConfigChange> changes) {
+		executedCount.incrementAndGet();
+		try {
+			refresher.accept(changes);
+		}
+		catch (Exception e) {
+			log.error("Refresh Nacos config failed, changes: {}", changes, e);
+		}
+	}
+
+	/**
+	 * @return number of configuration changes received
+	 */
+	public long getReceivedCount() {
+		return receivedCount.get();
+	}
+
+	/**
+	 * @return number of refreshes executed
+	 */
+	public long getExecutedCount() {
+		return executedCount.get();
+	}
+
+	/**
+	 * Stop scheduling, pending changes are dropped.
+	 */
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Changed content of a configuration.
+	 */
+	public static class ConfigChange {
+
+		private final String dataId;
+
+		private final String group;
+
+		private final String configInfo;
+
+		ConfigChange(String dataId, String group, String configInfo) {
+			this.dataId = dataId;
+			this.group = group;
+			this.configInfo = configInfo;
+		}
+
+		public String getDataId() {
+			return dataId;
+		}
+
+		public String getGroup() {
+			return group;
+		}
+
+		public String getConfigInfo() {
+			return configInfo;
+		}
+
+		@Override
+		public String toString() {
+			return "ConfigChange{" + "dataId='" + dataId + '\'' + ", group='" + group
+					+ '\'' + '}';
+		}
+
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exports the configuration changes received and the refreshes executed by
+ * {@link NacosRefreshScheduler} to Micrometer.
+ */
+public class NacosRefreshSchedulerMetrics implements MeterBinder {
+
+	private static final String PREFIX = "nacos.config.refresh";
+
+	private final NacosRefreshScheduler scheduler;
+
+	public NacosRefreshSchedulerMetrics(NacosContextRefresher contextRefresher) {
+		this.scheduler = contextRefresher.getRefreshScheduler();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter
+				.builder(PREFIX + ".pushes", scheduler,
+						NacosRefreshScheduler::getReceivedCount)
+				.description("Configuration changes pushed by nacos").register(registry);
+		FunctionCounter
+				.builder(PREFIX + ".executions", scheduler,
+						NacosRefreshScheduler::getExecutedCount)
+				.description("Refreshes executed for the pushed changes")
+				.register(registry);
+	}
+
+}
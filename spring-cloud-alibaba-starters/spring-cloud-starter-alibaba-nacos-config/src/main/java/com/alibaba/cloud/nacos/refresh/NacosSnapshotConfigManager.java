@@ -51,6 +51,11 @@ public final class NacosSnapshotConfigManager {
 		return configInfo;
 	}
 
+	public static boolean containsConfigSnapshot(String dataId, String group) {
+		return CONFIG_INFO_SNAPSHOT_MAP
+				.containsKey(formatConfigSnapshotKey(dataId, group));
+	}
+
 	public static void putConfigSnapshot(String dataId, String group, String configInfo) {
 		try {
 			// Theoretically, the capacity limit restriction will never be triggered.
@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.BeansException;
 import org.springframework.boot.context.properties.ConfigurationPropertiesBean;
@@ -46,6 +47,10 @@ import static com.alibaba.cloud.nacos.refresh.RefreshBehavior.ALL_BEANS;
  * <strong> NOTE: We still use Spring's default behavior (full refresh) as default
  * behavior, This feature can be considered an advanced feature, it may not be as stable
  * as the default behavior. </strong>
+ * <p>
+ * Changed keys are routed through an index of the prefixes of the beans, brought up to
+ * date with the beans collected by {@link ConfigurationPropertiesBeans} before each
+ * change is routed.
  *
  * @author freeman
  * @since 2021.0.1.1
@@ -53,7 +58,25 @@ import static com.alibaba.cloud.nacos.refresh.RefreshBehavior.ALL_BEANS;
 public class SmartConfigurationPropertiesRebinder
 		extends ConfigurationPropertiesRebinder {
 
-	private Map<String, ConfigurationPropertiesBean> beanMap;
+	/**
+	 * The beans collected by {@link ConfigurationPropertiesBeans}, not a copy.
+	 */
+	private final Map<String, ConfigurationPropertiesBean> beanMap;
+
+	private final ConfigurationPropertiesPrefixIndex prefixIndex = new ConfigurationPropertiesPrefixIndex();
+
+	/**
+	 * Prefixes of the indexed beans, by bean name.
+	 */
+	private final Map<String, String> indexedPrefixes = new HashMap<>();
+
+	private final AtomicLong rebindCount = new AtomicLong();
+
+	private final AtomicLong changedKeyCount = new AtomicLong();
+
+	private final AtomicLong visitedNodeCount = new AtomicLong();
+
+	private final AtomicLong reboundBeanCount = new AtomicLong();
 
 	private ApplicationContext applicationContext;
 
@@ -61,19 +84,44 @@ public class SmartConfigurationPropertiesRebinder
 
 	public SmartConfigurationPropertiesRebinder(ConfigurationPropertiesBeans beans) {
 		super(beans);
-		fillBeanMap(beans);
+		this.beanMap = beanMap(beans);
 	}
 
 	@SuppressWarnings("unchecked")
-	private void fillBeanMap(ConfigurationPropertiesBeans beans) {
-		this.beanMap = new HashMap<>();
+	private static Map<String, ConfigurationPropertiesBean> beanMap(
+			ConfigurationPropertiesBeans beans) {
 		Field field = ReflectionUtils.findField(beans.getClass(), "beans");
-		if (field != null) {
-			field.setAccessible(true);
-			this.beanMap.putAll((Map<String, ConfigurationPropertiesBean>) Optional
-					.ofNullable(ReflectionUtils.getField(field, beans))
-					.orElse(Collections.emptyMap()));
+		if (field == null) {
+			return Collections.emptyMap();
+		}
+		field.setAccessible(true);
+		return (Map<String, ConfigurationPropertiesBean>) Optional
+				.ofNullable(ReflectionUtils.getField(field, beans))
+				.orElse(Collections.emptyMap());
+	}
+
+	/**
+	 * Index the beans collected since the last change, beans that were already indexed
+	 * are only looked up.
+	 */
+	private void updateIndex() {
+		beanMap.forEach(this::index);
+	}
+
+	/**
+	 * Index a bean under its prefix, replacing the prefix of a bean registered before
+	 * under the same name.
+	 */
+	private void index(String beanName, ConfigurationPropertiesBean bean) {
+		String prefix = AnnotationUtils.getValue(bean.getAnnotation()).toString();
+		String previous = indexedPrefixes.put(beanName, prefix);
+		if (prefix.equals(previous)) {
+			return;
+		}
+		if (previous != null) {
+			prefixIndex.remove(previous, beanName);
 		}
+		prefixIndex.add(prefix, beanName);
 	}
 
 	@Override
@@ -99,14 +147,48 @@ public class SmartConfigurationPropertiesRebinder
 	}
 
 	private void rebindSpecificBean(EnvironmentChangeEvent event) {
+		// a set prevents multiple refresh of one ConfigurationPropertiesBean.
 		Set<String> refreshedSet = new HashSet<>();
-		beanMap.forEach((name, bean) -> event.getKeys().forEach(changeKey -> {
-			String prefix = AnnotationUtils.getValue(bean.getAnnotation()).toString();
-			// prevent multiple refresh one ConfigurationPropertiesBean.
-			if (changeKey.startsWith(prefix) && refreshedSet.add(name)) {
-				rebind(name);
+		int visited = 0;
+		synchronized (this) {
+			updateIndex();
+			for (String changeKey : event.getKeys()) {
+				visited += prefixIndex.match(changeKey, refreshedSet);
 			}
-		}));
+		}
+		refreshedSet.forEach(this::rebind);
+		rebindCount.incrementAndGet();
+		changedKeyCount.addAndGet(event.getKeys().size());
+		visitedNodeCount.addAndGet(visited);
+		reboundBeanCount.addAndGet(refreshedSet.size());
+	}
+
+	/**
+	 * @return number of change events handled by rebinding specific beans
+	 */
+	public long getRebindCount() {
+		return rebindCount.get();
+	}
+
+	/**
+	 * @return number of changed keys routed to beans
+	 */
+	public long getChangedKeyCount() {
+		return changedKeyCount.get();
+	}
+
+	/**
+	 * @return number of prefix index nodes visited while routing changed keys
+	 */
+	public long getVisitedNodeCount() {
+		return visitedNodeCount.get();
+	}
+
+	/**
+	 * @return number of beans rebound
+	 */
+	public long getReboundBeanCount() {
+		return reboundBeanCount.get();
 	}
 
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.context.properties.ConfigurationPropertiesRebinder;
+
+/**
+ * Exports the work done by {@link SmartConfigurationPropertiesRebinder} to Micrometer.
+ */
+public class SmartConfigurationPropertiesRebinderMetrics implements MeterBinder {
+
+	private static final String PREFIX = "nacos.config.rebind";
+
+	private final ObjectProvider<ConfigurationPropertiesRebinder> rebinder;
+
+	public SmartConfigurationPropertiesRebinderMetrics(
+			ObjectProvider<ConfigurationPropertiesRebinder> rebinder) {
+		this.rebinder = rebinder;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		if (!(rebinder
+				.getIfAvailable() instanceof SmartConfigurationPropertiesRebinder smart)) {
+			return;
+		}
+		FunctionCounter
+				.builder(PREFIX + ".events", smart,
+						SmartConfigurationPropertiesRebinder::getRebindCount)
+				.description("Change events handled by rebinding specific beans")
+				.register(registry);
+		FunctionCounter
+				.builder(PREFIX + ".keys", smart,
+						SmartConfigurationPropertiesRebinder::getChangedKeyCount)
+				.description("Changed keys routed to beans").register(registry);
+		FunctionCounter
+				.builder(PREFIX + ".index.visits", smart,
+						SmartConfigurationPropertiesRebinder::getVisitedNodeCount)
+				.description("Prefix index nodes visited while routing changed keys")
+				.register(registry);
+		FunctionCounter
+				.builder(PREFIX + ".beans", smart,
+						SmartConfigurationPropertiesRebinder::getReboundBeanCount)
+				.description("Beans rebound").register(registry);
+	}
+
+}
@@ -16,6 +16,8 @@
 
 package com.alibaba.cloud.nacos;
 
+import java.util.Collections;
+
 import com.alibaba.cloud.nacos.refresh.RefreshBehavior;
 import com.alibaba.cloud.nacos.refresh.SmartConfigurationPropertiesRebinder;
 import org.junit.jupiter.api.Test;
@@ -24,9 +26,12 @@ import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.cloud.context.properties.ConfigurationPropertiesRebinder;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -57,6 +62,35 @@ public class SmartConfigurationPropertiesRebinderIntegrationTest {
 		RefreshBehavior refreshBehavior = (RefreshBehavior) ReflectionTestUtils
 				.getField(rebinder, "refreshBehavior");
 		assertThat(refreshBehavior).isEqualTo(RefreshBehavior.SPECIFIC_BEAN);
+
+		context.publishEvent(new EnvironmentChangeEvent(context,
+				Collections.singleton("spring.cloud.nacos.config.timeout")));
+		SmartConfigurationPropertiesRebinder smartRebinder = (SmartConfigurationPropertiesRebinder) rebinder;
+		assertThat(smartRebinder.getRebindCount()).isEqualTo(1);
+		assertThat(smartRebinder.getChangedKeyCount()).isEqualTo(1);
+		assertThat(smartRebinder.getReboundBeanCount()).isPositive();
+	}
+
+	@Test
+	public void testBeansCreatedAfterStartupAreIndexed() {
+		context = new SpringApplicationBuilder(RebinderConfiguration.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.cloud.nacos.config.refresh-behavior=specific_bean")
+				.properties("spring.cloud.nacos.server-addr=123.123.123.123:8848")
+				.properties("spring.cloud.nacos.config.import-check.enabled=false").run();
+		SmartConfigurationPropertiesRebinder rebinder = (SmartConfigurationPropertiesRebinder) context
+				.getBean(ConfigurationPropertiesRebinder.class);
+		EnvironmentChangeEvent event = new EnvironmentChangeEvent(context,
+				Collections.singleton("late.name"));
+		context.publishEvent(event);
+		long rebound = rebinder.getReboundBeanCount();
+
+		((GenericApplicationContext) context).registerBean("lateProperties",
+				LateProperties.class, bd -> bd.setLazyInit(true));
+		context.getBean(LateProperties.class);
+		context.publishEvent(event);
+
+		assertThat(rebinder.getReboundBeanCount()).isEqualTo(2 * rebound + 1);
 	}
 
 	@Test
@@ -72,6 +106,21 @@ public class SmartConfigurationPropertiesRebinderIntegrationTest {
 		assertThat(rebinder.getClass()).isEqualTo(ConfigurationPropertiesRebinder.class);
 	}
 
+	@ConfigurationProperties("late")
+	public static class LateProperties {
+
+		private String name;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+	}
+
 	@Configuration
 	@ImportAutoConfiguration({ NacosConfigAutoConfiguration.class })
 	@EnableAutoConfiguration
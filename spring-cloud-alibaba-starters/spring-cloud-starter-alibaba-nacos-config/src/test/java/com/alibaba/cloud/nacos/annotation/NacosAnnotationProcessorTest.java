@@ -0,0 +1,229 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.annotation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.exception.NacosException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NacosAnnotationProcessorTest {
+
+	private static final String GROUP = "DEFAULT_GROUP";
+
+	private final ConfigService configService = mock(ConfigService.class);
+
+	private final NacosConfigProperties properties = new NacosConfigProperties();
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	private GenericApplicationContext context;
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+		if (context != null) {
+			context.close();
+		}
+	}
+
+	@Test
+	public void testConcurrentCallersShareOneFetch() throws Exception {
+		CountDownLatch fetching = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(configService.getConfig("app.properties", GROUP, 5000)).thenAnswer(invocation -> {
+			fetching.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return "a=1";
+		});
+		NacosAnnotationProcessor processor = processor(new GenericApplicationContext());
+
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(executor.submit(() -> content(processor, "app.properties")));
+		}
+		assertThat(fetching.await(5, TimeUnit.SECONDS)).isTrue();
+		release.countDown();
+
+		for (Future<String> result : results) {
+			assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("a=1");
+		}
+		verify(configService, times(1)).getConfig("app.properties", GROUP, 5000);
+	}
+
+	@Test
+	public void testDifferentKeysDoNotBlockEachOther() throws Exception {
+		CountDownLatch fetching = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(configService.getConfig("slow.properties", GROUP, 5000)).thenAnswer(invocation -> {
+			fetching.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return "slow=1";
+		});
+		when(configService.getConfig("fast.properties", GROUP, 5000)).thenReturn("fast=1");
+		NacosAnnotationProcessor processor = processor(new GenericApplicationContext());
+
+		Future<String> slow = executor.submit(() -> content(processor, "slow.properties"));
+		assertThat(fetching.await(5, TimeUnit.SECONDS)).isTrue();
+		Future<String> fast = executor.submit(() -> content(processor, "fast.properties"));
+
+		assertThat(fast.get(5, TimeUnit.SECONDS)).isEqualTo("fast=1");
+		assertThat(slow.isDone()).isFalse();
+		release.countDown();
+		assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("slow=1");
+	}
+
+	@Test
+	public void testFailedLoadIsRetried() throws Exception {
+		when(configService.getConfig("app.properties", GROUP, 5000))
+				.thenThrow(new NacosException(NacosException.SERVER_ERROR, "timeout"))
+				.thenReturn("a=1");
+		NacosAnnotationProcessor processor = processor(new GenericApplicationContext());
+
+		assertThatThrownBy(() -> content(processor, "app.properties"))
+				.hasStackTraceContaining("timeout");
+		assertThat(content(processor, "app.properties")).isEqualTo("a=1");
+		assertThat(content(processor, "app.properties")).isEqualTo("a=1");
+		verify(configService, times(2)).getConfig("app.properties", GROUP, 5000);
+	}
+
+	@Test
+	public void testPrefetchCollectsAnnotatedConfigs() throws Exception {
+		when(configService.getConfig(anyString(), eq(GROUP), anyLong())).thenReturn("a=1");
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(AnnotatedConfiguration.class);
+		context.refresh();
+		NacosAnnotationProcessor processor = processor(context);
+
+		assertThat(content(processor, "field.properties")).isEqualTo("a=1");
+
+		for (String dataId : new String[] {"type.properties", "method.properties",
+				"keys.properties", "factory.properties"}) {
+			verify(configService, timeout(5000)).getConfig(dataId, GROUP, 5000);
+		}
+		verify(configService, times(1)).getConfig("field.properties", GROUP, 5000);
+		verify(configService, never()).getConfig("plain.properties", GROUP, 5000);
+	}
+
+	private NacosAnnotationProcessor processor(GenericApplicationContext context) {
+		this.context = context;
+		NacosConfigManager configManager = mock(NacosConfigManager.class);
+		when(configManager.getConfigService()).thenReturn(configService);
+		when(configManager.getNacosConfigProperties()).thenReturn(properties);
+		if (!context.isActive()) {
+			context.registerBean(NacosConfigManager.class, () -> configManager);
+			context.refresh();
+		}
+		else {
+			context.getBeanFactory().registerSingleton("nacosConfigManager", configManager);
+		}
+		NacosAnnotationProcessor processor = new NacosAnnotationProcessor();
+		processor.setApplicationContext(context);
+		return processor;
+	}
+
+	private static String content(NacosAnnotationProcessor processor, String dataId) {
+		return ReflectionTestUtils.invokeMethod(processor, "getGroupKeyContent", dataId,
+				GROUP);
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	static class AnnotatedConfiguration {
+
+		@Bean
+		@NacosConfig(dataId = "factory.properties", group = GROUP)
+		FactoryTarget factoryTarget() {
+			return new FactoryTarget();
+		}
+
+		@Bean
+		FieldTarget fieldTarget() {
+			return new FieldTarget();
+		}
+
+		@Bean
+		TypeTarget typeTarget() {
+			return new TypeTarget();
+		}
+
+		@Bean
+		MethodTarget methodTarget() {
+			return new MethodTarget();
+		}
+
+	}
+
+	static class FactoryTarget {
+
+	}
+
+	static class FieldTarget {
+
+		@NacosConfig(dataId = "field.properties", group = GROUP)
+		private String value;
+
+	}
+
+	@NacosConfig(dataId = "type.properties", group = GROUP)
+	static class TypeTarget {
+
+		@NacosConfig(dataId = "plain.properties", group = GROUP)
+		private String ignored;
+
+	}
+
+	static class MethodTarget {
+
+		@NacosConfigListener(dataId = "method.properties", group = GROUP)
+		void onChange(String content) {
+		}
+
+		@NacosConfigKeysListener(dataId = "keys.properties", group = GROUP, interestedKeys = "a")
+		void onKeysChange(Object event) {
+		}
+
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.annotation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NacosConfigBindingTest {
+
+	@Test
+	public void testBindFields() throws Exception {
+		Target target = new Target();
+
+		NacosConfigBinding.forField(Target.class.getDeclaredField("count")).bind(target, "3");
+		NacosConfigBinding.forField(Target.class.getDeclaredField("enabled")).bind(target, "true");
+		NacosConfigBinding.forField(Target.class.getDeclaredField("boxed")).bind(target, "7");
+		NacosConfigBinding.forField(Target.class.getDeclaredField("names")).bind(target, "[\"a\",\"b\"]");
+		NacosConfigBinding.forField(Target.class.getDeclaredField("properties")).bind(target, "a: 1");
+		NacosConfigBinding.forField(Target.class.getDeclaredField("shared")).bind(target, "s");
+
+		assertThat(target.count).isEqualTo(3);
+		assertThat(target.enabled).isTrue();
+		assertThat(target.boxed).isEqualTo(7L);
+		assertThat(target.names).containsExactly("a", "b");
+		assertThat(target.properties).containsEntry("a", "1");
+		assertThat(Target.shared).isEqualTo("s");
+	}
+
+	@Test
+	public void testBindMethods() throws Exception {
+		Target target = new Target();
+
+		NacosConfigBinding.forMethod(Target.class.getDeclaredMethod("setRatio", double.class))
+				.bind(target, "0.5");
+		NacosConfigBinding.forMethod(Target.class.getDeclaredMethod("setValues", Map.class))
+				.bind(target, "{\"a\":1}");
+
+		assertThat(target.ratio).isEqualTo(0.5D);
+		assertThat(target.values).containsEntry("a", 1);
+	}
+
+	@Test
+	public void testExceptionsArePropagated() throws Exception {
+		Target target = new Target();
+		NacosConfigBinding binding = NacosConfigBinding
+				.forMethod(Target.class.getDeclaredMethod("setRatio", double.class));
+
+		assertThatThrownBy(() -> binding.bind(target, "-1"))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("negative");
+		assertThatThrownBy(() -> binding.bind(target, "x"))
+				.isInstanceOf(NumberFormatException.class);
+	}
+
+	static class Target {
+
+		private static String shared;
+
+		private int count;
+
+		private boolean enabled;
+
+		private Long boxed;
+
+		private List<String> names;
+
+		private Properties properties;
+
+		private double ratio;
+
+		private Map<String, Integer> values;
+
+		private void setRatio(double ratio) {
+			if (ratio < 0) {
+				throw new IllegalArgumentException("negative");
+			}
+			this.ratio = ratio;
+		}
+
+		private String setValues(Map<String, Integer> values) {
+			this.values = values;
+			return "ignored";
+		}
+
+	}
+
+}
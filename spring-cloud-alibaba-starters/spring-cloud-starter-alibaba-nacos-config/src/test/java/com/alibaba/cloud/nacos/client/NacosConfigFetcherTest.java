@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.exception.NacosException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NacosConfigFetcherTest {
+
+	@Test
+	public void testPrefetchedConfigsAreFetchedConcurrently() throws Exception {
+		ConfigService configService = mock(ConfigService.class);
+		CountDownLatch allStarted = new CountDownLatch(3);
+		when(configService.getConfig(anyString(), anyString(), anyLong()))
+				.thenAnswer(invocation -> {
+					allStarted.countDown();
+					// only returns when all three calls are in flight at once
+					return allStarted.await(5, TimeUnit.SECONDS)
+							? "content-" + invocation.getArgument(0) : null;
+				});
+		NacosConfigFetcher fetcher = new NacosConfigFetcher(configService, 3000, 3,
+				10000);
+
+		fetcher.prefetch("a", "DEFAULT_GROUP");
+		fetcher.prefetch("b", "DEFAULT_GROUP");
+		fetcher.prefetch("c", "DEFAULT_GROUP");
+
+		assertThat(fetcher.fetch("a", "DEFAULT_GROUP")).isEqualTo("content-a");
+		assertThat(fetcher.fetch("b", "DEFAULT_GROUP")).isEqualTo("content-b");
+		assertThat(fetcher.fetch("c", "DEFAULT_GROUP")).isEqualTo("content-c");
+	}
+
+	@Test
+	public void testFetchWithoutPrefetch() throws Exception {
+		ConfigService configService = mock(ConfigService.class);
+		when(configService.getConfig("a", "DEFAULT_GROUP", 3000)).thenReturn("a=1");
+		NacosConfigFetcher fetcher = new NacosConfigFetcher(configService, 3000, 1,
+				10000);
+
+		fetcher.prefetch("a", "DEFAULT_GROUP");
+		assertThat(fetcher.fetch("a", "DEFAULT_GROUP")).isEqualTo("a=1");
+		// the prefetched result is taken, a second fetch asks nacos again
+		assertThat(fetcher.fetch("a", "DEFAULT_GROUP")).isEqualTo("a=1");
+		verify(configService, times(2)).getConfig("a", "DEFAULT_GROUP", 3000);
+	}
+
+	@Test
+	public void testDeadlineAndErrors() throws Exception {
+		ConfigService configService = mock(ConfigService.class);
+		CountDownLatch release = new CountDownLatch(1);
+		when(configService.getConfig("slow", "DEFAULT_GROUP", 3000))
+				.thenAnswer(invocation -> {
+					release.await(5, TimeUnit.SECONDS);
+					return "slow";
+				});
+		when(configService.getConfig("broken", "DEFAULT_GROUP", 3000))
+				.thenThrow(new NacosException(NacosException.SERVER_ERROR, "broken"));
+		NacosConfigFetcher fetcher = new NacosConfigFetcher(configService, 3000, 2,
+				100);
+
+		fetcher.prefetch("slow", "DEFAULT_GROUP");
+		fetcher.prefetch("broken", "DEFAULT_GROUP");
+		try {
+			assertThatThrownBy(() -> fetcher.fetch("slow", "DEFAULT_GROUP"))
+					.isInstanceOf(NacosException.class)
+					.hasMessageContaining("deadline");
+			assertThatThrownBy(() -> fetcher.fetch("broken", "DEFAULT_GROUP"))
+					.isInstanceOf(NacosException.class).hasMessageContaining("broken");
+		}
+		finally {
+			release.countDown();
+		}
+	}
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.nacos.api.config.ConfigService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NacosConfigSnapshotStoreTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testSaveThenRead() throws Exception {
+		NacosConfigSnapshotStore store = store(false);
+
+		store.save("app.properties", "DEFAULT_GROUP", "name=中文");
+
+		NacosConfigSnapshotStore.Snapshot snapshot = store.read("app.properties",
+				"DEFAULT_GROUP");
+		assertThat(snapshot.getContent()).isEqualTo("name=中文");
+		assertThat(store.read("app.properties", "OTHER_GROUP")).isNull();
+		assertThat(store.getStatus("app.properties", "DEFAULT_GROUP").getSource())
+				.isEqualTo(NacosConfigSnapshotStore.Status.SOURCE_NACOS);
+		// the temporary file was moved into place
+		try (Stream<Path> files = Files.list(tempDir)) {
+			assertThat(files.count()).isEqualTo(1);
+		}
+
+		store.save("app.properties", "DEFAULT_GROUP", "");
+		assertThat(store.read("app.properties", "DEFAULT_GROUP")).isNull();
+	}
+
+	@Test
+	public void testCorruptAndStaleSnapshotsAreIgnored() throws Exception {
+		NacosConfigSnapshotStore store = store(false);
+		store.save("app.properties", "DEFAULT_GROUP", "a=1");
+		Path file;
+		try (Stream<Path> files = Files.list(tempDir)) {
+			file = files.findFirst().get();
+		}
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 9] ^= 1;
+		Files.write(file, bytes);
+
+		assertThat(store.read("app.properties", "DEFAULT_GROUP")).isNull();
+
+		NacosConfigSnapshotStore staleStore = new NacosConfigSnapshotStore(
+				tempDir.resolve("stale"), -1, false);
+		staleStore.save("app.properties", "DEFAULT_GROUP", "a=1");
+		assertThat(staleStore.read("app.properties", "DEFAULT_GROUP")).isNull();
+	}
+
+	@Test
+	public void testCorruptLengthIsIgnored() throws Exception {
+		NacosConfigSnapshotStore store = store(false);
+		store.save("app.properties", "DEFAULT_GROUP", "a=1");
+		Path file;
+		try (Stream<Path> files = Files.list(tempDir)) {
+			file = files.findFirst().get();
+		}
+		byte[] bytes = Files.readAllBytes(file);
+		// the length precedes the 3 content bytes and the 8 checksum bytes
+		for (int length : new int[] {-1, Integer.MAX_VALUE}) {
+			ByteBuffer.wrap(bytes).putInt(bytes.length - 15, length);
+			Files.write(file, bytes);
+
+			assertThat(store.read("app.properties", "DEFAULT_GROUP")).isNull();
+		}
+	}
+
+	@Test
+	public void testFirstSourceIsServedAndRevalidated() throws Exception {
+		NacosConfigSnapshotStore store = store(true);
+		store.save("app.properties", "DEFAULT_GROUP", "a=1");
+		ConfigService configService = mock(ConfigService.class);
+		when(configService.getConfig("app.properties", "DEFAULT_GROUP", 3000))
+				.thenReturn("a=2");
+		when(configService.getServerStatus()).thenReturn("UP");
+		NacosConfigFetcher fetcher = new NacosConfigFetcher(configService, 3000, 1,
+				10000);
+		fetcher.setSnapshotStore(store);
+		CompletableFuture<String> change = new CompletableFuture<>();
+		store.setChangeListener((dataId, group, content) -> change.complete(content));
+
+		assertThat(fetcher.fetch("app.properties", "DEFAULT_GROUP")).isEqualTo("a=1");
+
+		assertThat(change.get(5, TimeUnit.SECONDS)).isEqualTo("a=2");
+		NacosConfigSnapshotStore.Status status = store.getStatus("app.properties",
+				"DEFAULT_GROUP");
+		assertThat(status.getSource())
+				.isEqualTo(NacosConfigSnapshotStore.Status.SOURCE_SNAPSHOT);
+		assertThat(status.getRevalidation())
+				.isEqualTo(NacosConfigSnapshotStore.Status.REVALIDATION_CHANGED);
+		assertThat(store.read("app.properties", "DEFAULT_GROUP").getContent())
+				.isEqualTo("a=2");
+		// served from the snapshot only once, later loads go to nacos
+		assertThat(fetcher.fetch("app.properties", "DEFAULT_GROUP")).isEqualTo("a=2");
+	}
+
+	@Test
+	public void testSnapshotIsServedWhenNacosIsUnreachable() throws Exception {
+		NacosConfigSnapshotStore store = store(false);
+		store.save("app.properties", "DEFAULT_GROUP", "a=1");
+		ConfigService configService = mock(ConfigService.class);
+		// the client does not fail when the server is down, it answers with null
+		when(configService.getConfig("app.properties", "DEFAULT_GROUP", 3000))
+				.thenReturn(null);
+		when(configService.getServerStatus()).thenReturn("DOWN");
+		NacosConfigFetcher fetcher = new NacosConfigFetcher(configService, 3000, 1,
+				10000);
+		fetcher.setSnapshotStore(store);
+
+		assertThat(fetcher.fetch("app.properties", "DEFAULT_GROUP")).isEqualTo("a=1");
+		assertThat(store.getStatus("app.properties", "DEFAULT_GROUP").getSource())
+				.isEqualTo(NacosConfigSnapshotStore.Status.SOURCE_SNAPSHOT);
+		awaitRevalidation(store, "app.properties");
+		assertThat(store.getStatus("app.properties", "DEFAULT_GROUP").getRevalidation())
+				.isEqualTo(NacosConfigSnapshotStore.Status.REVALIDATION_FAILED);
+		// neither the fetch nor the revalidation removed the snapshot
+		assertThat(store.read("app.properties", "DEFAULT_GROUP").getContent())
+				.isEqualTo("a=1");
+
+		// without a snapshot, the client's own answer is kept
+		when(configService.getConfig("other.properties", "DEFAULT_GROUP", 3000))
+				.thenReturn("b=1");
+		assertThat(fetcher.fetch("other.properties", "DEFAULT_GROUP")).isEqualTo("b=1");
+		assertThat(store.read("other.properties", "DEFAULT_GROUP")).isNull();
+	}
+
+	@Test
+	public void testSnapshotIsRemovedWhenConfigIsDeleted() throws Exception {
+		NacosConfigSnapshotStore store = store(false);
+		store.save("app.properties", "DEFAULT_GROUP", "a=1");
+		ConfigService configService = mock(ConfigService.class);
+		when(configService.getConfig("app.properties", "DEFAULT_GROUP", 3000))
+				.thenReturn(null);
+		when(configService.getServerStatus()).thenReturn("UP");
+		NacosConfigFetcher fetcher = new NacosConfigFetcher(configService, 3000, 1,
+				10000);
+		fetcher.setSnapshotStore(store);
+
+		assertThat(fetcher.fetch("app.properties", "DEFAULT_GROUP")).isNull();
+		assertThat(store.read("app.properties", "DEFAULT_GROUP")).isNull();
+	}
+
+	@Test
+	public void testStoresAreSharedPerDirectory() {
+		NacosConfigProperties properties = new NacosConfigProperties();
+		assertThat(NacosConfigSnapshotStore.getInstance(properties)).isNull();
+
+		properties.setSnapshotEnabled(true);
+		properties.setSnapshotPath(tempDir.toString());
+		assertThat(NacosConfigSnapshotStore.getInstance(properties))
+				.isSameAs(NacosConfigSnapshotStore.getInstance(properties));
+	}
+
+	private static void awaitRevalidation(NacosConfigSnapshotStore store, String dataId)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (NacosConfigSnapshotStore.Status.REVALIDATION_PENDING
+				.equals(store.getStatus(dataId, "DEFAULT_GROUP").getRevalidation())
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private NacosConfigSnapshotStore store(boolean firstSource) {
+		return new NacosConfigSnapshotStore(tempDir, 60_000, firstSource);
+	}
+
+}
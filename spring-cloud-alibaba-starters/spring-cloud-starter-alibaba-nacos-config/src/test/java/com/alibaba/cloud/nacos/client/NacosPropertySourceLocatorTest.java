@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.nacos.api.config.ConfigService;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NacosPropertySourceLocatorTest {
+
+	@Test
+	public void testFetcherIsReusedPerConfigService() {
+		NacosConfigProperties properties = new NacosConfigProperties();
+		properties.setName("app");
+		ConfigService configService = mock(ConfigService.class);
+		NacosConfigManager configManager = mock(NacosConfigManager.class);
+		when(configManager.getNacosConfigProperties()).thenReturn(properties);
+		when(configManager.getConfigService()).thenReturn(configService);
+		NacosPropertySourceLocator locator = new NacosPropertySourceLocator(
+				configManager);
+
+		locator.locate(new MockEnvironment());
+		NacosConfigFetcher fetcher = fetcher(locator);
+		locator.locate(new MockEnvironment());
+
+		assertThat(fetcher(locator)).isSameAs(fetcher);
+
+		ConfigService otherConfigService = mock(ConfigService.class);
+		when(configManager.getConfigService()).thenReturn(otherConfigService);
+		locator.locate(new MockEnvironment());
+
+		assertThat(fetcher(locator).getConfigService()).isSameAs(otherConfigService);
+	}
+
+	private static NacosConfigFetcher fetcher(NacosPropertySourceLocator locator) {
+		NacosPropertySourceBuilder builder = (NacosPropertySourceBuilder) ReflectionTestUtils
+				.getField(locator, "nacosPropertySourceBuilder");
+		return builder.getConfigFetcher();
+	}
+
+}
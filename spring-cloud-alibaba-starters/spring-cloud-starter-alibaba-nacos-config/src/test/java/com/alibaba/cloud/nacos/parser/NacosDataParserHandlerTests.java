@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.parser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NacosDataParserHandlerTests {
+
+	private final NacosDataParserHandler handler = NacosDataParserHandler.getInstance();
+
+	@Test
+	public void testUnchangedContentIsParsedOnce() throws IOException {
+		long hits = handler.getCacheHitCount();
+		long misses = handler.getCacheMissCount();
+
+		List<PropertySource<?>> first = handler.parseNacosData("cached.yaml",
+				"a: 1\nb: 2\n", "yaml");
+		List<PropertySource<?>> second = handler.parseNacosData("cached.yaml",
+				new String("a: 1\nb: 2\n"), "yaml");
+
+		assertThat(second).isSameAs(first);
+		assertThat(handler.getCacheHitCount()).isEqualTo(hits + 1);
+		assertThat(handler.getCacheMissCount()).isEqualTo(misses + 1);
+		assertThat(handler.getParseTimeNanos()).isPositive();
+	}
+
+	@Test
+	public void testChangedContentIsParsedAgain() throws IOException {
+		List<PropertySource<?>> first = handler.parseNacosData("changed.properties",
+				"a=1", "properties");
+		List<PropertySource<?>> second = handler.parseNacosData("changed.properties",
+				"a=2", "properties");
+
+		assertThat(first.get(0).getProperty("a")).isEqualTo("1");
+		assertThat(second.get(0).getProperty("a")).isEqualTo("2");
+		// the same content under another extension is parsed on its own
+		assertThat(handler.parseNacosData("changed.properties", "a=2", "yaml"))
+				.isNotSameAs(second);
+	}
+
+	@Test
+	public void testParsedPropertySourcesAreImmutable() throws IOException {
+		List<PropertySource<?>> result = handler.parseNacosData("immutable.properties",
+				"a=1", "properties");
+
+		Map<String, Object> source = ((MapPropertySource) result.get(0)).getSource();
+		assertThatThrownBy(() -> source.put("a", "2"))
+				.isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> result.add(result.get(0)))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+}
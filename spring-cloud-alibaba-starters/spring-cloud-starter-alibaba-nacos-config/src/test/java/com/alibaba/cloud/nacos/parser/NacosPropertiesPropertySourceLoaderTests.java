@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.utils.NacosConfigUtils;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.origin.Origin;
+import org.springframework.boot.origin.OriginLookup;
+import org.springframework.boot.origin.TextResourceOrigin;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NacosPropertiesPropertySourceLoaderTests {
+
+	private final NacosPropertiesPropertySourceLoader loader = new NacosPropertiesPropertySourceLoader();
+
+	@Test
+	public void testSameResultAsPropertiesPropertySourceLoader() throws IOException {
+		String[] contents = { "name=中文配置\ngreeting : 你好, 世界\n",
+				"# 注释\nkey.with.escapes=a\\tb\\u4e2d\\\\c\\=d\n! comment\n  indented  value  \n",
+				"multi.line=第一行\\\n    第二行\\\n  end\nlist[]=甲,乙,丙\nempty=\n",
+				"a=1\r\nb=２\r\n#---\nc=三\n#---\n#---\nd=四\n!---\ne=5\n",
+				"emoji=😀 ok\nkey\\ with\\ space=值\nnovalue\n",
+				"a=1\n#---\na=1\n" };
+		for (String content : contents) {
+			assertThat(toMaps(load(content))).as(content)
+					.isEqualTo(toMaps(loadWithSpring(content)));
+		}
+	}
+
+	@Test
+	public void testMultipleDocumentsAreNamedLikeSpring() throws IOException {
+		List<PropertySource<?>> result = load("a=一\n#---\nb=二\n");
+
+		assertThat(result).extracting(PropertySource::getName).containsExactly(
+				"test.properties (document #0)", "test.properties (document #1)");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testOriginPointsAtOriginalContent() throws IOException {
+		PropertySource<?> propertySource = load("# 中文\n名称=值\r\nkey=测试\n").get(0);
+
+		Origin origin = ((OriginLookup<String>) propertySource).getOrigin("key");
+		assertThat(((TextResourceOrigin) origin).getLocation().getLine()).isEqualTo(2);
+		assertThat(((TextResourceOrigin) origin).getLocation().getColumn())
+				.isEqualTo(4);
+		assertThat(propertySource.getProperty("名称")).isEqualTo("值");
+	}
+
+	private List<PropertySource<?>> load(String content) throws IOException {
+		NacosByteArrayResource resource = new NacosByteArrayResource(
+				content.getBytes(StandardCharsets.UTF_8), "test.properties");
+		resource.setFilename("test.properties");
+		return loader.load("test.properties", resource);
+	}
+
+	private List<PropertySource<?>> loadWithSpring(String content) throws IOException {
+		NacosByteArrayResource resource = new NacosByteArrayResource(
+				NacosConfigUtils.selectiveConvertUnicode(content)
+						.getBytes(StandardCharsets.ISO_8859_1),
+				"test.properties");
+		resource.setFilename("test.properties");
+		return new PropertiesPropertySourceLoader().load("test.properties", resource);
+	}
+
+	private static Map<String, Map<String, Object>> toMaps(
+			List<PropertySource<?>> propertySources) {
+		Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+		for (PropertySource<?> propertySource : propertySources) {
+			Map<String, Object> values = new LinkedHashMap<>();
+			for (String name : ((EnumerablePropertySource<?>) propertySource)
+					.getPropertyNames()) {
+				values.put(name, propertySource.getProperty(name));
+			}
+			result.put(propertySource.getName(), values);
+		}
+		return result;
+	}
+
+}
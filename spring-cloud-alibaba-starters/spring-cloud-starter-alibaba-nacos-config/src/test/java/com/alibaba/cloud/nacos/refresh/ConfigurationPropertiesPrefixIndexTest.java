@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigurationPropertiesPrefixIndexTest {
+
+	@Test
+	public void testMatchesBeansWhosePrefixTheKeyStartsWith() {
+		ConfigurationPropertiesPrefixIndex index = new ConfigurationPropertiesPrefixIndex();
+		index.add("spring.datasource", "dataSource");
+		index.add("spring.datasource.hikari", "hikari");
+		index.add("spring.redis", "redis");
+		index.add("", "root");
+
+		assertThat(match(index, "spring.datasource.hikari.maximum-pool-size"))
+				.containsExactlyInAnyOrder("dataSource", "hikari", "root");
+		assertThat(match(index, "spring.redis.host"))
+				.containsExactlyInAnyOrder("redis", "root");
+		assertThat(match(index, "server.port")).containsExactly("root");
+		// same as String#startsWith, the prefix is not required to end at a dot
+		assertThat(match(index, "spring.datasourcex"))
+				.containsExactlyInAnyOrder("dataSource", "root");
+		assertThat(index.size()).isEqualTo(4);
+	}
+
+	@Test
+	public void testRemove() {
+		ConfigurationPropertiesPrefixIndex index = new ConfigurationPropertiesPrefixIndex();
+		index.add("spring.redis", "redis");
+		index.remove("spring.redis", "redis");
+		index.remove("spring.unknown", "redis");
+		index.add("cache.redis", "redis");
+
+		assertThat(match(index, "spring.redis.host")).isEmpty();
+		assertThat(match(index, "cache.redis.host")).containsExactly("redis");
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void testVisitsAtMostKeyLengthNodes() {
+		ConfigurationPropertiesPrefixIndex index = new ConfigurationPropertiesPrefixIndex();
+		index.add("a.b", "ab");
+
+		assertThat(index.match("a.b.c.d", new HashSet<>())).isEqualTo(4);
+		assertThat(index.match("x.y", new HashSet<>())).isEqualTo(1);
+	}
+
+	private static Set<String> match(ConfigurationPropertiesPrefixIndex index,
+			String key) {
+		Set<String> beanNames = new HashSet<>();
+		index.match(key, beanNames);
+		return beanNames;
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.nacos.api.config.ConfigChangeEvent;
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.config.listener.AbstractListener;
+import com.alibaba.nacos.api.config.listener.AbstractSharedListener;
+import com.alibaba.nacos.api.config.listener.Listener;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NacosConfigDispatcherTest {
+
+	private final ConfigService configService = mock(ConfigService.class);
+
+	private final NacosConfigDispatcher dispatcher = new NacosConfigDispatcher(
+			configManager(configService));
+
+	@Test
+	public void testOneNacosListenerPerConfiguration() throws Exception {
+		List<String> received = new CopyOnWriteArrayList<>();
+		dispatcher.subscribe("app.properties", "DEFAULT_GROUP", listener(received));
+		dispatcher.subscribe("app.properties", "DEFAULT_GROUP", listener(received));
+		dispatcher.subscribe("app.properties", "DEFAULT_GROUP",
+				Collections.singleton("a"), null, "a=1", event -> {
+				});
+		dispatcher.subscribe("other.properties", "DEFAULT_GROUP", listener(received));
+
+		verify(configService, times(1)).addListener(eq("app.properties"),
+				eq("DEFAULT_GROUP"), any(Listener.class));
+		verify(configService, times(1)).addListener(eq("other.properties"),
+				eq("DEFAULT_GROUP"), any(Listener.class));
+
+		dispatcher.dispatch("app.properties", "DEFAULT_GROUP", "a=2");
+		assertThat(received).containsExactly("a=2", "a=2");
+	}
+
+	@Test
+	public void testChangesAreDiffedOnceAndRoutedByKey() throws Exception {
+		List<String> notified = new CopyOnWriteArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			String key = "key" + i;
+			dispatcher.subscribe("app.properties", "DEFAULT_GROUP",
+					Collections.singleton(key), null, "key1=a\nkey2=b",
+					event -> notified
+							.add(key + "=" + event.getChangeItem(key).getNewValue()));
+		}
+		dispatcher.subscribe("app.properties", "DEFAULT_GROUP", null,
+				Collections.singleton("key9"), null,
+				event -> notified.add("prefix:" + event.getChangeItems().size()));
+		List<ConfigChangeEvent> all = new CopyOnWriteArrayList<>();
+		dispatcher.subscribe("app.properties", "DEFAULT_GROUP", null, null, null,
+				all::add);
+
+		dispatcher.dispatch("app.properties", "DEFAULT_GROUP",
+				"key1=a\nkey2=c\nkey99=d");
+
+		assertThat(notified).containsExactlyInAnyOrder("key2=c", "key99=d", "prefix:2");
+		assertThat(all).hasSize(1);
+		assertThat(dispatcher.getPushCount()).isEqualTo(1);
+		assertThat(dispatcher.getDiffCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testSharedListenerContextIsFilled() throws Exception {
+		List<String> received = new CopyOnWriteArrayList<>();
+		dispatcher.subscribe("app.properties", "DEFAULT_GROUP",
+				new AbstractSharedListener() {
+					@Override
+					public void innerReceive(String dataId, String group,
+							String configInfo) {
+						received.add(dataId + "," + group + "," + configInfo);
+					}
+				});
+
+		dispatcher.dispatch("app.properties", "DEFAULT_GROUP", "a=1");
+
+		assertThat(received).containsExactly("app.properties,DEFAULT_GROUP,a=1");
+	}
+
+	private static Listener listener(List<String> received) {
+		return new AbstractListener() {
+			@Override
+			public void receiveConfigInfo(String configInfo) {
+				received.add(configInfo);
+			}
+		};
+	}
+
+	private static NacosConfigManager configManager(ConfigService configService) {
+		NacosConfigManager configManager = mock(NacosConfigManager.class);
+		when(configManager.getConfigService()).thenReturn(configService);
+		return configManager;
+	}
+
+}
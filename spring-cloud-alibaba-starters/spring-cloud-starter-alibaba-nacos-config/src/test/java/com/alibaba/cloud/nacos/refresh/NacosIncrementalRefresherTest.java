@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import com.alibaba.cloud.nacos.client.NacosPropertySource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.bootstrap.config.BootstrapPropertySource;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NacosIncrementalRefresherTest {
+
+	private GenericApplicationContext context;
+
+	private List<EnvironmentChangeEvent> events;
+
+	private NacosIncrementalRefresher refresher;
+
+	@BeforeEach
+	public void setUp() {
+		context = new GenericApplicationContext();
+		events = new ArrayList<>();
+		context.addApplicationListener(
+				(ApplicationListener<EnvironmentChangeEvent>) events::add);
+		context.refresh();
+		refresher = new NacosIncrementalRefresher(context, new NacosConfigProperties());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		context.close();
+	}
+
+	@Test
+	public void testBootstrapPropertySourceIsSwapped() {
+		Map<String, Object> source = new HashMap<>();
+		source.put("a", "1");
+		source.put("b", "2");
+		source.put("c", "3");
+		context.getEnvironment().getPropertySources()
+				.addFirst(new BootstrapPropertySource<>(
+						new NacosPropertySource(List.of(new MapPropertySource("app", source)),
+								"DEFAULT_GROUP", "app.properties", null, true)));
+
+		Set<String> changedKeys = refresher.apply("app.properties", "DEFAULT_GROUP",
+				"a=1\nb=20\nd=4");
+		refresher.publish(changedKeys);
+
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getKeys()).containsExactlyInAnyOrder("b", "c", "d");
+		assertThat(context.getEnvironment().getProperty("b")).isEqualTo("20");
+		assertThat(context.getEnvironment().getProperty("c")).isNull();
+		PropertySource<?> swapped = context.getEnvironment().getPropertySources()
+				.get("bootstrapProperties-app.properties,DEFAULT_GROUP");
+		assertThat(swapped).isInstanceOf(BootstrapPropertySource.class);
+		assertThat(NacosPropertySourceRepository
+				.getNacosPropertySource("app.properties", "DEFAULT_GROUP").getSource())
+				.containsEntry("b", "20").doesNotContainKey("c");
+	}
+
+	@Test
+	public void testConfigDataDocumentsAreReplaced() {
+		context.getEnvironment().getPropertySources()
+				.addFirst(new MapPropertySource("DEFAULT_GROUP@app.yaml (document #0)",
+						Collections.singletonMap("a", "1")));
+		context.getEnvironment().getPropertySources()
+				.addFirst(new MapPropertySource("DEFAULT_GROUP@app.yaml (document #1)",
+						Collections.singletonMap("b", "2")));
+
+		refresher.publish(refresher.apply("app.yaml", "DEFAULT_GROUP", "a: 1\nb: 3\n"));
+
+		assertThat(events.get(0).getKeys()).containsExactly("b");
+		assertThat(context.getEnvironment().getProperty("b")).isEqualTo("3");
+		assertThat(context.getEnvironment().getPropertySources()
+				.contains("DEFAULT_GROUP@app.yaml (document #0)")).isFalse();
+
+		// the swapped source is found again on the next change
+		Set<String> unchanged = refresher.apply("app.yaml", "DEFAULT_GROUP",
+				"a: 1\nb: 3\n");
+		assertThat(unchanged).isEmpty();
+		refresher.publish(unchanged);
+		assertThat(events).hasSize(1);
+	}
+
+	@Test
+	public void testUnknownConfigRequiresFullRefresh() {
+		assertThat(refresher.apply("other.properties", "DEFAULT_GROUP", "a=1")).isNull();
+		assertThat(events).isEmpty();
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.refresh.NacosRefreshScheduler.ConfigChange;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NacosRefreshSchedulerTest {
+
+	@Test
+	public void testBurstIsCoalescedIntoOneRefresh() throws Exception {
+		List<List<ConfigChange>> refreshes = new CopyOnWriteArrayList<>();
+		CountDownLatch refreshed = new CountDownLatch(1);
+		NacosRefreshScheduler scheduler = new NacosRefreshScheduler(200, 5000,
+				changes -> {
+					refreshes.add(changes);
+					refreshed.countDown();
+				});
+		try {
+			scheduler.schedule("a", "DEFAULT_GROUP", "a=1");
+			scheduler.schedule("b", "DEFAULT_GROUP", "b=1");
+			scheduler.schedule("a", "DEFAULT_GROUP", "a=2");
+
+			assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(refreshes).hasSize(1);
+			assertThat(refreshes.get(0)).extracting(ConfigChange::getDataId)
+					.containsExactly("b", "a");
+			assertThat(refreshes.get(0).get(1).getConfigInfo()).isEqualTo("a=2");
+			assertThat(scheduler.getReceivedCount()).isEqualTo(3);
+			assertThat(scheduler.getExecutedCount()).isEqualTo(1);
+		}
+		finally {
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void testMaxDelayBoundsTheWait() throws Exception {
+		CountDownLatch refreshed = new CountDownLatch(1);
+		NacosRefreshScheduler scheduler = new NacosRefreshScheduler(200, 300,
+				changes -> refreshed.countDown());
+		try {
+			long start = System.currentTimeMillis();
+			// changes keep arriving within the quiet period
+			while (refreshed.getCount() > 0
+					&& System.currentTimeMillis() - start < 3000) {
+				scheduler.schedule("a", "DEFAULT_GROUP", "a=" + start);
+				Thread.sleep(50);
+			}
+			assertThat(refreshed.getCount()).isZero();
+			assertThat(scheduler.getExecutedCount()).isEqualTo(1);
+		}
+		finally {
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void testWithoutQuietPeriodEveryChangeIsRefreshed() {
+		List<List<ConfigChange>> refreshes = new CopyOnWriteArrayList<>();
+		NacosRefreshScheduler scheduler = new NacosRefreshScheduler(0, 5000,
+				refreshes::add);
+
+		scheduler.schedule("a", "DEFAULT_GROUP", "a=1");
+		scheduler.schedule("a", "DEFAULT_GROUP", "a=2");
+
+		assertThat(refreshes).hasSize(2);
+		assertThat(scheduler.getExecutedCount()).isEqualTo(2);
+	}
+
+}
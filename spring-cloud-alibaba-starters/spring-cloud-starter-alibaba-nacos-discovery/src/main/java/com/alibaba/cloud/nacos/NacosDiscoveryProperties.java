@@ -229,6 +229,12 @@ public class NacosDiscoveryProperties {
 	 */
 	private boolean failFast = true;
 
+	/**
+	 * Maximum number of services registered concurrently by
+	 * {@code NacosServiceRegistry.registerAll}.
+	 */
+	private int registerParallelism = 4;
+
 	@Autowired
 	private InetIPv6Utils inetIPv6Utils;
 
@@ -558,6 +564,14 @@ public class NacosDiscoveryProperties {
 		this.failFast = failFast;
 	}
 
+	public int getRegisterParallelism() {
+		return registerParallelism;
+	}
+
+	public void setRegisterParallelism(int registerParallelism) {
+		this.registerParallelism = registerParallelism;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+/**
+ * Metadata of a {@link NacosServiceInstance} backed by the nacos {@link Instance} it was
+ * created from.
+ * <p>
+ * The view holds the same entries as the map historically built by
+ * {@code NacosServiceDiscovery.hostToServiceInstance}: the {@code nacos.*} keys derived
+ * from the instance, overridden by the metadata of the instance, followed by
+ * {@code nacos.ephemeral}. Lookups of single keys are answered from the instance without
+ * copying; the entries are only copied into a {@link HashMap} when the map is iterated
+ * or modified.
+ */
+final class NacosInstanceMetadata extends AbstractMap<String, String> {
+
+	static final String INSTANCE_ID = "nacos.instanceId";
+
+	static final String WEIGHT = "nacos.weight";
+
+	static final String HEALTHY = "nacos.healthy";
+
+	static final String CLUSTER = "nacos.cluster";
+
+	static final String EPHEMERAL = "nacos.ephemeral";
+
+	private final Instance instance;
+
+	private volatile Map<String, String> materialized;
+
+	NacosInstanceMetadata(Instance instance) {
+		this.instance = instance;
+	}
+
+	double getWeight() {
+		if (materialized == null && !isOverridden(WEIGHT)) {
+			return instance.getWeight();
+		}
+		String weight = get(WEIGHT);
+		return weight == null ? 1.0D : Double.parseDouble(weight);
+	}
+
+	boolean isHealthy() {
+		if (materialized == null && !isOverridden(HEALTHY)) {
+			return instance.isHealthy();
+		}
+		String healthy = get(HEALTHY);
+		return healthy == null || Boolean.parseBoolean(healthy);
+	}
+
+	String getClusterName() {
+		if (materialized == null && !isOverridden(CLUSTER)) {
+			return instance.getClusterName();
+		}
+		return get(CLUSTER);
+	}
+
+	@Override
+	public String get(Object key) {
+		Map<String, String> map = materialized;
+		if (map != null) {
+			return map.get(key);
+		}
+		if (EPHEMERAL.equals(key)) {
+			return String.valueOf(instance.isEphemeral());
+		}
+		if (isOverridden(key)) {
+			return instance.getMetadata().get(key);
+		}
+		if (INSTANCE_ID.equals(key)) {
+			return instance.getInstanceId();
+		}
+		if (WEIGHT.equals(key)) {
+			return String.valueOf(instance.getWeight());
+		}
+		if (HEALTHY.equals(key)) {
+			return String.valueOf(instance.isHealthy());
+		}
+		if (CLUSTER.equals(key)) {
+			return String.valueOf(instance.getClusterName());
+		}
+		return null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		Map<String, String> map = materialized;
+		if (map != null) {
+			return map.containsKey(key);
+		}
+		return INSTANCE_ID.equals(key) || WEIGHT.equals(key) || HEALTHY.equals(key)
+				|| CLUSTER.equals(key) || EPHEMERAL.equals(key) || isOverridden(key);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		Map<String, String> map = materialized;
+		return map != null && map.isEmpty();
+	}
+
+	@Override
+	public String put(String key, String value) {
+		return materialize().put(key, value);
+	}
+
+	@Override
+	public String remove(Object key) {
+		return materialize().remove(key);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends String> m) {
+		materialize().putAll(m);
+	}
+
+	@Override
+	public void clear() {
+		materialize().clear();
+	}
+
+	@Override
+	public Set<Entry<String, String>> entrySet() {
+		return materialize().entrySet();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof NacosInstanceMetadata that && this.materialized == null
+				&& that.materialized == null && !this.hasOverriddenKeys()
+				&& !that.hasOverriddenKeys()) {
+			return sameEntries(this.instance, that.instance);
+		}
+		return super.equals(o);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	private boolean isOverridden(Object key) {
+		Map<String, String> metadata = instance.getMetadata();
+		return metadata != null && metadata.containsKey(key);
+	}
+
+	private boolean hasOverriddenKeys() {
+		return isOverridden(INSTANCE_ID) || isOverridden(WEIGHT) || isOverridden(HEALTHY)
+				|| isOverridden(CLUSTER);
+	}
+
+	private Map<String, String> materialize() {
+		Map<String, String> map = materialized;
+		if (map == null) {
+			synchronized (this) {
+				map = materialized;
+				if (map == null) {
+					map = new HashMap<>();
+					map.put(INSTANCE_ID, instance.getInstanceId());
+					map.put(WEIGHT, String.valueOf(instance.getWeight()));
+					map.put(HEALTHY, String.valueOf(instance.isHealthy()));
+					map.put(CLUSTER, String.valueOf(instance.getClusterName()));
+					if (instance.getMetadata() != null) {
+						map.putAll(instance.getMetadata());
+					}
+					map.put(EPHEMERAL, String.valueOf(instance.isEphemeral()));
+					materialized = map;
+				}
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Whether two instances produce the same view, comparing only the fields the view is
+	 * derived from.
+	 */
+	private static boolean sameEntries(Instance a, Instance b) {
+		if (a == b) {
+			return true;
+		}
+		return Objects.equals(a.getInstanceId(), b.getInstanceId())
+				&& Double.compare(a.getWeight(), b.getWeight()) == 0
+				&& a.isHealthy() == b.isHealthy() && a.isEphemeral() == b.isEphemeral()
+				&& Objects.equals(String.valueOf(a.getClusterName()),
+						String.valueOf(b.getClusterName()))
+				&& Objects.equals(
+						a.getMetadata() == null ? Collections.emptyMap() : a.getMetadata(),
+						b.getMetadata() == null ? Collections.emptyMap()
+								: b.getMetadata());
+	}
+
+}
@@ -20,6 +20,8 @@ import java.net.URI;
 import java.util.Map;
 import java.util.Objects;
 
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
 import org.springframework.cloud.client.DefaultServiceInstance;
 import org.springframework.cloud.client.ServiceInstance;
 
@@ -41,6 +43,28 @@ public class NacosServiceInstance implements ServiceInstance {
 
 	private Map<String, String> metadata;
 
+	public NacosServiceInstance() {
+	}
+
+	/**
+	 * Create a service instance backed by a nacos instance. The metadata is a view of the
+	 * nacos instance which is only copied when it is iterated or modified, and the typed
+	 * accessors read the nacos instance directly.
+	 * @param instance nacos instance
+	 * @param serviceId id of service
+	 */
+	public NacosServiceInstance(Instance instance, String serviceId) {
+		this.serviceId = serviceId;
+		this.instanceId = instance.getInstanceId();
+		this.host = instance.getIp();
+		this.port = instance.getPort();
+		this.metadata = new NacosInstanceMetadata(instance);
+		String secure = this.metadata.get("secure");
+		if (secure != null) {
+			this.secure = Boolean.parseBoolean(secure);
+		}
+	}
+
 	@Override
 	public String getServiceId() {
 		return serviceId;
@@ -81,6 +105,43 @@ public class NacosServiceInstance implements ServiceInstance {
 		return getUri().getScheme();
 	}
 
+	/**
+	 * Weight of the instance, from the {@code nacos.weight} metadata.
+	 * @return the weight, 1.0 if unknown
+	 */
+	public double getWeight() {
+		if (metadata instanceof NacosInstanceMetadata instanceMetadata) {
+			return instanceMetadata.getWeight();
+		}
+		String weight = metadata == null ? null
+				: metadata.get(NacosInstanceMetadata.WEIGHT);
+		return weight == null ? 1.0D : Double.parseDouble(weight);
+	}
+
+	/**
+	 * Health of the instance, from the {@code nacos.healthy} metadata.
+	 * @return whether the instance is healthy, true if unknown
+	 */
+	public boolean isHealthy() {
+		if (metadata instanceof NacosInstanceMetadata instanceMetadata) {
+			return instanceMetadata.isHealthy();
+		}
+		String healthy = metadata == null ? null
+				: metadata.get(NacosInstanceMetadata.HEALTHY);
+		return healthy == null || Boolean.parseBoolean(healthy);
+	}
+
+	/**
+	 * Cluster of the instance, from the {@code nacos.cluster} metadata.
+	 * @return the cluster name, null if unknown
+	 */
+	public String getClusterName() {
+		if (metadata instanceof NacosInstanceMetadata instanceMetadata) {
+			return instanceMetadata.getClusterName();
+		}
+		return metadata == null ? null : metadata.get(NacosInstanceMetadata.CLUSTER);
+	}
+
 	public void setServiceId(String serviceId) {
 		this.serviceId = serviceId;
 	}
@@ -16,16 +16,15 @@
 
 package com.alibaba.cloud.nacos.balancer;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-
 
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosServiceInstance;
 import com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancer;
+import com.alibaba.cloud.nacos.loadbalancer.ServiceInstanceSnapshot;
 import com.alibaba.nacos.api.naming.pojo.Instance;
 import com.alibaba.nacos.client.naming.core.Balancer;
 
@@ -37,10 +36,6 @@ import org.springframework.cloud.client.ServiceInstance;
  */
 public class NacosBalancer extends Balancer {
 
-	private static final String IPV4_REGEX = "((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})(.((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})){3}";
-
-	private static final String IPV6_KEY = "IPv6";
-
 	/**
 	 * Choose instance by weight.
 	 * @param instances Instance List
@@ -57,20 +52,29 @@ public class NacosBalancer extends Balancer {
 	 */
 	public static ServiceInstance getHostByRandomWeight3(
 			List<ServiceInstance> serviceInstances) {
-		Map<Instance, ServiceInstance> instanceMap = new HashMap<>();
-		List<Instance> nacosInstance = serviceInstances.stream().map(serviceInstance -> {
-			Map<String, String> metadata = serviceInstance.getMetadata();
-
+		// the chosen instance is one of the list, so it is looked up by identity instead
+		// of Instance.hashCode(), which formats the whole instance
+		Map<Instance, ServiceInstance> instanceMap = new IdentityHashMap<>(
+				serviceInstances.size());
+		List<Instance> nacosInstance = new ArrayList<>(serviceInstances.size());
+		for (ServiceInstance serviceInstance : serviceInstances) {
 			// see
 			// com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery.hostToServiceInstance()
 			Instance instance = new Instance();
 			instance.setIp(serviceInstance.getHost());
 			instance.setPort(serviceInstance.getPort());
-			instance.setWeight(Double.parseDouble(metadata.get("nacos.weight")));
-			instance.setHealthy(Boolean.parseBoolean(metadata.get("nacos.healthy")));
+			if (serviceInstance instanceof NacosServiceInstance nacosServiceInstance) {
+				instance.setWeight(nacosServiceInstance.getWeight());
+				instance.setHealthy(nacosServiceInstance.isHealthy());
+			}
+			else {
+				Map<String, String> metadata = serviceInstance.getMetadata();
+				instance.setWeight(Double.parseDouble(metadata.get("nacos.weight")));
+				instance.setHealthy(Boolean.parseBoolean(metadata.get("nacos.healthy")));
+			}
 			instanceMap.put(instance, serviceInstance);
-			return instance;
-		}).collect(Collectors.toList());
+			nacosInstance.add(instance);
+		}
 
 		Instance instance = getHostByRandomWeight2(nacosInstance);
 		NacosServiceInstance nacosServiceInstance = (NacosServiceInstance) instanceMap.get(instance);
@@ -86,8 +90,8 @@ public class NacosBalancer extends Balancer {
 	 * field.
 	 */
 	private static void convertIPv4ToIPv6(NacosServiceInstance instance) {
-		if (Pattern.matches(IPV4_REGEX, instance.getHost())) {
-			String ip = instance.getMetadata().get(IPV6_KEY);
+		if (ServiceInstanceSnapshot.isIPv4(instance.getHost())) {
+			String ip = instance.getMetadata().get(ServiceInstanceSnapshot.IPV6_KEY);
 			if (StringUtils.isNotEmpty(ip)) {
 				instance.setHost(ip);
 			}
@@ -16,14 +16,21 @@
 
 package com.alibaba.cloud.nacos.discovery;
 
+import java.nio.file.Paths;
+
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.client.ConditionalOnDiscoveryEnabled;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
 
 /**
  * @author <a href="mailto:echooy.mxq@gmail.com">echooymxq</a>
@@ -47,4 +54,54 @@ public class NacosDiscoveryAutoConfiguration {
 		return new NacosServiceDiscovery(discoveryProperties, nacosServiceManager);
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	public NacosDiscoveryCacheProperties nacosDiscoveryCacheProperties() {
+		return new NacosDiscoveryCacheProperties();
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.cache.enabled", havingValue = "true")
+	public NacosDiscoveryCache nacosDiscoveryCache(
+			NacosServiceDiscovery nacosServiceDiscovery,
+			NacosDiscoveryCacheProperties nacosDiscoveryCacheProperties,
+			ObjectProvider<NacosDiscoverySnapshot> nacosDiscoverySnapshot) {
+		return new NacosDiscoveryCache(nacosServiceDiscovery,
+				nacosDiscoveryCacheProperties, nacosDiscoverySnapshot.getIfAvailable());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.cache.snapshot.enabled", havingValue = "true")
+	public NacosDiscoverySnapshot nacosDiscoverySnapshot(
+			NacosDiscoveryCacheProperties nacosDiscoveryCacheProperties,
+			Environment environment) {
+		NacosDiscoveryCacheProperties.Snapshot snapshot = nacosDiscoveryCacheProperties
+				.getSnapshot();
+		String path = snapshot.getPath();
+		if (!StringUtils.hasText(path)) {
+			path = Paths.get(System.getProperty("user.home"), "nacos",
+					"discovery-snapshot",
+					environment.getProperty("spring.application.name", "application")
+							+ ".snapshot")
+					.toString();
+		}
+		return new NacosDiscoverySnapshot(Paths.get(path), snapshot.getMaxStaleness());
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.cache.enabled", havingValue = "true")
+	static class NacosDiscoveryCacheMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public NacosDiscoveryCacheMetrics nacosDiscoveryCacheMetrics(
+				NacosDiscoveryCache nacosDiscoveryCache) {
+			return new NacosDiscoveryCacheMetrics(nacosDiscoveryCache);
+		}
+
+	}
+
 }
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.nacos.api.exception.NacosException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Bounded in-memory cache of service instances with stale-while-revalidate semantics.
+ * <p>
+ * The first lookup of a service loads it synchronously. Afterwards lookups are answered
+ * from memory, and once an entry is older than the TTL it keeps being returned while a
+ * single refresh runs on a dedicated scheduler. Every loaded list is also published to
+ * {@link ServiceCache}, so the failure tolerance fallback keeps working.
+ * <p>
+ * With a {@link NacosDiscoverySnapshot} the cache is restored from the local disk when
+ * it is created, before the naming service is first used, and written back periodically
+ * and on shutdown. Restored entries keep their original load time, so they are served
+ * immediately and refreshed from nacos on first read.
+ */
+public class NacosDiscoveryCache implements DisposableBean {
+
+	private static final Logger log = LoggerFactory.getLogger(NacosDiscoveryCache.class);
+
+	private final NacosServiceDiscovery serviceDiscovery;
+
+	private final long ttlMillis;
+
+	private final int maxSize;
+
+	private final ThreadPoolTaskScheduler taskScheduler;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder refreshCount = new LongAdder();
+
+	private final LongAdder refreshFailureCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	private final NacosDiscoverySnapshot snapshot;
+
+	private final AtomicLong modCount = new AtomicLong();
+
+	private volatile long snapshotModCount;
+
+	public NacosDiscoveryCache(NacosServiceDiscovery serviceDiscovery,
+			NacosDiscoveryCacheProperties properties) {
+		this(serviceDiscovery, properties, null);
+	}
+
+	public NacosDiscoveryCache(NacosServiceDiscovery serviceDiscovery,
+			NacosDiscoveryCacheProperties properties, NacosDiscoverySnapshot snapshot) {
+		this.serviceDiscovery = serviceDiscovery;
+		this.ttlMillis = properties.getTtl().toMillis();
+		this.maxSize = properties.getMaxSize();
+		this.taskScheduler = new ThreadPoolTaskScheduler();
+		this.taskScheduler.setPoolSize(Math.max(1, properties.getRefreshThreads()));
+		this.taskScheduler.setThreadNamePrefix("nacos-discovery-cache-");
+		this.taskScheduler.setDaemon(true);
+		this.taskScheduler.initialize();
+		// proactively refresh expired entries that are still being read
+		this.taskScheduler.scheduleWithFixedDelay(this::refreshExpired,
+				Duration.ofMillis(Math.max(ttlMillis, 1000)));
+		this.snapshot = snapshot;
+		if (snapshot != null) {
+			restore();
+			this.taskScheduler.scheduleWithFixedDelay(this::writeSnapshot,
+					properties.getSnapshot().getInterval());
+		}
+	}
+
+	/**
+	 * Return the instances of a service, loading them on the first call.
+	 * @param serviceId id of service
+	 * @return unmodifiable list of instances
+	 * @throws NacosException if the first load fails
+	 */
+	public List<ServiceInstance> getInstances(String serviceId) throws NacosException {
+		long now = System.currentTimeMillis();
+		Entry entry = entries.get(serviceId);
+		if (entry == null) {
+			missCount.increment();
+			return load(serviceId).instances;
+		}
+		hitCount.increment();
+		entry.lastAccessTime = now;
+		if (now - entry.loadTime > ttlMillis) {
+			refreshAsync(serviceId, entry);
+		}
+		return entry.instances;
+	}
+
+	/**
+	 * Drop the cached instances of a service.
+	 * @param serviceId id of service
+	 */
+	public void invalidate(String serviceId) {
+		if (entries.remove(serviceId) != null) {
+			modCount.incrementAndGet();
+		}
+	}
+
+	private Entry load(String serviceId) throws NacosException {
+		Entry entry = fetch(serviceId);
+		put(serviceId, entry);
+		return entry;
+	}
+
+	private Entry fetch(String serviceId) throws NacosException {
+		List<ServiceInstance> instances = Collections
+				.unmodifiableList(serviceDiscovery.getInstances(serviceId));
+		return new Entry(instances, System.currentTimeMillis());
+	}
+
+	private void put(String serviceId, Entry entry) {
+		entries.put(serviceId, entry);
+		stored(serviceId, entry);
+	}
+
+	private void stored(String serviceId, Entry entry) {
+		modCount.incrementAndGet();
+		ServiceCache.setInstances(serviceId, entry.instances);
+		if (entries.size() > maxSize) {
+			evict();
+		}
+	}
+
+	private void restore() {
+		Map<String, NacosDiscoverySnapshot.Entry> restored = snapshot.read();
+		restored.forEach((serviceId, entry) -> put(serviceId, new Entry(
+				Collections.unmodifiableList(entry.getInstances()), entry.getLoadTime())));
+		snapshotModCount = modCount.get();
+		if (!restored.isEmpty()) {
+			log.info("restored instances of {} services from nacos discovery snapshot {}",
+					restored.size(), snapshot.getPath());
+		}
+	}
+
+	private synchronized void writeSnapshot() {
+		long currentModCount = modCount.get();
+		if (currentModCount == snapshotModCount) {
+			return;
+		}
+		Map<String, NacosDiscoverySnapshot.Entry> content = new LinkedHashMap<>();
+		entries.forEach((serviceId, entry) -> content.put(serviceId,
+				new NacosDiscoverySnapshot.Entry(entry.instances, entry.loadTime)));
+		snapshot.write(content);
+		snapshotModCount = currentModCount;
+	}
+
+	private void refreshAsync(String serviceId, Entry entry) {
+		if (!entry.refreshing.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			taskScheduler.execute(() -> refresh(serviceId, entry));
+		}
+		catch (Exception e) {
+			entry.refreshing.set(false);
+			log.warn("schedule refresh of service [{}] failed", serviceId, e);
+		}
+	}
+
+	private void refresh(String serviceId, Entry entry) {
+		try {
+			refreshCount.increment();
+			Entry refreshed = fetch(serviceId);
+			refreshed.lastAccessTime = entry.lastAccessTime;
+			// the entry may have been invalidated or evicted while it was refreshed
+			if (entries.replace(serviceId, entry, refreshed)) {
+				stored(serviceId, refreshed);
+			}
+		}
+		catch (Exception e) {
+			refreshFailureCount.increment();
+			log.warn("refresh instances of service [{}] from nacos failed, "
+					+ "keep serving the cached instances", serviceId, e);
+		}
+		finally {
+			entry.refreshing.set(false);
+		}
+	}
+
+	private void refreshExpired() {
+		long now = System.currentTimeMillis();
+		entries.forEach((serviceId, entry) -> {
+			if (now - entry.loadTime > ttlMillis
+					&& entry.lastAccessTime > entry.loadTime) {
+				refreshAsync(serviceId, entry);
+			}
+		});
+	}
+
+	private synchronized void evict() {
+		while (entries.size() > maxSize) {
+			String eldest = null;
+			long eldestAccess = Long.MAX_VALUE;
+			for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+				if (candidate.getValue().lastAccessTime < eldestAccess) {
+					eldest = candidate.getKey();
+					eldestAccess = candidate.getValue().lastAccessTime;
+				}
+			}
+			if (eldest == null) {
+				return;
+			}
+			entries.remove(eldest);
+			modCount.incrementAndGet();
+			evictionCount.increment();
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	public long getRefreshCount() {
+		return refreshCount.sum();
+	}
+
+	public long getRefreshFailureCount() {
+		return refreshFailureCount.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	@Override
+	public void destroy() {
+		taskScheduler.shutdown();
+		if (snapshot != null) {
+			writeSnapshot();
+		}
+	}
+
+	private static final class Entry {
+
+		private final List<ServiceInstance> instances;
+
+		private final long loadTime;
+
+		private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+		private volatile long lastAccessTime;
+
+		private Entry(List<ServiceInstance> instances, long loadTime) {
+			this.instances = instances;
+			this.loadTime = loadTime;
+			this.lastAccessTime = loadTime;
+		}
+
+	}
+
+}
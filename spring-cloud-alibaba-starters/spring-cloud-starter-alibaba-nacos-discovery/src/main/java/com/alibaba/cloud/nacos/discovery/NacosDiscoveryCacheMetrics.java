@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exports the statistics of {@link NacosDiscoveryCache} to Micrometer.
+ */
+public class NacosDiscoveryCacheMetrics implements MeterBinder {
+
+	private static final String PREFIX = "nacos.discovery.cache";
+
+	private final NacosDiscoveryCache cache;
+
+	public NacosDiscoveryCacheMetrics(NacosDiscoveryCache cache) {
+		this.cache = cache;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder(PREFIX + ".size", cache, NacosDiscoveryCache::size)
+				.description("Number of cached services").register(registry);
+		FunctionCounter.builder(PREFIX + ".gets", cache, NacosDiscoveryCache::getHitCount)
+				.tag("result", "hit").description("Cache lookups answered from memory")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + ".gets", cache, NacosDiscoveryCache::getMissCount)
+				.tag("result", "miss").description("Cache lookups loaded from nacos")
+				.register(registry);
+		FunctionCounter
+				.builder(PREFIX + ".refreshes", cache, NacosDiscoveryCache::getRefreshCount)
+				.tag("result", "attempt").description("Background refreshes")
+				.register(registry);
+		FunctionCounter
+				.builder(PREFIX + ".refreshes", cache,
+						NacosDiscoveryCache::getRefreshFailureCount)
+				.tag("result", "failure").description("Failed background refreshes")
+				.register(registry);
+		FunctionCounter
+				.builder(PREFIX + ".evictions", cache, NacosDiscoveryCache::getEvictionCount)
+				.description("Services evicted because the cache was full")
+				.register(registry);
+	}
+
+}
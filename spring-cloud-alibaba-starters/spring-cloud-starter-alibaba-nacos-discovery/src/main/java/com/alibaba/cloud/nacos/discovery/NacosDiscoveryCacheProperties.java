@@ -0,0 +1,172 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties of {@link NacosDiscoveryCache}.
+ */
+@ConfigurationProperties(NacosDiscoveryCacheProperties.PREFIX)
+public class NacosDiscoveryCacheProperties {
+
+	/**
+	 * Prefix of {@link NacosDiscoveryCacheProperties}.
+	 */
+	public static final String PREFIX = "spring.cloud.nacos.discovery.cache";
+
+	/**
+	 * Whether discovery clients answer from the in-memory cache.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Time after which a cached instance list is refreshed in the background. Until the
+	 * refresh completes the stale list is still returned.
+	 */
+	private Duration ttl = Duration.ofSeconds(30);
+
+	/**
+	 * Maximum number of cached services, the least recently read service is evicted
+	 * first.
+	 */
+	private int maxSize = 1000;
+
+	/**
+	 * Number of threads refreshing cached services.
+	 */
+	private int refreshThreads = 1;
+
+	/**
+	 * On-disk snapshot the cache is restored from at startup.
+	 */
+	private Snapshot snapshot = new Snapshot();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getTtl() {
+		return ttl;
+	}
+
+	public void setTtl(Duration ttl) {
+		this.ttl = ttl;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public int getRefreshThreads() {
+		return refreshThreads;
+	}
+
+	public void setRefreshThreads(int refreshThreads) {
+		this.refreshThreads = refreshThreads;
+	}
+
+	public Snapshot getSnapshot() {
+		return snapshot;
+	}
+
+	public void setSnapshot(Snapshot snapshot) {
+		this.snapshot = snapshot;
+	}
+
+	@Override
+	public String toString() {
+		return "NacosDiscoveryCacheProperties{" + "enabled=" + enabled + ", ttl=" + ttl
+				+ ", maxSize=" + maxSize + ", refreshThreads=" + refreshThreads
+				+ ", snapshot=" + snapshot + '}';
+	}
+
+	public static class Snapshot {
+
+		/**
+		 * Whether cached instances are persisted to the local disk, so that the next
+		 * start can route requests before nacos is reachable.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Snapshot file, defaults to
+		 * ${user.home}/nacos/discovery-snapshot/${spring.application.name}.snapshot.
+		 */
+		private String path;
+
+		/**
+		 * Interval at which the snapshot is written when the cache changed.
+		 */
+		private Duration interval = Duration.ofSeconds(60);
+
+		/**
+		 * Instance lists loaded longer ago than this are not restored.
+		 */
+		private Duration maxStaleness = Duration.ofHours(24);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		public void setPath(String path) {
+			this.path = path;
+		}
+
+		public Duration getInterval() {
+			return interval;
+		}
+
+		public void setInterval(Duration interval) {
+			this.interval = interval;
+		}
+
+		public Duration getMaxStaleness() {
+			return maxStaleness;
+		}
+
+		public void setMaxStaleness(Duration maxStaleness) {
+			this.maxStaleness = maxStaleness;
+		}
+
+		@Override
+		public String toString() {
+			return "Snapshot{" + "enabled=" + enabled + ", path='" + path + '\''
+					+ ", interval=" + interval + ", maxStaleness=" + maxStaleness + '}';
+		}
+
+	}
+
+}
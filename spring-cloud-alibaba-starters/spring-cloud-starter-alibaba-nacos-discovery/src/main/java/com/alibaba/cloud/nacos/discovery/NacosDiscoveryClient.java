@@ -44,11 +44,19 @@ public class NacosDiscoveryClient implements DiscoveryClient {
 
 	private NacosServiceDiscovery serviceDiscovery;
 
+	private NacosDiscoveryCache discoveryCache;
+
 	@Value("${spring.cloud.nacos.discovery.failure-tolerance-enabled:false}")
 	private boolean failureToleranceEnabled;
 
 	public NacosDiscoveryClient(NacosServiceDiscovery nacosServiceDiscovery) {
+		this(nacosServiceDiscovery, null);
+	}
+
+	public NacosDiscoveryClient(NacosServiceDiscovery nacosServiceDiscovery,
+			NacosDiscoveryCache nacosDiscoveryCache) {
 		this.serviceDiscovery = nacosServiceDiscovery;
+		this.discoveryCache = nacosDiscoveryCache;
 	}
 
 	@Override
@@ -59,6 +67,9 @@ public class NacosDiscoveryClient implements DiscoveryClient {
 	@Override
 	public List<ServiceInstance> getInstances(String serviceId) {
 		try {
+			if (discoveryCache != null) {
+				return discoveryCache.getInstances(serviceId);
+			}
 			return Optional.of(serviceDiscovery.getInstances(serviceId))
 					.map(instances -> {
 						ServiceCache.setInstances(serviceId, instances);
@@ -20,6 +20,7 @@ import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -48,8 +49,10 @@ public class NacosDiscoveryClientConfiguration {
 
 	@Bean
 	public DiscoveryClient nacosDiscoveryClient(
-			NacosServiceDiscovery nacosServiceDiscovery) {
-		return new NacosDiscoveryClient(nacosServiceDiscovery);
+			NacosServiceDiscovery nacosServiceDiscovery,
+			ObjectProvider<NacosDiscoveryCache> nacosDiscoveryCache) {
+		return new NacosDiscoveryClient(nacosServiceDiscovery,
+				nacosDiscoveryCache.getIfAvailable());
 	}
 
 	/**
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Versioned, checksum-verified binary snapshot of discovered instance lists on the local
+ * disk.
+ * <p>
+ * The file is replaced atomically on every write, so a crash never leaves a partially
+ * written snapshot behind, a corrupt file is removed when it is read. Services whose instances were loaded longer ago than the
+ * staleness limit are skipped when the snapshot is read.
+ */
+public class NacosDiscoverySnapshot {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosDiscoverySnapshot.class);
+
+	/**
+	 * "NDSS", identifies a snapshot file.
+	 */
+	private static final int MAGIC = 0x4E445353;
+
+	/**
+	 * Current format version, bump it on every incompatible format change.
+	 */
+	static final int VERSION = 2;
+
+	private final Path path;
+
+	private final long maxStalenessMillis;
+
+	public NacosDiscoverySnapshot(Path path, Duration maxStaleness) {
+		this.path = path;
+		this.maxStalenessMillis = maxStaleness.toMillis();
+	}
+
+	/**
+	 * Read the snapshot.
+	 * @return instance lists that are not stale, keyed by service id, with the time they
+	 * were loaded from nacos; empty if there is no usable snapshot
+	 */
+	public Map<String, Entry> read() {
+		if (!Files.isRegularFile(path)) {
+			return Collections.emptyMap();
+		}
+		long now = System.currentTimeMillis();
+		byte[] body;
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+			if (in.readInt() != MAGIC) {
+				log.warn("ignore nacos discovery snapshot {}, not a snapshot file", path);
+				return Collections.emptyMap();
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				log.warn("ignore nacos discovery snapshot {}, unsupported version {}",
+						path, version);
+				return Collections.emptyMap();
+			}
+			body = new byte[checkCount(in.readInt(), Files.size(path))];
+			in.readFully(body);
+			if (in.readLong() != checksum(body)) {
+				log.warn("drop nacos discovery snapshot {}, checksum mismatch", path);
+				delete();
+				return Collections.emptyMap();
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			log.warn("drop nacos discovery snapshot {}, read failed", path, e);
+			delete();
+			return Collections.emptyMap();
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+			int serviceCount = checkCount(in.readInt(), body.length);
+			Map<String, Entry> result = new LinkedHashMap<>(serviceCount * 2);
+			for (int i = 0; i < serviceCount; i++) {
+				String serviceId = in.readUTF();
+				long loadTime = in.readLong();
+				List<ServiceInstance> instances = readInstances(in, serviceId,
+						body.length);
+				if (now - loadTime <= maxStalenessMillis) {
+					result.put(serviceId, new Entry(instances, loadTime));
+				}
+			}
+			return result;
+		}
+		catch (IOException | RuntimeException e) {
+			log.warn("drop nacos discovery snapshot {}, invalid content", path, e);
+			delete();
+			return Collections.emptyMap();
+		}
+	}
+
+	/**
+	 * Atomically replace the snapshot.
+	 * @param entries instance lists keyed by service id
+	 */
+	public void write(Map<String, Entry> entries) {
+		try {
+			Path parent = path.toAbsolutePath().getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+			Path temp = Files.createTempFile(parent, path.getFileName().toString(),
+					".tmp");
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				try (DataOutputStream body = new DataOutputStream(bytes)) {
+					body.writeInt(entries.size());
+					for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+						body.writeUTF(entry.getKey());
+						body.writeLong(entry.getValue().getLoadTime());
+						writeInstances(body, entry.getValue().getInstances());
+					}
+				}
+				byte[] content = bytes.toByteArray();
+				try (DataOutputStream out = new DataOutputStream(
+						new BufferedOutputStream(Files.newOutputStream(temp)))) {
+					out.writeInt(MAGIC);
+					out.writeInt(VERSION);
+					out.writeInt(content.length);
+					out.write(content);
+					out.writeLong(checksum(content));
+				}
+				Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally {
+				Files.deleteIfExists(temp);
+			}
+		}
+		catch (IOException e) {
+			log.warn("write nacos discovery snapshot {} failed", path, e);
+		}
+	}
+
+	private void delete() {
+		try {
+			Files.deleteIfExists(path);
+		}
+		catch (IOException e) {
+			log.warn("delete nacos discovery snapshot {} failed", path, e);
+		}
+	}
+
+	/**
+	 * Every counted element takes at least one byte, so a count larger than the data it
+	 * is read from can only come from a corrupt file.
+	 */
+	private static int checkCount(int count, long limit) throws IOException {
+		if (count < 0 || count > limit) {
+			throw new IOException("invalid count " + count);
+		}
+		return count;
+	}
+
+	private static long checksum(byte[] bytes) {
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		return crc.getValue();
+	}
+
+	private static List<ServiceInstance> readInstances(DataInputStream in,
+			String serviceId, int limit) throws IOException {
+		int count = checkCount(in.readInt(), limit);
+		List<ServiceInstance> instances = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			NacosServiceInstance instance = new NacosServiceInstance();
+			instance.setServiceId(serviceId);
+			instance.setInstanceId(in.readBoolean() ? in.readUTF() : null);
+			instance.setHost(in.readUTF());
+			instance.setPort(in.readInt());
+			instance.setSecure(in.readBoolean());
+			int metadataSize = checkCount(in.readInt(), limit);
+			Map<String, String> metadata = new HashMap<>(metadataSize * 2);
+			for (int j = 0; j < metadataSize; j++) {
+				metadata.put(in.readUTF(), in.readUTF());
+			}
+			instance.setMetadata(metadata);
+			instances.add(instance);
+		}
+		return instances;
+	}
+
+	private static void writeInstances(DataOutputStream out,
+			List<ServiceInstance> instances) throws IOException {
+		out.writeInt(instances.size());
+		for (ServiceInstance instance : instances) {
+			out.writeBoolean(instance.getInstanceId() != null);
+			if (instance.getInstanceId() != null) {
+				out.writeUTF(instance.getInstanceId());
+			}
+			out.writeUTF(instance.getHost());
+			out.writeInt(instance.getPort());
+			out.writeBoolean(instance.isSecure());
+			Map<String, String> metadata = instance.getMetadata() == null
+					? Collections.emptyMap() : instance.getMetadata();
+			int size = 0;
+			for (Map.Entry<String, String> entry : metadata.entrySet()) {
+				if (entry.getKey() != null && entry.getValue() != null) {
+					size++;
+				}
+			}
+			out.writeInt(size);
+			for (Map.Entry<String, String> entry : metadata.entrySet()) {
+				if (entry.getKey() != null && entry.getValue() != null) {
+					out.writeUTF(entry.getKey());
+					out.writeUTF(entry.getValue());
+				}
+			}
+		}
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Instance list of one service and the time it was loaded from nacos.
+	 */
+	public static class Entry {
+
+		private final List<ServiceInstance> instances;
+
+		private final long loadTime;
+
+		public Entry(List<ServiceInstance> instances, long loadTime) {
+			this.instances = instances;
+			this.loadTime = loadTime;
+		}
+
+		public List<ServiceInstance> getInstances() {
+			return instances;
+		}
+
+		public long getLoadTime() {
+			return loadTime;
+		}
+
+	}
+
+}
@@ -33,7 +33,8 @@ import org.springframework.cloud.client.ServiceInstance;
  * <p>
  * It's very useful to query services and instances on runtime, but it's not real-time,
  * depends on {@link NacosDiscoveryClient} or {@link NacosReactiveDiscoveryClient}
- * {@code getServices(), getInstances(..)} invoke.
+ * {@code getServices(), getInstances(..)} invoke, or on the loads of
+ * {@link NacosDiscoveryCache} when it is enabled.
  *
  * @author freeman
  * @since 2021.0.1.0
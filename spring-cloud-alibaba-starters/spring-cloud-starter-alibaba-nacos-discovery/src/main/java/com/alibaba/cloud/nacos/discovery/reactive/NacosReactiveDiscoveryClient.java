@@ -18,6 +18,7 @@ package com.alibaba.cloud.nacos.discovery.reactive;
 
 import java.util.function.Function;
 
+import com.alibaba.cloud.nacos.discovery.NacosDiscoveryCache;
 import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
 import com.alibaba.cloud.nacos.discovery.ServiceCache;
 import com.alibaba.nacos.api.exception.NacosException;
@@ -43,11 +44,19 @@ public class NacosReactiveDiscoveryClient implements ReactiveDiscoveryClient {
 
 	private NacosServiceDiscovery serviceDiscovery;
 
+	private NacosDiscoveryCache discoveryCache;
+
 	@Value("${spring.cloud.nacos.discovery.failure-tolerance-enabled:false}")
 	private boolean failureToleranceEnabled;
 
 	public NacosReactiveDiscoveryClient(NacosServiceDiscovery nacosServiceDiscovery) {
+		this(nacosServiceDiscovery, null);
+	}
+
+	public NacosReactiveDiscoveryClient(NacosServiceDiscovery nacosServiceDiscovery,
+			NacosDiscoveryCache nacosDiscoveryCache) {
 		this.serviceDiscovery = nacosServiceDiscovery;
+		this.discoveryCache = nacosDiscoveryCache;
 	}
 
 	@Override
@@ -65,6 +74,9 @@ public class NacosReactiveDiscoveryClient implements ReactiveDiscoveryClient {
 	private Function<String, Publisher<ServiceInstance>> loadInstancesFromNacos() {
 		return serviceId -> {
 			try {
+				if (discoveryCache != null) {
+					return Flux.fromIterable(discoveryCache.getInstances(serviceId));
+				}
 				return Mono.justOrEmpty(serviceDiscovery.getInstances(serviceId))
 						.flatMapMany(instances -> {
 							ServiceCache.setInstances(serviceId, instances);
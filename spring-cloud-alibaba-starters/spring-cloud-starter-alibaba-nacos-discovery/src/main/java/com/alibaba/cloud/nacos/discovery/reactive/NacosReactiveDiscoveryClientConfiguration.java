@@ -18,8 +18,10 @@ package com.alibaba.cloud.nacos.discovery.reactive;
 
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
 import com.alibaba.cloud.nacos.discovery.NacosDiscoveryAutoConfiguration;
+import com.alibaba.cloud.nacos.discovery.NacosDiscoveryCache;
 import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -45,8 +47,10 @@ public class NacosReactiveDiscoveryClientConfiguration {
 	@Bean
 	@ConditionalOnMissingBean
 	public NacosReactiveDiscoveryClient nacosReactiveDiscoveryClient(
-			NacosServiceDiscovery nacosServiceDiscovery) {
-		return new NacosReactiveDiscoveryClient(nacosServiceDiscovery);
+			NacosServiceDiscovery nacosServiceDiscovery,
+			ObjectProvider<NacosDiscoveryCache> nacosDiscoveryCache) {
+		return new NacosReactiveDiscoveryClient(nacosServiceDiscovery,
+				nacosDiscoveryCache.getIfAvailable());
 	}
 
 }
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.core.Ordered;
+
+/**
+ * Weighted random load balancing algorithm based on Vose's alias method.
+ * <p>
+ * The alias table is built once per instance list in O(n) and each pick is O(1). The
+ * table is reused as long as {@link NacosLoadBalancer} passes the same instances, which
+ * is the case until the Nacos instance list changes. Weights are read from the
+ * {@code nacos.weight} metadata, unhealthy instances and instances without a positive
+ * weight are never chosen.
+ * <p>
+ * Register it as a bean to use it for all services, or pass a service id to use it for a
+ * single service only:
+ * <pre class="code">
+ * &#064;Bean
+ * public LoadBalancerAlgorithm orderServiceAlgorithm() {
+ *     return new AliasMethodLoadBalancerAlgorithm("order-service");
+ * }
+ * </pre>
+ */
+public class AliasMethodLoadBalancerAlgorithm implements LoadBalancerAlgorithm {
+
+	private static final String WEIGHT_KEY = "nacos.weight";
+
+	private static final String HEALTHY_KEY = "nacos.healthy";
+
+	private final String serviceId;
+
+	private final int order;
+
+	private final Map<String, AliasTable> aliasTables = new ConcurrentHashMap<>();
+
+	public AliasMethodLoadBalancerAlgorithm() {
+		this(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID);
+	}
+
+	public AliasMethodLoadBalancerAlgorithm(String serviceId) {
+		this(serviceId, Ordered.LOWEST_PRECEDENCE - 1);
+	}
+
+	public AliasMethodLoadBalancerAlgorithm(String serviceId, int order) {
+		this.serviceId = serviceId;
+		this.order = order;
+	}
+
+	@Override
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	@Override
+	public ServiceInstance getInstance(Request<?> request,
+			List<ServiceInstance> serviceInstances) {
+		if (serviceInstances == null || serviceInstances.isEmpty()) {
+			return null;
+		}
+		String key = Objects.toString(serviceInstances.get(0).getServiceId(), "");
+		AliasTable aliasTable = aliasTables.get(key);
+		if (aliasTable == null || !aliasTable.isBuiltFrom(serviceInstances)) {
+			aliasTable = AliasTable.of(serviceInstances);
+			aliasTables.put(key, aliasTable);
+		}
+		return aliasTable.next();
+	}
+
+	@Override
+	public int getOrder() {
+		return order;
+	}
+
+	static double weightOf(ServiceInstance instance) {
+		if (instance instanceof NacosServiceInstance nacosServiceInstance) {
+			try {
+				double value = nacosServiceInstance.getWeight();
+				return nacosServiceInstance.isHealthy() && Double.isFinite(value)
+						&& value > 0 ? value : 0.0D;
+			}
+			catch (NumberFormatException e) {
+				return 0.0D;
+			}
+		}
+		Map<String, String> metadata = instance.getMetadata();
+		if (metadata == null) {
+			return 1.0D;
+		}
+		String healthy = metadata.get(HEALTHY_KEY);
+		if (healthy != null && !Boolean.parseBoolean(healthy)) {
+			return 0.0D;
+		}
+		String weight = metadata.get(WEIGHT_KEY);
+		if (weight == null) {
+			return 1.0D;
+		}
+		try {
+			double value = Double.parseDouble(weight);
+			return Double.isFinite(value) && value > 0 ? value : 0.0D;
+		}
+		catch (NumberFormatException e) {
+			return 0.0D;
+		}
+	}
+
+	/**
+	 * Immutable alias table of one instance list.
+	 */
+	static final class AliasTable {
+
+		private final List<ServiceInstance> source;
+
+		private final ServiceInstance[] instances;
+
+		private final double[] probability;
+
+		private final int[] alias;
+
+		private AliasTable(List<ServiceInstance> source, ServiceInstance[] instances,
+				double[] probability, int[] alias) {
+			this.source = source;
+			this.instances = instances;
+			this.probability = probability;
+			this.alias = alias;
+		}
+
+		static AliasTable of(List<ServiceInstance> serviceInstances) {
+			int size = serviceInstances.size();
+			ServiceInstance[] instances = new ServiceInstance[size];
+			double[] weights = new double[size];
+			double totalWeight = 0;
+			int n = 0;
+			for (ServiceInstance instance : serviceInstances) {
+				double weight = weightOf(instance);
+				if (weight > 0) {
+					instances[n] = instance;
+					weights[n++] = weight;
+					totalWeight += weight;
+				}
+			}
+			if (n == 0) {
+				// No instance has a positive weight, fall back to uniform random.
+				n = size;
+				serviceInstances.toArray(instances);
+				Arrays.fill(weights, 1.0D);
+				totalWeight = size;
+			}
+
+			double[] probability = new double[n];
+			int[] alias = new int[n];
+			int[] small = new int[n];
+			int[] large = new int[n];
+			int smallSize = 0;
+			int largeSize = 0;
+			for (int i = 0; i < n; i++) {
+				probability[i] = weights[i] * n / totalWeight;
+				if (probability[i] < 1.0D) {
+					small[smallSize++] = i;
+				}
+				else {
+					large[largeSize++] = i;
+				}
+			}
+			while (smallSize > 0 && largeSize > 0) {
+				int less = small[--smallSize];
+				int more = large[--largeSize];
+				alias[less] = more;
+				probability[more] = probability[more] + probability[less] - 1.0D;
+				if (probability[more] < 1.0D) {
+					small[smallSize++] = more;
+				}
+				else {
+					large[largeSize++] = more;
+				}
+			}
+			// Remaining entries only differ from 1 by rounding errors.
+			while (largeSize > 0) {
+				probability[large[--largeSize]] = 1.0D;
+			}
+			while (smallSize > 0) {
+				probability[small[--smallSize]] = 1.0D;
+			}
+
+			ServiceInstance[] candidates = new ServiceInstance[n];
+			System.arraycopy(instances, 0, candidates, 0, n);
+			return new AliasTable(serviceInstances, candidates, probability, alias);
+		}
+
+		/**
+		 * Whether the table was built from the same instances. Filters usually return a
+		 * new list of the instances they keep, the instances themselves are only
+		 * replaced when the Nacos instance list changes, so they are compared by
+		 * reference rather than by {@code equals} on their metadata.
+		 */
+		boolean isBuiltFrom(List<ServiceInstance> serviceInstances) {
+			if (source == serviceInstances) {
+				return true;
+			}
+			int size = serviceInstances.size();
+			if (source.size() != size) {
+				return false;
+			}
+			for (int i = 0; i < size; i++) {
+				if (source.get(i) != serviceInstances.get(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		ServiceInstance next() {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int column = random.nextInt(instances.length);
+			return random.nextDouble() < probability[column] ? instances[column]
+					: instances[alias[column]];
+		}
+
+	}
+
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.core.Ordered;
+
+/**
+ * Latency aware load balancing algorithm.
+ * <p>
+ * Every instance is scored by its peak-EWMA latency multiplied by its number of in-flight
+ * requests, and each pick compares two random candidates (power of two choices) and
+ * returns the cheaper one. A latency sample above the current average replaces it
+ * immediately, lower samples are blended in with a decay time, so an instance that
+ * suffers a GC pause is avoided at once and recovers gradually. Static Nacos weights are
+ * not taken into account.
+ * <p>
+ * The statistics are fed by the {@link LoadBalancerLifecycle} callbacks, so the algorithm
+ * must be registered as a bean, which also makes Spring Cloud LoadBalancer invoke it as
+ * a lifecycle. It requires Micrometer on the classpath and, once bound to a
+ * {@link MeterRegistry}, exports the in-flight count, latency and score of every instance
+ * as gauges.
+ */
+public class LatencyAwareLoadBalancerAlgorithm implements LoadBalancerAlgorithm,
+		LoadBalancerLifecycle<Object, Object, ServiceInstance>, MeterBinder {
+
+	/**
+	 * Prefix of the exported gauges.
+	 */
+	public static final String METRIC_PREFIX = "nacos.loadbalancer.instance";
+
+	/**
+	 * Cost of an instance that has requests in flight but no latency sample yet.
+	 */
+	private static final double PENALTY = Long.MAX_VALUE >> 16;
+
+	private static final long PRUNE_INTERVAL = Duration.ofMinutes(1).toNanos();
+
+	private static final long IDLE_TIMEOUT = Duration.ofMinutes(5).toNanos();
+
+	private final String serviceId;
+
+	private final double decayNanos;
+
+	private final Map<String, InstanceStats> statsMap = new ConcurrentHashMap<>();
+
+	private final AtomicLong lastPrune = new AtomicLong(System.nanoTime());
+
+	private volatile MeterRegistry meterRegistry;
+
+	public LatencyAwareLoadBalancerAlgorithm() {
+		this(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID);
+	}
+
+	public LatencyAwareLoadBalancerAlgorithm(String serviceId) {
+		this(serviceId, Duration.ofSeconds(10));
+	}
+
+	public LatencyAwareLoadBalancerAlgorithm(String serviceId, Duration decayTime) {
+		this.serviceId = serviceId;
+		this.decayNanos = decayTime.toNanos();
+	}
+
+	@Override
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	@Override
+	public ServiceInstance getInstance(Request<?> request,
+			List<ServiceInstance> serviceInstances) {
+		if (serviceInstances == null || serviceInstances.isEmpty()) {
+			return null;
+		}
+		long now = System.nanoTime();
+		prune(now);
+		int size = serviceInstances.size();
+		if (size == 1) {
+			return serviceInstances.get(0);
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int first = random.nextInt(size);
+		int second = random.nextInt(size - 1);
+		if (second >= first) {
+			second++;
+		}
+		ServiceInstance a = serviceInstances.get(first);
+		ServiceInstance b = serviceInstances.get(second);
+		return getStats(a, now).cost() <= getStats(b, now).cost() ? a : b;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE - 1;
+	}
+
+	@Override
+	public void onStart(Request<Object> request) {
+	}
+
+	@Override
+	public void onStartRequest(Request<Object> request,
+			Response<ServiceInstance> lbResponse) {
+		if (lbResponse == null || !lbResponse.hasServer()) {
+			return;
+		}
+		long now = System.nanoTime();
+		if (request.getContext() instanceof TimedRequestContext context
+				&& context.getRequestStartTime() == 0) {
+			context.setRequestStartTime(now);
+		}
+		getStats(lbResponse.getServer(), now).outstanding.increment();
+	}
+
+	@Override
+	public void onComplete(
+			CompletionContext<Object, ServiceInstance, Object> completionContext) {
+		Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+		if (completionContext.status() == CompletionContext.Status.DISCARD
+				|| lbResponse == null || !lbResponse.hasServer()) {
+			return;
+		}
+		long now = System.nanoTime();
+		InstanceStats stats = getStats(lbResponse.getServer(), now);
+		stats.outstanding.decrement();
+		Request<Object> request = completionContext.getLoadBalancerRequest();
+		if (request != null && request.getContext() instanceof TimedRequestContext context
+				&& context.getRequestStartTime() > 0) {
+			stats.observe(now - context.getRequestStartTime(), now, decayNanos);
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.meterRegistry = registry;
+		statsMap.values().forEach(stats -> stats.register(registry));
+	}
+
+	/**
+	 * Current cost of an instance, lower is better.
+	 * @param instance service instance
+	 * @return the cost, 0 if the instance has never been seen
+	 */
+	public double getScore(ServiceInstance instance) {
+		InstanceStats stats = statsMap.get(keyOf(instance));
+		return stats == null ? 0 : stats.cost();
+	}
+
+	private InstanceStats getStats(ServiceInstance instance, long now) {
+		String key = keyOf(instance);
+		InstanceStats stats = statsMap.get(key);
+		if (stats == null) {
+			stats = statsMap.computeIfAbsent(key, k -> {
+				InstanceStats created = new InstanceStats(instance.getServiceId(), k);
+				MeterRegistry registry = this.meterRegistry;
+				if (registry != null) {
+					created.register(registry);
+				}
+				return created;
+			});
+		}
+		stats.lastAccess = now;
+		return stats;
+	}
+
+	private void prune(long now) {
+		long last = lastPrune.get();
+		if (now - last < PRUNE_INTERVAL || !lastPrune.compareAndSet(last, now)) {
+			return;
+		}
+		Iterator<InstanceStats> iterator = statsMap.values().iterator();
+		while (iterator.hasNext()) {
+			InstanceStats stats = iterator.next();
+			if (now - stats.lastAccess > IDLE_TIMEOUT && stats.outstanding.sum() <= 0) {
+				iterator.remove();
+				stats.unregister(meterRegistry);
+			}
+		}
+	}
+
+	private static String keyOf(ServiceInstance instance) {
+		String instanceId = instance.getInstanceId();
+		return instanceId != null ? instanceId
+				: instance.getHost() + ":" + instance.getPort();
+	}
+
+	/**
+	 * Lock-free statistics of one instance.
+	 */
+	static final class InstanceStats {
+
+		private final String serviceId;
+
+		private final String instanceId;
+
+		private final LongAdder outstanding = new LongAdder();
+
+		private final AtomicLong ewma = new AtomicLong(Double.doubleToRawLongBits(0));
+
+		private final AtomicLong stamp = new AtomicLong(System.nanoTime());
+
+		private volatile long lastAccess;
+
+		private volatile List<Meter> meters;
+
+		InstanceStats(String serviceId, String instanceId) {
+			this.serviceId = serviceId;
+			this.instanceId = instanceId;
+		}
+
+		void observe(long latencyNanos, long now, double decayNanos) {
+			while (true) {
+				long bits = ewma.get();
+				long previous = stamp.get();
+				double current = Double.longBitsToDouble(bits);
+				double next;
+				if (latencyNanos > current) {
+					next = latencyNanos;
+				}
+				else {
+					double weight = Math.exp(-Math.max(now - previous, 0) / decayNanos);
+					next = current * weight + latencyNanos * (1 - weight);
+				}
+				if (ewma.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+					stamp.set(now);
+					return;
+				}
+			}
+		}
+
+		double latency() {
+			return Double.longBitsToDouble(ewma.get());
+		}
+
+		long inFlight() {
+			return Math.max(outstanding.sum(), 0);
+		}
+
+		double cost() {
+			long pending = inFlight();
+			double latency = latency();
+			if (latency == 0 && pending != 0) {
+				return PENALTY + pending;
+			}
+			return latency * (pending + 1);
+		}
+
+		void register(MeterRegistry registry) {
+			Tags tags = Tags.of("serviceId", String.valueOf(serviceId), "instanceId",
+					instanceId);
+			meters = Arrays.asList(
+					Gauge.builder(METRIC_PREFIX + ".inflight", this, InstanceStats::inFlight)
+							.tags(tags).description("In-flight requests of the instance")
+							.register(registry),
+					Gauge.builder(METRIC_PREFIX + ".latency", this, InstanceStats::latency)
+							.tags(tags).baseUnit("nanoseconds")
+							.description("Peak EWMA latency of the instance")
+							.register(registry),
+					Gauge.builder(METRIC_PREFIX + ".score", this, InstanceStats::cost)
+							.tags(tags).description(
+									"Load balancing cost of the instance, lower is better")
+							.register(registry));
+		}
+
+		void unregister(MeterRegistry registry) {
+			List<Meter> registered = meters;
+			if (registry != null && registered != null) {
+				registered.forEach(registry::remove);
+			}
+		}
+
+	}
+
+}
@@ -18,6 +18,7 @@ package com.alibaba.cloud.nacos.loadbalancer;
 
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
@@ -37,4 +38,10 @@ public class LoadBalancerNacosAutoConfiguration {
 	public LoadBalancerAlgorithm defaultLoadBalancerAlgorithm() {
 		return new DefaultLoadBalancerAlgorithm();
 	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public NacosLocalityProperties nacosLocalityProperties() {
+		return new NacosLocalityProperties();
+	}
 }
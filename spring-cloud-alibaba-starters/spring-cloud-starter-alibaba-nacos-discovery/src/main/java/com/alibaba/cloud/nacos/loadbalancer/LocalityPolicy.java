@@ -0,0 +1,96 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Objects;
+
+/**
+ * Immutable settings of the locality aware partitioning of a
+ * {@link ServiceInstanceSnapshot}.
+ */
+public final class LocalityPolicy {
+
+	private final int spilloverThreshold;
+
+	private final String regionMetadataKey;
+
+	private final String localRegion;
+
+	/**
+	 * @param spilloverThreshold percentage of healthy local instances below which traffic
+	 * spills over to other clusters
+	 * @param regionMetadataKey metadata key holding the region of an instance
+	 * @param localRegion region of the local instance, may be blank
+	 */
+	public LocalityPolicy(int spilloverThreshold, String regionMetadataKey,
+			String localRegion) {
+		this.spilloverThreshold = Math.max(0, Math.min(100, spilloverThreshold));
+		this.regionMetadataKey = regionMetadataKey;
+		this.localRegion = localRegion;
+	}
+
+	/**
+	 * Whether this policy was created from the given settings.
+	 * @param spilloverThreshold percentage of healthy local instances
+	 * @param regionMetadataKey metadata key holding the region of an instance
+	 * @param localRegion region of the local instance
+	 * @return true if the settings are the same
+	 */
+	public boolean matches(int spilloverThreshold, String regionMetadataKey,
+			String localRegion) {
+		return this.spilloverThreshold == Math.max(0, Math.min(100, spilloverThreshold))
+				&& Objects.equals(this.regionMetadataKey, regionMetadataKey)
+				&& Objects.equals(this.localRegion, localRegion);
+	}
+
+	public int getSpilloverThreshold() {
+		return spilloverThreshold;
+	}
+
+	public String getRegionMetadataKey() {
+		return regionMetadataKey;
+	}
+
+	public String getLocalRegion() {
+		return localRegion;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		LocalityPolicy that = (LocalityPolicy) o;
+		return matches(that.spilloverThreshold, that.regionMetadataKey, that.localRegion);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(spilloverThreshold, regionMetadataKey, localRegion);
+	}
+
+	@Override
+	public String toString() {
+		return "LocalityPolicy{" + "spilloverThreshold=" + spilloverThreshold
+				+ ", regionMetadataKey='" + regionMetadataKey + '\'' + ", localRegion='"
+				+ localRegion + '\'' + '}';
+	}
+
+}
@@ -19,13 +19,10 @@ package com.alibaba.cloud.nacos.loadbalancer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.util.InetIPv6Utils;
-import com.alibaba.nacos.client.naming.utils.CollectionUtils;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,9 +55,6 @@ public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 
 	private final NacosDiscoveryProperties nacosDiscoveryProperties;
 
-	private static final String IPV4_REGEX = "((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})(.((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})){3}";
-
-	private static final String IPV6_KEY = "IPv6";
 	/**
 	 * Storage local valid IPv6 address, it's a flag whether local machine support IPv6 address stack.
 	 */
@@ -72,56 +66,52 @@ public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 
 	private final Map<String, LoadBalancerAlgorithm> loadBalancerAlgorithmMap;
 
+	private final NacosLocalityProperties localityProperties;
+
+	/**
+	 * Locality settings of the last snapshot, reused until the properties change.
+	 */
+	private volatile LocalityPolicy locality;
+
+	/**
+	 * Partitioned instances of the last instance list, reused until the list changes.
+	 */
+	private volatile ServiceInstanceSnapshot snapshot;
+
 	@PostConstruct
 	public void init() {
 		String ip = nacosDiscoveryProperties.getIp();
 		if (StringUtils.isNotEmpty(ip)) {
-			ipv6 = Pattern.matches(IPV4_REGEX, ip) ? nacosDiscoveryProperties.getMetadata().get(IPV6_KEY) : ip;
+			ipv6 = ServiceInstanceSnapshot.isIPv4(ip) ? nacosDiscoveryProperties.getMetadata()
+					.get(ServiceInstanceSnapshot.IPV6_KEY) : ip;
 		}
 		else {
 			ipv6 = inetIPv6Utils.findIPv6Address();
 		}
 	}
 
-	private List<ServiceInstance> filterInstanceByIpType(List<ServiceInstance> instances) {
-		if (StringUtils.isNotEmpty(ipv6)) {
-			List<ServiceInstance> ipv6InstanceList = new ArrayList<>();
-			for (ServiceInstance instance : instances) {
-				if (Pattern.matches(IPV4_REGEX, instance.getHost())) {
-					if (StringUtils.isNotEmpty(instance.getMetadata().get(IPV6_KEY))) {
-						ipv6InstanceList.add(instance);
-					}
-				}
-				else {
-					ipv6InstanceList.add(instance);
-				}
-			}
-			// Provider has no IPv6, should use IPv4.
-			if (ipv6InstanceList.isEmpty()) {
-				return instances.stream()
-						.filter(instance -> Pattern.matches(IPV4_REGEX, instance.getHost()))
-						.collect(Collectors.toList());
-			}
-			else {
-				return ipv6InstanceList;
-			}
-		}
-		return instances.stream()
-				.filter(instance -> Pattern.matches(IPV4_REGEX, instance.getHost()))
-				.collect(Collectors.toList());
+	public NacosLoadBalancer(
+			ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+			String serviceId, NacosDiscoveryProperties nacosDiscoveryProperties, InetIPv6Utils inetIPv6Utils,
+			List<ServiceInstanceFilter> serviceInstanceFilters,
+			Map<String, LoadBalancerAlgorithm> loadBalancerAlgorithmMap) {
+		this(serviceInstanceListSupplierProvider, serviceId, nacosDiscoveryProperties,
+				inetIPv6Utils, serviceInstanceFilters, loadBalancerAlgorithmMap, null);
 	}
 
 	public NacosLoadBalancer(
 			ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
 			String serviceId, NacosDiscoveryProperties nacosDiscoveryProperties, InetIPv6Utils inetIPv6Utils,
 			List<ServiceInstanceFilter> serviceInstanceFilters,
-			Map<String, LoadBalancerAlgorithm> loadBalancerAlgorithmMap) {
+			Map<String, LoadBalancerAlgorithm> loadBalancerAlgorithmMap,
+			NacosLocalityProperties localityProperties) {
 		this.serviceId = serviceId;
 		this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
 		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
 		this.inetIPv6Utils = inetIPv6Utils;
 		this.serviceInstanceFilters = serviceInstanceFilters;
 		this.loadBalancerAlgorithmMap = loadBalancerAlgorithmMap;
+		this.localityProperties = localityProperties;
 	}
 
 	@Override
@@ -139,41 +129,24 @@ public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 		}
 
 		try {
-			String clusterName = this.nacosDiscoveryProperties.getClusterName();
-
-			List<ServiceInstance> instancesToChoose = serviceInstances;
-			if (StringUtils.isNotBlank(clusterName)) {
-				List<ServiceInstance> sameClusterInstances = serviceInstances.stream()
-						.filter(serviceInstance -> {
-							String cluster = serviceInstance.getMetadata()
-									.get("nacos.cluster");
-							return StringUtils.equals(cluster, clusterName);
-						}).collect(Collectors.toList());
-				if (!CollectionUtils.isEmpty(sameClusterInstances)) {
-					instancesToChoose = sameClusterInstances;
-				}
+			List<ServiceInstance> instancesToChoose = getSnapshot(serviceInstances)
+					.chooseCandidates();
+			if (!serviceInstanceFilters.isEmpty()) {
+				// the candidates are shared by all requests, filters may modify their list
+				instancesToChoose = new ArrayList<>(instancesToChoose);
 			}
-			else {
-				log.warn(
-						"A cross-cluster call occurs，name = {}, clusterName = {}, instance = {}",
-						serviceId, clusterName, serviceInstances);
-			}
-			instancesToChoose = this.filterInstanceByIpType(instancesToChoose);
 
 			// Filter the service list sequentially based on the order number
 			for (ServiceInstanceFilter filter : serviceInstanceFilters) {
 				instancesToChoose = filter.filterInstance(request, instancesToChoose);
 			}
 
-			ServiceInstance instance;
 			// Find the corresponding load balancing algorithm through the service ID and select the final service instance
-			if (loadBalancerAlgorithmMap.containsKey(serviceId)) {
-				instance = loadBalancerAlgorithmMap.get(serviceId).getInstance(request, instancesToChoose);
-			}
-			else {
-				instance = loadBalancerAlgorithmMap.get(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID)
-						.getInstance(request, instancesToChoose);
+			LoadBalancerAlgorithm loadBalancerAlgorithm = loadBalancerAlgorithmMap.get(serviceId);
+			if (loadBalancerAlgorithm == null) {
+				loadBalancerAlgorithm = loadBalancerAlgorithmMap.get(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID);
 			}
+			ServiceInstance instance = loadBalancerAlgorithm.getInstance(request, instancesToChoose);
 
 			return new DefaultResponse(instance);
 		}
@@ -183,4 +156,41 @@ public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 		}
 	}
 
+	private ServiceInstanceSnapshot getSnapshot(List<ServiceInstance> serviceInstances) {
+		String clusterName = this.nacosDiscoveryProperties.getClusterName();
+		boolean ipv6Preferred = StringUtils.isNotEmpty(ipv6);
+		LocalityPolicy localityPolicy = getLocality();
+		ServiceInstanceSnapshot current = this.snapshot;
+		if (current == null || !current.isValidFor(serviceInstances, clusterName,
+				ipv6Preferred, localityPolicy)) {
+			if (StringUtils.isBlank(clusterName) && localityPolicy == null) {
+				log.warn(
+						"A cross-cluster call occurs，name = {}, clusterName = {}, instance = {}",
+						serviceId, clusterName, serviceInstances);
+			}
+			current = ServiceInstanceSnapshot.of(serviceInstances, clusterName,
+					ipv6Preferred, localityPolicy);
+			this.snapshot = current;
+		}
+		return current;
+	}
+
+	private LocalityPolicy getLocality() {
+		if (localityProperties == null || !localityProperties.isEnabled()) {
+			return null;
+		}
+		String regionMetadataKey = localityProperties.getRegionMetadataKey();
+		String localRegion = regionMetadataKey == null ? null
+				: nacosDiscoveryProperties.getMetadata().get(regionMetadataKey);
+		LocalityPolicy current = this.locality;
+		if (current == null || !current.matches(
+				localityProperties.getSpilloverThreshold(), regionMetadataKey,
+				localRegion)) {
+			current = new LocalityPolicy(localityProperties.getSpilloverThreshold(),
+					regionMetadataKey, localRegion);
+			this.locality = current;
+		}
+		return current;
+	}
+
 }
@@ -21,8 +21,10 @@ import java.util.List;
 import java.util.Map;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
 import com.alibaba.cloud.nacos.util.InetIPv6Utils;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -46,7 +48,11 @@ import org.springframework.core.env.Environment;
  * <br>
  * 1. LoadBalancerCache causes information such as the weight of the service instance to
  * be changed without immediate effect.<br>
- * 2. Nacos itself supports caching.
+ * 2. Nacos itself supports caching.<br>
+ * <br>
+ * Set {@code spring.cloud.loadbalancer.configurations=nacos-subscribe} to use
+ * {@link NacosServiceInstanceListSupplier}, which is updated by Nacos pushes instead of
+ * querying the naming client on every call.
  *
  * @author XuDaojie
  * @since 2021.1
@@ -65,7 +71,8 @@ public class NacosLoadBalancerClientConfiguration {
 			NacosDiscoveryProperties nacosDiscoveryProperties,
 			InetIPv6Utils inetIPv6Utils,
 			List<ServiceInstanceFilter> serviceInstanceFilters,
-			List<LoadBalancerAlgorithm> loadBalancerAlgorithms) {
+			List<LoadBalancerAlgorithm> loadBalancerAlgorithms,
+			ObjectProvider<NacosLocalityProperties> nacosLocalityProperties) {
 		String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
 		Map<String, LoadBalancerAlgorithm> loadBalancerAlgorithmMap = new HashMap<>();
 		loadBalancerAlgorithms.forEach(loadBalancerAlgorithm -> {
@@ -77,7 +84,19 @@ public class NacosLoadBalancerClientConfiguration {
 				loadBalancerClientFactory.getLazyProvider(name,
 						ServiceInstanceListSupplier.class),
 				name, nacosDiscoveryProperties, inetIPv6Utils,
-				serviceInstanceFilters, loadBalancerAlgorithmMap);
+				serviceInstanceFilters, loadBalancerAlgorithmMap,
+				nacosLocalityProperties.getIfAvailable());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.loadbalancer.configurations", havingValue = "nacos-subscribe")
+	public ServiceInstanceListSupplier nacosSubscribeServiceInstanceListSupplier(
+			Environment environment, NacosServiceManager nacosServiceManager,
+			NacosDiscoveryProperties nacosDiscoveryProperties) {
+		return new NacosServiceInstanceListSupplier(
+				environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME),
+				nacosServiceManager, nacosDiscoveryProperties);
 	}
 
 	@Configuration(proxyBeanMethods = false)
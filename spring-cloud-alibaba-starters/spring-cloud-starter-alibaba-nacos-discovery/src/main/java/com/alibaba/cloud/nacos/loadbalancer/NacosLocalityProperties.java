@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties of the locality aware routing of {@link NacosLoadBalancer}.
+ */
+@ConfigurationProperties(NacosLocalityProperties.PREFIX)
+public class NacosLocalityProperties {
+
+	/**
+	 * Prefix of {@link NacosLocalityProperties}.
+	 */
+	public static final String PREFIX = "spring.cloud.loadbalancer.nacos.locality";
+
+	/**
+	 * Whether traffic spills over to other clusters in proportion to the health of the
+	 * local cluster, instead of only leaving the local cluster when it is empty.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Percentage of healthy local instances below which a proportional share of the
+	 * traffic is sent to other clusters. The healthy local fraction is the number of
+	 * healthy instances of the local cluster divided by the larger of the local cluster
+	 * size and the average cluster size.
+	 */
+	private int spilloverThreshold = 70;
+
+	/**
+	 * Metadata key holding the region of an instance. The local region is read from the
+	 * same key of spring.cloud.nacos.discovery.metadata. Other clusters of the local
+	 * region are preferred over clusters of other regions.
+	 */
+	private String regionMetadataKey = "region";
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getSpilloverThreshold() {
+		return spilloverThreshold;
+	}
+
+	public void setSpilloverThreshold(int spilloverThreshold) {
+		this.spilloverThreshold = spilloverThreshold;
+	}
+
+	public String getRegionMetadataKey() {
+		return regionMetadataKey;
+	}
+
+	public void setRegionMetadataKey(String regionMetadataKey) {
+		this.regionMetadataKey = regionMetadataKey;
+	}
+
+	@Override
+	public String toString() {
+		return "NacosLocalityProperties{" + "enabled=" + enabled + ", spilloverThreshold="
+				+ spilloverThreshold + ", regionMetadataKey='" + regionMetadataKey + '\''
+				+ '}';
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
+import com.alibaba.nacos.api.naming.listener.Event;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+/**
+ * {@link ServiceInstanceListSupplier} backed by a Nacos subscription.
+ * <p>
+ * The supplier subscribes to the {@link NamingEvent}s of its service on first use and
+ * keeps an immutable, already converted instance list. Load balancer calls only replay
+ * that list, and a new list is emitted only when a push actually changes it, so the
+ * naming client is never queried on the request path and the same list instance is
+ * handed out until the next change.
+ */
+public class NacosServiceInstanceListSupplier
+		implements ServiceInstanceListSupplier, EventListener, DisposableBean {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosServiceInstanceListSupplier.class);
+
+	private final String serviceId;
+
+	private final NacosServiceManager nacosServiceManager;
+
+	private final NacosDiscoveryProperties discoveryProperties;
+
+	private final Sinks.Many<List<ServiceInstance>> sink = Sinks.many().replay()
+			.latest();
+
+	private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+	private volatile List<ServiceInstance> instances;
+
+	public NacosServiceInstanceListSupplier(String serviceId,
+			NacosServiceManager nacosServiceManager,
+			NacosDiscoveryProperties discoveryProperties) {
+		this.serviceId = serviceId;
+		this.nacosServiceManager = nacosServiceManager;
+		this.discoveryProperties = discoveryProperties;
+	}
+
+	@Override
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	@Override
+	public Flux<List<ServiceInstance>> get() {
+		if (!subscribed.get()) {
+			subscribe();
+		}
+		return sink.asFlux();
+	}
+
+	private void subscribe() {
+		if (!subscribed.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			nacosServiceManager.getNamingService().subscribe(serviceId,
+					discoveryProperties.getGroup(), this);
+			// seed from the naming client cache, which the subscription keeps updated
+			update(nacosServiceManager.getNamingService().selectInstances(serviceId,
+					discoveryProperties.getGroup(), true));
+		}
+		catch (Exception e) {
+			subscribed.set(false);
+			log.error("subscribe service [{}] from nacos failed", serviceId, e);
+			if (instances == null) {
+				update(Collections.emptyList());
+			}
+		}
+	}
+
+	@Override
+	public void onEvent(Event event) {
+		if (event instanceof NamingEvent namingEvent) {
+			update(namingEvent.getInstances());
+		}
+	}
+
+	private synchronized void update(List<Instance> nacosInstances) {
+		List<ServiceInstance> converted = Collections.unmodifiableList(
+				NacosServiceDiscovery.hostToServiceInstanceList(
+						nacosInstances == null ? Collections.emptyList() : nacosInstances,
+						serviceId));
+		if (converted.equals(instances)) {
+			return;
+		}
+		instances = converted;
+		sink.emitNext(converted, Sinks.EmitFailureHandler.FAIL_FAST);
+	}
+
+	@Override
+	public void destroy() {
+		if (subscribed.compareAndSet(true, false)) {
+			try {
+				nacosServiceManager.getNamingService().unsubscribe(serviceId,
+						discoveryProperties.getGroup(), this);
+			}
+			catch (Exception e) {
+				log.error("unsubscribe service [{}] from nacos failed", serviceId, e);
+			}
+		}
+	}
+
+}
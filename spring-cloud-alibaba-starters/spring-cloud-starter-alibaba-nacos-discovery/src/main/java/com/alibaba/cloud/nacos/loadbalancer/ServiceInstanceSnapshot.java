@@ -0,0 +1,319 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import com.alibaba.cloud.commons.lang.StringUtils;
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Immutable result of the cluster and IP family partitioning that
+ * {@link NacosLoadBalancer} applies to an instance list.
+ * <p>
+ * The partitioning only depends on the instance list, the local cluster name and whether
+ * the local machine supports IPv6, so it is computed once per instance list change and
+ * reused by every subsequent {@code choose()} until one of those inputs changes.
+ * <p>
+ * With a {@link LocalityPolicy} the instances are split into the local cluster and a
+ * spillover tier, which holds the other clusters of the local region or, if there are
+ * none, the clusters of other regions. A share of the requests proportional to how far
+ * the healthy local fraction dropped below the spillover threshold is sent to the
+ * spillover tier.
+ */
+public final class ServiceInstanceSnapshot {
+
+	/**
+	 * Metadata key of the cluster an instance belongs to.
+	 */
+	public static final String CLUSTER_KEY = "nacos.cluster";
+
+	/**
+	 * Metadata key of the IPv6 address of a dual-stack instance.
+	 */
+	public static final String IPV6_KEY = "IPv6";
+
+	private static final Pattern IPV4_PATTERN = Pattern.compile(
+			"((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})(.((2(5[0-5]|[0-4]\\d))|[0-1]?\\d{1,2})){3}");
+
+	private final List<ServiceInstance> source;
+
+	private final String clusterName;
+
+	private final boolean ipv6Preferred;
+
+	private final LocalityPolicy locality;
+
+	private final List<ServiceInstance> candidates;
+
+	private final List<ServiceInstance> spillover;
+
+	private final double localShare;
+
+	private ServiceInstanceSnapshot(List<ServiceInstance> source, String clusterName,
+			boolean ipv6Preferred, LocalityPolicy locality,
+			List<ServiceInstance> candidates, List<ServiceInstance> spillover,
+			double localShare) {
+		this.source = source;
+		this.clusterName = clusterName;
+		this.ipv6Preferred = ipv6Preferred;
+		this.locality = locality;
+		this.candidates = candidates;
+		this.spillover = spillover;
+		this.localShare = localShare;
+	}
+
+	/**
+	 * Partition the given instances.
+	 * @param serviceInstances instances returned by the instance list supplier
+	 * @param clusterName local cluster name, may be blank
+	 * @param ipv6Preferred whether the local machine supports IPv6
+	 * @return the snapshot
+	 */
+	public static ServiceInstanceSnapshot of(List<ServiceInstance> serviceInstances,
+			String clusterName, boolean ipv6Preferred) {
+		List<ServiceInstance> instances = serviceInstances;
+		if (StringUtils.isNotBlank(clusterName)) {
+			List<ServiceInstance> sameClusterInstances = new ArrayList<>();
+			for (ServiceInstance instance : serviceInstances) {
+				if (StringUtils.equals(clusterNameOf(instance), clusterName)) {
+					sameClusterInstances.add(instance);
+				}
+			}
+			if (!sameClusterInstances.isEmpty()) {
+				instances = sameClusterInstances;
+			}
+		}
+		return new ServiceInstanceSnapshot(serviceInstances, clusterName, ipv6Preferred,
+				null,
+				Collections.unmodifiableList(filterByIpType(instances, ipv6Preferred)),
+				Collections.emptyList(), 1.0D);
+	}
+
+	/**
+	 * Partition the given instances by locality.
+	 * @param serviceInstances instances returned by the instance list supplier
+	 * @param clusterName local cluster name, may be blank
+	 * @param ipv6Preferred whether the local machine supports IPv6
+	 * @param locality locality settings, null to only prefer the local cluster
+	 * @return the snapshot
+	 */
+	public static ServiceInstanceSnapshot of(List<ServiceInstance> serviceInstances,
+			String clusterName, boolean ipv6Preferred, LocalityPolicy locality) {
+		if (locality == null) {
+			return of(serviceInstances, clusterName, ipv6Preferred);
+		}
+		List<ServiceInstance> local = new ArrayList<>();
+		List<ServiceInstance> sameRegion = new ArrayList<>();
+		List<ServiceInstance> otherRegions = new ArrayList<>();
+		Set<String> clusters = new HashSet<>();
+		int healthyLocal = 0;
+		for (ServiceInstance instance : serviceInstances) {
+			String cluster = clusterNameOf(instance);
+			clusters.add(String.valueOf(cluster));
+			if (StringUtils.isNotBlank(clusterName)
+					&& StringUtils.equals(cluster, clusterName)) {
+				local.add(instance);
+				if (isHealthy(instance)) {
+					healthyLocal++;
+				}
+			}
+			else if (StringUtils.isNotBlank(locality.getLocalRegion())
+					&& StringUtils.equals(locality.getLocalRegion(),
+							regionOf(instance, locality.getRegionMetadataKey()))) {
+				sameRegion.add(instance);
+			}
+			else {
+				otherRegions.add(instance);
+			}
+		}
+		List<ServiceInstance> remote = filterByIpType(
+				sameRegion.isEmpty() ? otherRegions : sameRegion, ipv6Preferred);
+		if (local.isEmpty()) {
+			return new ServiceInstanceSnapshot(serviceInstances, clusterName,
+					ipv6Preferred, locality, Collections.unmodifiableList(remote),
+					Collections.emptyList(), 1.0D);
+		}
+		double averageClusterSize = (double) serviceInstances.size() / clusters.size();
+		double healthyFraction = healthyLocal / Math.max(local.size(), averageClusterSize);
+		double threshold = locality.getSpilloverThreshold() / 100.0D;
+		double localShare = remote.isEmpty() || healthyFraction >= threshold ? 1.0D
+				: healthyFraction / threshold;
+		return new ServiceInstanceSnapshot(serviceInstances, clusterName, ipv6Preferred,
+				locality,
+				Collections.unmodifiableList(filterByIpType(local, ipv6Preferred)),
+				Collections.unmodifiableList(remote), localShare);
+	}
+
+	private static boolean isHealthy(ServiceInstance instance) {
+		if (instance instanceof NacosServiceInstance nacosServiceInstance) {
+			return nacosServiceInstance.isHealthy();
+		}
+		String healthy = instance.getMetadata().get("nacos.healthy");
+		return healthy == null || Boolean.parseBoolean(healthy);
+	}
+
+	private static String regionOf(ServiceInstance instance, String regionMetadataKey) {
+		return regionMetadataKey == null ? null
+				: instance.getMetadata().get(regionMetadataKey);
+	}
+
+	private static String clusterNameOf(ServiceInstance instance) {
+		if (instance instanceof NacosServiceInstance nacosServiceInstance) {
+			return nacosServiceInstance.getClusterName();
+		}
+		return instance.getMetadata().get(CLUSTER_KEY);
+	}
+
+	private static List<ServiceInstance> filterByIpType(List<ServiceInstance> instances,
+			boolean ipv6Preferred) {
+		List<ServiceInstance> ipv4Instances = new ArrayList<>(instances.size());
+		List<ServiceInstance> ipv6Instances = ipv6Preferred
+				? new ArrayList<>(instances.size()) : Collections.emptyList();
+		for (ServiceInstance instance : instances) {
+			if (isIPv4(instance.getHost())) {
+				ipv4Instances.add(instance);
+				if (ipv6Preferred && StringUtils
+						.isNotEmpty(instance.getMetadata().get(IPV6_KEY))) {
+					ipv6Instances.add(toIPv6(instance));
+				}
+			}
+			else if (ipv6Preferred) {
+				ipv6Instances.add(instance);
+			}
+		}
+		// Provider has no IPv6, should use IPv4.
+		return ipv6Instances.isEmpty() ? ipv4Instances : ipv6Instances;
+	}
+
+	/**
+	 * Dual-stack instances are copied with their IPv6 address as host, so that the
+	 * instances of the source list are never mutated and stay comparable with the next
+	 * list returned by the supplier.
+	 */
+	private static ServiceInstance toIPv6(ServiceInstance instance) {
+		if (!(instance instanceof NacosServiceInstance)) {
+			return instance;
+		}
+		NacosServiceInstance ipv6Instance = new NacosServiceInstance();
+		ipv6Instance.setServiceId(instance.getServiceId());
+		ipv6Instance.setInstanceId(instance.getInstanceId());
+		ipv6Instance.setHost(instance.getMetadata().get(IPV6_KEY));
+		ipv6Instance.setPort(instance.getPort());
+		ipv6Instance.setSecure(instance.isSecure());
+		ipv6Instance.setMetadata(instance.getMetadata());
+		return ipv6Instance;
+	}
+
+	/**
+	 * Whether the host is a literal IPv4 address.
+	 * @param host host of an instance
+	 * @return true if the host is an IPv4 address
+	 */
+	public static boolean isIPv4(String host) {
+		return host != null && IPV4_PATTERN.matcher(host).matches();
+	}
+
+	/**
+	 * Whether this snapshot was computed from the same inputs. The source list is first
+	 * compared by identity, which is the common case for suppliers that cache their
+	 * result, then element by element.
+	 * @param serviceInstances instances returned by the instance list supplier
+	 * @param clusterName local cluster name
+	 * @param ipv6Preferred whether the local machine supports IPv6
+	 * @return true if the snapshot can be reused
+	 */
+	public boolean isValidFor(List<ServiceInstance> serviceInstances, String clusterName,
+			boolean ipv6Preferred) {
+		return isValidFor(serviceInstances, clusterName, ipv6Preferred, null);
+	}
+
+	/**
+	 * Whether this snapshot was computed from the same inputs.
+	 * @param serviceInstances instances returned by the instance list supplier
+	 * @param clusterName local cluster name
+	 * @param ipv6Preferred whether the local machine supports IPv6
+	 * @param locality locality settings, may be null
+	 * @return true if the snapshot can be reused
+	 * @see #isValidFor(List, String, boolean)
+	 */
+	public boolean isValidFor(List<ServiceInstance> serviceInstances, String clusterName,
+			boolean ipv6Preferred, LocalityPolicy locality) {
+		return this.ipv6Preferred == ipv6Preferred
+				&& StringUtils.equals(this.clusterName, clusterName)
+				&& Objects.equals(this.locality, locality)
+				&& (this.source == serviceInstances
+						|| this.source.equals(serviceInstances));
+	}
+
+	/**
+	 * Instances remaining after cluster and IP family partitioning. The returned list is
+	 * shared by all requests and must not be modified.
+	 * @return unmodifiable candidate list
+	 */
+	public List<ServiceInstance> getCandidates() {
+		return candidates;
+	}
+
+	/**
+	 * Candidates of one request: the local candidates, or with a probability of
+	 * {@code 1 - localShare} the spillover tier. The returned list is shared by all
+	 * requests and must not be modified.
+	 * @return unmodifiable candidate list
+	 */
+	public List<ServiceInstance> chooseCandidates() {
+		if (localShare >= 1.0D
+				|| ThreadLocalRandom.current().nextDouble() < localShare) {
+			return candidates;
+		}
+		return spillover;
+	}
+
+	/**
+	 * Instances of the other clusters that receive spilled over traffic.
+	 * @return unmodifiable spillover list, empty without locality settings
+	 */
+	public List<ServiceInstance> getSpillover() {
+		return spillover;
+	}
+
+	/**
+	 * Share of the requests sent to the local candidates.
+	 * @return share between 0 and 1
+	 */
+	public double getLocalShare() {
+		return localShare;
+	}
+
+	public String getClusterName() {
+		return clusterName;
+	}
+
+	public boolean isIpv6Preferred() {
+		return ipv6Preferred;
+	}
+
+}
@@ -16,8 +16,18 @@
 
 package com.alibaba.cloud.nacos.registry;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
@@ -30,10 +40,19 @@ import org.slf4j.LoggerFactory;
 
 import org.springframework.cloud.client.serviceregistry.Registration;
 import org.springframework.cloud.client.serviceregistry.ServiceRegistry;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import static org.springframework.util.ReflectionUtils.rethrowRuntimeException;
 
 /**
+ * Registers instances with nacos and keeps track of them, so that later batch
+ * registrations of a service carry the instances already registered for it.
+ * <p>
+ * Several registrations, e.g. the ports of a multi-port application or its sidecars, can
+ * be registered at once with {@link #registerAll(Collection)}. Ephemeral instances of the
+ * same service are then sent in a single batch request, and different services are
+ * registered concurrently.
+ *
  * @author xiaojing
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
  * @author <a href="mailto:78552423@qq.com">eshun</a>
@@ -51,6 +70,18 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 
 	private final NacosServiceManager nacosServiceManager;
 
+	/**
+	 * Instances registered by this registry, keyed by {@link #key}.
+	 */
+	private final Map<String, RegisteredInstance> registeredInstances = new ConcurrentHashMap<>();
+
+	/**
+	 * Locks serializing the registrations of a service, keyed by {@link #serviceKey}.
+	 */
+	private final Map<String, Object> serviceLocks = new ConcurrentHashMap<>();
+
+	private ThreadPoolExecutor registerExecutor;
+
 	public NacosServiceRegistry(NacosServiceManager nacosServiceManager,
 			NacosDiscoveryProperties nacosDiscoveryProperties) {
 		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
@@ -65,27 +96,155 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 			return;
 		}
 
-		NamingService namingService = namingService();
 		String serviceId = registration.getServiceId();
 		String group = nacosDiscoveryProperties.getGroup();
 
 		Instance instance = getNacosInstanceFromRegistration(registration);
 
 		try {
-			namingService.registerInstance(serviceId, group, instance);
+			doRegister(serviceId, group, List.of(instance));
 			log.info("nacos registry, {} {} {}:{} register finished", group, serviceId,
 					instance.getIp(), instance.getPort());
 		}
 		catch (Exception e) {
-			if (nacosDiscoveryProperties.isFailFast()) {
-				log.error("nacos registry, {} register failed...{},", serviceId,
-						registration.toString(), e);
-				rethrowRuntimeException(e);
+			handleRegisterFailure(serviceId, registration.toString(), e);
+		}
+	}
+
+	/**
+	 * Register several instances at once. Ephemeral instances of the same service are
+	 * registered with a single batch request, different services are registered
+	 * concurrently with at most {@code spring.cloud.nacos.discovery.register-parallelism}
+	 * threads.
+	 * @param registrations registrations to register
+	 */
+	public void registerAll(Collection<? extends Registration> registrations) {
+		Map<String, List<Instance>> instancesByService = new LinkedHashMap<>();
+		for (Registration registration : registrations) {
+			if (StringUtils.isEmpty(registration.getServiceId())) {
+				log.warn("No service to register for nacos client...");
+				continue;
+			}
+			instancesByService
+					.computeIfAbsent(registration.getServiceId(), k -> new ArrayList<>())
+					.add(getNacosInstanceFromRegistration(registration));
+		}
+		if (instancesByService.isEmpty()) {
+			return;
+		}
+		String group = nacosDiscoveryProperties.getGroup();
+		int parallelism = Math.min(instancesByService.size(),
+				Math.max(1, nacosDiscoveryProperties.getRegisterParallelism()));
+		if (parallelism == 1) {
+			instancesByService.forEach((serviceId, instances) -> registerService(serviceId,
+					group, instances));
+			return;
+		}
+		ThreadPoolExecutor executor = registerExecutor();
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		instancesByService.forEach((serviceId, instances) -> futures
+				.add(CompletableFuture.runAsync(
+						() -> registerService(serviceId, group, instances), executor)));
+		RuntimeException failure = null;
+		for (CompletableFuture<Void> future : futures) {
+			try {
+				future.join();
+			}
+			catch (CompletionException e) {
+				if (failure == null) {
+					failure = e.getCause() instanceof RuntimeException runtimeException
+							? runtimeException : e;
+				}
 			}
-			else {
-				log.warn("Failfast is false. {} register failed...{},", serviceId,
-						registration.toString(), e);
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * The executor shared by all {@link #registerAll} calls, its threads time out when
+	 * idle.
+	 */
+	private synchronized ThreadPoolExecutor registerExecutor() {
+		if (registerExecutor == null) {
+			int parallelism = Math.max(1,
+					nacosDiscoveryProperties.getRegisterParallelism());
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+					"nacos-registry-");
+			threadFactory.setDaemon(true);
+			registerExecutor = new ThreadPoolExecutor(parallelism, parallelism, 60,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+			registerExecutor.allowCoreThreadTimeOut(true);
+		}
+		return registerExecutor;
+	}
+
+	private void registerService(String serviceId, String group,
+			List<Instance> instances) {
+		try {
+			doRegister(serviceId, group, instances);
+			log.info("nacos registry, {} {} {} instances register finished", group,
+					serviceId, instances.size());
+		}
+		catch (Exception e) {
+			handleRegisterFailure(serviceId, instances.toString(), e);
+		}
+	}
+
+	/**
+	 * The naming client keeps a single registration per service, and a batch request
+	 * replaces it. So the instances of a batch also include those this registry already
+	 * registered for the same service, and registrations of a service are serialized so
+	 * that concurrent batches do not drop each other's instances.
+	 */
+	private void doRegister(String serviceId, String group, List<Instance> instances)
+			throws NacosException {
+		synchronized (serviceLock(serviceId, group)) {
+			doRegisterLocked(serviceId, group, instances);
+		}
+	}
+
+	private void doRegisterLocked(String serviceId, String group,
+			List<Instance> instances) throws NacosException {
+		Map<String, Instance> batch = new LinkedHashMap<>();
+		registeredInstances.values().forEach(registered -> {
+			if (registered.isOf(serviceId, group)) {
+				batch.put(key(serviceId, group, registered.instance.getIp(),
+						registered.instance.getPort()), registered.instance);
 			}
+		});
+		for (Instance instance : instances) {
+			batch.put(key(serviceId, group, instance.getIp(), instance.getPort()),
+					instance);
+		}
+		boolean batched = batch.size() > 1
+				&& batch.values().stream().allMatch(Instance::isEphemeral);
+		if (batched) {
+			namingService().batchRegisterInstance(serviceId, group,
+					new ArrayList<>(batch.values()));
+			batch.forEach((key, instance) -> registeredInstances.put(key,
+					new RegisteredInstance(serviceId, group, instance, true)));
+			return;
+		}
+		for (Instance instance : instances) {
+			namingService().registerInstance(serviceId, group, instance);
+			registeredInstances.put(
+					key(serviceId, group, instance.getIp(), instance.getPort()),
+					new RegisteredInstance(serviceId, group, instance, false));
+		}
+	}
+
+	private void handleRegisterFailure(String serviceId, String registration,
+			Exception e) {
+		if (nacosDiscoveryProperties.isFailFast()) {
+			log.error("nacos registry, {} register failed...{},", serviceId,
+					registration, e);
+			rethrowRuntimeException(e);
+		}
+		else {
+			log.warn("Failfast is false. {} register failed...{},", serviceId,
+					registration, e);
 		}
 	}
 
@@ -103,9 +262,22 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 		String serviceId = registration.getServiceId();
 		String group = nacosDiscoveryProperties.getGroup();
 
+		String key = key(serviceId, group, registration.getHost(),
+				registration.getPort());
 		try {
-			namingService.deregisterInstance(serviceId, group, registration.getHost(),
-					registration.getPort(), nacosDiscoveryProperties.getClusterName());
+			synchronized (serviceLock(serviceId, group)) {
+				RegisteredInstance registered = registeredInstances.get(key);
+				if (registered != null && registered.batched) {
+					namingService.batchDeregisterInstance(serviceId, group,
+							List.of(registered.instance));
+				}
+				else {
+					namingService.deregisterInstance(serviceId, group,
+							registration.getHost(), registration.getPort(),
+							nacosDiscoveryProperties.getClusterName());
+				}
+				registeredInstances.remove(key);
+			}
 		}
 		catch (Exception e) {
 			log.error("ERR_NACOS_DEREGISTER, de-register failed...{},",
@@ -117,6 +289,12 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 
 	@Override
 	public void close() {
+		synchronized (this) {
+			if (registerExecutor != null) {
+				registerExecutor.shutdown();
+				registerExecutor = null;
+			}
+		}
 		try {
 			nacosServiceManager.nacosServiceShutDown();
 		}
@@ -145,13 +323,27 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 			instance.setEnabled(true);
 		}
 
-		try {
-			Properties nacosProperties = nacosDiscoveryProperties.getNacosProperties();
-			nacosServiceManager.getNamingMaintainService(nacosProperties).updateInstance(
-					serviceId, nacosDiscoveryProperties.getGroup(), instance);
-		}
-		catch (Exception e) {
-			throw new RuntimeException("update nacos instance status fail", e);
+		String group = nacosDiscoveryProperties.getGroup();
+		String key = key(serviceId, group, registration.getHost(),
+				registration.getPort());
+		// under the service lock, so that a concurrent batch registration does not
+		// resend the instance with its previous status
+		synchronized (serviceLock(serviceId, group)) {
+			try {
+				Properties nacosProperties = nacosDiscoveryProperties.getNacosProperties();
+				nacosServiceManager.getNamingMaintainService(nacosProperties)
+						.updateInstance(serviceId, group, instance);
+			}
+			catch (Exception e) {
+				throw new RuntimeException("update nacos instance status fail", e);
+			}
+			RegisteredInstance registered = registeredInstances.get(key);
+			if (registered != null) {
+				Instance updated = copyOf(registered.instance);
+				updated.setEnabled(instance.isEnabled());
+				registeredInstances.put(key, new RegisteredInstance(serviceId, group,
+						updated, registered.batched));
+			}
 		}
 
 	}
@@ -189,8 +381,63 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 		return instance;
 	}
 
+	/**
+	 * Copy of a registered instance, the naming client may still hold the original.
+	 */
+	private static Instance copyOf(Instance instance) {
+		Instance copy = new Instance();
+		copy.setInstanceId(instance.getInstanceId());
+		copy.setIp(instance.getIp());
+		copy.setPort(instance.getPort());
+		copy.setWeight(instance.getWeight());
+		copy.setHealthy(instance.isHealthy());
+		copy.setEnabled(instance.isEnabled());
+		copy.setEphemeral(instance.isEphemeral());
+		copy.setClusterName(instance.getClusterName());
+		copy.setServiceName(instance.getServiceName());
+		copy.setMetadata(instance.getMetadata());
+		return copy;
+	}
+
 	private NamingService namingService() {
 		return nacosServiceManager.getNamingService();
 	}
 
+	private Object serviceLock(String serviceId, String group) {
+		return serviceLocks.computeIfAbsent(serviceKey(serviceId, group),
+				k -> new Object());
+	}
+
+	private static String serviceKey(String serviceId, String group) {
+		return group + "@@" + serviceId;
+	}
+
+	private static String key(String serviceId, String group, String ip, int port) {
+		return group + "@@" + serviceId + "#" + ip + ":" + port;
+	}
+
+	private static final class RegisteredInstance {
+
+		private final String serviceId;
+
+		private final String group;
+
+		private final Instance instance;
+
+		private final boolean batched;
+
+		private RegisteredInstance(String serviceId, String group, Instance instance,
+				boolean batched) {
+			this.serviceId = serviceId;
+			this.group = group;
+			this.instance = instance;
+			this.batched = batched;
+		}
+
+		private boolean isOf(String serviceId, String group) {
+			return this.serviceId.equals(serviceId) && this.group.equals(group);
+		}
+
+	}
+
 }
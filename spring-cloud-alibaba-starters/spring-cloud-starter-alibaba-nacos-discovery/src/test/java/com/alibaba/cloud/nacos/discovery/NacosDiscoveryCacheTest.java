@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.nacos.api.exception.NacosException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NacosDiscoveryCacheTest {
+
+	private final NacosServiceDiscovery serviceDiscovery = mock(
+			NacosServiceDiscovery.class);
+
+	private NacosDiscoveryCache cache;
+
+	@AfterEach
+	public void tearDown() {
+		if (cache != null) {
+			cache.destroy();
+		}
+	}
+
+	@Test
+	public void testMissThenHit() throws NacosException {
+		when(serviceDiscovery.getInstances("a")).thenReturn(instances("a", "10.0.0.1"));
+		cache = new NacosDiscoveryCache(serviceDiscovery, properties(Duration.ofMinutes(1), 10));
+
+		List<ServiceInstance> first = cache.getInstances("a");
+		List<ServiceInstance> second = cache.getInstances("a");
+
+		assertThat(second).isSameAs(first);
+		assertThat(cache.getMissCount()).isEqualTo(1);
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		assertThat(ServiceCache.getInstances("a")).isEqualTo(first);
+		verify(serviceDiscovery, times(1)).getInstances("a");
+	}
+
+	@Test
+	public void testStaleWhileRevalidate() throws Exception {
+		when(serviceDiscovery.getInstances("b")).thenReturn(instances("b", "10.0.0.1"))
+				.thenReturn(instances("b", "10.0.0.2"));
+		cache = new NacosDiscoveryCache(serviceDiscovery, properties(Duration.ofMillis(10), 10));
+
+		cache.getInstances("b");
+		Thread.sleep(50);
+
+		// the stale entry is still returned while the refresh runs in the background
+		assertThat(cache.getInstances("b").get(0).getHost()).isEqualTo("10.0.0.1");
+		long deadline = System.currentTimeMillis() + 5000;
+		while (cache.getRefreshCount() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(50);
+		assertThat(cache.getInstances("b").get(0).getHost()).isEqualTo("10.0.0.2");
+	}
+
+	@Test
+	public void testInvalidateDuringRefresh() throws Exception {
+		CountDownLatch refreshing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(serviceDiscovery.getInstances("d")).thenReturn(instances("d", "10.0.0.1"))
+				.thenAnswer(invocation -> {
+					refreshing.countDown();
+					release.await(5, TimeUnit.SECONDS);
+					return instances("d", "10.0.0.2");
+				});
+		cache = new NacosDiscoveryCache(serviceDiscovery, properties(Duration.ofMillis(10), 10));
+
+		cache.getInstances("d");
+		Thread.sleep(50);
+		cache.getInstances("d");
+		assertThat(refreshing.await(5, TimeUnit.SECONDS)).isTrue();
+		cache.invalidate("d");
+		release.countDown();
+		Thread.sleep(100);
+
+		// the refresh does not bring the invalidated entry back
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		when(serviceDiscovery.getInstances("c1")).thenReturn(instances("c1", "10.0.0.1"));
+		when(serviceDiscovery.getInstances("c2")).thenReturn(instances("c2", "10.0.0.2"));
+		when(serviceDiscovery.getInstances("c3")).thenReturn(instances("c3", "10.0.0.3"));
+		cache = new NacosDiscoveryCache(serviceDiscovery, properties(Duration.ofMinutes(1), 2));
+
+		cache.getInstances("c1");
+		Thread.sleep(5);
+		cache.getInstances("c2");
+		Thread.sleep(5);
+		cache.getInstances("c1");
+		Thread.sleep(5);
+		cache.getInstances("c3");
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.getEvictionCount()).isEqualTo(1);
+		cache.getInstances("c2");
+		verify(serviceDiscovery, times(2)).getInstances("c2");
+	}
+
+	private static NacosDiscoveryCacheProperties properties(Duration ttl, int maxSize) {
+		NacosDiscoveryCacheProperties properties = new NacosDiscoveryCacheProperties();
+		properties.setEnabled(true);
+		properties.setTtl(ttl);
+		properties.setMaxSize(maxSize);
+		return properties;
+	}
+
+	private static List<ServiceInstance> instances(String serviceId, String host) {
+		return Collections.singletonList(
+				new DefaultServiceInstance(host, serviceId, host, 8080, false));
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.alibaba.nacos.api.exception.NacosException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NacosDiscoverySnapshotTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testWriteThenRead() throws Exception {
+		NacosDiscoverySnapshot snapshot = new NacosDiscoverySnapshot(
+				tempDir.resolve("app.snapshot"), Duration.ofHours(1));
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("nacos.weight", "2.0");
+		metadata.put("nacos.cluster", "DEFAULT");
+		DefaultServiceInstance instance = new DefaultServiceInstance("1", "a",
+				"10.0.0.1", 8080, true, metadata);
+		long loadTime = System.currentTimeMillis();
+
+		snapshot.write(Collections.singletonMap("a", new NacosDiscoverySnapshot.Entry(
+				Collections.singletonList(instance), loadTime)));
+		Map<String, NacosDiscoverySnapshot.Entry> restored = snapshot.read();
+
+		assertThat(restored).containsOnlyKeys("a");
+		assertThat(restored.get("a").getLoadTime()).isEqualTo(loadTime);
+		ServiceInstance restoredInstance = restored.get("a").getInstances().get(0);
+		assertThat(restoredInstance.getInstanceId()).isEqualTo("1");
+		assertThat(restoredInstance.getServiceId()).isEqualTo("a");
+		assertThat(restoredInstance.getHost()).isEqualTo("10.0.0.1");
+		assertThat(restoredInstance.getPort()).isEqualTo(8080);
+		assertThat(restoredInstance.isSecure()).isTrue();
+		assertThat(restoredInstance.getMetadata()).isEqualTo(metadata);
+		// the temporary file was moved into place
+		try (Stream<Path> files = Files.list(tempDir)) {
+			assertThat(files.count()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void testStaleEntriesAreSkipped() {
+		NacosDiscoverySnapshot snapshot = new NacosDiscoverySnapshot(
+				tempDir.resolve("app.snapshot"), Duration.ofMinutes(1));
+		long now = System.currentTimeMillis();
+		Map<String, NacosDiscoverySnapshot.Entry> content = new LinkedHashMap<>();
+		content.put("fresh", new NacosDiscoverySnapshot.Entry(instances("fresh"), now));
+		content.put("stale", new NacosDiscoverySnapshot.Entry(instances("stale"),
+				now - Duration.ofHours(1).toMillis()));
+
+		snapshot.write(content);
+
+		assertThat(snapshot.read()).containsOnlyKeys("fresh");
+	}
+
+	@Test
+	public void testUnknownFileIsIgnored() throws Exception {
+		Path path = tempDir.resolve("app.snapshot");
+		Files.write(path, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+
+		assertThat(new NacosDiscoverySnapshot(path, Duration.ofHours(1)).read())
+				.isEmpty();
+		assertThat(new NacosDiscoverySnapshot(tempDir.resolve("missing"),
+				Duration.ofHours(1)).read()).isEmpty();
+	}
+
+	@Test
+	public void testCorruptFileIsDropped() throws Exception {
+		Path path = tempDir.resolve("app.snapshot");
+		NacosDiscoverySnapshot snapshot = new NacosDiscoverySnapshot(path,
+				Duration.ofHours(1));
+		snapshot.write(Collections.singletonMap("a", new NacosDiscoverySnapshot.Entry(
+				instances("a"), System.currentTimeMillis())));
+		byte[] bytes = Files.readAllBytes(path);
+		bytes[bytes.length - 9] ^= 1;
+		Files.write(path, bytes);
+
+		assertThat(snapshot.read()).isEmpty();
+		assertThat(path).doesNotExist();
+
+		// a service count no file can hold, with a valid checksum
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		new DataOutputStream(body).writeInt(Integer.MAX_VALUE);
+		CRC32 crc = new CRC32();
+		crc.update(body.toByteArray());
+		ByteArrayOutputStream file = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(file)) {
+			out.writeInt(0x4E445353);
+			out.writeInt(NacosDiscoverySnapshot.VERSION);
+			out.writeInt(body.size());
+			out.write(body.toByteArray());
+			out.writeLong(crc.getValue());
+		}
+		Files.write(path, file.toByteArray());
+
+		assertThat(snapshot.read()).isEmpty();
+		assertThat(path).doesNotExist();
+	}
+
+	@Test
+	public void testCacheRestoresFromSnapshot() throws NacosException {
+		NacosDiscoverySnapshot snapshot = new NacosDiscoverySnapshot(
+				tempDir.resolve("app.snapshot"), Duration.ofHours(1));
+		NacosDiscoveryCacheProperties properties = new NacosDiscoveryCacheProperties();
+		properties.setTtl(Duration.ofMinutes(1));
+		NacosServiceDiscovery first = mock(NacosServiceDiscovery.class);
+		when(first.getInstances("a")).thenReturn(instances("a"));
+		NacosDiscoveryCache cache = new NacosDiscoveryCache(first, properties, snapshot);
+		cache.getInstances("a");
+		cache.destroy();
+
+		NacosServiceDiscovery second = mock(NacosServiceDiscovery.class);
+		NacosDiscoveryCache restored = new NacosDiscoveryCache(second, properties,
+				snapshot);
+		try {
+			assertThat(restored.getInstances("a").get(0).getHost())
+					.isEqualTo("10.0.0.1");
+			assertThat(restored.getHitCount()).isEqualTo(1);
+			verify(second, never()).getInstances("a");
+		}
+		finally {
+			restored.destroy();
+		}
+	}
+
+	private static List<ServiceInstance> instances(String serviceId) {
+		return Collections.singletonList(
+				new DefaultServiceInstance("1", serviceId, "10.0.0.1", 8080, false));
+	}
+
+}
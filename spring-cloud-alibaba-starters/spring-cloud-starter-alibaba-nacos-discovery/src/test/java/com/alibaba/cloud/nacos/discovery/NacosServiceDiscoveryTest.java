@@ -20,8 +20,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceInstance;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 import com.alibaba.nacos.api.exception.NacosException;
 import com.alibaba.nacos.api.naming.NamingService;
@@ -124,6 +126,43 @@ public class NacosServiceDiscoveryTest {
 		assertThat(services.contains(serviceName + "3"));
 	}
 
+	@Test
+	public void testHostToServiceInstanceMetadataView() {
+		Map<String, String> map = new HashMap<>();
+		map.put("test-key", "test-value");
+		map.put("secure", "true");
+		Instance instance = serviceInstance(serviceName, true, host, port, map);
+		instance.setInstanceId("id-1");
+		instance.setWeight(2.5D);
+		instance.setClusterName("HZ");
+
+		NacosServiceInstance serviceInstance = (NacosServiceInstance) NacosServiceDiscovery
+				.hostToServiceInstance(instance, serviceName);
+
+		Map<String, String> expected = new HashMap<>();
+		expected.put("nacos.instanceId", "id-1");
+		expected.put("nacos.weight", "2.5");
+		expected.put("nacos.healthy", "true");
+		expected.put("nacos.cluster", "HZ");
+		expected.put("nacos.ephemeral", "true");
+		expected.putAll(map);
+		assertThat(serviceInstance.getMetadata().get("nacos.weight")).isEqualTo("2.5");
+		assertThat(serviceInstance.getMetadata().containsKey("nacos.cluster")).isTrue();
+		assertThat(serviceInstance.getMetadata().get("missing")).isNull();
+		assertThat(serviceInstance.getWeight()).isEqualTo(2.5D);
+		assertThat(serviceInstance.isHealthy()).isTrue();
+		assertThat(serviceInstance.getClusterName()).isEqualTo("HZ");
+		assertThat(serviceInstance.isSecure()).isTrue();
+		assertThat(serviceInstance).isEqualTo(
+				NacosServiceDiscovery.hostToServiceInstance(instance, serviceName));
+		assertThat(serviceInstance.getMetadata()).isEqualTo(expected);
+
+		// modifications are applied to a copy and reflected by the typed accessors
+		serviceInstance.getMetadata().put("nacos.weight", "3.0");
+		assertThat(serviceInstance.getWeight()).isEqualTo(3.0D);
+		assertThat(instance.getWeight()).isEqualTo(2.5D);
+	}
+
 	private String getUri(ServiceInstance instance) {
 
 		if (instance.isSecure()) {
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class AliasMethodLoadBalancerAlgorithmTest {
+
+	private final AliasMethodLoadBalancerAlgorithm algorithm = new AliasMethodLoadBalancerAlgorithm();
+
+	@Test
+	public void testDefaultServiceId() {
+		assertThat(algorithm.getServiceId())
+				.isEqualTo(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID);
+		assertThat(new AliasMethodLoadBalancerAlgorithm("order-service").getServiceId())
+				.isEqualTo("order-service");
+	}
+
+	@Test
+	public void testWeightedDistribution() {
+		List<ServiceInstance> instances = Arrays.asList(instance("1", "1.0", true),
+				instance("2", "3.0", true), instance("3", "0.0", true),
+				instance("4", "5.0", false));
+
+		Map<String, Integer> counts = new HashMap<>();
+		int total = 100000;
+		for (int i = 0; i < total; i++) {
+			ServiceInstance chosen = algorithm.getInstance(new DefaultRequest<>(),
+					instances);
+			counts.merge(chosen.getInstanceId(), 1, Integer::sum);
+		}
+
+		assertThat(counts).containsOnlyKeys("1", "2");
+		assertThat(counts.get("1") / (double) total).isCloseTo(0.25, within(0.02));
+		assertThat(counts.get("2") / (double) total).isCloseTo(0.75, within(0.02));
+	}
+
+	@Test
+	public void testAliasTableReused() {
+		List<ServiceInstance> instances = Arrays.asList(instance("1", "1.0", true),
+				instance("2", "1.0", true));
+		AliasMethodLoadBalancerAlgorithm.AliasTable table = AliasMethodLoadBalancerAlgorithm.AliasTable
+				.of(instances);
+
+		assertThat(table.isBuiltFrom(instances)).isTrue();
+		assertThat(table.isBuiltFrom(Arrays.asList(instances.get(0), instances.get(1))))
+				.isTrue();
+		assertThat(table.isBuiltFrom(Arrays.asList(instances.get(0)))).isFalse();
+		// instances are compared by reference, not by their metadata
+		assertThat(table.isBuiltFrom(Arrays.asList(instances.get(0),
+				instance("2", "1.0", true)))).isFalse();
+	}
+
+	@Test
+	public void testNoPositiveWeight() {
+		List<ServiceInstance> instances = Arrays.asList(instance("1", "0.0", true),
+				instance("2", "0.0", true));
+
+		assertThat(algorithm.getInstance(new DefaultRequest<>(), instances))
+				.isIn(instances);
+		assertThat(algorithm.getInstance(new DefaultRequest<>(), Arrays.asList()))
+				.isNull();
+	}
+
+	private static ServiceInstance instance(String id, String weight, boolean healthy) {
+		NacosServiceInstance instance = new NacosServiceInstance();
+		instance.setServiceId("test-service");
+		instance.setInstanceId(id);
+		instance.setHost("10.0.0." + id);
+		instance.setPort(8080);
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("nacos.weight", weight);
+		metadata.put("nacos.healthy", String.valueOf(healthy));
+		instance.setMetadata(metadata);
+		return instance;
+	}
+
+}
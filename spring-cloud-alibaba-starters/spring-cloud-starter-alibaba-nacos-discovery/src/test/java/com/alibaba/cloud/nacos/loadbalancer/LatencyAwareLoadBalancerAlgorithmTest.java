@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultRequestContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyAwareLoadBalancerAlgorithmTest {
+
+	private final ServiceInstance fast = new DefaultServiceInstance("fast",
+			"test-service", "10.0.0.1", 8080, false);
+
+	private final ServiceInstance slow = new DefaultServiceInstance("slow",
+			"test-service", "10.0.0.2", 8080, false);
+
+	private final LatencyAwareLoadBalancerAlgorithm algorithm = new LatencyAwareLoadBalancerAlgorithm();
+
+	@Test
+	public void testPrefersLowerLatency() {
+		record(fast, 1_000_000L);
+		record(slow, 50_000_000L);
+
+		assertThat(algorithm.getScore(slow)).isGreaterThan(algorithm.getScore(fast));
+		List<ServiceInstance> instances = Arrays.asList(fast, slow);
+		for (int i = 0; i < 100; i++) {
+			assertThat(algorithm.getInstance(new DefaultRequest<>(), instances))
+					.isSameAs(fast);
+		}
+	}
+
+	@Test
+	public void testPrefersFewerInFlightRequests() {
+		record(fast, 1_000_000L);
+		record(slow, 1_000_000L);
+		Request<Object> pending = start(fast, System.nanoTime());
+		start(fast, System.nanoTime());
+
+		assertThat(algorithm.getInstance(new DefaultRequest<>(), Arrays.asList(fast, slow)))
+				.isSameAs(slow);
+
+		complete(fast, pending);
+		assertThat(algorithm.getScore(fast)).isGreaterThan(algorithm.getScore(slow));
+		assertThat(algorithm.getInstance(new DefaultRequest<>(), Arrays.asList(fast, slow)))
+				.isSameAs(slow);
+	}
+
+	@Test
+	public void testSingleAndEmptyInstances() {
+		assertThat(algorithm.getInstance(new DefaultRequest<>(),
+				Collections.singletonList(fast))).isSameAs(fast);
+		assertThat(algorithm.getInstance(new DefaultRequest<>(),
+				Collections.emptyList())).isNull();
+	}
+
+	@Test
+	public void testGauges() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		algorithm.bindTo(registry);
+		record(slow, 3_000_000L);
+
+		assertThat(registry.get(LatencyAwareLoadBalancerAlgorithm.METRIC_PREFIX + ".latency")
+				.tag("instanceId", "slow").gauge().value()).isGreaterThanOrEqualTo(3_000_000D);
+		assertThat(registry.get(LatencyAwareLoadBalancerAlgorithm.METRIC_PREFIX + ".inflight")
+				.tag("instanceId", "slow").gauge().value()).isZero();
+	}
+
+	private void record(ServiceInstance instance, long latencyNanos) {
+		Request<Object> request = start(instance, System.nanoTime() - latencyNanos);
+		complete(instance, request);
+	}
+
+	private Request<Object> start(ServiceInstance instance, long startTime) {
+		DefaultRequestContext context = new DefaultRequestContext();
+		context.setRequestStartTime(startTime);
+		Request<Object> request = new DefaultRequest<>(context);
+		algorithm.onStartRequest(request, new DefaultResponse(instance));
+		return request;
+	}
+
+	private void complete(ServiceInstance instance, Request<Object> request) {
+		Response<ServiceInstance> response = new DefaultResponse(instance);
+		algorithm.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS,
+				request, response));
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.util.InetIPv6Utils;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NacosLoadBalancerTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFiltersMayModifyTheirList() {
+		List<ServiceInstance> instances = Arrays.asList(
+				new DefaultServiceInstance("1", "app", "10.0.0.1", 8080, false),
+				new DefaultServiceInstance("2", "app", "10.0.0.2", 8080, false));
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(supplier.get(any(Request.class))).thenReturn(Flux.just(instances));
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		ServiceInstanceFilter filter = mock(ServiceInstanceFilter.class);
+		when(filter.filterInstance(any(), any())).thenAnswer(invocation -> {
+			List<ServiceInstance> candidates = invocation.getArgument(1);
+			candidates.removeIf(instance -> "1".equals(instance.getInstanceId()));
+			return candidates;
+		});
+		LoadBalancerAlgorithm algorithm = mock(LoadBalancerAlgorithm.class);
+		when(algorithm.getInstance(any(), any()))
+				.thenAnswer(invocation -> ((List<ServiceInstance>) invocation
+						.getArgument(1)).get(0));
+		NacosLoadBalancer loadBalancer = new NacosLoadBalancer(provider, "app",
+				new NacosDiscoveryProperties(), mock(InetIPv6Utils.class),
+				Collections.singletonList(filter), Collections
+						.singletonMap(LoadBalancerAlgorithm.DEFAULT_SERVICE_ID, algorithm));
+
+		for (int i = 0; i < 2; i++) {
+			Response<ServiceInstance> response = loadBalancer
+					.choose(new DefaultRequest<>()).block();
+			assertThat(response).isNotNull();
+			assertThat(response.getServer().getInstanceId()).isEqualTo("2");
+		}
+	}
+
+}
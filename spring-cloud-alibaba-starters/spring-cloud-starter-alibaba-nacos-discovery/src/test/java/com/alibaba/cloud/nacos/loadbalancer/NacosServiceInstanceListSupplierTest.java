@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import static com.alibaba.cloud.nacos.test.NacosMockTest.serviceInstance;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NacosServiceInstanceListSupplierTest {
+
+	private static final String SERVICE_ID = "test-service";
+
+	private final NamingService namingService = mock(NamingService.class);
+
+	private NacosServiceInstanceListSupplier supplier;
+
+	@BeforeEach
+	public void setUp() throws NacosException {
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NacosDiscoveryProperties properties = mock(NacosDiscoveryProperties.class);
+		when(nacosServiceManager.getNamingService()).thenReturn(namingService);
+		when(properties.getGroup()).thenReturn("DEFAULT");
+		when(namingService.selectInstances(eq(SERVICE_ID), eq("DEFAULT"), eq(true)))
+				.thenReturn(instances("10.0.0.1", "10.0.0.2"));
+		supplier = new NacosServiceInstanceListSupplier(SERVICE_ID, nacosServiceManager,
+				properties);
+	}
+
+	@Test
+	public void testSubscribeOnce() throws NacosException {
+		List<ServiceInstance> first = supplier.get().blockFirst();
+		List<ServiceInstance> second = supplier.get().blockFirst();
+
+		assertThat(first).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.1", "10.0.0.2");
+		assertThat(second).isSameAs(first);
+		verify(namingService, times(1)).subscribe(SERVICE_ID, "DEFAULT", supplier);
+		verify(namingService, times(1)).selectInstances(SERVICE_ID, "DEFAULT", true);
+	}
+
+	@Test
+	public void testEmitOnlyOnChange() {
+		List<ServiceInstance> initial = supplier.get().blockFirst();
+
+		supplier.onEvent(new NamingEvent(SERVICE_ID, instances("10.0.0.1", "10.0.0.2")));
+		assertThat(supplier.get().blockFirst()).isSameAs(initial);
+
+		supplier.onEvent(new NamingEvent(SERVICE_ID, instances("10.0.0.3")));
+		assertThat(supplier.get().blockFirst()).extracting(ServiceInstance::getHost)
+				.containsExactly("10.0.0.3");
+	}
+
+	@Test
+	public void testUnsubscribeOnDestroy() throws NacosException {
+		supplier.get().blockFirst();
+		supplier.destroy();
+
+		verify(namingService, times(1)).unsubscribe(SERVICE_ID, "DEFAULT", supplier);
+	}
+
+	private static List<Instance> instances(String... hosts) {
+		List<Instance> instances = new ArrayList<>();
+		Arrays.stream(hosts).forEach(host -> {
+			Instance instance = serviceInstance(SERVICE_ID, true, host, 8080,
+					new HashMap<>());
+			instance.setInstanceId(host);
+			instances.add(instance);
+		});
+		return instances;
+	}
+
+}
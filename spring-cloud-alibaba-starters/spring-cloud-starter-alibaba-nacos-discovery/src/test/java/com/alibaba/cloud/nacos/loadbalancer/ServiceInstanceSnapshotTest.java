@@ -0,0 +1,180 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.NacosServiceInstance;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServiceInstanceSnapshotTest {
+
+	@Test
+	public void testSameClusterPreferred() {
+		List<ServiceInstance> instances = Arrays.asList(
+				instance("1", "10.0.0.1", "c1", null),
+				instance("2", "10.0.0.2", "c2", null));
+
+		ServiceInstanceSnapshot snapshot = ServiceInstanceSnapshot.of(instances, "c1",
+				false);
+
+		assertThat(snapshot.getCandidates()).extracting(ServiceInstance::getInstanceId)
+				.containsExactly("1");
+	}
+
+	@Test
+	public void testFallbackToAllClusters() {
+		List<ServiceInstance> instances = Arrays.asList(
+				instance("1", "10.0.0.1", "c1", null),
+				instance("2", "10.0.0.2", "c2", null));
+
+		ServiceInstanceSnapshot snapshot = ServiceInstanceSnapshot.of(instances, "c3",
+				false);
+
+		assertThat(snapshot.getCandidates()).hasSize(2);
+	}
+
+	@Test
+	public void testIpTypeFilter() {
+		ServiceInstance ipv4 = instance("1", "10.0.0.1", "c1", null);
+		ServiceInstance dualStack = instance("2", "10.0.0.2", "c1", "[2001:db8::2]");
+		ServiceInstance ipv6 = instance("3", "[2001:db8::3]", "c1", null);
+		List<ServiceInstance> instances = Arrays.asList(ipv4, dualStack, ipv6);
+
+		assertThat(ServiceInstanceSnapshot.of(instances, null, false).getCandidates())
+				.containsExactly(ipv4, dualStack);
+
+		List<ServiceInstance> candidates = ServiceInstanceSnapshot
+				.of(instances, null, true).getCandidates();
+		assertThat(candidates).extracting(ServiceInstance::getHost)
+				.containsExactly("[2001:db8::2]", "[2001:db8::3]");
+		// the instance of the source list must not be mutated
+		assertThat(dualStack.getHost()).isEqualTo("10.0.0.2");
+	}
+
+	@Test
+	public void testIsValidFor() {
+		List<ServiceInstance> instances = Arrays.asList(
+				instance("1", "10.0.0.1", "c1", null),
+				instance("2", "10.0.0.2", "c2", null));
+		ServiceInstanceSnapshot snapshot = ServiceInstanceSnapshot.of(instances, "c1",
+				false);
+
+		assertThat(snapshot.isValidFor(instances, "c1", false)).isTrue();
+		assertThat(snapshot.isValidFor(new ArrayList<>(instances), "c1", false)).isTrue();
+		assertThat(snapshot.isValidFor(instances, "c2", false)).isFalse();
+		assertThat(snapshot.isValidFor(instances, "c1", true)).isFalse();
+		assertThat(snapshot.isValidFor(
+				Arrays.asList(instances.get(0), instance("3", "10.0.0.3", "c2", null)),
+				"c1", false)).isFalse();
+	}
+
+	@Test
+	public void testLocalityKeepsHealthyLocalCluster() {
+		List<ServiceInstance> instances = Arrays.asList(
+				instance("1", "10.0.0.1", "c1", null),
+				instance("2", "10.0.0.2", "c1", null),
+				instance("3", "10.0.0.3", "c2", null),
+				instance("4", "10.0.0.4", "c2", null));
+
+		ServiceInstanceSnapshot snapshot = ServiceInstanceSnapshot.of(instances, "c1",
+				false, new LocalityPolicy(70, "region", null));
+
+		assertThat(snapshot.getLocalShare()).isEqualTo(1.0D);
+		assertThat(snapshot.getCandidates()).extracting(ServiceInstance::getInstanceId)
+				.containsExactly("1", "2");
+		assertThat(snapshot.chooseCandidates()).isSameAs(snapshot.getCandidates());
+	}
+
+	@Test
+	public void testLocalitySpillsOverProportionally() {
+		List<ServiceInstance> instances = Arrays.asList(
+				instance("1", "10.0.0.1", "c1", null),
+				instance("2", "10.0.0.2", "c2", null),
+				instance("3", "10.0.0.3", "c2", null),
+				instance("4", "10.0.0.4", "c2", null),
+				instance("5", "10.0.0.5", "c3", null),
+				instance("6", "10.0.0.6", "c3", null));
+
+		ServiceInstanceSnapshot snapshot = ServiceInstanceSnapshot.of(instances, "c1",
+				false, new LocalityPolicy(100, "region", null));
+
+		// one healthy local instance of an average cluster size of two
+		assertThat(snapshot.getLocalShare()).isEqualTo(0.5D);
+		assertThat(snapshot.getCandidates()).extracting(ServiceInstance::getInstanceId)
+				.containsExactly("1");
+		assertThat(snapshot.getSpillover()).hasSize(5);
+		int local = 0;
+		for (int i = 0; i < 10000; i++) {
+			if (snapshot.chooseCandidates() == snapshot.getCandidates()) {
+				local++;
+			}
+		}
+		assertThat(local).isBetween(4000, 6000);
+	}
+
+	@Test
+	public void testLocalityPrefersSameRegion() {
+		List<ServiceInstance> instances = Arrays.asList(
+				instance("2", "10.0.0.2", "c2", null, "r1"),
+				instance("3", "10.0.0.3", "c3", null, "r2"));
+
+		ServiceInstanceSnapshot snapshot = ServiceInstanceSnapshot.of(instances, "c1",
+				false, new LocalityPolicy(70, "region", "r1"));
+
+		assertThat(snapshot.getCandidates()).extracting(ServiceInstance::getInstanceId)
+				.containsExactly("2");
+		assertThat(snapshot.isValidFor(instances, "c1", false,
+				new LocalityPolicy(70, "region", "r1"))).isTrue();
+		assertThat(snapshot.isValidFor(instances, "c1", false,
+				new LocalityPolicy(70, "region", "r2"))).isFalse();
+		assertThat(snapshot.isValidFor(instances, "c1", false)).isFalse();
+	}
+
+	private static ServiceInstance instance(String id, String host, String cluster,
+			String ipv6, String region) {
+		ServiceInstance instance = instance(id, host, cluster, ipv6);
+		instance.getMetadata().put("region", region);
+		return instance;
+	}
+
+	private static ServiceInstance instance(String id, String host, String cluster,
+			String ipv6) {
+		NacosServiceInstance instance = new NacosServiceInstance();
+		instance.setServiceId("test-service");
+		instance.setInstanceId(id);
+		instance.setHost(host);
+		instance.setPort(8080);
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("nacos.weight", "1.0");
+		metadata.put("nacos.cluster", cluster);
+		if (ipv6 != null) {
+			metadata.put("IPv6", ipv6);
+		}
+		instance.setMetadata(metadata);
+		return instance;
+	}
+
+}
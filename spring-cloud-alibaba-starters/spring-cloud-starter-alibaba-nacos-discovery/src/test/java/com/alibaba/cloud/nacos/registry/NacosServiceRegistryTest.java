@@ -0,0 +1,205 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.nacos.api.naming.NamingMaintainService;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.serviceregistry.Registration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NacosServiceRegistryTest {
+
+	private NamingService namingService;
+
+	private NacosDiscoveryProperties properties;
+
+	private NacosServiceRegistry registry;
+
+	@BeforeEach
+	public void setUp() {
+		namingService = mock(NamingService.class);
+		NacosServiceManager serviceManager = mock(NacosServiceManager.class);
+		when(serviceManager.getNamingService()).thenReturn(namingService);
+		properties = new NacosDiscoveryProperties();
+		registry = new NacosServiceRegistry(serviceManager, properties);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRegisterAllBatchesInstancesOfSameService() throws Exception {
+		registry.registerAll(Arrays.asList(registration("app", 8080),
+				registration("app", 8081), registration("sidecar", 9090)));
+
+		ArgumentCaptor<List<Instance>> batch = ArgumentCaptor.forClass(List.class);
+		verify(namingService).batchRegisterInstance(eq("app"),
+				eq(properties.getGroup()), batch.capture());
+		assertThat(batch.getValue()).extracting(Instance::getPort)
+				.containsExactly(8080, 8081);
+		verify(namingService).registerInstance(eq("sidecar"), eq(properties.getGroup()),
+				any(Instance.class));
+		verify(namingService, never()).registerInstance(eq("app"), anyString(),
+				any(Instance.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRegisterKeepsEarlierInstancesOfService() throws Exception {
+		registry.register(registration("app", 8080));
+		verify(namingService).registerInstance(eq("app"), eq(properties.getGroup()),
+				any(Instance.class));
+
+		registry.register(registration("app", 8081));
+
+		// properties is a spy, read it outside of the verification
+		String group = properties.getGroup();
+		ArgumentCaptor<List<Instance>> batch = ArgumentCaptor.forClass(List.class);
+		verify(namingService).batchRegisterInstance(eq("app"), eq(group),
+				batch.capture());
+		assertThat(batch.getValue()).extracting(Instance::getPort)
+				.containsExactlyInAnyOrder(8080, 8081);
+
+		registry.deregister(registration("app", 8081));
+		verify(namingService).batchDeregisterInstance(eq("app"),
+				eq(properties.getGroup()), any(List.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testConcurrentRegistrationsOfServiceKeepEachOther() throws Exception {
+		List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+		doAnswer(invocation -> {
+			List<Instance> instances = invocation.getArgument(2);
+			// widen the window in which an unserialized batch would miss the other one
+			Thread.sleep(100);
+			batches.add(instances.stream().map(Instance::getPort).toList());
+			return null;
+		}).when(namingService).batchRegisterInstance(eq("app"),
+				eq(properties.getGroup()), any(List.class));
+		registry.register(registration("app", 8080));
+
+		CompletableFuture<Void> first = CompletableFuture
+				.runAsync(() -> registry.register(registration("app", 8081)));
+		CompletableFuture<Void> second = CompletableFuture
+				.runAsync(() -> registry.register(registration("app", 8082)));
+		CompletableFuture.allOf(first, second).join();
+
+		assertThat(batches).hasSize(2);
+		assertThat(batches.get(1)).containsExactlyInAnyOrder(8080, 8081, 8082);
+	}
+
+	@Test
+	public void testPersistentInstancesAreRegisteredOneByOne() throws Exception {
+		properties.setEphemeral(false);
+
+		registry.registerAll(
+				Arrays.asList(registration("app", 8080), registration("app", 8081)));
+
+		verify(namingService, never()).batchRegisterInstance(anyString(), anyString(),
+				any());
+		verify(namingService, times(2)).registerInstance(eq("app"),
+				eq(properties.getGroup()), any(Instance.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStatusIsKeptInLaterBatches() throws Exception {
+		useMaintainService();
+		Registration registration = registration("app", 8080);
+		registry.register(registration);
+		registry.setStatus(registration, "DOWN");
+
+		registry.register(registration("app", 8081));
+
+		// properties is a spy, read it outside of the verification
+		String group = properties.getGroup();
+		ArgumentCaptor<List<Instance>> batch = ArgumentCaptor.forClass(List.class);
+		verify(namingService).batchRegisterInstance(eq("app"), eq(group),
+				batch.capture());
+		assertThat(batch.getValue()).extracting(Instance::getPort, Instance::isEnabled)
+				.containsExactly(tuple(8080, false), tuple(8081, true));
+	}
+
+	@Test
+	public void testStatusIsReadFromServer() throws Exception {
+		useMaintainService();
+		properties.setIp("10.0.0.1");
+		properties.setPort(8080);
+		Registration registration = registration("app", 8080);
+		registry.register(registration);
+		Instance instance = new Instance();
+		instance.setIp("10.0.0.1");
+		instance.setPort(8080);
+		// disabled from the nacos console
+		instance.setEnabled(false);
+		when(namingService.getAllInstances("app", properties.getGroup()))
+				.thenReturn(List.of(instance));
+
+		assertThat(registry.getStatus(registration)).isEqualTo("DOWN");
+	}
+
+	private void useMaintainService() throws Exception {
+		NacosServiceManager serviceManager = mock(NacosServiceManager.class);
+		when(serviceManager.getNamingService()).thenReturn(namingService);
+		when(serviceManager.getNamingMaintainService(any()))
+				.thenReturn(mock(NamingMaintainService.class));
+		properties = spy(properties);
+		doReturn(new Properties()).when(properties).getNacosProperties();
+		registry = new NacosServiceRegistry(serviceManager, properties);
+	}
+
+	private static Registration registration(String serviceId, int port) {
+		return new TestRegistration(serviceId, port);
+	}
+
+	private static class TestRegistration extends DefaultServiceInstance
+			implements Registration {
+
+		TestRegistration(String serviceId, int port) {
+			super(null, serviceId, "10.0.0.1", port, false);
+		}
+
+	}
+
+}
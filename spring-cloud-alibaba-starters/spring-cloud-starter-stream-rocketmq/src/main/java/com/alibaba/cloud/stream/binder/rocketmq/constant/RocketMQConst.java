@@ -95,6 +95,17 @@ public class RocketMQConst extends MessageConst {
 		 */
 		public static final String TRANSACTION_ID = "MQ_TRANSACTION_ID";
 
+		/**
+		 * In batch mode, the headers of each message of the batch, in the order of the
+		 * payload list.
+		 */
+		public static final String BATCH_CONVERTED_HEADERS = "MQ_BATCH_CONVERTED_HEADERS";
+
+		/**
+		 * In batch mode, the acknowledgment of the messages of the batch handled so far.
+		 */
+		public static final String BATCH_ACKNOWLEDGMENT = "MQ_BATCH_ACKNOWLEDGMENT";
+
 	}
 
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.integration.inbound;
+
+import org.springframework.util.Assert;
+
+/**
+ * Acknowledgment of the messages of a batch, passed to batch mode consumers in the
+ * {@code ROCKET_MQ_BATCH_ACKNOWLEDGMENT} header.
+ * <p>
+ * A handler that fails part way through a batch can acknowledge the messages it has
+ * already handled, e.g. after a bulk write of the first part of the batch. Only the
+ * messages after the acknowledged index are consumed again, the others are committed.
+ * When the handler returns normally the whole batch is committed.
+ */
+public class RocketMQBatchAcknowledgment {
+
+	private final int size;
+
+	private volatile int ackIndex = -1;
+
+	public RocketMQBatchAcknowledgment(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Acknowledge the messages of the batch up to and including an index.
+	 * @param index index in the payload list of the batch
+	 */
+	public synchronized void acknowledge(int index) {
+		Assert.isTrue(index >= 0 && index < size,
+				"'index' must be between 0 and " + (size - 1));
+		if (index > ackIndex) {
+			ackIndex = index;
+		}
+	}
+
+	/**
+	 * @return index of the last acknowledged message, -1 if none is acknowledged
+	 */
+	public int getAckIndex() {
+		return ackIndex;
+	}
+
+	/**
+	 * @return number of messages of the batch
+	 */
+	public int getSize() {
+		return size;
+	}
+
+}
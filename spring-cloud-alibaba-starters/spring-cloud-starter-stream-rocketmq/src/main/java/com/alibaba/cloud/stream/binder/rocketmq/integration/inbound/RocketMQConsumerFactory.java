@@ -88,6 +88,8 @@ public final class RocketMQConsumerFactory {
 		consumer.setPersistConsumerOffsetInterval(
 				consumerProperties.getPersistConsumerOffsetInterval());
 		consumer.setPullInterval(consumerProperties.getPush().getPullInterval());
+		consumer.setConsumeMessageBatchMaxSize(
+				consumerProperties.getPush().getConsumeMessageBatchMaxSize());
 		consumer.setConsumeThreadMin(extendedConsumerProperties.getConcurrency());
 		consumer.setConsumeThreadMax(extendedConsumerProperties.getConcurrency());
 		consumer.setUnitName(consumerProperties.getUnitName());
@@ -17,8 +17,10 @@
 package com.alibaba.cloud.stream.binder.rocketmq.integration.inbound;
 
 import java.util.List;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
+import com.alibaba.cloud.stream.binder.rocketmq.constant.RocketMQConst.Headers;
 import com.alibaba.cloud.stream.binder.rocketmq.metrics.Instrumentation;
 import com.alibaba.cloud.stream.binder.rocketmq.metrics.InstrumentationManager;
 import com.alibaba.cloud.stream.binder.rocketmq.properties.RocketMQConsumerProperties;
@@ -110,7 +112,7 @@ public class RocketMQInboundChannelAdapter extends MessageProducerSupport
 			if (extendedConsumerProperties.getExtension().getPush().getOrderly()) {
 				pushConsumer.registerMessageListener((MessageListenerOrderly) (msgs,
 						context) -> RocketMQInboundChannelAdapter.this
-								.consumeMessage(msgs, () -> {
+								.consumeMessage(msgs, acked -> {
 									context.setSuspendCurrentQueueTimeMillis(
 											extendedConsumerProperties.getExtension()
 													.getPush()
@@ -121,12 +123,17 @@ public class RocketMQInboundChannelAdapter extends MessageProducerSupport
 			else {
 				pushConsumer.registerMessageListener((MessageListenerConcurrently) (msgs,
 						context) -> RocketMQInboundChannelAdapter.this
-								.consumeMessage(msgs, () -> {
+								.consumeMessage(msgs, acked -> {
 									context.setDelayLevelWhenNextConsume(
 											extendedConsumerProperties.getExtension()
 													.getPush()
 													.getDelayLevelWhenNextConsume());
-									return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+									if (acked == 0) {
+										return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+									}
+									// commit the consumed messages, send back the rest
+									context.setAckIndex(acked - 1);
+									return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
 								}, () -> ConsumeConcurrentlyStatus.CONSUME_SUCCESS));
 			}
 		}
@@ -141,41 +148,74 @@ public class RocketMQInboundChannelAdapter extends MessageProducerSupport
 	/**
 	 * The actual execution of a user-defined input consumption service method.
 	 * @param messageExtList rocket mq message list
-	 * @param failSupplier {@link ConsumeConcurrentlyStatus} or
-	 *     {@link ConsumeOrderlyStatus}
+	 * @param failFunction {@link ConsumeConcurrentlyStatus} or
+	 *     {@link ConsumeOrderlyStatus} for the number of messages consumed before the
+	 *     failure
 	 * @param sucSupplier {@link ConsumeConcurrentlyStatus} or
 	 *     {@link ConsumeOrderlyStatus}
 	 * @param <R> object
 	 * @return R
 	 */
-	private <R> R consumeMessage(List<MessageExt> messageExtList,
-			Supplier<R> failSupplier, Supplier<R> sucSupplier) {
+	<R> R consumeMessage(List<MessageExt> messageExtList,
+			IntFunction<R> failFunction, Supplier<R> sucSupplier) {
 		if (CollectionUtils.isEmpty(messageExtList)) {
 			throw new MessagingException(
 					"DefaultMQPushConsumer consuming failed, Caused by messageExtList is empty");
 		}
-		for (MessageExt messageExt : messageExtList) {
+		if (extendedConsumerProperties.isBatchMode()) {
+			return consumeBatch(messageExtList, failFunction, sucSupplier);
+		}
+		for (int i = 0; i < messageExtList.size(); i++) {
+			MessageExt messageExt = messageExtList.get(i);
 			try {
 				Message<?> message = RocketMQMessageConverterSupport
 						.convertMessage2Spring(messageExt);
-				if (this.retryTemplate != null) {
-					this.retryTemplate.execute(context -> {
-						this.sendMessage(message);
-						return message;
-					}, this.recoveryCallback);
-				}
-				else {
-					this.sendMessage(message);
-				}
+				send(message);
 			}
 			catch (Exception e) {
 				log.warn("consume message failed. messageExt:{}", messageExt, e);
-				return failSupplier.get();
+				return failFunction.apply(i);
 			}
 		}
 		return sucSupplier.get();
 	}
 
+	/**
+	 * Send the whole list as one message, its payload is the list of message bodies.
+	 */
+	private <R> R consumeBatch(List<MessageExt> messageExtList,
+			IntFunction<R> failFunction, Supplier<R> sucSupplier) {
+		RocketMQBatchAcknowledgment acknowledgment = new RocketMQBatchAcknowledgment(
+				messageExtList.size());
+		try {
+			Message<?> message = MessageBuilder
+					.fromMessage(RocketMQMessageConverterSupport
+							.convertMessages2Spring(messageExtList))
+					.setHeader(RocketMQMessageConverterSupport.toRocketHeaderKey(
+							Headers.BATCH_ACKNOWLEDGMENT), acknowledgment)
+					.build();
+			send(message);
+		}
+		catch (Exception e) {
+			log.warn("consume message batch failed. size:{}, acknowledged:{}",
+					messageExtList.size(), acknowledgment.getAckIndex() + 1, e);
+			return failFunction.apply(acknowledgment.getAckIndex() + 1);
+		}
+		return sucSupplier.get();
+	}
+
+	private void send(Message<?> message) {
+		if (this.retryTemplate != null) {
+			this.retryTemplate.execute(context -> {
+				this.sendMessage(message);
+				return message;
+			}, this.recoveryCallback);
+		}
+		else {
+			this.sendMessage(message);
+		}
+	}
+
 	@Override
 	protected void doStart() {
 		if (extendedConsumerProperties.getExtension() == null
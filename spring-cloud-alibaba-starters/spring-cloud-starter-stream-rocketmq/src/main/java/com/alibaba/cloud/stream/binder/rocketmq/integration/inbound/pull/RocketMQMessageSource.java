@@ -17,10 +17,18 @@
 package com.alibaba.cloud.stream.binder.rocketmq.integration.inbound.pull;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.alibaba.cloud.stream.binder.rocketmq.integration.inbound.RocketMQConsumerFactory;
 import com.alibaba.cloud.stream.binder.rocketmq.metrics.Instrumentation;
@@ -30,6 +38,7 @@ import com.alibaba.cloud.stream.binder.rocketmq.support.RocketMQMessageConverter
 import com.alibaba.cloud.stream.binder.rocketmq.utils.RocketMQUtils;
 import org.apache.rocketmq.client.consumer.DefaultLitePullConsumer;
 import org.apache.rocketmq.client.consumer.MessageSelector;
+import org.apache.rocketmq.client.consumer.store.OffsetStore;
 import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.common.message.MessageExt;
 import org.apache.rocketmq.common.message.MessageQueue;
@@ -40,13 +49,21 @@ import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cloud.stream.binder.ExtendedConsumerProperties;
 import org.springframework.context.Lifecycle;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
 import org.springframework.integration.endpoint.AbstractMessageSource;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.ObjectUtils;
 
 /**
+ * A pollable message source for RocketMQ.
+ * <p>
+ * By default messages are handed out one at a time and each acknowledgment commits the
+ * offset of its queue. In concurrent mode several threads may poll at once: a polled
+ * batch is tracked per queue, buffered and drained by all of them, acknowledgments are
+ * recorded per queue and committed in batches on a timer, up to the first message of
+ * each queue that is not acknowledged yet.
+ *
  * @author <a href="mailto:fangjian0423@gmail.com">Jim</a>
  */
 public class RocketMQMessageSource extends AbstractMessageSource<Object>
@@ -57,7 +74,10 @@ public class RocketMQMessageSource extends AbstractMessageSource<Object>
 
 	private DefaultLitePullConsumer consumer;
 
-	private final Map<String, Collection<MessageQueue>> messageQueuesForTopic = new ConcurrentHashMap<>();
+	/**
+	 * Message queues of the topic with the offsets handed out of them.
+	 */
+	private final Map<MessageQueue, RocketMQOffsetTracker> messageQueues = new ConcurrentHashMap<>();
 
 	private volatile boolean running;
 
@@ -69,13 +89,29 @@ public class RocketMQMessageSource extends AbstractMessageSource<Object>
 
 	private volatile Iterator<MessageExt> messageExtIterator = null;
 
+	private final boolean concurrent;
+
+	/**
+	 * Messages polled in concurrent mode and not handed out yet.
+	 */
+	private final Queue<PolledMessage> polledMessages = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Held while polling the consumer and tracking the polled messages, and while
+	 * rewinding a queue.
+	 */
+	private final ReentrantLock pollLock = new ReentrantLock();
+
+	private ScheduledExecutorService committer;
+
 	public RocketMQMessageSource(String name,
 			ExtendedConsumerProperties<RocketMQConsumerProperties> extendedConsumerProperties) {
 		this.topic = name;
 		this.messageSelector = RocketMQUtils.getMessageSelector(
 				extendedConsumerProperties.getExtension().getSubscription());
 		this.extendedConsumerProperties = extendedConsumerProperties;
-
+		this.concurrent = extendedConsumerProperties.getExtension().getPull()
+				.getConcurrent();
 	}
 
 	@Override
@@ -92,12 +128,23 @@ public class RocketMQMessageSource extends AbstractMessageSource<Object>
 			// this.consumer.setPullBatchSize(1);
 			this.consumer.subscribe(topic, messageSelector);
 			this.consumer.setAutoCommit(false);
-			// register TopicMessageQueueChangeListener for messageQueuesForTopic
+			// register TopicMessageQueueChangeListener for messageQueues
 			consumer.registerTopicMessageQueueChangeListener(topic,
-					messageQueuesForTopic::put);
+					(changedTopic, queues) -> updateMessageQueues(queues));
 			this.consumer.start();
-			// Initialize messageQueuesForTopic immediately
-			messageQueuesForTopic.put(topic, consumer.fetchMessageQueues(topic));
+			// Initialize messageQueues immediately
+			updateMessageQueues(consumer.fetchMessageQueues(topic));
+			if (concurrent) {
+				long interval = extendedConsumerProperties.getExtension().getPull()
+						.getCommitIntervalMillis();
+				this.committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "rocketmq-pull-commit-" + topic);
+					thread.setDaemon(true);
+					return thread;
+				});
+				this.committer.scheduleWithFixedDelay(this::commitAcknowledged, interval,
+						interval, TimeUnit.MILLISECONDS);
+			}
 			instrumentation.markStartedSuccessfully();
 		}
 		catch (MQClientException e) {
@@ -110,24 +157,33 @@ public class RocketMQMessageSource extends AbstractMessageSource<Object>
 		this.running = true;
 	}
 
-	private MessageQueue acquireCurrentMessageQueue(String topic, int queueId,
-			String brokerName) {
-		Collection<MessageQueue> messageQueueSet = messageQueuesForTopic.get(topic);
-		if (CollectionUtils.isEmpty(messageQueueSet)) {
-			return null;
+	private void updateMessageQueues(Collection<MessageQueue> messageQueueSet) {
+		Set<MessageQueue> current = new HashSet<>(messageQueueSet);
+		messageQueues.keySet().retainAll(current);
+		for (MessageQueue messageQueue : current) {
+			messageQueues.computeIfAbsent(messageQueue,
+					key -> new RocketMQOffsetTracker());
 		}
-		for (MessageQueue messageQueue : messageQueueSet) {
-			if (messageQueue.getQueueId() == queueId && ObjectUtils
-					.nullSafeEquals(brokerName, messageQueue.getBrokerName())) {
-				return messageQueue;
-			}
+	}
+
+	private MessageQueue acquireCurrentMessageQueue(MessageExt messageExt) {
+		MessageQueue messageQueue = new MessageQueue(messageExt.getTopic(),
+				messageExt.getBrokerName(), messageExt.getQueueId());
+		if (!messageQueues.containsKey(messageQueue)) {
+			throw new IllegalArgumentException(
+					"The message queue is not in assigned list");
 		}
-		return null;
+		return messageQueue;
 	}
 
 	@Override
 	public synchronized void stop() {
 		if (this.isRunning() && null != consumer) {
+			if (committer != null) {
+				committer.shutdown();
+				commitAcknowledged();
+				polledMessages.clear();
+			}
 			consumer.unsubscribe(topic);
 			consumer.shutdown();
 			this.running = false;
@@ -140,7 +196,11 @@ public class RocketMQMessageSource extends AbstractMessageSource<Object>
 	}
 
 	@Override
-	protected synchronized Object doReceive() {
+	protected Object doReceive() {
+		return concurrent ? doReceiveConcurrently() : doReceiveSerially();
+	}
+
+	private synchronized Object doReceiveSerially() {
 		if (messageExtIterator == null) {
 			List<MessageExt> messageExtList = consumer.poll();
 			if (CollectionUtils.isEmpty(messageExtList)) {
@@ -155,17 +215,114 @@ public class RocketMQMessageSource extends AbstractMessageSource<Object>
 		if (null == messageExt) {
 			return null;
 		}
-		MessageQueue messageQueue = this.acquireCurrentMessageQueue(messageExt.getTopic(),
-				messageExt.getQueueId(), messageExt.getBrokerName());
-		if (messageQueue == null) {
-			throw new IllegalArgumentException(
-					"The message queue is not in assigned list");
+		MessageQueue messageQueue = this.acquireCurrentMessageQueue(messageExt);
+		return toMessage(messageExt,
+				new RocketMQAckCallback(this.consumer, messageQueue, messageExt));
+	}
+
+	private Object doReceiveConcurrently() {
+		PolledMessage polled;
+		while ((polled = nextPolledMessage()) != null) {
+			long offset = polled.messageExt.getQueueOffset();
+			if (polled.tracker.isInFlight(offset, polled.generation)) {
+				return toMessage(polled.messageExt,
+						new RocketMQTrackedAckCallback(this, polled.messageQueue,
+								polled.tracker, offset, polled.generation));
+			}
+			// its queue was rewound after it was polled, the consumer replays it
 		}
+		return null;
+	}
+
+	/**
+	 * Take the next buffered message, polling the consumer when the buffer is empty and
+	 * no other thread is polling it already. Polled messages are tracked before they are
+	 * buffered, so that no offset is committed past a message another thread is about to
+	 * hand out.
+	 */
+	private PolledMessage nextPolledMessage() {
+		PolledMessage polled = polledMessages.poll();
+		if (polled != null || !pollLock.tryLock()) {
+			return polled;
+		}
+		try {
+			// the buffer may have been refilled while acquiring the lock
+			polled = polledMessages.poll();
+			if (polled != null) {
+				return polled;
+			}
+			List<MessageExt> messageExtList = consumer.poll();
+			if (CollectionUtils.isEmpty(messageExtList)) {
+				return null;
+			}
+			for (MessageExt messageExt : messageExtList) {
+				MessageQueue messageQueue = new MessageQueue(messageExt.getTopic(),
+						messageExt.getBrokerName(), messageExt.getQueueId());
+				// the consumer only polls assigned queues, which may be newer than
+				// the last route update
+				RocketMQOffsetTracker tracker = messageQueues.computeIfAbsent(
+						messageQueue, key -> new RocketMQOffsetTracker());
+				polledMessages.add(new PolledMessage(messageExt, messageQueue, tracker,
+						tracker.track(messageExt.getQueueOffset())));
+			}
+			return polledMessages.poll();
+		}
+		finally {
+			pollLock.unlock();
+		}
+	}
+
+	/**
+	 * Rewind a queue to a requeued message. Buffered messages of the queue from that
+	 * offset on are dropped when they are taken from the buffer, the consumer replays
+	 * them.
+	 */
+	void requeue(MessageQueue messageQueue, RocketMQOffsetTracker tracker, long offset,
+			int trackedGeneration) {
+		pollLock.lock();
+		try {
+			if (!tracker.isInFlight(offset, trackedGeneration)) {
+				// replayed already, a message before it was requeued
+				return;
+			}
+			consumer.seek(messageQueue, offset);
+			tracker.requeue(offset);
+		}
+		catch (MQClientException e) {
+			throw new IllegalStateException(e);
+		}
+		finally {
+			pollLock.unlock();
+		}
+	}
+
+	/**
+	 * Commit the offsets acknowledged since the last commit, one request per queue.
+	 */
+	private void commitAcknowledged() {
+		try {
+			OffsetStore offsetStore = consumer.getOffsetStore();
+			messageQueues.forEach((messageQueue, tracker) -> {
+				long offset = tracker.committable();
+				if (offset >= 0) {
+					MessageQueue queue = consumer.queueWithNamespace(messageQueue);
+					offsetStore.updateOffset(queue, offset, true);
+					offsetStore.persist(queue);
+				}
+			});
+		}
+		catch (Exception e) {
+			log.error("Committing acknowledged offsets of " + topic + " failed", e);
+		}
+	}
+
+	private Message<?> toMessage(MessageExt messageExt,
+			AcknowledgmentCallback callback) {
 		Message message = RocketMQMessageConverterSupport
 				.convertMessage2Spring(messageExt);
 		return MessageBuilder.fromMessage(message)
 				.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK,
-						new RocketMQAckCallback(this.consumer, messageQueue, messageExt))
+						callback)
 				.build();
 	}
 
@@ -174,4 +331,24 @@ public class RocketMQMessageSource extends AbstractMessageSource<Object>
 		return "rocketmq:message-source";
 	}
 
+	private static final class PolledMessage {
+
+		private final MessageExt messageExt;
+
+		private final MessageQueue messageQueue;
+
+		private final RocketMQOffsetTracker tracker;
+
+		private final int generation;
+
+		private PolledMessage(MessageExt messageExt, MessageQueue messageQueue,
+				RocketMQOffsetTracker tracker, int generation) {
+			this.messageExt = messageExt;
+			this.messageQueue = messageQueue;
+			this.tracker = tracker;
+			this.generation = generation;
+		}
+
+	}
+
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.integration.inbound.pull;
+
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Offsets of one message queue polled by a concurrent {@link RocketMQMessageSource}.
+ * Messages are tracked as soon as they are polled, before any thread hands them out, and
+ * may be acknowledged in any order: the committable offset only advances past messages
+ * that are acknowledged together with all messages before them.
+ */
+final class RocketMQOffsetTracker {
+
+	/**
+	 * Offsets polled and not acknowledged yet, with the generation they were polled in.
+	 */
+	private final TreeMap<Long, Integer> inFlight = new TreeMap<>();
+
+	/**
+	 * Offset following the last message polled, -1 before the first one.
+	 */
+	private long nextOffset = -1;
+
+	private long committed = -1;
+
+	/**
+	 * Number of {@link #requeue}s, tells a replayed message from the same message
+	 * polled before the rewind.
+	 */
+	private int generation;
+
+	/**
+	 * Record a message as polled.
+	 * @param offset queue offset of the message
+	 * @return generation to hand out and acknowledge the message with
+	 */
+	synchronized int track(long offset) {
+		inFlight.put(offset, generation);
+		nextOffset = Math.max(nextOffset, offset + 1);
+		return generation;
+	}
+
+	/**
+	 * Record a message as processed, whether accepted or rejected.
+	 * @param offset queue offset of the message
+	 * @param trackedGeneration generation returned by {@link #track}
+	 */
+	synchronized void acknowledge(long offset, int trackedGeneration) {
+		inFlight.remove(offset, trackedGeneration);
+	}
+
+	/**
+	 * Whether a message is still in flight, a message forgotten by a {@link #requeue}
+	 * is replayed by the consumer and must not be handed out or rewound to again.
+	 * @param offset queue offset of the message
+	 * @param trackedGeneration generation returned by {@link #track}
+	 * @return whether the message is in flight
+	 */
+	synchronized boolean isInFlight(long offset, int trackedGeneration) {
+		return Objects.equals(inFlight.get(offset), trackedGeneration);
+	}
+
+	/**
+	 * Forget the messages from an offset on, the consumer was rewound to replay them.
+	 * @param offset queue offset the consumer was rewound to
+	 */
+	synchronized void requeue(long offset) {
+		inFlight.tailMap(offset, true).clear();
+		nextOffset = offset;
+		generation++;
+	}
+
+	/**
+	 * Take the offset to commit, that of the first message not acknowledged yet.
+	 * @return offset to commit, -1 if it did not advance since the last call
+	 */
+	synchronized long committable() {
+		long offset = inFlight.isEmpty() ? nextOffset : inFlight.firstKey();
+		if (offset <= committed) {
+			return -1;
+		}
+		committed = offset;
+		return offset;
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.integration.inbound.pull;
+
+import org.apache.rocketmq.common.message.MessageQueue;
+
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.util.Assert;
+
+/**
+ * Acknowledgment of a message handed out by a concurrent {@link RocketMQMessageSource}.
+ * Accepted and rejected messages are recorded in the offset tracker of their queue and
+ * committed with the next batch, requeued messages rewind the queue.
+ */
+class RocketMQTrackedAckCallback implements AcknowledgmentCallback {
+
+	private final RocketMQMessageSource source;
+
+	private final MessageQueue messageQueue;
+
+	private final RocketMQOffsetTracker tracker;
+
+	private final long offset;
+
+	private final int generation;
+
+	private volatile boolean acknowledged;
+
+	private boolean autoAckEnabled = true;
+
+	RocketMQTrackedAckCallback(RocketMQMessageSource source, MessageQueue messageQueue,
+			RocketMQOffsetTracker tracker, long offset, int generation) {
+		this.source = source;
+		this.messageQueue = messageQueue;
+		this.tracker = tracker;
+		this.offset = offset;
+		this.generation = generation;
+	}
+
+	@Override
+	public boolean isAcknowledged() {
+		return this.acknowledged;
+	}
+
+	@Override
+	public void noAutoAck() {
+		this.autoAckEnabled = false;
+	}
+
+	@Override
+	public boolean isAutoAck() {
+		return this.autoAckEnabled;
+	}
+
+	@Override
+	public void acknowledge(Status status) {
+		Assert.notNull(status, "'status' cannot be null");
+		if (this.acknowledged) {
+			throw new IllegalStateException("Already acknowledged");
+		}
+		try {
+			switch (status) {
+			case REJECT, ACCEPT -> tracker.acknowledge(offset, generation);
+			case REQUEUE -> source.requeue(messageQueue, tracker, offset, generation);
+			}
+		}
+		finally {
+			this.acknowledged = true;
+		}
+	}
+
+}
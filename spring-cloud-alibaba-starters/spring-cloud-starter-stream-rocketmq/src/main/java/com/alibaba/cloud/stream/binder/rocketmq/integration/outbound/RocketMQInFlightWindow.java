@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.integration.outbound;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+
+import org.springframework.messaging.MessagingException;
+
+/**
+ * Bounds the number of asynchronous sends awaiting their result. A send takes a permit
+ * before it is handed to the producer and returns it from its callback, so a slow broker
+ * blocks the sending thread instead of piling up pending callbacks.
+ */
+public class RocketMQInFlightWindow {
+
+	private final int maxInFlight;
+
+	private final long acquireTimeoutMillis;
+
+	private final Semaphore permits;
+
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	private volatile Recorder recorder;
+
+	public RocketMQInFlightWindow(int maxInFlight, long acquireTimeoutMillis) {
+		this.maxInFlight = Math.max(1, maxInFlight);
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+		this.permits = new Semaphore(this.maxInFlight);
+	}
+
+	/**
+	 * Take a permit for a send, waiting up to the acquire timeout for one to be free.
+	 * @param callback callback of the send
+	 * @return callback returning the permit, to pass to the producer
+	 * @throws MessagingException if no permit became free in time
+	 */
+	Permit acquire(SendCallback callback) throws InterruptedException {
+		boolean acquired = acquireTimeoutMillis > 0
+				? permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)
+				: permits.tryAcquire();
+		if (!acquired) {
+			rejectedCount.incrementAndGet();
+			throw new MessagingException(String.format(
+					"message hasn't been sent, %d sends are in flight for %d ms",
+					maxInFlight, acquireTimeoutMillis));
+		}
+		return new Permit(callback);
+	}
+
+	/**
+	 * Wait for the sends in flight to complete.
+	 * @param timeoutMillis maximum time to wait
+	 * @return whether all sends completed
+	 */
+	boolean awaitCompletion(long timeoutMillis) throws InterruptedException {
+		if (!permits.tryAcquire(maxInFlight, timeoutMillis, TimeUnit.MILLISECONDS)) {
+			return false;
+		}
+		permits.release(maxInFlight);
+		return true;
+	}
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	public int getInFlight() {
+		return maxInFlight - permits.availablePermits();
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	public void setRecorder(Recorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Receives the duration of each completed send.
+	 */
+	public interface Recorder {
+
+		void record(long durationNanos, boolean success);
+
+	}
+
+	/**
+	 * Callback of a send holding a permit, returned exactly once on completion or
+	 * through {@link #release()} when the producer refused the send.
+	 */
+	final class Permit implements SendCallback {
+
+		private final SendCallback delegate;
+
+		private final long startNanos = System.nanoTime();
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Permit(SendCallback delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void onSuccess(SendResult sendResult) {
+			complete(true);
+			delegate.onSuccess(sendResult);
+		}
+
+		@Override
+		public void onException(Throwable e) {
+			complete(false);
+			delegate.onException(e);
+		}
+
+		void release() {
+			complete(false);
+		}
+
+		private void complete(boolean success) {
+			if (!released.compareAndSet(false, true)) {
+				return;
+			}
+			permits.release();
+			Recorder recorder = RocketMQInFlightWindow.this.recorder;
+			if (recorder != null) {
+				recorder.record(System.nanoTime() - startNanos, success);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.integration.outbound;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import com.alibaba.cloud.stream.binder.rocketmq.properties.RocketMQProducerProperties;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+
+/**
+ * Accumulates messages per target queue and sends them with the batch send of
+ * RocketMQ. A batch is sent when it holds {@code maxSize} messages or
+ * {@code maxBytes} bytes, on the thread adding the last message, or when it has waited
+ * {@code lingerMillis}, on the linger thread.
+ * <p>
+ * All messages of a batch share the outcome of its send: on failure each of them is
+ * passed to the failure handler. Pipelined bindings send batches asynchronously, each
+ * batch holding one permit of the in-flight window.
+ */
+class RocketMQMessageBatcher {
+
+	private final static Logger log = LoggerFactory
+			.getLogger(RocketMQMessageBatcher.class);
+
+	/**
+	 * Approximate per-message overhead of the batch encoding, see
+	 * {@code MessageDecoder#encodeMessage}.
+	 */
+	private static final int MESSAGE_OVERHEAD = 20;
+
+	private final DefaultMQProducer producer;
+
+	private final int maxSize;
+
+	private final int maxBytes;
+
+	private final long lingerMillis;
+
+	private final boolean async;
+
+	private final SendCallback sendCallback;
+
+	private final RocketMQInFlightWindow inFlightWindow;
+
+	private final BiConsumer<Message<?>, Throwable> failureHandler;
+
+	/**
+	 * Open batches, by target queue, {@code null} for batches the producer sends to a
+	 * queue of its choice.
+	 */
+	private final Map<MessageQueue, Batch> batches = new HashMap<>();
+
+	private final ScheduledExecutorService scheduler;
+
+	RocketMQMessageBatcher(DefaultMQProducer producer, String topic,
+			RocketMQProducerProperties producerProperties, SendCallback sendCallback,
+			RocketMQInFlightWindow inFlightWindow,
+			BiConsumer<Message<?>, Throwable> failureHandler) {
+		RocketMQProducerProperties.Batch batch = producerProperties.getBatch();
+		this.producer = producer;
+		this.maxSize = Math.max(1, batch.getMaxSize());
+		this.maxBytes = Math.min(batch.getMaxBytes(),
+				producerProperties.getMaxMessageSize());
+		this.lingerMillis = batch.getLingerMillis();
+		// there is no one-way batch send, one-way bindings send batches synchronously
+		this.async = inFlightWindow != null || RocketMQProducerProperties.SendType.Async
+				.equalsName(producerProperties.getSendType());
+		this.sendCallback = sendCallback;
+		this.inFlightWindow = inFlightWindow;
+		this.failureHandler = failureHandler;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "rocketmq-batch-" + topic);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Add a message to the batch of its queue.
+	 * @param queue target queue, {@code null} to let the producer choose
+	 * @param mqMessage message to send
+	 * @param message message the RocketMQ message was converted from
+	 */
+	void add(MessageQueue queue, org.apache.rocketmq.common.message.Message mqMessage,
+			Message<?> message) {
+		int bytes = sizeOf(mqMessage);
+		List<Batch> full = new ArrayList<>(2);
+		synchronized (this) {
+			Batch batch = batches.get(queue);
+			if (batch != null && batch.bytes + bytes > maxBytes) {
+				full.add(detach(batch));
+				batch = null;
+			}
+			if (batch == null) {
+				batch = new Batch(queue);
+				batches.put(queue, batch);
+				if (lingerMillis > 0) {
+					Batch lingering = batch;
+					batch.lingerFuture = scheduler.schedule(() -> flush(lingering),
+							lingerMillis, TimeUnit.MILLISECONDS);
+				}
+			}
+			batch.add(mqMessage, message, bytes);
+			if (batch.mqMessages.size() >= maxSize || batch.bytes >= maxBytes
+					|| lingerMillis <= 0) {
+				full.add(detach(batch));
+			}
+		}
+		for (Batch batch : full) {
+			send(batch);
+		}
+	}
+
+	/**
+	 * Send all open batches and stop the linger thread.
+	 */
+	void close() {
+		List<Batch> open;
+		synchronized (this) {
+			open = new ArrayList<>(batches.values());
+			open.forEach(this::detach);
+		}
+		for (Batch batch : open) {
+			send(batch);
+		}
+		scheduler.shutdown();
+	}
+
+	private void flush(Batch batch) {
+		synchronized (this) {
+			if (batches.get(batch.queue) != batch) {
+				// already sent because it was full
+				return;
+			}
+			detach(batch);
+		}
+		send(batch);
+	}
+
+	private Batch detach(Batch batch) {
+		batches.remove(batch.queue, batch);
+		if (batch.lingerFuture != null) {
+			batch.lingerFuture.cancel(false);
+		}
+		return batch;
+	}
+
+	private void send(Batch batch) {
+		try {
+			if (async) {
+				SendCallback callback = sendCallback != null ? sendCallback
+						: new SendCallback() {
+							@Override
+							public void onSuccess(SendResult sendResult) {
+							}
+
+							@Override
+							public void onException(Throwable e) {
+								fail(batch, e);
+							}
+						};
+				if (inFlightWindow == null) {
+					sendAsync(batch, callback);
+					return;
+				}
+				RocketMQInFlightWindow.Permit permit = inFlightWindow.acquire(callback);
+				try {
+					sendAsync(batch, permit);
+				}
+				catch (Exception e) {
+					permit.release();
+					throw e;
+				}
+				return;
+			}
+			SendResult sendResult = batch.queue != null
+					? producer.send(batch.mqMessages, batch.queue)
+					: producer.send(batch.mqMessages);
+			if (log.isDebugEnabled()) {
+				log.debug("the batch has sent,size={},sendResult={}",
+						batch.mqMessages.size(), sendResult);
+			}
+			if (sendResult == null
+					|| !SendStatus.SEND_OK.equals(sendResult.getSendStatus())) {
+				fail(batch, new MessagingException(
+						"message send fail.SendStatus is not OK."));
+			}
+		}
+		catch (Exception e) {
+			log.error("RocketMQ message batch hasn't been sent. Caused by "
+					+ e.getMessage(), e);
+			fail(batch, e);
+		}
+	}
+
+	private void sendAsync(Batch batch, SendCallback callback) throws Exception {
+		if (batch.queue != null) {
+			producer.send(batch.mqMessages, batch.queue, callback);
+		}
+		else {
+			producer.send(batch.mqMessages, callback);
+		}
+	}
+
+	private void fail(Batch batch, Throwable e) {
+		for (Message<?> message : batch.messages) {
+			try {
+				failureHandler.accept(message, e);
+			}
+			catch (Exception ex) {
+				log.error("failure handling of message {} failed", message, ex);
+			}
+		}
+	}
+
+	private static int sizeOf(org.apache.rocketmq.common.message.Message mqMessage) {
+		int size = MESSAGE_OVERHEAD + mqMessage.getTopic().length();
+		if (mqMessage.getBody() != null) {
+			size += mqMessage.getBody().length;
+		}
+		if (mqMessage.getProperties() != null) {
+			for (Map.Entry<String, String> property : mqMessage.getProperties()
+					.entrySet()) {
+				size += property.getKey().length() + property.getValue().length() + 2;
+			}
+		}
+		return size;
+	}
+
+	private static final class Batch {
+
+		private final MessageQueue queue;
+
+		private final List<org.apache.rocketmq.common.message.Message> mqMessages = new ArrayList<>();
+
+		private final List<Message<?>> messages = new ArrayList<>();
+
+		private int bytes;
+
+		private ScheduledFuture<?> lingerFuture;
+
+		private Batch(MessageQueue queue) {
+			this.queue = queue;
+		}
+
+		private void add(org.apache.rocketmq.common.message.Message mqMessage,
+				Message<?> message, int bytes) {
+			this.mqMessages.add(mqMessage);
+			this.messages.add(message);
+			this.bytes += bytes;
+		}
+
+	}
+
+}
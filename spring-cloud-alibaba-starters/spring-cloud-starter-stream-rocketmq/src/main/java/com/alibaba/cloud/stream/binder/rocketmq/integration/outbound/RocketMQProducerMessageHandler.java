@@ -22,11 +22,13 @@ import com.alibaba.cloud.stream.binder.rocketmq.constant.RocketMQConst;
 import com.alibaba.cloud.stream.binder.rocketmq.custom.RocketMQBeanContainerCache;
 import com.alibaba.cloud.stream.binder.rocketmq.metrics.Instrumentation;
 import com.alibaba.cloud.stream.binder.rocketmq.metrics.InstrumentationManager;
+import com.alibaba.cloud.stream.binder.rocketmq.metrics.RocketMQProducerMetrics;
 import com.alibaba.cloud.stream.binder.rocketmq.properties.RocketMQProducerProperties;
 import com.alibaba.cloud.stream.binder.rocketmq.provisioning.selector.PartitionMessageQueueSelector;
 import com.alibaba.cloud.stream.binder.rocketmq.support.RocketMQMessageConverterSupport;
 import org.apache.rocketmq.client.exception.MQBrokerException;
 import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.client.impl.producer.TopicPublishInfo;
 import org.apache.rocketmq.client.producer.DefaultMQProducer;
 import org.apache.rocketmq.client.producer.MessageQueueSelector;
 import org.apache.rocketmq.client.producer.SendCallback;
@@ -50,6 +52,8 @@ import org.springframework.integration.support.ErrorMessageUtils;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 /**
  * @author <a href="mailto:fangjian0423@gmail.com">Jim</a>
@@ -74,6 +78,10 @@ public class RocketMQProducerMessageHandler extends AbstractMessageHandler
 
 	private MessageQueueSelector messageQueueSelector;
 
+	private volatile RocketMQMessageBatcher batcher;
+
+	private volatile RocketMQInFlightWindow inFlightWindow;
+
 	private final ProducerDestination destination;
 
 	private final ExtendedProducerProperties<RocketMQProducerProperties> extendedProducerProperties;
@@ -97,6 +105,15 @@ public class RocketMQProducerMessageHandler extends AbstractMessageHandler
 		this.defaultMQProducer = RocketMQProduceFactory
 				.initRocketMQProducer(destination.getName(), mqProducerProperties);
 		this.isTrans = defaultMQProducer instanceof TransactionMQProducer;
+		// batches may be sent after the sending thread has returned, a synchronous
+		// binding would otherwise lose their failures
+		Assert.state(isTrans || !mqProducerProperties.getBatch().getEnabled()
+				|| !RocketMQProducerProperties.SendType.Sync
+						.equalsName(mqProducerProperties.getSendType())
+				|| getSendFailureChannel() != null,
+				"Batching a Sync binding requires the error channel of "
+						+ destination.getName()
+						+ ", set errorChannelEnabled of the producer");
 		// Use the default if the partition is on and no customization is available.
 		this.messageQueueSelector = RocketMQBeanContainerCache.getBean(
 				mqProducerProperties.getMessageQueueSelector(),
@@ -130,6 +147,22 @@ public class RocketMQProducerMessageHandler extends AbstractMessageHandler
 							extendedProducerProperties.getPartitionCount());
 				}
 			}
+			// the window and its meters outlive a restart of the handler
+			if (inFlightWindow == null && RocketMQProducerProperties.SendType.Pipelined
+					.equalsName(mqProducerProperties.getSendType())) {
+				inFlightWindow = new RocketMQInFlightWindow(
+						mqProducerProperties.getPipeline().getMaxInFlight(),
+						mqProducerProperties.getPipeline().getAcquireTimeoutMillis());
+				bindMetrics(inFlightWindow);
+			}
+			if (!isTrans && mqProducerProperties.getBatch().getEnabled()) {
+				batcher = new RocketMQMessageBatcher(defaultMQProducer,
+						destination.getName(), mqProducerProperties,
+						RocketMQBeanContainerCache.getBean(
+								mqProducerProperties.getSendCallBack(),
+								SendCallback.class),
+						inFlightWindow, this::doFailBatched);
+			}
 			running = true;
 			instrumentation.markStartedSuccessfully();
 		}
@@ -144,6 +177,24 @@ public class RocketMQProducerMessageHandler extends AbstractMessageHandler
 
 	@Override
 	public void stop() {
+		RocketMQMessageBatcher batcher = this.batcher;
+		if (batcher != null) {
+			this.batcher = null;
+			batcher.close();
+		}
+		RocketMQInFlightWindow inFlightWindow = this.inFlightWindow;
+		if (inFlightWindow != null) {
+			try {
+				if (!inFlightWindow.awaitCompletion(
+						mqProducerProperties.getSendMsgTimeout())) {
+					log.warn("{} sends are still in flight, shutting down anyway",
+							inFlightWindow.getInFlight());
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
 		if (running && null != defaultMQProducer) {
 			defaultMQProducer.shutdown();
 		}
@@ -160,6 +211,15 @@ public class RocketMQProducerMessageHandler extends AbstractMessageHandler
 		try {
 			org.apache.rocketmq.common.message.Message mqMessage = RocketMQMessageConverterSupport
 					.convertMessage2MQ(destination.getName(), message);
+			RocketMQMessageBatcher batcher = this.batcher;
+			// RocketMQ only batches messages without delay and with the same
+			// waitStoreMsgOK
+			if (batcher != null && mqMessage != null
+					&& mqMessage.getDelayTimeLevel() <= 0
+					&& mqMessage.isWaitStoreMsgOK()) {
+				batcher.add(selectQueue(mqMessage, message), mqMessage, message);
+				return;
+			}
 			SendResult sendResult;
 			if (defaultMQProducer instanceof TransactionMQProducer translateMQProducer) {
 				TransactionListener transactionListener = RocketMQBeanContainerCache
@@ -236,8 +296,58 @@ public class RocketMQProducerMessageHandler extends AbstractMessageHandler
 			}
 			return sendResult;
 		}
+		if (RocketMQProducerProperties.SendType.Pipelined
+				.equalsName(mqProducerProperties.getSendType())) {
+			RocketMQInFlightWindow.Permit permit = inFlightWindow
+					.acquire(this.getSendCallback(message));
+			try {
+				if (null != selector) {
+					defaultMQProducer.send(mqMessage, selector, args, permit);
+				}
+				else {
+					defaultMQProducer.send(mqMessage, permit);
+				}
+			}
+			catch (Exception e) {
+				permit.release();
+				throw e;
+			}
+			return sendResult;
+		}
 		throw new MessagingException(
-				"message hasn't been sent,cause by : the SendType must be in this values[OneWay, Async, Sync]");
+				"message hasn't been sent,cause by : the SendType must be in this values[OneWay, Async, Sync, Pipelined]");
+	}
+
+	/**
+	 * Queue a batched message is sent to, {@code null} to let the producer choose when
+	 * there is no {@link MessageQueueSelector}. Queues are taken from the route the
+	 * producer has cached for the topic.
+	 */
+	private MessageQueue selectQueue(org.apache.rocketmq.common.message.Message mqMessage,
+			Message<?> message) throws MQClientException {
+		if (messageQueueSelector == null) {
+			return null;
+		}
+		TopicPublishInfo publishInfo = defaultMQProducer.getDefaultMQProducerImpl()
+				.getTopicPublishInfoTable()
+				.get(defaultMQProducer.withNamespace(mqMessage.getTopic()));
+		List<MessageQueue> messageQueues = publishInfo != null && publishInfo.ok()
+				? publishInfo.getMessageQueueList()
+				: defaultMQProducer.fetchPublishMessageQueues(mqMessage.getTopic());
+		return messageQueueSelector.select(messageQueues, mqMessage,
+				message.getHeaders());
+	}
+
+	/**
+	 * Export the in-flight window when Micrometer and a registry are available.
+	 */
+	private void bindMetrics(RocketMQInFlightWindow window) {
+		if (getApplicationContext() == null || !ClassUtils.isPresent(
+				"io.micrometer.core.instrument.MeterRegistry", getClass().getClassLoader())) {
+			return;
+		}
+		RocketMQProducerMetrics.bindTo(getApplicationContext(), window,
+				destination.getName());
 	}
 
 	/**
@@ -273,6 +383,20 @@ public class RocketMQProducerMessageHandler extends AbstractMessageHandler
 		}
 	}
 
+	/**
+	 * Failure of a batched message. Batches may be sent after the sending thread has
+	 * returned, so without a send failure channel, which Sync bindings require, the
+	 * failure can only be logged.
+	 */
+	private void doFailBatched(Message<?> message, Throwable e) {
+		if (getSendFailureChannel() != null) {
+			doFail(message, e);
+		}
+		else {
+			log.error("RocketMQ Message hasn't been sent. message={}", message, e);
+		}
+	}
+
 	public MessageChannel getSendFailureChannel() {
 		return sendFailureChannel;
 	}
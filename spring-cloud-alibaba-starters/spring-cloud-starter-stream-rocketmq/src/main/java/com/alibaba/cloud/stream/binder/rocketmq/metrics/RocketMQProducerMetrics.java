@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.stream.binder.rocketmq.integration.outbound.RocketMQInFlightWindow;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Exports the {@link RocketMQInFlightWindow} of a pipelined producer binding to
+ * Micrometer.
+ */
+public class RocketMQProducerMetrics implements MeterBinder {
+
+	private static final String PREFIX = "rocketmq.producer";
+
+	private final RocketMQInFlightWindow window;
+
+	private final String topic;
+
+	public RocketMQProducerMetrics(RocketMQInFlightWindow window, String topic) {
+		this.window = window;
+		this.topic = topic;
+	}
+
+	/**
+	 * Bind the metrics of a window to the {@link MeterRegistry} of the context, if any.
+	 * @param context application context
+	 * @param window in-flight window of the binding
+	 * @param topic destination of the binding
+	 */
+	public static void bindTo(ApplicationContext context, RocketMQInFlightWindow window,
+			String topic) {
+		context.getBeanProvider(MeterRegistry.class).ifAvailable(
+				registry -> new RocketMQProducerMetrics(window, topic).bindTo(registry));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder(PREFIX + ".in.flight", window, RocketMQInFlightWindow::getInFlight)
+				.tag("topic", topic).description("Sends awaiting their result")
+				.register(registry);
+		Gauge.builder(PREFIX + ".in.flight.max", window,
+				RocketMQInFlightWindow::getMaxInFlight).tag("topic", topic)
+				.description("Maximum number of sends awaiting their result")
+				.register(registry);
+		FunctionCounter
+				.builder(PREFIX + ".rejected", window,
+						RocketMQInFlightWindow::getRejectedCount)
+				.tag("topic", topic)
+				.description("Messages failed because too many sends were in flight")
+				.register(registry);
+		Timer success = sendTimer("success").register(registry);
+		Timer failure = sendTimer("failure").register(registry);
+		window.setRecorder((durationNanos, succeeded) -> (succeeded ? success : failure)
+				.record(durationNanos, TimeUnit.NANOSECONDS));
+	}
+
+	private Timer.Builder sendTimer(String result) {
+		return Timer.builder(PREFIX + ".send").tag("topic", topic).tag("result", result)
+				.description("Time from send to broker acknowledgment")
+				.publishPercentileHistogram();
+	}
+
+}
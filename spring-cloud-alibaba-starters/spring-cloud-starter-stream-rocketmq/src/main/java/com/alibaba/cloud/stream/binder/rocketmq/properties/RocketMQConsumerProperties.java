@@ -300,7 +300,9 @@ public class RocketMQConsumerProperties extends RocketMQCommonProperties {
 		private long pullInterval = 0;
 
 		/**
-		 * Batch consumption size.
+		 * Batch consumption size, the maximum number of messages handed to the binding
+		 * at once. With the binding in batch-mode they arrive as a single message whose
+		 * payload is the list of message bodies.
 		 */
 		private int consumeMessageBatchMaxSize = 1;
 
@@ -401,6 +403,19 @@ public class RocketMQConsumerProperties extends RocketMQCommonProperties {
 
 		private long pullThresholdForAll = 1000L;
 
+		/**
+		 * Whether several threads may poll the binding at the same time. Acknowledged
+		 * offsets are then tracked per queue and committed in batches, every
+		 * {@link #commitIntervalMillis}, up to the first message not acknowledged yet.
+		 */
+		private boolean concurrent = false;
+
+		/**
+		 * Interval in milliseconds at which acknowledged offsets are committed in
+		 * concurrent mode.
+		 */
+		private long commitIntervalMillis = 1000;
+
 		public long getPollTimeoutMillis() {
 			return pollTimeoutMillis;
 		}
@@ -451,6 +466,22 @@ public class RocketMQConsumerProperties extends RocketMQCommonProperties {
 			this.pullThresholdForAll = pullThresholdForAll;
 		}
 
+		public boolean getConcurrent() {
+			return concurrent;
+		}
+
+		public void setConcurrent(boolean concurrent) {
+			this.concurrent = concurrent;
+		}
+
+		public long getCommitIntervalMillis() {
+			return commitIntervalMillis;
+		}
+
+		public void setCommitIntervalMillis(long commitIntervalMillis) {
+			this.commitIntervalMillis = commitIntervalMillis;
+		}
+
 	}
 
 }
@@ -16,6 +16,8 @@
 
 package com.alibaba.cloud.stream.binder.rocketmq.properties;
 
+import java.io.Serializable;
+
 /**
  * Extended producer properties for RocketMQ binder.
  *
@@ -80,6 +82,10 @@ public class RocketMQProducerProperties extends RocketMQCommonProperties {
 
 	private String sendMessageHook;
 
+	private Batch batch = new Batch();
+
+	private Pipeline pipeline = new Pipeline();
+
 	public int getSendMsgTimeout() {
 		return sendMsgTimeout;
 	}
@@ -200,6 +206,22 @@ public class RocketMQProducerProperties extends RocketMQCommonProperties {
 		this.sendMessageHook = sendMessageHook;
 	}
 
+	public Batch getBatch() {
+		return batch;
+	}
+
+	public void setBatch(Batch batch) {
+		this.batch = batch;
+	}
+
+	public Pipeline getPipeline() {
+		return pipeline;
+	}
+
+	public void setPipeline(Pipeline pipeline) {
+		this.pipeline = pipeline;
+	}
+
 	public enum ProducerType {
 
 		/**
@@ -230,7 +252,12 @@ public class RocketMQProducerProperties extends RocketMQCommonProperties {
 		/**
 		 * synchronization.
 		 */
-		Sync,;
+		Sync,
+		/**
+		 * Asynchronization with a bounded number of sends in flight, see
+		 * {@link Pipeline}.
+		 */
+		Pipelined,;
 
 		public boolean equalsName(String name) {
 			return this.name().equalsIgnoreCase(name);
@@ -238,4 +265,98 @@ public class RocketMQProducerProperties extends RocketMQCommonProperties {
 
 	}
 
+	public static class Batch implements Serializable {
+
+		private static final long serialVersionUID = 5261187312532786504L;
+
+		/**
+		 * Whether messages are accumulated per target queue and sent with the batch send
+		 * of RocketMQ. Transactional messages and messages with a delay level are always
+		 * sent one by one. Sync bindings need the error channel of the producer enabled
+		 * to receive the failures of their batches.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of messages in a batch.
+		 */
+		private int maxSize = 32;
+
+		/**
+		 * Maximum size of a batch in bytes, capped by {@code maxMessageSize}.
+		 */
+		private int maxBytes = 1024 * 1024;
+
+		/**
+		 * Time in milliseconds a batch waits for more messages before it is sent.
+		 */
+		private long lingerMillis = 5;
+
+		public boolean getEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxSize() {
+			return maxSize;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public int getMaxBytes() {
+			return maxBytes;
+		}
+
+		public void setMaxBytes(int maxBytes) {
+			this.maxBytes = maxBytes;
+		}
+
+		public long getLingerMillis() {
+			return lingerMillis;
+		}
+
+		public void setLingerMillis(long lingerMillis) {
+			this.lingerMillis = lingerMillis;
+		}
+
+	}
+
+	public static class Pipeline implements Serializable {
+
+		private static final long serialVersionUID = -2164386207368421907L;
+
+		/**
+		 * Maximum number of sends awaiting their result with the Pipelined send type.
+		 */
+		private int maxInFlight = 64;
+
+		/**
+		 * Time in milliseconds a send waits for a free slot when maxInFlight sends are
+		 * in flight, before the message fails. 0 fails the message at once.
+		 */
+		private long acquireTimeoutMillis = 3000;
+
+		public int getMaxInFlight() {
+			return maxInFlight;
+		}
+
+		public void setMaxInFlight(int maxInFlight) {
+			this.maxInFlight = maxInFlight;
+		}
+
+		public long getAcquireTimeoutMillis() {
+			return acquireTimeoutMillis;
+		}
+
+		public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+			this.acquireTimeoutMillis = acquireTimeoutMillis;
+		}
+
+	}
+
 }
@@ -17,6 +17,10 @@
 package com.alibaba.cloud.stream.binder.rocketmq.support;
 
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -24,14 +28,23 @@ import com.alibaba.cloud.stream.binder.rocketmq.constant.RocketMQConst;
 import com.alibaba.cloud.stream.binder.rocketmq.constant.RocketMQConst.Headers;
 import com.alibaba.cloud.stream.binder.rocketmq.convert.RocketMQMessageConverter;
 import com.alibaba.cloud.stream.binder.rocketmq.custom.RocketMQBeanContainerCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.rocketmq.common.message.MessageConst;
 import org.apache.rocketmq.common.message.MessageExt;
 
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
 import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.support.GenericMessage;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.util.ObjectUtils;
 
@@ -48,56 +61,162 @@ public final class RocketMQMessageConverterSupport {
 					CompositeMessageConverter.class,
 					new RocketMQMessageConverter().getMessageConverter());
 
-	public static Message convertMessage2Spring(MessageExt message) {
-		MessageBuilder messageBuilder = MessageBuilder.withPayload(message.getBody())
-				.setHeader(toRocketHeaderKey(Headers.KEYS), message.getKeys())
-				.setHeader(toRocketHeaderKey(Headers.TAGS), message.getTags())
-				.setHeader(toRocketHeaderKey(Headers.TOPIC), message.getTopic())
-				.setHeader(toRocketHeaderKey(Headers.MESSAGE_ID), message.getMsgId())
-				.setHeader(toRocketHeaderKey(Headers.BORN_TIMESTAMP),
-						message.getBornTimestamp())
-				.setHeader(toRocketHeaderKey(Headers.BORN_HOST),
-						message.getBornHostString())
-				.setHeader(toRocketHeaderKey(Headers.FLAG), message.getFlag())
-				.setHeader(toRocketHeaderKey(Headers.QUEUE_ID), message.getQueueId())
-				.setHeader(toRocketHeaderKey(Headers.SYS_FLAG), message.getSysFlag())
-				.setHeader(toRocketHeaderKey(Headers.TRANSACTION_ID),
-						message.getTransactionId());
-		addUserProperties(message.getProperties(), messageBuilder);
-		return messageBuilder.build();
-	}
+	private static final String ROCKET_KEYS = toRocketHeaderKey(Headers.KEYS);
 
-	public static String toRocketHeaderKey(String rawKey) {
-		return "ROCKET_" + rawKey;
-	}
+	private static final String ROCKET_TAGS = toRocketHeaderKey(Headers.TAGS);
+
+	private static final String ROCKET_TOPIC = toRocketHeaderKey(Headers.TOPIC);
+
+	private static final String ROCKET_MESSAGE_ID = toRocketHeaderKey(Headers.MESSAGE_ID);
+
+	private static final String ROCKET_BORN_TIMESTAMP = toRocketHeaderKey(
+			Headers.BORN_TIMESTAMP);
+
+	private static final String ROCKET_BORN_HOST = toRocketHeaderKey(Headers.BORN_HOST);
+
+	private static final String ROCKET_FLAG = toRocketHeaderKey(Headers.FLAG);
+
+	private static final String ROCKET_QUEUE_ID = toRocketHeaderKey(Headers.QUEUE_ID);
+
+	private static final String ROCKET_SYS_FLAG = toRocketHeaderKey(Headers.SYS_FLAG);
+
+	private static final String ROCKET_TRANSACTION_ID = toRocketHeaderKey(
+			Headers.TRANSACTION_ID);
+
+	private static final String ROCKET_DELAY_TIME_LEVEL = toRocketHeaderKey(
+			RocketMQConst.PROPERTY_DELAY_TIME_LEVEL);
+
+	/**
+	 * Content type {@code StringMessageConverter} gives strings without one.
+	 */
+	private static final MimeType TEXT_PLAIN_UTF8 = new MimeType("text", "plain",
+			StandardCharsets.UTF_8);
+
+	/**
+	 * Content type {@code ByteArrayMessageConverter} gives byte arrays without one.
+	 */
+	private static final MimeType OCTET_STREAM = MimeTypeUtils.APPLICATION_OCTET_STREAM;
 
-	private static void addUserProperties(Map<String, String> properties,
-			MessageBuilder messageBuilder) {
+	/**
+	 * Serializes the payloads the converter would give to its JSON converter,
+	 * {@code null} if the converter is customized or Jackson is absent.
+	 */
+	private static final JsonPayloadWriter JSON_WRITER = ClassUtils.isPresent(
+			"com.fasterxml.jackson.databind.ObjectMapper",
+			RocketMQMessageConverterSupport.class.getClassLoader())
+					? JsonPayloadWriter.of(MESSAGE_CONVERTER)
+					: null;
+
+	/**
+	 * Number of headers of a converted message besides the user properties: the
+	 * {@code ROCKET_} headers, id and timestamp.
+	 */
+	private static final int SYSTEM_HEADER_COUNT = 12;
+
+	public static Message convertMessage2Spring(MessageExt message) {
+		Map<String, String> properties = message.getProperties();
+		int size = SYSTEM_HEADER_COUNT + (properties == null ? 0 : properties.size());
+		Map<String, Object> headers = new HashMap<>((int) (size / 0.75f) + 1);
+		// MessageBuilder drops null headers, so does putHeader
+		putHeader(headers, ROCKET_KEYS, message.getKeys());
+		putHeader(headers, ROCKET_TAGS, message.getTags());
+		putHeader(headers, ROCKET_TOPIC, message.getTopic());
+		putHeader(headers, ROCKET_MESSAGE_ID, message.getMsgId());
+		headers.put(ROCKET_BORN_TIMESTAMP, message.getBornTimestamp());
+		putHeader(headers, ROCKET_BORN_HOST, message.getBornHostString());
+		headers.put(ROCKET_FLAG, message.getFlag());
+		headers.put(ROCKET_QUEUE_ID, message.getQueueId());
+		headers.put(ROCKET_SYS_FLAG, message.getSysFlag());
+		putHeader(headers, ROCKET_TRANSACTION_ID, message.getTransactionId());
 		if (!CollectionUtils.isEmpty(properties)) {
-			properties.forEach((key, val) -> {
+			for (Map.Entry<String, String> property : properties.entrySet()) {
+				String key = property.getKey();
 				if (!MessageConst.STRING_HASH_SET.contains(key)
 						&& !MessageHeaders.ID.equals(key)
 						&& !MessageHeaders.TIMESTAMP.equals(key)) {
-					messageBuilder.setHeader(key, val);
+					putHeader(headers, key, property.getValue());
 				}
-			});
+			}
+		}
+		return new GenericMessage<>(message.getBody(), headers);
+	}
+
+	private static void putHeader(Map<String, Object> headers, String key, Object value) {
+		if (value != null) {
+			headers.put(key, value);
+		}
+		else {
+			headers.remove(key);
 		}
 	}
 
+	/**
+	 * Convert a batch of messages to a single message for batch mode consumers. The
+	 * payload is the list of message bodies, the headers of each message are in the
+	 * {@link Headers#BATCH_CONVERTED_HEADERS} header, in the same order.
+	 * @param messages rocketmq messages of one batch
+	 * @return message of the batch
+	 */
+	public static Message<List<byte[]>> convertMessages2Spring(
+			List<MessageExt> messages) {
+		List<byte[]> payloads = new ArrayList<>(messages.size());
+		List<Map<String, Object>> headers = new ArrayList<>(messages.size());
+		for (MessageExt message : messages) {
+			payloads.add(message.getBody());
+			headers.add(convertMessage2Spring(message).getHeaders());
+		}
+		return MessageBuilder.withPayload(payloads)
+				.setHeader(toRocketHeaderKey(Headers.TOPIC), messages.get(0).getTopic())
+				.setHeader(toRocketHeaderKey(Headers.BATCH_CONVERTED_HEADERS), headers)
+				.build();
+	}
+
+	public static String toRocketHeaderKey(String rawKey) {
+		return "ROCKET_" + rawKey;
+	}
+
 	public static org.apache.rocketmq.common.message.Message convertMessage2MQ(
 			String destination, Message<?> source) {
-		Message<?> message = MESSAGE_CONVERTER.toMessage(source.getPayload(),
-				source.getHeaders());
+		MessageHeaders headers = source.getHeaders();
+		Object payload = source.getPayload();
+		// byte arrays and plain text are serialized as the converters would do it,
+		// without rebuilding the message
+		if (payload instanceof byte[] bytes) {
+			return getAndWrapMessage(destination, headers, bytes, OCTET_STREAM);
+		}
+		if (payload instanceof String text) {
+			MimeType contentType = contentType(headers);
+			if (contentType == null || TEXT_PLAIN_UTF8.equalsTypeAndSubtype(contentType)) {
+				Charset charset = contentType == null || contentType.getCharset() == null
+						? StandardCharsets.UTF_8 : contentType.getCharset();
+				return getAndWrapMessage(destination, headers, text.getBytes(charset),
+						TEXT_PLAIN_UTF8);
+			}
+		}
+		if (JSON_WRITER != null) {
+			MimeType contentType = contentType(headers);
+			if (JSON_WRITER.canWrite(contentType)) {
+				byte[] json;
+				try {
+					json = JSON_WRITER.write(payload);
+				}
+				catch (Exception e) {
+					throw new RuntimeException("convert to RocketMQ message failed.", e);
+				}
+				return getAndWrapMessage(destination, headers, json,
+						MimeTypeUtils.APPLICATION_JSON);
+			}
+		}
+		Message<?> message = MESSAGE_CONVERTER.toMessage(payload, headers);
 		assert message != null;
-		MessageBuilder<?> builder = MessageBuilder.fromMessage(message);
-		builder.setHeaderIfAbsent(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN);
-		message = builder.build();
 		return doConvert(destination, message);
 	}
 
 	private static org.apache.rocketmq.common.message.Message doConvert(String topic,
 			Message<?> message) {
-		Charset charset = Charset.defaultCharset();
+		MimeType contentType = contentType(message.getHeaders());
+		Charset charset = contentType == null || contentType.getCharset() == null
+				? StandardCharsets.UTF_8 : contentType.getCharset();
 		Object payloadObj = message.getPayload();
 		byte[] payloads;
 		try {
@@ -122,11 +241,31 @@ public final class RocketMQMessageConverterSupport {
 		catch (Exception e) {
 			throw new RuntimeException("convert to RocketMQ message failed.", e);
 		}
-		return getAndWrapMessage(topic, message.getHeaders(), payloads);
+		return getAndWrapMessage(topic, message.getHeaders(), payloads,
+				MimeTypeUtils.TEXT_PLAIN);
+	}
+
+	/**
+	 * Content type of headers, parsed through the cache of {@link MimeTypeUtils}.
+	 */
+	private static MimeType contentType(MessageHeaders headers) {
+		Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+		if (contentType instanceof MimeType mimeType) {
+			return mimeType;
+		}
+		if (contentType instanceof String value) {
+			return MimeTypeUtils.parseMimeType(value);
+		}
+		return null;
 	}
 
+	/**
+	 * @param defaultContentType content type property of messages without a content type
+	 *     header, {@code null} if the headers have one
+	 */
 	private static org.apache.rocketmq.common.message.Message getAndWrapMessage(
-			String topic, MessageHeaders headers, byte[] payloads) {
+			String topic, MessageHeaders headers, byte[] payloads,
+			MimeType defaultContentType) {
 		if (topic == null || topic.length() < 1) {
 			return null;
 		}
@@ -136,27 +275,23 @@ public final class RocketMQMessageConverterSupport {
 		org.apache.rocketmq.common.message.Message rocketMsg = new org.apache.rocketmq.common.message.Message(
 				topic, payloads);
 		if (Objects.nonNull(headers) && !headers.isEmpty()) {
-			Object tag = headers.getOrDefault(Headers.TAGS,
-					headers.get(toRocketHeaderKey(Headers.TAGS)));
+			Object tag = headers.getOrDefault(Headers.TAGS, headers.get(ROCKET_TAGS));
 			if (!ObjectUtils.isEmpty(tag)) {
 				rocketMsg.setTags(String.valueOf(tag));
 			}
 
-			Object keys = headers.getOrDefault(Headers.KEYS,
-					headers.get(toRocketHeaderKey(Headers.KEYS)));
+			Object keys = headers.getOrDefault(Headers.KEYS, headers.get(ROCKET_KEYS));
 			if (!ObjectUtils.isEmpty(keys)) {
 				rocketMsg.setKeys(keys.toString());
 			}
-			Object flagObj = headers.getOrDefault(Headers.FLAG,
-					headers.get(toRocketHeaderKey(Headers.FLAG)));
+			Object flagObj = headers.getOrDefault(Headers.FLAG, headers.get(ROCKET_FLAG));
 			int flag = 0;
 			int delayLevel = 0;
 			try {
 				flagObj = flagObj == null ? 0 : flagObj;
 				Object delayLevelObj = headers.getOrDefault(
 						RocketMQConst.PROPERTY_DELAY_TIME_LEVEL,
-						headers.get(toRocketHeaderKey(
-								RocketMQConst.PROPERTY_DELAY_TIME_LEVEL)));
+						headers.get(ROCKET_DELAY_TIME_LEVEL));
 				delayLevelObj = delayLevelObj == null ? 0 : delayLevelObj;
 				delayLevel = Integer.parseInt(String.valueOf(delayLevelObj));
 				flag = Integer.parseInt(String.valueOf(flagObj));
@@ -171,20 +306,71 @@ public final class RocketMQMessageConverterSupport {
 					.getOrDefault(RocketMQConst.PROPERTY_WAIT_STORE_MSG_OK, "true");
 			rocketMsg.setWaitStoreMsgOK(
 					Boolean.parseBoolean(String.valueOf(waitStoreMsgOkObj)));
-			headers.entrySet().stream()
-					.filter(entry -> !Objects.equals(entry.getKey(), Headers.FLAG))
-					.forEach(entry -> {
-						if (!MessageConst.STRING_HASH_SET.contains(entry.getKey())) {
-							String val = String.valueOf(entry.getValue());
-							// Remove All blank header(rocketmq not support).
-							if (org.apache.commons.lang3.StringUtils.isNotBlank(val)) {
-								rocketMsg.putUserProperty(entry.getKey(), val);
-							}
-						}
-					});
-
+			for (Map.Entry<String, Object> entry : headers.entrySet()) {
+				String key = entry.getKey();
+				if (!Headers.FLAG.equals(key)
+						&& !MessageConst.STRING_HASH_SET.contains(key)) {
+					Object value = entry.getValue();
+					String val = value instanceof String string ? string
+							: String.valueOf(value);
+					// Remove All blank header(rocketmq not support).
+					if (org.apache.commons.lang3.StringUtils.isNotBlank(val)) {
+						rocketMsg.putUserProperty(key, val);
+					}
+				}
+			}
+		}
+		if (defaultContentType != null && (headers == null
+				|| !headers.containsKey(MessageHeaders.CONTENT_TYPE))) {
+			rocketMsg.putUserProperty(MessageHeaders.CONTENT_TYPE,
+					defaultContentType.toString());
 		}
 		return rocketMsg;
 	}
 
+	/**
+	 * Writes payloads straight to bytes with the object mapper of the JSON converter, when
+	 * it is the first converter of the composite able to convert payloads other than byte
+	 * arrays and strings. Kept apart so that Jackson is only loaded when present.
+	 */
+	private static final class JsonPayloadWriter {
+
+		private final ObjectMapper objectMapper;
+
+		private JsonPayloadWriter(ObjectMapper objectMapper) {
+			this.objectMapper = objectMapper;
+		}
+
+		private static JsonPayloadWriter of(CompositeMessageConverter converter) {
+			for (MessageConverter candidate : converter.getConverters()) {
+				// these only convert byte arrays and strings
+				if (candidate.getClass() == ByteArrayMessageConverter.class
+						|| candidate.getClass() == StringMessageConverter.class) {
+					continue;
+				}
+				if (candidate.getClass() == MappingJackson2MessageConverter.class) {
+					return new JsonPayloadWriter(
+							((MappingJackson2MessageConverter) candidate).getObjectMapper());
+				}
+				return null;
+			}
+			return null;
+		}
+
+		/**
+		 * Whether the JSON converter would write UTF-8 JSON for the content type.
+		 */
+		private boolean canWrite(MimeType contentType) {
+			return contentType == null
+					|| MimeTypeUtils.APPLICATION_JSON.equalsTypeAndSubtype(contentType)
+							&& (contentType.getCharset() == null
+									|| StandardCharsets.UTF_8.equals(contentType.getCharset()));
+		}
+
+		private byte[] write(Object payload) throws JsonProcessingException {
+			return objectMapper.writeValueAsBytes(payload);
+		}
+
+	}
+
 }
@@ -16,11 +16,17 @@
 
 package com.alibaba.cloud.stream.binder.rocketmq;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import com.alibaba.cloud.stream.binder.rocketmq.constant.RocketMQConst.Headers;
 import com.alibaba.cloud.stream.binder.rocketmq.support.RocketMQMessageConverterSupport;
 import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.common.message.MessageExt;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -44,4 +50,68 @@ public class RocketMQMessageConverterSupportTest {
 		assertThat(testProp).isNull();
 		assertThat(tagProp).isEqualTo("a");
 	}
+
+	@Test
+	public void convertMessage2MQPayloadTest() {
+		org.apache.rocketmq.common.message.Message bytes = RocketMQMessageConverterSupport
+				.convertMessage2MQ("test", MessageBuilder.withPayload(new byte[] { 1, 2 })
+						.setHeader("user", 3).build());
+		assertThat(bytes.getBody()).containsExactly(1, 2);
+		assertThat(bytes.getProperty("user")).isEqualTo("3");
+		assertThat(bytes.getProperty(MessageHeaders.CONTENT_TYPE))
+				.isEqualTo("application/octet-stream");
+
+		org.apache.rocketmq.common.message.Message text = RocketMQMessageConverterSupport
+				.convertMessage2MQ("test", MessageBuilder.withPayload("\u4e2d")
+						.setHeader(MessageHeaders.CONTENT_TYPE, "text/plain;charset=UTF-16BE")
+						.build());
+		assertThat(text.getBody()).containsExactly(0x4E, 0x2D);
+
+		org.apache.rocketmq.common.message.Message json = RocketMQMessageConverterSupport
+				.convertMessage2MQ("test", MessageBuilder.withPayload("a")
+						.setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+						.build());
+		assertThat(new String(json.getBody(), StandardCharsets.UTF_8)).isEqualTo("\"a\"");
+	}
+
+	@Test
+	public void convertMessage2MQPojoTest() {
+		org.apache.rocketmq.common.message.Message json = RocketMQMessageConverterSupport
+				.convertMessage2MQ("test", MessageBuilder
+						.withPayload(Collections.singletonMap("name", "\u4e2d")).build());
+		assertThat(new String(json.getBody(), StandardCharsets.UTF_8))
+				.isEqualTo("{\"name\":\"\u4e2d\"}");
+		assertThat(json.getProperty(MessageHeaders.CONTENT_TYPE))
+				.isEqualTo("application/json");
+
+		org.apache.rocketmq.common.message.Message utf16 = RocketMQMessageConverterSupport
+				.convertMessage2MQ("test", MessageBuilder
+						.withPayload(Collections.singletonMap("name", "\u4e2d"))
+						.setHeader(MessageHeaders.CONTENT_TYPE,
+								"application/json;charset=UTF-16BE")
+						.build());
+		assertThat(new String(utf16.getBody(), StandardCharsets.UTF_16BE))
+				.isEqualTo("{\"name\":\"\u4e2d\"}");
+	}
+
+	@Test
+	public void convertMessage2SpringTest() {
+		MessageExt messageExt = new MessageExt();
+		messageExt.setTopic("topic");
+		messageExt.setTags("tag");
+		messageExt.setBody(new byte[] { 1 });
+		messageExt.putUserProperty("user", "value");
+
+		Message<?> message = RocketMQMessageConverterSupport
+				.convertMessage2Spring(messageExt);
+
+		assertThat(message.getPayload()).isEqualTo(new byte[] { 1 });
+		assertThat(message.getHeaders())
+				.containsEntry(RocketMQMessageConverterSupport.toRocketHeaderKey(Headers.TOPIC), "topic")
+				.containsEntry(RocketMQMessageConverterSupport.toRocketHeaderKey(Headers.TAGS), "tag")
+				.containsEntry("user", "value")
+				.doesNotContainKey(RocketMQMessageConverterSupport.toRocketHeaderKey(Headers.KEYS))
+				.containsKeys(MessageHeaders.ID, MessageHeaders.TIMESTAMP);
+	}
+
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.integration.inbound;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.alibaba.cloud.stream.binder.rocketmq.constant.RocketMQConst.Headers;
+import com.alibaba.cloud.stream.binder.rocketmq.properties.RocketMQConsumerProperties;
+import com.alibaba.cloud.stream.binder.rocketmq.support.RocketMQMessageConverterSupport;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.stream.binder.ExtendedConsumerProperties;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.messaging.Message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RocketMQInboundChannelAdapterTest {
+
+	@Test
+	public void testPartialSuccessAcknowledgesConsumedMessages() {
+		List<String> received = new ArrayList<>();
+		RocketMQInboundChannelAdapter adapter = adapter(false, message -> {
+			String body = new String((byte[]) message.getPayload(),
+					StandardCharsets.UTF_8);
+			if ("c".equals(body)) {
+				throw new IllegalStateException("failed");
+			}
+			received.add(body);
+		});
+
+		Integer result = adapter.consumeMessage(messages("a", "b", "c", "d"),
+				acked -> acked, () -> -1);
+
+		assertThat(result).isEqualTo(2);
+		assertThat(received).containsExactly("a", "b");
+	}
+
+	@Test
+	public void testBatchModeDeliversOneMessage() {
+		List<Message<?>> received = new ArrayList<>();
+		RocketMQInboundChannelAdapter adapter = adapter(true, received::add);
+
+		Integer result = adapter.consumeMessage(messages("a", "b"), acked -> acked,
+				() -> -1);
+
+		assertThat(result).isEqualTo(-1);
+		assertThat(received).hasSize(1);
+		List<?> payload = (List<?>) received.get(0).getPayload();
+		assertThat(payload).hasSize(2);
+		assertThat(new String((byte[]) payload.get(1), StandardCharsets.UTF_8))
+				.isEqualTo("b");
+		List<?> headers = (List<?>) received.get(0).getHeaders().get(
+				RocketMQMessageConverterSupport
+						.toRocketHeaderKey(Headers.BATCH_CONVERTED_HEADERS));
+		assertThat(headers).hasSize(2);
+		assertThat(((Map<?, ?>) headers.get(1)).get(RocketMQMessageConverterSupport
+				.toRocketHeaderKey(Headers.KEYS))).isEqualTo("key-b");
+	}
+
+	@Test
+	public void testBatchModeAcknowledgesPrefix() {
+		RocketMQInboundChannelAdapter adapter = adapter(true, message -> {
+			RocketMQBatchAcknowledgment acknowledgment = message.getHeaders().get(
+					RocketMQMessageConverterSupport
+							.toRocketHeaderKey(Headers.BATCH_ACKNOWLEDGMENT),
+					RocketMQBatchAcknowledgment.class);
+			acknowledgment.acknowledge(1);
+			throw new IllegalStateException("failed");
+		});
+
+		Integer result = adapter.consumeMessage(messages("a", "b", "c"),
+				acked -> acked, () -> -1);
+
+		assertThat(result).isEqualTo(2);
+	}
+
+	private static RocketMQInboundChannelAdapter adapter(boolean batchMode,
+			Consumer<Message<?>> handler) {
+		ExtendedConsumerProperties<RocketMQConsumerProperties> properties = new ExtendedConsumerProperties<>(
+				new RocketMQConsumerProperties());
+		properties.setBatchMode(batchMode);
+		DirectChannel channel = new DirectChannel();
+		channel.subscribe(handler::accept);
+		RocketMQInboundChannelAdapter adapter = new RocketMQInboundChannelAdapter(
+				"topic", properties);
+		adapter.setOutputChannel(channel);
+		return adapter;
+	}
+
+	private static List<MessageExt> messages(String... bodies) {
+		List<MessageExt> messages = new ArrayList<>();
+		for (String body : bodies) {
+			MessageExt message = new MessageExt();
+			message.setTopic("topic");
+			message.setKeys("key-" + body);
+			message.setBody(body.getBytes(StandardCharsets.UTF_8));
+			messages.add(message);
+		}
+		return messages;
+	}
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.integration.inbound.pull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.cloud.stream.binder.rocketmq.properties.RocketMQConsumerProperties;
+import org.apache.rocketmq.client.consumer.DefaultLitePullConsumer;
+import org.apache.rocketmq.client.consumer.store.OffsetStore;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.stream.binder.ExtendedConsumerProperties;
+import org.springframework.integration.StaticMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+import org.springframework.messaging.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RocketMQMessageSourceTest {
+
+	private static final MessageQueue QUEUE = new MessageQueue("topic", "broker", 0);
+
+	@Test
+	public void testConcurrentReceiversNeverCommitPastAPolledMessage() throws Exception {
+		int total = 2000;
+		Queue<List<MessageExt>> batches = new ConcurrentLinkedQueue<>();
+		for (int offset = 0; offset < total; offset += 32) {
+			List<MessageExt> batch = new ArrayList<>();
+			for (int i = offset; i < Math.min(offset + 32, total); i++) {
+				batch.add(messageExt(i));
+			}
+			batches.add(batch);
+		}
+		DefaultLitePullConsumer consumer = consumer();
+		when(consumer.poll()).thenAnswer(invocation -> {
+			List<MessageExt> batch = batches.poll();
+			return batch != null ? batch : Collections.emptyList();
+		});
+		Set<Long> acknowledged = ConcurrentHashMap.newKeySet();
+		List<Long> violations = Collections.synchronizedList(new ArrayList<>());
+		AtomicLong committed = new AtomicLong(-1);
+		OffsetStore offsetStore = consumer.getOffsetStore();
+		doAnswer(invocation -> {
+			long offset = invocation.getArgument(1);
+			for (long previous = 0; previous < offset; previous++) {
+				if (!acknowledged.contains(previous)) {
+					violations.add(offset);
+					break;
+				}
+			}
+			committed.set(offset);
+			return null;
+		}).when(offsetStore).updateOffset(any(MessageQueue.class), anyLong(),
+				anyBoolean());
+		RocketMQMessageSource source = source(consumer);
+
+		AtomicBoolean receiving = new AtomicBoolean(true);
+		ExecutorService executor = Executors.newFixedThreadPool(9);
+		Future<?> committer = executor.submit(() -> {
+			while (receiving.get()) {
+				ReflectionTestUtils.invokeMethod(source, "commitAcknowledged");
+			}
+		});
+		CountDownLatch done = new CountDownLatch(8);
+		Set<Long> received = ConcurrentHashMap.newKeySet();
+		for (int i = 0; i < 8; i++) {
+			executor.execute(() -> {
+				try {
+					while (received.size() < total) {
+						Message<?> message = source.receive();
+						if (message == null) {
+							continue;
+						}
+						long offset = Long.parseLong(new String(
+								(byte[]) message.getPayload(), StandardCharsets.UTF_8));
+						assertThat(received.add(offset)).isTrue();
+						acknowledged.add(offset);
+						StaticMessageHeaderAccessor.getAcknowledgmentCallback(message)
+								.acknowledge(Status.ACCEPT);
+					}
+				}
+				finally {
+					done.countDown();
+				}
+			});
+		}
+		assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+		receiving.set(false);
+		committer.get(5, TimeUnit.SECONDS);
+		executor.shutdown();
+		ReflectionTestUtils.invokeMethod(source, "commitAcknowledged");
+
+		assertThat(violations).isEmpty();
+		assertThat(received).hasSize(total);
+		assertThat(committed.get()).isEqualTo(total);
+	}
+
+	@Test
+	public void testRequeueReplaysFromTheRequeuedMessage() throws Exception {
+		DefaultLitePullConsumer consumer = consumer();
+		when(consumer.poll()).thenReturn(
+				List.of(messageExt(0), messageExt(1), messageExt(2), messageExt(3)),
+				List.of(messageExt(1), messageExt(2), messageExt(3)));
+		RocketMQMessageSource source = source(consumer);
+
+		Message<?> first = source.receive();
+		Message<?> second = source.receive();
+		StaticMessageHeaderAccessor.getAcknowledgmentCallback(second)
+				.acknowledge(Status.REQUEUE);
+		verify(consumer).seek(QUEUE, 1);
+		StaticMessageHeaderAccessor.getAcknowledgmentCallback(first)
+				.acknowledge(Status.ACCEPT);
+
+		// the buffered 2 and 3 are dropped, the consumer replays them
+		Message<?> replayed = source.receive();
+		assertThat(new String((byte[]) replayed.getPayload(), StandardCharsets.UTF_8))
+				.isEqualTo("1");
+		ReflectionTestUtils.invokeMethod(source, "commitAcknowledged");
+		verify(consumer.getOffsetStore()).updateOffset(QUEUE, 1, true);
+	}
+
+	private static DefaultLitePullConsumer consumer() {
+		DefaultLitePullConsumer consumer = mock(DefaultLitePullConsumer.class);
+		OffsetStore offsetStore = mock(OffsetStore.class);
+		when(consumer.getOffsetStore()).thenReturn(offsetStore);
+		when(consumer.queueWithNamespace(any(MessageQueue.class)))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+		return consumer;
+	}
+
+	private static RocketMQMessageSource source(DefaultLitePullConsumer consumer) {
+		RocketMQConsumerProperties properties = new RocketMQConsumerProperties();
+		properties.getPull().setConcurrent(true);
+		RocketMQMessageSource source = new RocketMQMessageSource("topic",
+				new ExtendedConsumerProperties<>(properties));
+		ReflectionTestUtils.setField(source, "consumer", consumer);
+		return source;
+	}
+
+	private static MessageExt messageExt(long offset) {
+		MessageExt messageExt = new MessageExt();
+		messageExt.setTopic(QUEUE.getTopic());
+		messageExt.setBrokerName(QUEUE.getBrokerName());
+		messageExt.setQueueId(QUEUE.getQueueId());
+		messageExt.setQueueOffset(offset);
+		messageExt.setBody(String.valueOf(offset).getBytes(StandardCharsets.UTF_8));
+		return messageExt;
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.integration.inbound.pull;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RocketMQOffsetTrackerTest {
+
+	@Test
+	public void committableStopsAtFirstUnacknowledged() {
+		RocketMQOffsetTracker tracker = new RocketMQOffsetTracker();
+		assertThat(tracker.committable()).isEqualTo(-1);
+		for (long offset = 10; offset < 14; offset++) {
+			assertThat(tracker.track(offset)).isZero();
+		}
+		tracker.acknowledge(11, 0);
+		tracker.acknowledge(13, 0);
+		assertThat(tracker.committable()).isEqualTo(10);
+		tracker.acknowledge(10, 0);
+		assertThat(tracker.committable()).isEqualTo(12);
+		// nothing advanced since
+		assertThat(tracker.committable()).isEqualTo(-1);
+		tracker.acknowledge(12, 0);
+		assertThat(tracker.committable()).isEqualTo(14);
+	}
+
+	@Test
+	public void requeueForgetsMessagesFromItsOffset() {
+		RocketMQOffsetTracker tracker = new RocketMQOffsetTracker();
+		tracker.track(10);
+		tracker.track(11);
+		tracker.track(12);
+		assertThat(tracker.isInFlight(11, 0)).isTrue();
+		tracker.requeue(11);
+
+		// polled before the rewind
+		assertThat(tracker.isInFlight(10, 0)).isTrue();
+		assertThat(tracker.isInFlight(12, 0)).isFalse();
+		// acknowledgments of replayed messages are ignored
+		int replayed = tracker.track(11);
+		assertThat(replayed).isEqualTo(1);
+		tracker.acknowledge(11, 0);
+		assertThat(tracker.isInFlight(11, 1)).isTrue();
+
+		tracker.acknowledge(10, 0);
+		assertThat(tracker.committable()).isEqualTo(11);
+		tracker.acknowledge(11, replayed);
+		assertThat(tracker.committable()).isEqualTo(12);
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.integration.outbound;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.cloud.stream.binder.rocketmq.metrics.RocketMQProducerMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.messaging.MessagingException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RocketMQInFlightWindowTest {
+
+	@Test
+	public void testFullWindowRejects() throws Exception {
+		RocketMQInFlightWindow window = new RocketMQInFlightWindow(2, 10);
+		List<Throwable> failures = new ArrayList<>();
+		SendCallback callback = callback(failures);
+
+		RocketMQInFlightWindow.Permit first = window.acquire(callback);
+		RocketMQInFlightWindow.Permit second = window.acquire(callback);
+
+		assertThat(window.getInFlight()).isEqualTo(2);
+		assertThatThrownBy(() -> window.acquire(callback))
+				.isInstanceOf(MessagingException.class);
+		assertThat(window.getRejectedCount()).isEqualTo(1);
+
+		first.onSuccess(new SendResult());
+		second.onException(new IllegalStateException("broker down"));
+		// a permit is returned only once
+		second.release();
+
+		assertThat(window.getInFlight()).isZero();
+		assertThat(failures).hasSize(1);
+		assertThat(window.awaitCompletion(10)).isTrue();
+	}
+
+	@Test
+	public void testMetrics() throws Exception {
+		RocketMQInFlightWindow window = new RocketMQInFlightWindow(4, 0);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		new RocketMQProducerMetrics(window, "topic").bindTo(registry);
+
+		window.acquire(callback(new ArrayList<>())).onSuccess(new SendResult());
+		window.acquire(callback(new ArrayList<>()));
+
+		assertThat(registry.get("rocketmq.producer.in.flight").gauge().value())
+				.isEqualTo(1D);
+		assertThat(registry.get("rocketmq.producer.send").tag("result", "success")
+				.timer().count()).isEqualTo(1);
+	}
+
+	private static SendCallback callback(List<Throwable> failures) {
+		return new SendCallback() {
+			@Override
+			public void onSuccess(SendResult sendResult) {
+			}
+
+			@Override
+			public void onException(Throwable e) {
+				failures.add(e);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.integration.outbound;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import com.alibaba.cloud.stream.binder.rocketmq.properties.RocketMQProducerProperties;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RocketMQMessageBatcherTest {
+
+	@Test
+	public void testFullBatchIsSentPerQueue() throws Exception {
+		DefaultMQProducer producer = mock(DefaultMQProducer.class);
+		List<Integer> sizes = new ArrayList<>();
+		when(producer.send(anyCollection(), any(MessageQueue.class))).thenAnswer(
+				invocation -> {
+					sizes.add(((Collection<?>) invocation.getArgument(0)).size());
+					return sendResult(SendStatus.SEND_OK);
+				});
+		RocketMQMessageBatcher batcher = batcher(producer, 2, 60_000, (m, e) -> {
+		});
+		MessageQueue queue0 = new MessageQueue("topic", "broker", 0);
+		MessageQueue queue1 = new MessageQueue("topic", "broker", 1);
+
+		batcher.add(queue0, mqMessage("a"), message("a"));
+		batcher.add(queue1, mqMessage("b"), message("b"));
+		verify(producer, never()).send(anyCollection(), any(MessageQueue.class));
+		batcher.add(queue0, mqMessage("c"), message("c"));
+
+		verify(producer).send(anyCollection(), eq(queue0));
+		assertThat(sizes).containsExactly(2);
+		batcher.close();
+		verify(producer).send(anyCollection(), eq(queue1));
+		assertThat(sizes).containsExactly(2, 1);
+	}
+
+	@Test
+	public void testLingeringBatchIsSent() throws Exception {
+		DefaultMQProducer producer = mock(DefaultMQProducer.class);
+		when(producer.send(anyCollection()))
+				.thenReturn(sendResult(SendStatus.SEND_OK));
+		RocketMQMessageBatcher batcher = batcher(producer, 100, 10, (m, e) -> {
+		});
+
+		batcher.add(null, mqMessage("a"), message("a"));
+
+		verify(producer, timeout(5000)).send(anyCollection());
+		batcher.close();
+	}
+
+	@Test
+	public void testFailureReachesEveryMessage() throws Exception {
+		DefaultMQProducer producer = mock(DefaultMQProducer.class);
+		when(producer.send(anyCollection()))
+				.thenThrow(new MQClientException("unavailable", null));
+		List<Object> failed = new ArrayList<>();
+		RocketMQMessageBatcher batcher = batcher(producer, 2, 60_000,
+				(message, e) -> failed.add(message.getPayload()));
+
+		batcher.add(null, mqMessage("a"), message("a"));
+		batcher.add(null, mqMessage("b"), message("b"));
+
+		assertThat(failed).containsExactly("a", "b");
+		batcher.close();
+	}
+
+	@Test
+	public void testPipelinedBatchesHoldAWindowPermit() throws Exception {
+		DefaultMQProducer producer = mock(DefaultMQProducer.class);
+		List<SendCallback> callbacks = new ArrayList<>();
+		doAnswer(invocation -> callbacks.add(invocation.getArgument(1))).when(producer)
+				.send(anyCollection(), any(SendCallback.class));
+		List<Object> failed = new ArrayList<>();
+		RocketMQInFlightWindow window = new RocketMQInFlightWindow(1, 0);
+		RocketMQMessageBatcher batcher = batcher(producer, 2, 60_000, window,
+				(message, e) -> failed.add(message.getPayload()));
+
+		batcher.add(null, mqMessage("a"), message("a"));
+		batcher.add(null, mqMessage("b"), message("b"));
+		assertThat(callbacks).hasSize(1);
+		assertThat(window.getInFlight()).isEqualTo(1);
+
+		// the window is full, the batch is refused
+		batcher.add(null, mqMessage("c"), message("c"));
+		batcher.add(null, mqMessage("d"), message("d"));
+		assertThat(callbacks).hasSize(1);
+		assertThat(failed).containsExactly("c", "d");
+
+		callbacks.get(0).onSuccess(sendResult(SendStatus.SEND_OK));
+		assertThat(window.getInFlight()).isZero();
+		batcher.add(null, mqMessage("e"), message("e"));
+		batcher.add(null, mqMessage("f"), message("f"));
+		assertThat(callbacks).hasSize(2);
+		verify(producer, never()).send(anyCollection());
+		batcher.close();
+	}
+
+	private static RocketMQMessageBatcher batcher(DefaultMQProducer producer,
+			int maxSize, long lingerMillis,
+			BiConsumer<Message<?>, Throwable> failureHandler) {
+		return batcher(producer, maxSize, lingerMillis, null, failureHandler);
+	}
+
+	private static RocketMQMessageBatcher batcher(DefaultMQProducer producer,
+			int maxSize, long lingerMillis, RocketMQInFlightWindow window,
+			BiConsumer<Message<?>, Throwable> failureHandler) {
+		RocketMQProducerProperties properties = new RocketMQProducerProperties();
+		properties.getBatch().setEnabled(true);
+		properties.getBatch().setMaxSize(maxSize);
+		properties.getBatch().setLingerMillis(lingerMillis);
+		if (window != null) {
+			properties.setSendType(RocketMQProducerProperties.SendType.Pipelined.name());
+		}
+		return new RocketMQMessageBatcher(producer, "topic", properties, null, window,
+				failureHandler);
+	}
+
+	private static org.apache.rocketmq.common.message.Message mqMessage(String body) {
+		return new org.apache.rocketmq.common.message.Message("topic", body.getBytes());
+	}
+
+	private static Message<String> message(String body) {
+		return MessageBuilder.withPayload(body).build();
+	}
+
+	private static SendResult sendResult(SendStatus status) {
+		SendResult sendResult = new SendResult();
+		sendResult.setSendStatus(status);
+		return sendResult;
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.stream.binder.rocketmq.integration.outbound;
+
+import com.alibaba.cloud.stream.binder.rocketmq.properties.RocketMQProducerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.stream.binder.ExtendedProducerProperties;
+import org.springframework.cloud.stream.provisioning.ProducerDestination;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RocketMQProducerMessageHandlerTest {
+
+	@Test
+	public void testBatchedSyncBindingRequiresErrorChannel() {
+		RocketMQProducerProperties properties = new RocketMQProducerProperties();
+		properties.setSendType(RocketMQProducerProperties.SendType.Sync.name());
+		properties.getBatch().setEnabled(true);
+
+		assertThatThrownBy(() -> handler(properties).afterPropertiesSet())
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("error channel");
+
+		RocketMQProducerMessageHandler handler = handler(properties);
+		handler.setSendFailureChannel(new QueueChannel());
+		assertThatCode(handler::afterPropertiesSet).doesNotThrowAnyException();
+
+		properties.setSendType(RocketMQProducerProperties.SendType.Async.name());
+		assertThatCode(() -> handler(properties).afterPropertiesSet())
+				.doesNotThrowAnyException();
+	}
+
+	@Test
+	public void testRestartKeepsTheInFlightWindowAndItsMeters() {
+		RocketMQProducerProperties properties = new RocketMQProducerProperties();
+		properties.setSendType(RocketMQProducerProperties.SendType.Pipelined.name());
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean(MeterRegistry.class, () -> registry);
+		context.refresh();
+		RocketMQProducerMessageHandler handler = handler(properties);
+		handler.setApplicationContext(context);
+		ReflectionTestUtils.setField(handler, "defaultMQProducer",
+				mock(DefaultMQProducer.class));
+
+		handler.start();
+		Object window = ReflectionTestUtils.getField(handler, "inFlightWindow");
+		handler.stop();
+		handler.start();
+
+		assertThat(ReflectionTestUtils.getField(handler, "inFlightWindow"))
+				.isNotNull().isSameAs(window);
+		assertThat(registry.find("rocketmq.producer.in.flight").gauges()).hasSize(1);
+		handler.stop();
+		context.close();
+	}
+
+	private static RocketMQProducerMessageHandler handler(
+			RocketMQProducerProperties properties) {
+		ProducerDestination destination = mock(ProducerDestination.class);
+		when(destination.getName()).thenReturn("topic");
+		properties.setNameServer("127.0.0.1:9876");
+		properties.setGroup("group");
+		return new RocketMQProducerMessageHandler(destination,
+				new ExtendedProducerProperties<>(properties), properties);
+	}
+
+}